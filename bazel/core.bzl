@@ -501,6 +501,7 @@ MLN_CORE_SOURCE = [
     "src/mbgl/style/sources/geojson_source.cpp",
     "src/mbgl/style/sources/geojson_source_impl.cpp",
     "src/mbgl/style/sources/geojson_source_impl.hpp",
+    "src/mbgl/style/sources/geojson_updatable_data.cpp",
     "src/mbgl/style/sources/image_source.cpp",
     "src/mbgl/style/sources/image_source_impl.cpp",
     "src/mbgl/style/sources/image_source_impl.hpp",
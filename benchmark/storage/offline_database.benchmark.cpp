@@ -7,7 +7,9 @@
 #include <mbgl/util/string.hpp>
 #include <mbgl/util/logging.hpp>
 
+#include <list>
 #include <random>
+#include <tuple>
 
 class OfflineDatabase : public benchmark::Fixture {
 public:
@@ -62,6 +64,7 @@ public:
     mbgl::OfflineDatabase db{":memory:", mbgl::TileServerOptions::DefaultConfiguration()};
 
     const unsigned tileCount = 100;
+    const unsigned importBatchSize = 1000;
     int64_t regionID = 0;
 };
 
@@ -121,6 +124,57 @@ BENCHMARK_F(OfflineDatabase, InsertBigTileCache)(benchmark::State& state) {
     }
 }
 
+// Importing tiles one by one, as OfflineManager.putResourceWithUrl does
+BENCHMARK_F(OfflineDatabase, ImportTilesOneByOne)(benchmark::State& state) {
+    using namespace mbgl;
+
+    Response tile;
+    tile.data = std::make_shared<std::string>(4 * 1024, 'a');
+
+    while (state.KeepRunning()) {
+        for (unsigned i = 0; i < importBatchSize; ++i) {
+            const Resource ambient = Resource::tile("mapbox://ImportTiles" + util::toString(state.iterations()),
+                                                    1,
+                                                    i,
+                                                    0,
+                                                    10,
+                                                    Tileset::Scheme::XYZ);
+            db.put(ambient, tile);
+        }
+    }
+    state.SetItemsProcessed(state.iterations() * importBatchSize);
+}
+
+static void importTilesBatched(mbgl::OfflineDatabase& db, benchmark::State& state, unsigned count, bool compress) {
+    using namespace mbgl;
+
+    Response tile;
+    tile.data = std::make_shared<std::string>(4 * 1024, 'a');
+
+    while (state.KeepRunning()) {
+        std::list<std::tuple<Resource, Response>> tiles;
+        for (unsigned i = 0; i < count; ++i) {
+            tiles.emplace_back(Resource::tile("mapbox://ImportTiles" + util::toString(state.iterations()),
+                                              1,
+                                              i,
+                                              0,
+                                              10,
+                                              Tileset::Scheme::XYZ),
+                               tile);
+        }
+        db.putResources(tiles, compress);
+    }
+    state.SetItemsProcessed(state.iterations() * count);
+}
+
+BENCHMARK_F(OfflineDatabase, ImportTilesBatched)(benchmark::State& state) {
+    importTilesBatched(db, state, importBatchSize, true);
+}
+
+BENCHMARK_F(OfflineDatabase, ImportTilesBatchedUncompressed)(benchmark::State& state) {
+    importTilesBatched(db, state, importBatchSize, false);
+}
+
 BENCHMARK_F(OfflineDatabase, GetTile)(benchmark::State& state) {
     using namespace mbgl;
 
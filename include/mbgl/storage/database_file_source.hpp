@@ -4,6 +4,9 @@
 #include <mbgl/storage/offline.hpp>
 #include <mbgl/util/expected.hpp>
 
+#include <list>
+#include <tuple>
+
 namespace mbgl {
 
 class ClientOptions;
@@ -75,6 +78,38 @@ public:
      */
     virtual void put(const Resource&, const Response&);
 
+    /**
+     * Insert the provided resources into the ambient cache in a single
+     * transaction.
+     *
+     * Unlike put(), the space for the resources is made once for all of them,
+     * and their data can be stored as is, without compressing it. The callback
+     * is executed on the database thread with the number of resources that
+     * weren't cached yet, the others are updated.
+     */
+    virtual void putResources(std::list<std::tuple<Resource, Response>>,
+                              bool compress,
+                              std::function<void(expected<uint64_t, std::exception_ptr>)>);
+
+    /**
+     * Insert the tiles of an MBTiles file into the ambient cache, as the tiles
+     * of the given URL template and pixel ratio.
+     *
+     * The tiles are read and inserted in chunks, a transaction each, and the
+     * requests made meanwhile are served between the chunks. The progress
+     * callback is executed on the database thread after each chunk with the
+     * number of tiles read and the number of tiles of the file, the callback
+     * once all were read, with the number of tiles that weren't cached yet, or
+     * on an error.
+     * The chunks inserted before an error are kept.
+     */
+    virtual void importMBTiles(const std::string& path,
+                               const std::string& urlTemplate,
+                               float pixelRatio,
+                               bool compress,
+                               std::function<void(uint64_t, uint64_t)> progress,
+                               std::function<void(expected<uint64_t, std::exception_ptr>)> callback);
+
     /**
      * Forces revalidation of the ambient cache.
      *
@@ -179,6 +214,13 @@ public:
      */
     virtual void setOfflineRegionDownloadState(const OfflineRegion&, OfflineRegionDownloadState);
 
+    /**
+     * Set how the regional resources are downloaded: the concurrency per host,
+     * the order of the tiles and checkpoints to resume from. The options apply
+     * when the download of the region is next activated.
+     */
+    virtual void setOfflineRegionDownloadOptions(const OfflineRegion&, const OfflineRegionDownloadOptions&);
+
     /**
      * Retrieve the current status of the region. The query will be executed
      * asynchronously and the results passed to the given callback, which will
@@ -211,6 +253,32 @@ public:
     virtual void mergeOfflineRegions(const std::string& sideDatabasePath,
                                      std::function<void(expected<OfflineRegions, std::exception_ptr>)>);
 
+    /**
+     * Merge offline regions from a secondary database into the main offline database
+     * incrementally, in transactions of a limited number of tiles or resources.
+     *
+     * The secondary database is attached read-only and is never copied nor upgraded,
+     * it must have the schema of the main database. Tiles and resources the main
+     * database has in the same version or a newer one are skipped.
+     *
+     * The progress is invoked on the database thread after each transaction, and the
+     * other requests to the database are served in between. Each transaction is a
+     * checkpoint: a merge that was cancelled, failed, or was interrupted by the process
+     * ending resumes from its last checkpoint when it is started again with the same path.
+     *
+     * When the merge is completed, the callback is executed on the database thread
+     * with the merged regions.
+     */
+    virtual void mergeOfflineRegions(const std::string& sideDatabasePath,
+                                     std::function<void(OfflineMergeProgress)> progress,
+                                     std::function<void(expected<OfflineRegions, std::exception_ptr>)> callback);
+
+    /**
+     * Cancel the incremental merge of a secondary database before its next transaction.
+     * The callback of the merge is executed with an error.
+     */
+    virtual void cancelMergeOfflineRegions(const std::string& sideDatabasePath);
+
     /**
      * Remove an offline region from the database and perform any resources
      * evictions necessary as a result.
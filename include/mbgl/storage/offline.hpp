@@ -5,10 +5,12 @@
 #include <mbgl/util/range.hpp>
 #include <mbgl/style/types.hpp>
 #include <mbgl/storage/response.hpp>
+#include <mbgl/util/chrono.hpp>
 
 #include <string>
 #include <vector>
 #include <functional>
+#include <optional>
 #include <variant>
 
 namespace mbgl {
@@ -103,6 +105,34 @@ enum class OfflineRegionDownloadState {
     Active
 };
 
+/*
+ * How the resources of a region are downloaded. The options apply when the
+ * download is activated.
+ */
+class OfflineRegionDownloadOptions {
+public:
+    /*
+     * The maximum number of requests to a single host at once, on top of the
+     * limit of the file source on all requests. 0 sets no limit per host.
+     */
+    uint32_t maximumConcurrentRequestsPerHost = 0;
+
+    /*
+     * Download the tiles of all sources zoom level by zoom level, so that the
+     * lower zoom levels of the whole region are usable first. Otherwise the
+     * sources are downloaded one after the other.
+     */
+    bool zoomOrdered = false;
+
+    /*
+     * Store checkpoints of the downloaded tiles in the database while the
+     * region downloads, so that a download resumed after it was interrupted,
+     * even by the end of the process, doesn't check the tiles it finished
+     * again. The checkpoints are removed once the download is complete.
+     */
+    bool checkpoints = false;
+};
+
 /*
  * A region's status includes its active/inactive state as well as counts
  * of the number of resources that have completed downloading, their total
@@ -162,9 +192,43 @@ public:
      */
     bool requiredResourceCountIsPrecise = false;
 
+    /*
+     * The bytes downloaded per second over the last seconds of an active
+     * download. Resources that were in the database already don't count.
+     */
+    double bytesPerSecond = 0;
+
+    /*
+     * The tiles downloaded per second over the last seconds of an active
+     * download.
+     */
+    double tilesPerSecond = 0;
+
+    /*
+     * The estimated time until the download is complete at the current rate.
+     * Unknown until the download ran for a few seconds and the required
+     * resource count is precise.
+     */
+    std::optional<Seconds> estimatedTimeRemaining;
+
     bool complete() const { return completedResourceCount >= requiredResourceCount; }
 };
 
+/*
+ * The progress of an incremental merge of a secondary database, counting the
+ * tiles and resources of its regions. Those the main database already had in
+ * the same version or a newer one count as merged.
+ */
+class OfflineMergeProgress {
+public:
+    uint64_t mergedTileCount = 0;
+    uint64_t tileCount = 0;
+    uint64_t mergedResourceCount = 0;
+    uint64_t resourceCount = 0;
+
+    bool complete() const { return mergedTileCount >= tileCount && mergedResourceCount >= resourceCount; }
+};
+
 /*
  * A region can have a single observer, which gets notified whenever a change
  * to the region's status occurs.
@@ -3,7 +3,9 @@
 #include <mbgl/util/geojson.hpp>
 #include <mbgl/style/conversion.hpp>
 
+#include <functional>
 #include <optional>
+#include <string_view>
 
 namespace mbgl {
 namespace style {
@@ -12,6 +14,13 @@ namespace conversion {
 // Workaround until https://github.com/mapbox/mapbox-gl-native/issues/5623 is done.
 std::optional<GeoJSON> parseGeoJSON(const std::string&, Error&);
 
+// Reads the next chunk of a GeoJSON input, an empty chunk ends the input. A chunk
+// stays valid until the next one is read.
+using GeoJSONChunkReader = std::function<std::string_view()>;
+
+// Parses GeoJSON read chunk by chunk, the input text is never held as a whole.
+std::optional<GeoJSON> parseGeoJSON(const GeoJSONChunkReader&, Error&);
+
 template <>
 struct Converter<GeoJSON> {
 public:
@@ -6,6 +6,9 @@
 #include <mbgl/util/range.hpp>
 #include <mbgl/util/constants.hpp>
 
+#include <memory>
+#include <string>
+
 namespace mbgl {
 
 class OverscaledTileID;
@@ -42,6 +45,9 @@ public:
     ~CustomGeometrySource() final;
     void loadDescription(FileSource&) final;
     void setTileData(const CanonicalTileID&, const GeoJSON&);
+    // Sets the data of a tile from an encoded vector tile, without GeoJSON conversion. The tile options don't apply
+    // and style layers without a source layer use the first layer of the tile.
+    void setTileData(const CanonicalTileID&, std::shared_ptr<const std::string> vectorTile);
     void invalidateTile(const CanonicalTileID&);
     void invalidateRegion(const LatLngBounds&);
     // Private implementation
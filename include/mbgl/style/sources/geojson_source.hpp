@@ -9,6 +9,7 @@
 #include <map>
 #include <memory>
 #include <utility>
+#include <vector>
 
 namespace mbgl {
 
@@ -36,6 +37,17 @@ struct GeoJSONOptions {
 
     static Immutable<GeoJSONOptions> defaultOptions();
 };
+
+// Changes to the features of a GeoJSON source, matched by feature id. Features are removed first, then added, then
+// updated.
+struct GeoJSONDiff {
+    std::vector<FeatureIdentifier> remove;
+    // Replaces the feature with the same id, if any
+    std::vector<GeoJSONFeature> add;
+    // Replaces the feature with the same id, features without a match are ignored
+    std::vector<GeoJSONFeature> update;
+};
+
 class GeoJSONData {
 public:
     using TileFeatures = mapbox::feature::feature_collection<int16_t>;
@@ -44,9 +56,23 @@ public:
                                                std::shared_ptr<Scheduler> sequencedScheduler,
                                                const Immutable<GeoJSONOptions>& = GeoJSONOptions::defaultOptions());
 
+    // Creates data whose features can be changed by id with update(). Features are kept in a spatial index and every
+    // tile is cut from the features around it, the data isn't indexed again as a whole when a few features change.
+    static std::shared_ptr<GeoJSONData> createUpdatable(
+        const GeoJSON&,
+        std::shared_ptr<Scheduler> sequencedScheduler,
+        const Immutable<GeoJSONOptions>& = GeoJSONOptions::defaultOptions());
+
     virtual ~GeoJSONData() = default;
     virtual void getTile(const CanonicalTileID&, const std::function<void(TileFeatures)>&) = 0;
 
+    // Returns the data with the changes of the diff applied, or null when the data can't be updated. The data returned
+    // shares its features with this one, only the latest data of updatable data can be updated.
+    virtual std::shared_ptr<GeoJSONData> update(const GeoJSONDiff&) { return nullptr; }
+
+    // Whether the tile has the same features as with the given data, which this data was updated from.
+    virtual bool isTileUnchanged(const CanonicalTileID&, const GeoJSONData& /* previous */) const { return false; }
+
     // SuperclusterData
     virtual Features getChildren(std::uint32_t) = 0;
     virtual Features getLeaves(std::uint32_t, std::uint32_t limit, std::uint32_t offset) = 0;
@@ -2,6 +2,8 @@
 
 #include <mbgl/tile/tile_operation.hpp>
 #include <mbgl/actor/scheduler.hpp>
+#include <mbgl/annotation/annotation_manager.hpp>
+#include <mbgl/layermanager/layer_manager.hpp>
 #include <mbgl/renderer/renderer.hpp>
 #include <mbgl/renderer/renderer_observer.hpp>
 #include <mbgl/util/async_task.hpp>
@@ -12,6 +14,8 @@
 
 #include "android_renderer_backend.hpp"
 
+#include <unordered_set>
+
 namespace mbgl {
 namespace android {
 
@@ -162,8 +166,29 @@ std::vector<Feature> AndroidRendererFrontend::queryRenderedFeatures(const Screen
 }
 
 AnnotationIDs AndroidRendererFrontend::queryPointAnnotations(const ScreenBox& box) const {
-    // Waits for the result from the orchestration thread and returns
-    return mapRenderer.actor().ask(&Renderer::queryPointAnnotations, box).get();
+    if (!LayerManager::annotationsEnabled) {
+        return {};
+    }
+
+    // Unlike Renderer::queryPointAnnotations, which sorts ids numerically, keep the order of the
+    // feature and collision index query: topmost point annotation first
+    RenderedQueryOptions options;
+    options.layerIDs = {{AnnotationManager::PointLayerID}};
+    std::vector<Feature> features = queryRenderedFeatures(box, options);
+
+    AnnotationIDs ids;
+    ids.reserve(features.size());
+    std::unordered_set<AnnotationID> seen;
+    for (const auto& feature : features) {
+        if (!feature.id.is<uint64_t>()) {
+            continue;
+        }
+        auto id = static_cast<AnnotationID>(feature.id.get<uint64_t>());
+        if (seen.insert(id).second) {
+            ids.push_back(id);
+        }
+    }
+    return ids;
 }
 
 AnnotationIDs AndroidRendererFrontend::queryShapeAnnotations(const ScreenBox& box) const {
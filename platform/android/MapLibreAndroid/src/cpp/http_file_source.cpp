@@ -1,3 +1,5 @@
+#include <mbgl/actor/actor_ref.hpp>
+#include <mbgl/actor/mailbox.hpp>
 #include <mbgl/storage/http_file_source.hpp>
 #include <mbgl/storage/resource.hpp>
 #include <mbgl/storage/resource_options.hpp>
@@ -6,13 +8,14 @@
 #include <mbgl/util/logging.hpp>
 
 #include <mbgl/util/async_request.hpp>
-#include <mbgl/util/async_task.hpp>
 #include <mbgl/util/http_header.hpp>
+#include <mbgl/util/run_loop.hpp>
 #include <mbgl/util/string.hpp>
 #include <mbgl/util/util.hpp>
 
 #include <jni/jni.hpp>
 #include "attach_env.hpp"
+#include "java/nio.hpp"
 
 namespace mbgl {
 
@@ -39,33 +42,66 @@ class HTTPRequest : public AsyncRequest {
 public:
     static constexpr auto Name() { return "org/maplibre/android/http/NativeHttpRequest"; };
 
+    // Native peer of the Java request, the target of its JNI callbacks. Responses are parsed on the
+    // calling thread and forwarded to the request through its mailbox, so the request can be destroyed
+    // at any time without waiting for a delivery in progress. The peer is released either by the request
+    // or by the delivering thread, whichever finishes last, as decided by the Java side state machine.
+    class Peer {
+    public:
+        Peer(ActorRef<HTTPRequest> request_, Resource::Kind kind_)
+            : request(std::move(request_)),
+              kind(kind_) {}
+
+        void onFailure(jni::JNIEnv&, int type, const jni::String& message);
+        void onResponse(jni::JNIEnv&,
+                        int code,
+                        const jni::String& etag,
+                        const jni::String& modified,
+                        const jni::String& cacheControl,
+                        const jni::String& expires,
+                        const jni::String& retryAfter,
+                        const jni::String& xRateLimitReset,
+                        const jni::Array<jni::jbyte>& body);
+        void onResponseDirect(jni::JNIEnv&,
+                              int code,
+                              const jni::String& etag,
+                              const jni::String& modified,
+                              const jni::String& cacheControl,
+                              const jni::String& expires,
+                              const jni::String& retryAfter,
+                              const jni::String& xRateLimitReset,
+                              const jni::Object<android::java::nio::ByteBuffer>& body,
+                              jni::jint length);
+        void release(jni::JNIEnv&) { delete this; }
+
+    private:
+        template <typename ReadBody>
+        void handleResponse(jni::JNIEnv&,
+                            int code,
+                            const jni::String& etag,
+                            const jni::String& modified,
+                            const jni::String& cacheControl,
+                            const jni::String& expires,
+                            const jni::String& retryAfter,
+                            const jni::String& xRateLimitReset,
+                            ReadBody readBody);
+
+        ActorRef<HTTPRequest> request;
+        const Resource::Kind kind;
+    };
+
     HTTPRequest(jni::JNIEnv&, const Resource&, FileSource::Callback);
-    ~HTTPRequest();
-
-    void onFailure(jni::JNIEnv&, int type, const jni::String& message);
-    void onResponse(jni::JNIEnv&,
-                    int code,
-                    const jni::String& etag,
-                    const jni::String& modified,
-                    const jni::String& cacheControl,
-                    const jni::String& expires,
-                    const jni::String& retryAfter,
-                    const jni::String& xRateLimitReset,
-                    const jni::Array<jni::jbyte>& body);
+    ~HTTPRequest() override;
+
+    void deliver(Response);
 
     jni::Global<jni::Object<HTTPRequest>> javaRequest;
 
 private:
     Resource resource;
     FileSource::Callback callback;
-    Response response;
-
-    util::AsyncTask async{[this] {
-        // Calling `callback` may result in deleting `this`. Copy data to temporaries first.
-        auto callback_ = callback;
-        auto response_ = response;
-        callback_(response_);
-    }};
+    std::shared_ptr<Mailbox> mailbox;
+    Peer* peer;
 
     static const int connectionError = 0;
     static const int temporaryError = 1;
@@ -79,18 +115,23 @@ void RegisterNativeHTTPRequest(jni::JNIEnv& env) {
 
 #define METHOD(MethodPtr, name) jni::MakeNativePeerMethod<decltype(MethodPtr), (MethodPtr)>(name)
 
-    jni::RegisterNativePeer<HTTPRequest>(env,
-                                         javaClass,
-                                         "nativePtr",
-                                         METHOD(&HTTPRequest::onFailure, "nativeOnFailure"),
-                                         METHOD(&HTTPRequest::onResponse, "nativeOnResponse"));
+    jni::RegisterNativePeer<HTTPRequest::Peer>(
+        env,
+        javaClass,
+        "nativePtr",
+        METHOD(&HTTPRequest::Peer::onFailure, "nativeOnFailure"),
+        METHOD(&HTTPRequest::Peer::onResponse, "nativeOnResponse"),
+        METHOD(&HTTPRequest::Peer::onResponseDirect, "nativeOnResponseDirect"),
+        METHOD(&HTTPRequest::Peer::release, "nativeRelease"));
 }
 
 } // namespace android
 
 HTTPRequest::HTTPRequest(jni::JNIEnv& env, const Resource& resource_, FileSource::Callback callback_)
     : resource(resource_),
-      callback(callback_) {
+      callback(callback_),
+      mailbox(std::make_shared<Mailbox>(*util::RunLoop::Get())),
+      peer(new Peer(ActorRef<HTTPRequest>(*this, mailbox), resource_.kind)) {
     std::string dataRangeStr;
     std::string etagStr;
     std::string modifiedStr;
@@ -115,7 +156,7 @@ HTTPRequest::HTTPRequest(jni::JNIEnv& env, const Resource& resource_, FileSource
     javaRequest = jni::NewGlobal(env,
                                  javaClass.New(env,
                                                constructor,
-                                               reinterpret_cast<jlong>(this),
+                                               reinterpret_cast<jlong>(peer),
                                                jni::Make<jni::String>(env, resource.url),
                                                jni::Make<jni::String>(env, dataRangeStr),
                                                jni::Make<jni::String>(env, etagStr),
@@ -124,25 +165,41 @@ HTTPRequest::HTTPRequest(jni::JNIEnv& env, const Resource& resource_, FileSource
 }
 
 HTTPRequest::~HTTPRequest() {
+    // Responses that are parsed from now on are dropped by the mailbox.
+    mailbox->close();
+
     android::UniqueEnv env = android::AttachEnv();
 
     static auto& javaClass = jni::Class<HTTPRequest>::Singleton(*env);
-    static auto cancel = javaClass.GetMethod<void()>(*env, "cancel");
+    static auto cancel = javaClass.GetMethod<jni::jboolean()>(*env, "cancel");
 
-    javaRequest.Call(*env, cancel);
+    // Java hands the peer back unless a delivery is in progress, in which case
+    // the delivering thread releases it once it returns from native.
+    if (javaRequest.Call(*env, cancel)) {
+        delete peer;
+    }
+}
+
+void HTTPRequest::deliver(Response response) {
+    // Calling `callback` may result in deleting `this`. Copy data to temporaries first.
+    auto callback_ = callback;
+    callback_(response);
 }
 
-void HTTPRequest::onResponse(jni::JNIEnv& env,
-                             int code,
-                             const jni::String& etag,
-                             const jni::String& modified,
-                             const jni::String& cacheControl,
-                             const jni::String& expires,
-                             const jni::String& jRetryAfter,
-                             const jni::String& jXRateLimitReset,
-                             const jni::Array<jni::jbyte>& body) {
+template <typename ReadBody>
+void HTTPRequest::Peer::handleResponse(jni::JNIEnv& env,
+                                       int code,
+                                       const jni::String& etag,
+                                       const jni::String& modified,
+                                       const jni::String& cacheControl,
+                                       const jni::String& expires,
+                                       const jni::String& jRetryAfter,
+                                       const jni::String& jXRateLimitReset,
+                                       ReadBody readBody) {
     using Error = Response::Error;
 
+    Response response;
+
     if (etag) {
         response.etag = jni::Make<std::string>(env, etag);
     }
@@ -162,14 +219,8 @@ void HTTPRequest::onResponse(jni::JNIEnv& env,
     }
 
     if (code == 200 || code == 206) {
-        if (body) {
-            auto data = std::make_shared<std::string>(body.Length(env), char());
-            jni::GetArrayRegion(env, *body, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
-            response.data = data;
-        } else {
-            response.data = std::make_shared<std::string>();
-        }
-    } else if (code == 204 || (code == 404 && resource.kind == Resource::Kind::Tile)) {
+        response.data = readBody();
+    } else if (code == 204 || (code == 404 && kind == Resource::Kind::Tile)) {
         response.noContent = true;
     } else if (code == 304) {
         response.notModified = true;
@@ -194,14 +245,56 @@ void HTTPRequest::onResponse(jni::JNIEnv& env,
                                                  std::string{"HTTP status code "} + util::toString(code));
     }
 
-    async.send();
+    request.invoke(&HTTPRequest::deliver, std::move(response));
 }
 
-void HTTPRequest::onFailure(jni::JNIEnv& env, int type, const jni::String& message) {
+void HTTPRequest::Peer::onResponse(jni::JNIEnv& env,
+                                   int code,
+                                   const jni::String& etag,
+                                   const jni::String& modified,
+                                   const jni::String& cacheControl,
+                                   const jni::String& expires,
+                                   const jni::String& retryAfter,
+                                   const jni::String& xRateLimitReset,
+                                   const jni::Array<jni::jbyte>& body) {
+    handleResponse(env, code, etag, modified, cacheControl, expires, retryAfter, xRateLimitReset, [&] {
+        if (!body) {
+            return std::make_shared<std::string>();
+        }
+        auto data = std::make_shared<std::string>(body.Length(env), char());
+        jni::GetArrayRegion(env, *body, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
+        return data;
+    });
+}
+
+void HTTPRequest::Peer::onResponseDirect(jni::JNIEnv& env,
+                                         int code,
+                                         const jni::String& etag,
+                                         const jni::String& modified,
+                                         const jni::String& cacheControl,
+                                         const jni::String& expires,
+                                         const jni::String& retryAfter,
+                                         const jni::String& xRateLimitReset,
+                                         const jni::Object<android::java::nio::ByteBuffer>& body,
+                                         jni::jint length) {
+    handleResponse(env, code, etag, modified, cacheControl, expires, retryAfter, xRateLimitReset, [&] {
+        // The buffer is owned by a Java pool and recycled as soon as this call returns,
+        // so this is the one and only copy of the payload.
+        const char* address = body ? android::java::nio::ByteBuffer::address(env, body) : nullptr;
+        if (!address || length <= 0) {
+            return std::make_shared<std::string>();
+        }
+        return std::make_shared<std::string>(address, static_cast<std::size_t>(length));
+    });
+}
+
+void HTTPRequest::Peer::onFailure(jni::JNIEnv& env, int type, const jni::String& message) {
     std::string messageStr = jni::Make<std::string>(env, message);
 
     using Error = Response::Error;
 
+    Response response;
+
     switch (type) {
         case connectionError:
             response.error = std::make_unique<Error>(Error::Reason::Connection, messageStr);
@@ -213,7 +306,7 @@ void HTTPRequest::onFailure(jni::JNIEnv& env, int type, const jni::String& messa
             response.error = std::make_unique<Error>(Error::Reason::Other, messageStr);
     }
 
-    async.send();
+    request.invoke(&HTTPRequest::deliver, std::move(response));
 }
 
 HTTPFileSource::HTTPFileSource(const ResourceOptions& resourceOptions, const ClientOptions& clientOptions)
@@ -0,0 +1,25 @@
+#pragma once
+
+#include <mbgl/util/noncopyable.hpp>
+
+#include <jni/jni.hpp>
+
+namespace mbgl {
+namespace android {
+namespace java {
+namespace nio {
+
+class ByteBuffer : private mbgl::util::noncopyable {
+public:
+    static constexpr auto Name() { return "java/nio/ByteBuffer"; };
+
+    // Returns the backing memory of a direct buffer, or nullptr for heap buffers.
+    static const char* address(jni::JNIEnv& env, const jni::Object<ByteBuffer>& buffer) {
+        return static_cast<const char*>(jni::GetDirectBufferAddress(env, *buffer));
+    }
+};
+
+} // namespace nio
+} // namespace java
+} // namespace android
+} // namespace mbgl
@@ -1,6 +1,7 @@
 #include <mbgl/style/image.hpp>
 #include <mbgl/util/exception.hpp>
 #include "image.hpp"
+#include "../java/nio.hpp"
 
 namespace mbgl {
 namespace android {
@@ -11,6 +12,7 @@ mbgl::style::Image Image::getImage(jni::JNIEnv& env, const jni::Object<Image>& i
     static auto heightField = javaClass.GetField<jni::jint>(env, "height");
     static auto pixelRatioField = javaClass.GetField<jni::jfloat>(env, "pixelRatio");
     static auto bufferField = javaClass.GetField<jni::Array<jbyte>>(env, "buffer");
+    static auto directBufferField = javaClass.GetField<jni::Object<java::nio::ByteBuffer>>(env, "directBuffer");
     static auto nameField = javaClass.GetField<jni::String>(env, "name");
     static auto sdfField = javaClass.GetField<jni::jboolean>(env, "sdf");
     static auto contentField = javaClass.GetField<jni::Array<jfloat>>(env, "content");
@@ -26,16 +28,25 @@ mbgl::style::Image Image::getImage(jni::JNIEnv& env, const jni::Object<Image>& i
     auto content = image.Get(env, contentField);
     auto stretchX = image.Get(env, stretchXField);
     auto stretchY = image.Get(env, stretchYField);
-    jni::NullCheck(env, pixels.get());
-    std::size_t size = pixels.Length(env);
-
     mbgl::PremultipliedImage premultipliedImage({static_cast<uint32_t>(width), static_cast<uint32_t>(height)});
-    if (premultipliedImage.bytes() != uint32_t(size)) {
-        throw mbgl::util::StyleImageException("Image pixel count mismatch");
+    if (pixels) {
+        std::size_t size = pixels.Length(env);
+        if (premultipliedImage.bytes() != uint32_t(size)) {
+            throw mbgl::util::StyleImageException("Image pixel count mismatch");
+        }
+        jni::GetArrayRegion(env, *pixels, 0, size, reinterpret_cast<jbyte*>(premultipliedImage.data.get()));
+    } else {
+        // pixels converted off the main thread into a direct buffer, copied once into the image
+        auto directBuffer = image.Get(env, directBufferField);
+        jni::NullCheck(env, directBuffer.get());
+        const char* address = java::nio::ByteBuffer::address(env, directBuffer);
+        if (address == nullptr ||
+            static_cast<std::size_t>(jni::GetDirectBufferCapacity(env, *directBuffer)) < premultipliedImage.bytes()) {
+            throw mbgl::util::StyleImageException("Image pixel count mismatch");
+        }
+        std::copy(address, address + premultipliedImage.bytes(), reinterpret_cast<char*>(premultipliedImage.data.get()));
     }
 
-    jni::GetArrayRegion(env, *pixels, 0, size, reinterpret_cast<jbyte*>(premultipliedImage.data.get()));
-
     style::ImageStretches imageStretchesX = {};
     style::ImageStretches imageStretchesY = {};
     if (stretchX.get()) {
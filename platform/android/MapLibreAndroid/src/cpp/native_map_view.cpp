@@ -15,6 +15,7 @@
 
 #include <mbgl/map/map.hpp>
 #include <mbgl/map/map_options.hpp>
+#include <mbgl/map/transform_state.hpp>
 #include <mbgl/math/minmax.hpp>
 #include <mbgl/util/constants.hpp>
 #include <mbgl/util/event.hpp>
@@ -776,6 +777,24 @@ void NativeMapView::latLngsForPixels(JNIEnv& env,
     output.SetRegion<std::vector<jdouble>>(env, 0, buffer);
 }
 
+void NativeMapView::getProjectionState(JNIEnv& env, jni::Array<jdouble>& output) {
+    jni::NullCheck(env, &output);
+    const mbgl::TransformState state = map->getTransfromState();
+    const mbgl::Size size = state.getSize();
+
+    // Order: coordinate matrix, inverted matrix, scale, width, height, center longitude
+    std::vector<jdouble> buffer;
+    buffer.reserve(36);
+    buffer.insert(buffer.end(), state.getCoordMatrix().begin(), state.getCoordMatrix().end());
+    buffer.insert(buffer.end(), state.getInvertedMatrix().begin(), state.getInvertedMatrix().end());
+    buffer.push_back(state.getScale());
+    buffer.push_back(size.width);
+    buffer.push_back(size.height);
+    buffer.push_back(state.getLatLng(mbgl::LatLng::Wrapped).longitude());
+
+    output.SetRegion<std::vector<jdouble>>(env, 0, buffer);
+}
+
 jni::Local<jni::Array<jlong>> NativeMapView::addPolylines(JNIEnv& env,
                                                           const jni::Array<jni::Object<Polyline>>& polylines) {
     NullCheck(env, &polylines);
@@ -855,6 +874,71 @@ void NativeMapView::addAnnotationIcon(
         std::make_unique<mbgl::style::Image>(symbolName, std::move(premultipliedImage), static_cast<float>(scale)));
 }
 
+jni::Local<jni::Array<jni::jdouble>> NativeMapView::addAnnotationIcons(
+    JNIEnv& env,
+    const jni::Array<jni::String>& jsymbols,
+    const jni::Array<jni::jint>& jwidths,
+    const jni::Array<jni::jint>& jheights,
+    const jni::Array<jni::jfloat>& jscales,
+    const jni::Array<jni::jint>& jbyteCounts,
+    const jni::Object<java::nio::ByteBuffer>& jpixels) {
+    jni::NullCheck(env, &jsymbols);
+    jni::NullCheck(env, &jbyteCounts);
+    jni::NullCheck(env, &jpixels);
+    std::size_t len = jsymbols.Length(env);
+
+    // the pixels of all icons are packed one after another in a single direct buffer
+    const char* pixels = java::nio::ByteBuffer::address(env, jpixels);
+    if (pixels == nullptr) {
+        throw mbgl::util::StyleImageException("Annotation icon pixels must be a direct buffer");
+    }
+    const std::size_t capacity = static_cast<std::size_t>(jni::GetDirectBufferCapacity(env, *jpixels));
+
+    auto widthElements = jni::GetArrayElements(env, *jwidths);
+    auto heightElements = jni::GetArrayElements(env, *jheights);
+    auto scaleElements = jni::GetArrayElements(env, *jscales);
+    auto byteCountElements = jni::GetArrayElements(env, *jbyteCounts);
+    jint* widths = std::get<0>(widthElements).get();
+    jint* heights = std::get<0>(heightElements).get();
+    jfloat* scales = std::get<0>(scaleElements).get();
+    jint* byteCounts = std::get<0>(byteCountElements).get();
+
+    // reject the whole batch before adding any icon, each icon must be 4 bytes per pixel
+    std::size_t total = 0;
+    for (std::size_t i = 0; i < len; i++) {
+        const std::size_t bytes = static_cast<std::size_t>(widths[i]) * static_cast<std::size_t>(heights[i]) * 4;
+        if (byteCounts[i] < 0 || static_cast<std::size_t>(byteCounts[i]) != bytes) {
+            throw mbgl::util::StyleImageException("Annotation icon image pixel count mismatch");
+        }
+        total += bytes;
+    }
+    if (total > capacity) {
+        throw mbgl::util::StyleImageException("Annotation icon image pixel count mismatch");
+    }
+
+    std::vector<jni::jdouble> offsets;
+    offsets.reserve(len);
+
+    std::size_t position = 0;
+    for (std::size_t i = 0; i < len; i++) {
+        mbgl::PremultipliedImage premultipliedImage(
+            {static_cast<uint32_t>(widths[i]), static_cast<uint32_t>(heights[i])});
+        std::copy(pixels + position,
+                  pixels + position + premultipliedImage.bytes(),
+                  reinterpret_cast<char*>(premultipliedImage.data.get()));
+        position += premultipliedImage.bytes();
+
+        const std::string symbolName = jni::Make<std::string>(env, jsymbols.Get(env, i));
+        map->addAnnotationImage(
+            std::make_unique<mbgl::style::Image>(symbolName, std::move(premultipliedImage), scales[i]));
+        offsets.push_back(map->getTopOffsetPixelsForAnnotationImage(symbolName));
+    }
+
+    auto result = jni::Array<jni::jdouble>::New(env, len);
+    result.SetRegion<std::vector<jni::jdouble>>(env, 0, offsets);
+    return result;
+}
+
 void NativeMapView::removeAnnotationIcon(JNIEnv& env, const jni::String& symbol) {
     const std::string symbolName = jni::Make<std::string>(env, symbol);
     map->removeAnnotationImage(symbolName);
@@ -1301,6 +1385,7 @@ void NativeMapView::registerNative(jni::JNIEnv& env) {
         METHOD(&NativeMapView::getVisibleCoordinateBounds, "nativeGetVisibleCoordinateBounds"),
         METHOD(&NativeMapView::latLngForProjectedMeters, "nativeLatLngForProjectedMeters"),
         METHOD(&NativeMapView::latLngForPixel, "nativeLatLngForPixel"),
+        METHOD(&NativeMapView::getProjectionState, "nativeGetProjectionState"),
         METHOD(&NativeMapView::latLngsForPixels, "nativeLatLngsForPixels"),
         METHOD(&NativeMapView::addPolylines, "nativeAddPolylines"),
         METHOD(&NativeMapView::addPolygons, "nativeAddPolygons"),
@@ -1308,6 +1393,7 @@ void NativeMapView::registerNative(jni::JNIEnv& env) {
         METHOD(&NativeMapView::updatePolygon, "nativeUpdatePolygon"),
         METHOD(&NativeMapView::removeAnnotations, "nativeRemoveAnnotations"),
         METHOD(&NativeMapView::addAnnotationIcon, "nativeAddAnnotationIcon"),
+        METHOD(&NativeMapView::addAnnotationIcons, "nativeAddAnnotationIcons"),
         METHOD(&NativeMapView::removeAnnotationIcon, "nativeRemoveAnnotationIcon"),
         METHOD(&NativeMapView::getTopOffsetPixelsForAnnotationSymbol, "nativeGetTopOffsetPixelsForAnnotationSymbol"),
         METHOD(&NativeMapView::getTransitionOptions, "nativeGetTransitionOptions"),
@@ -24,6 +24,7 @@
 #include "map/image.hpp"
 #include "style/light.hpp"
 #include "bitmap.hpp"
+#include "java/nio.hpp"
 
 #include <exception>
 #include <string>
@@ -215,6 +216,8 @@ public:
 
     void latLngsForPixels(JNIEnv&, const jni::Array<jdouble>&, jni::Array<jdouble>&, jfloat);
 
+    void getProjectionState(JNIEnv&, jni::Array<jdouble>&);
+
     jni::Local<jni::Array<jlong>> addPolylines(JNIEnv&, const jni::Array<jni::Object<Polyline>>&);
 
     jni::Local<jni::Array<jlong>> addPolygons(JNIEnv&, const jni::Array<jni::Object<Polygon>>&);
@@ -227,6 +230,14 @@ public:
 
     void addAnnotationIcon(JNIEnv&, const jni::String&, jint, jint, jfloat, const jni::Array<jbyte>&);
 
+    jni::Local<jni::Array<jni::jdouble>> addAnnotationIcons(JNIEnv&,
+                                                            const jni::Array<jni::String>&,
+                                                            const jni::Array<jni::jint>&,
+                                                            const jni::Array<jni::jint>&,
+                                                            const jni::Array<jni::jfloat>&,
+                                                            const jni::Array<jni::jint>&,
+                                                            const jni::Object<java::nio::ByteBuffer>&);
+
     void removeAnnotationIcon(JNIEnv&, const jni::String&);
 
     jni::jdouble getTopOffsetPixelsForAnnotationSymbol(JNIEnv&, const jni::String&);
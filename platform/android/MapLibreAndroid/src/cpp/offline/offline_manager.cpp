@@ -6,6 +6,10 @@
 
 #include "attach_env.hpp"
 
+#include <future>
+#include <list>
+#include <tuple>
+
 namespace mbgl {
 namespace android {
 
@@ -21,6 +25,29 @@ void handleException(std::exception_ptr exception,
         OfflineManager::FileSourceCallback::onSuccess(*env, callback);
     }
 }
+
+mbgl::Response makeResponse(jni::JNIEnv& env,
+                            const jni::Array<jni::jbyte>& arr,
+                            jlong modified,
+                            jlong expires,
+                            const jni::String& eTag_,
+                            jboolean mustRevalidate) {
+    auto data = std::make_shared<std::string>(arr.Length(env), char());
+    jni::GetArrayRegion(env, *arr, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
+    mbgl::Response response;
+    response.data = data;
+    response.mustRevalidate = mustRevalidate;
+    if (eTag_) {
+        response.etag = jni::Make<std::string>(env, eTag_);
+    }
+    if (modified > 0) {
+        response.modified = Timestamp(mbgl::Seconds(modified));
+    }
+    if (expires > 0) {
+        response.expires = Timestamp(mbgl::Seconds(expires));
+    }
+    return response;
+}
 } // namespace
 
 // OfflineManager //
@@ -158,6 +185,44 @@ void OfflineManager::mergeOfflineRegions(jni::JNIEnv& env_,
         });
 }
 
+void OfflineManager::mergeOfflineRegionsIncrementally(
+    jni::JNIEnv& env_,
+    const jni::Object<FileSource>& jFileSource_,
+    const jni::String& jString_,
+    const jni::Object<MergeOfflineRegionsProgressCallback>& callback_) {
+    auto globalCallback = jni::NewGlobal<jni::EnvAttachingDeleter>(env_, callback_);
+    auto globalFilesource = jni::NewGlobal<jni::EnvAttachingDeleter>(env_, jFileSource_);
+
+    // Keep a shared ptr to a global reference of the callback and file
+    // source so they are not GC'd in the meanwhile
+    auto callback = std::make_shared<decltype(globalCallback)>(std::move(globalCallback));
+    auto jFileSource = std::make_shared<decltype(globalFilesource)>(std::move(globalFilesource));
+
+    auto path = jni::Make<std::string>(env_, jString_);
+    fileSource->mergeOfflineRegions(
+        path,
+        [callback](mbgl::OfflineMergeProgress progress) {
+            // Reattach, the callback comes from a different thread
+            android::UniqueEnv env = android::AttachEnv();
+            OfflineManager::MergeOfflineRegionsProgressCallback::onProgress(*env, *callback, progress);
+        },
+        [callback, jFileSource](mbgl::expected<mbgl::OfflineRegions, std::exception_ptr> regions) mutable {
+            // Reattach, the callback comes from a different thread
+            android::UniqueEnv env = android::AttachEnv();
+            auto mergeCallback = jni::Cast(*env, jni::Class<MergeOfflineRegionsCallback>::Singleton(*env), *callback);
+
+            if (regions) {
+                OfflineManager::MergeOfflineRegionsCallback::onMerge(*env, *jFileSource, mergeCallback, *regions);
+            } else {
+                OfflineManager::MergeOfflineRegionsCallback::onError(*env, mergeCallback, regions.error());
+            }
+        });
+}
+
+void OfflineManager::cancelMergeOfflineRegions(jni::JNIEnv& env_, const jni::String& jString_) {
+    fileSource->cancelMergeOfflineRegions(jni::Make<std::string>(env_, jString_));
+}
+
 void OfflineManager::resetDatabase(jni::JNIEnv& env_, const jni::Object<FileSourceCallback>& callback_) {
     auto globalCallback = jni::NewGlobal<jni::EnvAttachingDeleter>(env_, callback_);
 
@@ -239,7 +304,10 @@ void OfflineManager::registerNative(jni::JNIEnv& env) {
     jni::Class<GetOfflineRegionCallback>::Singleton(env);
     jni::Class<CreateOfflineRegionCallback>::Singleton(env);
     jni::Class<MergeOfflineRegionsCallback>::Singleton(env);
+    jni::Class<MergeOfflineRegionsProgressCallback>::Singleton(env);
     jni::Class<FileSourceCallback>::Singleton(env);
+    jni::Class<ImportAmbientCacheCallback>::Singleton(env);
+    jni::Class<AmbientCacheRecord>::Singleton(env);
 
     static auto& javaClass = jni::Class<OfflineManager>::Singleton(env);
 
@@ -257,13 +325,17 @@ void OfflineManager::registerNative(jni::JNIEnv& env) {
         METHOD(&OfflineManager::getOfflineRegion, "getOfflineRegion"),
         METHOD(&OfflineManager::createOfflineRegion, "createOfflineRegion"),
         METHOD(&OfflineManager::mergeOfflineRegions, "mergeOfflineRegions"),
+        METHOD(&OfflineManager::mergeOfflineRegionsIncrementally, "nativeMergeOfflineRegionsIncrementally"),
+        METHOD(&OfflineManager::cancelMergeOfflineRegions, "nativeCancelMergeOfflineRegions"),
         METHOD(&OfflineManager::resetDatabase, "nativeResetDatabase"),
         METHOD(&OfflineManager::packDatabase, "nativePackDatabase"),
         METHOD(&OfflineManager::invalidateAmbientCache, "nativeInvalidateAmbientCache"),
         METHOD(&OfflineManager::clearAmbientCache, "nativeClearAmbientCache"),
         METHOD(&OfflineManager::setMaximumAmbientCacheSize, "nativeSetMaximumAmbientCacheSize"),
         METHOD(&OfflineManager::runPackDatabaseAutomatically, "runPackDatabaseAutomatically"),
-        METHOD(&OfflineManager::putResourceWithUrl, "putResourceWithUrl"));
+        METHOD(&OfflineManager::putResourceWithUrl, "putResourceWithUrl"),
+        METHOD(&OfflineManager::putResources, "nativePutResources"),
+        METHOD(&OfflineManager::importMBTiles, "nativeImportMBTiles"));
 }
 
 // OfflineManager::ListOfflineRegionsCallback //
@@ -387,23 +459,129 @@ void OfflineManager::putResourceWithUrl(jni::JNIEnv& env,
                                         const jni::String& eTag_,
                                         jboolean mustRevalidate) {
     auto url = jni::Make<std::string>(env, url_);
-    auto data = std::make_shared<std::string>(arr.Length(env), char());
-    jni::GetArrayRegion(env, *arr, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
     mbgl::Resource resource(mbgl::Resource::Kind::Unknown, url);
-    mbgl::Response response;
-    response.data = data;
-    response.mustRevalidate = mustRevalidate;
-    if (eTag_) {
-        response.etag = jni::Make<std::string>(env, eTag_);
-    }
-    if (modified > 0) {
-        response.modified = Timestamp(mbgl::Seconds(modified));
+    fileSource->put(resource, makeResponse(env, arr, modified, expires, eTag_, mustRevalidate));
+}
+
+jni::jlong OfflineManager::putResources(jni::JNIEnv& env,
+                                        const jni::Array<jni::Object<AmbientCacheRecord>>& records,
+                                        jni::jboolean compress) {
+    static auto& javaClass = jni::Class<AmbientCacheRecord>::Singleton(env);
+    static auto urlF = javaClass.GetField<jni::String>(env, "url");
+    static auto dataF = javaClass.GetField<jni::Array<jni::jbyte>>(env, "data");
+    static auto modifiedF = javaClass.GetField<jni::jlong>(env, "modified");
+    static auto expiresF = javaClass.GetField<jni::jlong>(env, "expires");
+    static auto etagF = javaClass.GetField<jni::String>(env, "etag");
+    static auto mustRevalidateF = javaClass.GetField<jni::jboolean>(env, "mustRevalidate");
+
+    std::list<std::tuple<mbgl::Resource, mbgl::Response>> resources;
+    for (std::size_t i = 0; i < records.Length(env); i++) {
+        auto record = records.Get(env, i);
+        resources.emplace_back(
+            mbgl::Resource(mbgl::Resource::Kind::Unknown, jni::Make<std::string>(env, record.Get(env, urlF))),
+            makeResponse(env,
+                         record.Get(env, dataF),
+                         record.Get(env, modifiedF),
+                         record.Get(env, expiresF),
+                         record.Get(env, etagF),
+                         record.Get(env, mustRevalidateF)));
     }
-    if (expires > 0) {
-        response.expires = Timestamp(mbgl::Seconds(expires));
+
+    // Called from a worker thread, which waits for the batch to be stored
+    std::promise<mbgl::expected<uint64_t, std::exception_ptr>> stored;
+    fileSource->putResources(
+        std::move(resources), compress, [&stored](mbgl::expected<uint64_t, std::exception_ptr> result) {
+            stored.set_value(std::move(result));
+        });
+    auto result = stored.get_future().get();
+    if (!result) {
+        ThrowNew(
+            env, jni::FindClass(env, "java/lang/IllegalStateException"), mbgl::util::toString(result.error()).c_str());
+        return 0;
     }
+    return *result;
+}
 
-    fileSource->put(resource, response);
+void OfflineManager::importMBTiles(jni::JNIEnv& env_,
+                                   const jni::String& path_,
+                                   const jni::String& urlTemplate_,
+                                   jni::jfloat pixelRatio,
+                                   jni::jboolean compress,
+                                   const jni::Object<ImportAmbientCacheCallback>& callback_) {
+    auto globalCallback = jni::NewGlobal<jni::EnvAttachingDeleter>(env_, callback_);
+    // Keep a shared ptr to a global reference of the callback so
+    // it is not GC'd in the meanwhile
+    auto callback = std::make_shared<decltype(globalCallback)>(std::move(globalCallback));
+
+    fileSource->importMBTiles(
+        jni::Make<std::string>(env_, path_),
+        jni::Make<std::string>(env_, urlTemplate_),
+        pixelRatio,
+        compress,
+        [callback](uint64_t importedCount, uint64_t totalCount) {
+            // Reattach, the callback comes from a different thread
+            android::UniqueEnv env = android::AttachEnv();
+            OfflineManager::ImportAmbientCacheCallback::onProgress(*env, *callback, importedCount, totalCount);
+        },
+        [callback](mbgl::expected<uint64_t, std::exception_ptr> result) {
+            // Reattach, the callback comes from a different thread
+            android::UniqueEnv env = android::AttachEnv();
+            if (result) {
+                OfflineManager::ImportAmbientCacheCallback::onImported(*env, *callback, *result);
+            } else {
+                OfflineManager::ImportAmbientCacheCallback::onError(*env, *callback, result.error());
+            }
+        });
+}
+
+// OfflineManager::MergeOfflineRegionsProgressCallback //
+
+void OfflineManager::MergeOfflineRegionsProgressCallback::onProgress(
+    jni::JNIEnv& env,
+    const jni::Object<OfflineManager::MergeOfflineRegionsProgressCallback>& callback,
+    const mbgl::OfflineMergeProgress& progress) {
+    static auto& javaClass = jni::Class<OfflineManager::MergeOfflineRegionsProgressCallback>::Singleton(env);
+    static auto method = javaClass.GetMethod<void(jni::jlong, jni::jlong, jni::jlong, jni::jlong)>(env, "onProgress");
+
+    callback.Call(env,
+                  method,
+                  static_cast<jni::jlong>(progress.mergedTileCount),
+                  static_cast<jni::jlong>(progress.tileCount),
+                  static_cast<jni::jlong>(progress.mergedResourceCount),
+                  static_cast<jni::jlong>(progress.resourceCount));
+}
+
+// OfflineManager::ImportAmbientCacheCallback //
+
+void OfflineManager::ImportAmbientCacheCallback::onProgress(
+    jni::JNIEnv& env,
+    const jni::Object<OfflineManager::ImportAmbientCacheCallback>& callback,
+    jni::jlong importedCount,
+    jni::jlong totalCount) {
+    static auto& javaClass = jni::Class<OfflineManager::ImportAmbientCacheCallback>::Singleton(env);
+    static auto method = javaClass.GetMethod<void(jni::jlong, jni::jlong)>(env, "onProgress");
+
+    callback.Call(env, method, importedCount, totalCount);
+}
+
+void OfflineManager::ImportAmbientCacheCallback::onImported(
+    jni::JNIEnv& env,
+    const jni::Object<OfflineManager::ImportAmbientCacheCallback>& callback,
+    jni::jlong insertedCount) {
+    static auto& javaClass = jni::Class<OfflineManager::ImportAmbientCacheCallback>::Singleton(env);
+    static auto method = javaClass.GetMethod<void(jni::jlong)>(env, "onImported");
+
+    callback.Call(env, method, insertedCount);
+}
+
+void OfflineManager::ImportAmbientCacheCallback::onError(
+    jni::JNIEnv& env,
+    const jni::Object<OfflineManager::ImportAmbientCacheCallback>& callback,
+    std::exception_ptr error) {
+    static auto& javaClass = jni::Class<OfflineManager::ImportAmbientCacheCallback>::Singleton(env);
+    static auto method = javaClass.GetMethod<void(jni::String)>(env, "onError");
+
+    callback.Call(env, method, jni::Make<jni::String>(env, mbgl::util::toString(error)));
 }
 
 } // namespace android
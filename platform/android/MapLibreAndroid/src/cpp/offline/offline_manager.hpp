@@ -14,6 +14,11 @@ namespace mbgl {
 
 namespace android {
 
+class AmbientCacheRecord {
+public:
+    static constexpr auto Name() { return "org/maplibre/android/offline/AmbientCacheRecord"; };
+};
+
 class OfflineManager {
 public:
     class ListOfflineRegionsCallback {
@@ -87,6 +92,17 @@ public:
                             mbgl::OfflineRegions&);
     };
 
+    struct MergeOfflineRegionsProgressCallback {
+        static constexpr auto Name() {
+            return "org/maplibre/android/offline/"
+                   "OfflineManager$MergeOfflineRegionsProgressCallback";
+        }
+
+        static void onProgress(jni::JNIEnv&,
+                               const jni::Object<OfflineManager::MergeOfflineRegionsProgressCallback>&,
+                               const mbgl::OfflineMergeProgress&);
+    };
+
     struct FileSourceCallback {
         static constexpr auto Name() {
             return "org/maplibre/android/offline/"
@@ -98,6 +114,26 @@ public:
         static void onError(jni::JNIEnv&, const jni::Object<OfflineManager::FileSourceCallback>&, const jni::String&);
     };
 
+    struct ImportAmbientCacheCallback {
+        static constexpr auto Name() {
+            return "org/maplibre/android/offline/"
+                   "OfflineManager$ImportAmbientCacheCallback";
+        }
+
+        static void onProgress(jni::JNIEnv&,
+                               const jni::Object<OfflineManager::ImportAmbientCacheCallback>&,
+                               jni::jlong importedCount,
+                               jni::jlong totalCount);
+
+        static void onImported(jni::JNIEnv&,
+                               const jni::Object<OfflineManager::ImportAmbientCacheCallback>&,
+                               jni::jlong insertedCount);
+
+        static void onError(jni::JNIEnv&,
+                            const jni::Object<OfflineManager::ImportAmbientCacheCallback>&,
+                            std::exception_ptr);
+    };
+
     static constexpr auto Name() { return "org/maplibre/android/offline/OfflineManager"; };
 
     static void registerNative(jni::JNIEnv&);
@@ -127,6 +163,13 @@ public:
                              const jni::String&,
                              const jni::Object<MergeOfflineRegionsCallback>&);
 
+    void mergeOfflineRegionsIncrementally(jni::JNIEnv&,
+                                          const jni::Object<FileSource>&,
+                                          const jni::String&,
+                                          const jni::Object<MergeOfflineRegionsProgressCallback>&);
+
+    void cancelMergeOfflineRegions(jni::JNIEnv&, const jni::String&);
+
     void putResourceWithUrl(jni::JNIEnv&,
                             const jni::String& url,
                             const jni::Array<jni::jbyte>& data,
@@ -135,6 +178,17 @@ public:
                             const jni::String& eTag,
                             jboolean mustRevalidate);
 
+    jni::jlong putResources(jni::JNIEnv&,
+                            const jni::Array<jni::Object<AmbientCacheRecord>>& records,
+                            jni::jboolean compress);
+
+    void importMBTiles(jni::JNIEnv&,
+                       const jni::String& path,
+                       const jni::String& urlTemplate,
+                       jni::jfloat pixelRatio,
+                       jni::jboolean compress,
+                       const jni::Object<ImportAmbientCacheCallback>& callback);
+
     void resetDatabase(jni::JNIEnv&, const jni::Object<FileSourceCallback>& callback_);
 
     void packDatabase(jni::JNIEnv&, const jni::Object<FileSourceCallback>& callback_);
@@ -95,6 +95,17 @@ void OfflineRegion::setOfflineRegionDownloadState(jni::JNIEnv&, jni::jint jState
     fileSource->setOfflineRegionDownloadState(*region, state);
 }
 
+void OfflineRegion::setOfflineRegionDownloadOptions(jni::JNIEnv&,
+                                                    jni::jint maximumConcurrentRequestsPerHost,
+                                                    jni::jboolean zoomOrdered,
+                                                    jni::jboolean checkpoints) {
+    mbgl::OfflineRegionDownloadOptions options;
+    options.maximumConcurrentRequestsPerHost = static_cast<uint32_t>(maximumConcurrentRequestsPerHost);
+    options.zoomOrdered = zoomOrdered;
+    options.checkpoints = checkpoints;
+    fileSource->setOfflineRegionDownloadOptions(*region, options);
+}
+
 void OfflineRegion::getOfflineRegionStatus(jni::JNIEnv& env_,
                                            const jni::Object<OfflineRegionStatusCallback>& callback_) {
     auto globalCallback = jni::NewGlobal<jni::EnvAttachingDeleter>(env_, callback_);
@@ -246,6 +257,7 @@ void OfflineRegion::registerNative(jni::JNIEnv& env) {
         "finalize",
         METHOD(&OfflineRegion::setOfflineRegionObserver, "setOfflineRegionObserver"),
         METHOD(&OfflineRegion::setOfflineRegionDownloadState, "setOfflineRegionDownloadState"),
+        METHOD(&OfflineRegion::setOfflineRegionDownloadOptions, "setOfflineRegionDownloadOptions"),
         METHOD(&OfflineRegion::getOfflineRegionStatus, "getOfflineRegionStatus"),
         METHOD(&OfflineRegion::deleteOfflineRegion, "deleteOfflineRegion"),
         METHOD(&OfflineRegion::invalidateOfflineRegion, "invalidateOfflineRegion"),
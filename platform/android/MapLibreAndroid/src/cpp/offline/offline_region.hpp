@@ -82,6 +82,8 @@ public:
 
     void setOfflineRegionDownloadState(jni::JNIEnv&, jni::jint);
 
+    void setOfflineRegionDownloadOptions(jni::JNIEnv&, jni::jint, jni::jboolean, jni::jboolean);
+
     void getOfflineRegionStatus(jni::JNIEnv&, const jni::Object<OfflineRegion::OfflineRegionStatusCallback>&);
 
     void deleteOfflineRegion(jni::JNIEnv&, const jni::Object<OfflineRegionDeleteCallback>&);
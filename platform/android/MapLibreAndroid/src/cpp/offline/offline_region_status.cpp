@@ -18,7 +18,8 @@ jni::Local<jni::Object<OfflineRegionStatus>> OfflineRegionStatus::New(jni::JNIEn
 
     // Create java object
     static auto& javaClass = jni::Class<OfflineRegionStatus>::Singleton(env);
-    static auto constructor = javaClass.GetConstructor<jint, jlong, jlong, jlong, jlong, jlong, jboolean>(env);
+    static auto constructor =
+        javaClass.GetConstructor<jint, jlong, jlong, jlong, jlong, jlong, jboolean, jdouble, jdouble, jlong>(env);
     return javaClass.New(env,
                          constructor,
                          downloadState,
@@ -27,7 +28,10 @@ jni::Local<jni::Object<OfflineRegionStatus>> OfflineRegionStatus::New(jni::JNIEn
                          jlong(status.completedTileCount),
                          jlong(status.completedTileSize),
                          jlong(status.requiredResourceCount),
-                         jboolean(status.requiredResourceCountIsPrecise));
+                         jboolean(status.requiredResourceCountIsPrecise),
+                         jdouble(status.bytesPerSecond),
+                         jdouble(status.tilesPerSecond),
+                         jlong(status.estimatedTimeRemaining ? status.estimatedTimeRemaining->count() : -1));
 }
 
 void OfflineRegionStatus::registerNative(jni::JNIEnv& env) {
@@ -13,6 +13,9 @@
 #include "../../geojson/feature.hpp"
 #include <mbgl/style/conversion/custom_geometry_source_options.hpp>
 
+#include <algorithm>
+#include <memory>
+#include <stdexcept>
 #include <string>
 
 namespace mbgl {
@@ -146,6 +149,34 @@ void CustomGeometrySource::setTileData(
     }
 }
 
+void CustomGeometrySource::setVectorTileData(jni::JNIEnv& env,
+                                             jni::jint z,
+                                             jni::jint x,
+                                             jni::jint y,
+                                             const jni::Object<java::nio::ByteBuffer>& jBuffer,
+                                             const jni::Array<jni::jbyte>& jBytes,
+                                             jni::jint offset,
+                                             jni::jint length) {
+    // The encoded tile is copied once, no Java objects are walked
+    auto data = std::make_shared<std::string>(static_cast<std::size_t>(length), char());
+    if (jBuffer) {
+        const char* address = java::nio::ByteBuffer::address(env, jBuffer);
+        if (address == nullptr) {
+            throw std::invalid_argument("Vector tile data must be a direct buffer");
+        }
+        std::copy(address + offset, address + offset + length, &(*data)[0]);
+    } else {
+        jni::NullCheck(env, jBytes.get());
+        jni::GetArrayRegion(env, *jBytes, offset, length, reinterpret_cast<jbyte*>(&(*data)[0]));
+    }
+
+    // Update the core source if not cancelled
+    if (!isCancelled(z, x, y)) {
+        source.as<mbgl::style::CustomGeometrySource>()->CustomGeometrySource::setTileData(CanonicalTileID(z, x, y),
+                                                                                          std::move(data));
+    }
+}
+
 void CustomGeometrySource::invalidateTile(jni::JNIEnv&, jni::jint z, jni::jint x, jni::jint y) {
     source.as<mbgl::style::CustomGeometrySource>()->CustomGeometrySource::invalidateTile(CanonicalTileID(z, x, y));
 }
@@ -205,6 +236,7 @@ void CustomGeometrySource::registerNative(jni::JNIEnv& env) {
         "finalize",
         METHOD(&CustomGeometrySource::querySourceFeatures, "querySourceFeatures"),
         METHOD(&CustomGeometrySource::setTileData, "nativeSetTileData"),
+        METHOD(&CustomGeometrySource::setVectorTileData, "nativeSetVectorTileData"),
         METHOD(&CustomGeometrySource::invalidateTile, "nativeInvalidateTile"),
         METHOD(&CustomGeometrySource::invalidateBounds, "nativeInvalidateBounds"));
 }
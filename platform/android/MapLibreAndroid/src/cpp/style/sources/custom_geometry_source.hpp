@@ -8,6 +8,7 @@
 #include "../../geojson/feature.hpp"
 #include "../../geojson/feature_collection.hpp"
 #include "../../geometry/lat_lng_bounds.hpp"
+#include "../../java/nio.hpp"
 #include <jni/jni.hpp>
 
 namespace mbgl {
@@ -37,6 +38,15 @@ private:
     void setTileData(
         jni::JNIEnv& env, jni::jint z, jni::jint x, jni::jint y, const jni::Object<geojson::FeatureCollection>& jf);
 
+    void setVectorTileData(jni::JNIEnv& env,
+                           jni::jint z,
+                           jni::jint x,
+                           jni::jint y,
+                           const jni::Object<java::nio::ByteBuffer>& buffer,
+                           const jni::Array<jni::jbyte>& bytes,
+                           jni::jint offset,
+                           jni::jint length);
+
     void invalidateTile(jni::JNIEnv& env, jni::jint z, jni::jint x, jni::jint y);
     void invalidateBounds(jni::JNIEnv& env, const jni::Object<LatLngBounds>& bounds);
 
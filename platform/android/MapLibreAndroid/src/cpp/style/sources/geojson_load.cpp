@@ -0,0 +1,244 @@
+#include "geojson_load.hpp"
+#include "attach_env.hpp"
+
+#include <mbgl/style/conversion/geojson.hpp>
+#include <mbgl/util/logging.hpp>
+
+#include <algorithm>
+#include <fstream>
+#include <stdexcept>
+#include <vector>
+
+namespace mbgl {
+namespace android {
+
+namespace {
+
+// The input is read in chunks of this size
+constexpr std::size_t chunkSize = 64 * 1024;
+// Progress is reported every this many bytes
+constexpr int64_t progressInterval = 1024 * 1024;
+
+// Reads from the Java InputStream, through GeoJsonLoad#read
+class StreamGeoJSONLoad : public GeoJSONLoad {
+public:
+    StreamGeoJSONLoad(jni::JNIEnv& env, const jni::Object<GeoJSONLoad>& load)
+        : GeoJSONLoad(env, load, -1),
+          array(jni::NewGlobal<jni::EnvAttachingDeleter>(env, jni::Array<jni::jbyte>::New(env, chunkSize))),
+          chunk(chunkSize) {}
+
+protected:
+    std::string_view read(jni::JNIEnv& env) override {
+        static auto& javaClass = jni::Class<GeoJSONLoad>::Singleton(env);
+        static auto readMethod = javaClass.GetMethod<jni::jint(jni::Array<jni::jbyte>)>(env, "read");
+
+        const jni::jint count = javaLoad.Call(env, readMethod, array);
+        if (count <= 0) {
+            return {};
+        }
+        jni::GetArrayRegion(env, *array, 0, count, reinterpret_cast<jni::jbyte*>(chunk.data()));
+        return {chunk.data(), static_cast<std::size_t>(count)};
+    }
+
+private:
+    jni::Global<jni::Array<jni::jbyte>, jni::EnvAttachingDeleter> array;
+    std::vector<char> chunk;
+};
+
+// Reads the file on the converter thread, it's opened with the first read
+class FileGeoJSONLoad : public GeoJSONLoad {
+public:
+    FileGeoJSONLoad(jni::JNIEnv& env, const jni::Object<GeoJSONLoad>& load, std::string path_)
+        : GeoJSONLoad(env, load, -1),
+          path(std::move(path_)),
+          chunk(chunkSize) {}
+
+protected:
+    std::string_view read(jni::JNIEnv&) override {
+        if (!file.is_open()) {
+            file.open(path, std::ios::binary | std::ios::ate);
+            if (!file.is_open()) {
+                fail("Can't open " + path);
+                return {};
+            }
+            totalBytes = static_cast<int64_t>(file.tellg());
+            file.seekg(0);
+        }
+
+        file.read(chunk.data(), static_cast<std::streamsize>(chunk.size()));
+        if (file.bad()) {
+            fail("Can't read " + path);
+            return {};
+        }
+        return {chunk.data(), static_cast<std::size_t>(file.gcount())};
+    }
+
+private:
+    const std::string path;
+    std::ifstream file;
+    std::vector<char> chunk;
+};
+
+// Reads a direct buffer in place, or copies a heap array chunk by chunk
+class BufferGeoJSONLoad : public GeoJSONLoad {
+public:
+    BufferGeoJSONLoad(jni::JNIEnv& env,
+                      const jni::Object<GeoJSONLoad>& load,
+                      const jni::Object<java::nio::ByteBuffer>& buffer_,
+                      const jni::Array<jni::jbyte>& array_,
+                      jni::jint offset_,
+                      jni::jint length)
+        : GeoJSONLoad(env, load, length),
+          buffer(jni::NewGlobal<jni::EnvAttachingDeleter>(env, buffer_)),
+          array(jni::NewGlobal<jni::EnvAttachingDeleter>(env, array_)),
+          offset(offset_),
+          end(offset_ + length) {
+        if (buffer_) {
+            address = java::nio::ByteBuffer::address(env, buffer);
+            if (address == nullptr) {
+                throw std::invalid_argument("GeoJSON data must be a direct buffer");
+            }
+        } else {
+            jni::NullCheck(env, array.get());
+            chunk.resize(chunkSize);
+        }
+    }
+
+protected:
+    std::string_view read(jni::JNIEnv& env) override {
+        const auto count = static_cast<std::size_t>(std::min<int64_t>(end - offset, chunkSize));
+        if (count == 0) {
+            return {};
+        }
+
+        const char* data = chunk.data();
+        if (address) {
+            data = address + offset;
+        } else {
+            jni::GetArrayRegion(env,
+                                *array,
+                                static_cast<jni::jsize>(offset),
+                                static_cast<jni::jsize>(count),
+                                reinterpret_cast<jni::jbyte*>(chunk.data()));
+        }
+        offset += static_cast<int64_t>(count);
+        return {data, count};
+    }
+
+private:
+    // kept so the memory of the direct buffer stays valid
+    jni::Global<jni::Object<java::nio::ByteBuffer>, jni::EnvAttachingDeleter> buffer;
+    jni::Global<jni::Array<jni::jbyte>, jni::EnvAttachingDeleter> array;
+    const char* address = nullptr;
+    int64_t offset;
+    const int64_t end;
+    std::vector<char> chunk;
+};
+
+} // namespace
+
+GeoJSONLoad::GeoJSONLoad(jni::JNIEnv& env, const jni::Object<GeoJSONLoad>& load, int64_t totalBytes_)
+    : javaLoad(jni::NewGlobal<jni::EnvAttachingDeleter>(env, load)),
+      totalBytes(totalBytes_) {}
+
+GeoJSONLoad::~GeoJSONLoad() {
+    // the data of a load that wasn't finished is never set
+    if (!finished) {
+        android::UniqueEnv _env = android::AttachEnv();
+        report(*_env, Status::Cancelled, {});
+    }
+}
+
+std::shared_ptr<GeoJSONLoad> GeoJSONLoad::fromStream(jni::JNIEnv& env, const jni::Object<GeoJSONLoad>& load) {
+    return std::make_shared<StreamGeoJSONLoad>(env, load);
+}
+
+std::shared_ptr<GeoJSONLoad> GeoJSONLoad::fromFile(jni::JNIEnv& env,
+                                                   const jni::Object<GeoJSONLoad>& load,
+                                                   const jni::String& path) {
+    return std::make_shared<FileGeoJSONLoad>(env, load, jni::Make<std::string>(env, path));
+}
+
+std::shared_ptr<GeoJSONLoad> GeoJSONLoad::fromBuffer(jni::JNIEnv& env,
+                                                     const jni::Object<GeoJSONLoad>& load,
+                                                     const jni::Object<java::nio::ByteBuffer>& buffer,
+                                                     const jni::Array<jni::jbyte>& array,
+                                                     jni::jint offset,
+                                                     jni::jint length) {
+    return std::make_shared<BufferGeoJSONLoad>(env, load, buffer, array, offset, length);
+}
+
+std::optional<GeoJSON> GeoJSONLoad::parse(jni::JNIEnv& env) {
+    bool cancelled = false;
+    style::conversion::Error error;
+    std::optional<GeoJSON> geoJSON = style::conversion::parseGeoJSON(
+        [&]() -> std::string_view {
+            // cancelling or failing to read ends the input
+            if (readError || (cancelled = isCancelled(env))) {
+                return {};
+            }
+            const std::string_view chunk = read(env);
+            bytesRead += static_cast<int64_t>(chunk.size());
+            if (bytesRead - reportedBytes >= progressInterval) {
+                reportProgress(env);
+            }
+            return chunk;
+        },
+        error);
+
+    // the data of a load cancelled while converting is dropped as well
+    if (cancelled || isCancelled(env)) {
+        status = Status::Cancelled;
+        return {};
+    }
+
+    if (readError || !geoJSON) {
+        status = Status::Error;
+        message = readError ? *readError : error.message;
+        mbgl::Log::Error(mbgl::Event::JNI, "Error loading geo json: " + message);
+        return {};
+    }
+
+    if (bytesRead > reportedBytes) {
+        reportProgress(env);
+    }
+    status = Status::Loaded;
+    return geoJSON;
+}
+
+void GeoJSONLoad::finish(jni::JNIEnv& env) {
+    report(env, status, message);
+}
+
+void GeoJSONLoad::fail(std::string error) {
+    readError = std::move(error);
+}
+
+bool GeoJSONLoad::isCancelled(jni::JNIEnv& env) {
+    static auto& javaClass = jni::Class<GeoJSONLoad>::Singleton(env);
+    static auto method = javaClass.GetMethod<jni::jboolean()>(env, "isCancelled");
+    return javaLoad.Call(env, method) == JNI_TRUE;
+}
+
+void GeoJSONLoad::reportProgress(jni::JNIEnv& env) {
+    static auto& javaClass = jni::Class<GeoJSONLoad>::Singleton(env);
+    static auto onProgress = javaClass.GetMethod<void(jni::jlong, jni::jlong)>(env, "onProgress");
+    reportedBytes = bytesRead;
+    javaLoad.Call(env, onProgress, jni::jlong(bytesRead), jni::jlong(totalBytes));
+}
+
+void GeoJSONLoad::report(jni::JNIEnv& env, Status status_, const std::string& message_) {
+    if (finished.exchange(true)) {
+        return;
+    }
+    static auto& javaClass = jni::Class<GeoJSONLoad>::Singleton(env);
+    static auto onFinished = javaClass.GetMethod<void(jni::jint, jni::String)>(env, "onFinished");
+    javaLoad.Call(env, onFinished, static_cast<jni::jint>(status_), jni::Make<jni::String>(env, message_));
+}
+
+void GeoJSONLoad::registerNative(jni::JNIEnv& env) {
+    jni::Class<GeoJSONLoad>::Singleton(env);
+}
+
+} // namespace android
+} // namespace mbgl
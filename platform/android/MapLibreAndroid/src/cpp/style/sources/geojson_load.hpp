@@ -0,0 +1,79 @@
+#pragma once
+
+#include "../../java/nio.hpp"
+#include <mbgl/util/geojson.hpp>
+#include <mbgl/util/noncopyable.hpp>
+#include <jni/jni.hpp>
+
+#include <atomic>
+#include <cstdint>
+#include <memory>
+#include <optional>
+#include <string>
+#include <string_view>
+
+namespace mbgl {
+namespace android {
+
+// GeoJSON read from a stream, file or buffer, parsed chunk by chunk on the converter thread.
+// The outcome is reported to the Java GeoJsonLoad once: when the data was set, when it failed
+// or was cancelled, or when the load was superseded by a later update.
+class GeoJSONLoad : private mbgl::util::noncopyable {
+public:
+    static constexpr auto Name() { return "org/maplibre/android/style/sources/GeoJsonLoad"; };
+
+    static void registerNative(jni::JNIEnv&);
+
+    static std::shared_ptr<GeoJSONLoad> fromStream(jni::JNIEnv&, const jni::Object<GeoJSONLoad>&);
+    static std::shared_ptr<GeoJSONLoad> fromFile(jni::JNIEnv&, const jni::Object<GeoJSONLoad>&, const jni::String&);
+    static std::shared_ptr<GeoJSONLoad> fromBuffer(jni::JNIEnv&,
+                                                   const jni::Object<GeoJSONLoad>&,
+                                                   const jni::Object<java::nio::ByteBuffer>&,
+                                                   const jni::Array<jni::jbyte>&,
+                                                   jni::jint,
+                                                   jni::jint);
+
+    virtual ~GeoJSONLoad();
+
+    // Reads and parses the input, there's no GeoJSON when it failed or was cancelled
+    std::optional<GeoJSON> parse(jni::JNIEnv&);
+
+    // Reports the outcome of the parse
+    void finish(jni::JNIEnv&);
+
+protected:
+    GeoJSONLoad(jni::JNIEnv&, const jni::Object<GeoJSONLoad>&, int64_t totalBytes);
+
+    // Reads the next chunk, an empty chunk ends the input
+    virtual std::string_view read(jni::JNIEnv&) = 0;
+
+    // Ends the input with an error
+    void fail(std::string);
+
+    jni::Global<jni::Object<GeoJSONLoad>, jni::EnvAttachingDeleter> javaLoad;
+    // The size of the input, -1 when it isn't known
+    int64_t totalBytes;
+
+private:
+    enum class Status : jni::jint {
+        Loaded = 0,
+        Error = 1,
+        Cancelled = 2
+    };
+
+    bool isCancelled(jni::JNIEnv&);
+    void reportProgress(jni::JNIEnv&);
+    void report(jni::JNIEnv&, Status, const std::string&);
+
+    int64_t bytesRead = 0;
+    int64_t reportedBytes = 0;
+    std::optional<std::string> readError;
+
+    // a load that wasn't parsed was superseded
+    Status status = Status::Cancelled;
+    std::string message;
+    std::atomic<bool> finished{false};
+};
+
+} // namespace android
+} // namespace mbgl
@@ -17,6 +17,7 @@
 #include "../../geojson/feature.hpp"
 #include "../conversion/url_or_tileset.hpp"
 
+#include <algorithm>
 #include <string>
 
 // GeoJSONSource uses a "coalescing" model for high frequency asynchronous data
@@ -49,13 +50,17 @@ GeoJSONSource::GeoJSONSource(jni::JNIEnv& env, const jni::String& sourceId, cons
     : Source(env,
              std::make_unique<mbgl::style::GeoJSONSource>(jni::Make<std::string>(env, sourceId),
                                                           convertGeoJSONOptions(env, options))),
-      converter(std::make_unique<Actor<FeatureConverter>>(Scheduler::GetBackground(),
-                                                          source.as<style::GeoJSONSource>()->impl().getOptions())) {}
+      converter(std::make_unique<Actor<FeatureConverter>>(
+          Scheduler::GetBackground(), source.as<style::GeoJSONSource>()->impl().getOptions(), true)) {}
 
 GeoJSONSource::GeoJSONSource(jni::JNIEnv& env, mbgl::style::Source& coreSource, AndroidRendererFrontend* frontend)
     : Source(env, coreSource, createJavaPeer(env), frontend),
-      converter(std::make_unique<Actor<FeatureConverter>>(Scheduler::GetBackground(),
-                                                          source.as<style::GeoJSONSource>()->impl().getOptions())) {}
+      // data of the style isn't known to the converter, only an empty source can be updated
+      converter(std::make_unique<Actor<FeatureConverter>>(
+          Scheduler::GetBackground(),
+          source.as<style::GeoJSONSource>()->impl().getOptions(),
+          !source.as<style::GeoJSONSource>()->getURL() &&
+              !source.as<style::GeoJSONSource>()->impl().getData().lock())) {}
 
 GeoJSONSource::~GeoJSONSource() = default;
 
@@ -81,11 +86,125 @@ void GeoJSONSource::setGeometry(jni::JNIEnv& env, const jni::Object<geojson::Geo
     setCollectionAsync(env, jGeometry);
 }
 
+void GeoJSONSource::setPointFeature(jni::JNIEnv& env,
+                                    jni::jdouble longitude,
+                                    jni::jdouble latitude,
+                                    const jni::Array<jni::String>& numberKeys,
+                                    const jni::Array<jni::jdouble>& numbers,
+                                    const jni::Array<jni::String>& stringKeys,
+                                    const jni::Array<jni::String>& strings,
+                                    const jni::Array<jni::String>& booleanKeys,
+                                    const jni::Array<jni::jboolean>& booleans,
+                                    const jni::Array<jni::String>& numberArrayKeys,
+                                    const jni::Array<jni::jdouble>& numberArrays,
+                                    jni::jint numberArraySize) {
+    // The feature is built from typed values directly, there's no Java feature or JSON to convert
+    auto feature = std::make_shared<mbgl::GeoJSONFeature>(mbgl::Point<double>(longitude, latitude));
+
+    const std::size_t numberCount = numberKeys.Length(env);
+    if (numberCount > 0) {
+        auto elements = jni::GetArrayElements(env, *numbers);
+        const jni::jdouble* values = std::get<0>(elements).get();
+        for (std::size_t i = 0; i < numberCount; i++) {
+            feature->properties[jni::Make<std::string>(env, numberKeys.Get(env, i))] = values[i];
+        }
+    }
+
+    const std::size_t stringCount = stringKeys.Length(env);
+    for (std::size_t i = 0; i < stringCount; i++) {
+        auto value = strings.Get(env, i);
+        if (value) {
+            feature->properties[jni::Make<std::string>(env, stringKeys.Get(env, i))] = jni::Make<std::string>(env,
+                                                                                                              value);
+        }
+    }
+
+    const std::size_t booleanCount = booleanKeys.Length(env);
+    if (booleanCount > 0) {
+        auto elements = jni::GetArrayElements(env, *booleans);
+        const jni::jboolean* values = std::get<0>(elements).get();
+        for (std::size_t i = 0; i < booleanCount; i++) {
+            feature->properties[jni::Make<std::string>(env, booleanKeys.Get(env, i))] = values[i] == JNI_TRUE;
+        }
+    }
+
+    const std::size_t numberArrayCount = numberArrayKeys.Length(env);
+    if (numberArrayCount > 0) {
+        auto elements = jni::GetArrayElements(env, *numberArrays);
+        const jni::jdouble* values = std::get<0>(elements).get();
+        for (std::size_t i = 0; i < numberArrayCount; i++) {
+            std::vector<mbgl::Value> array;
+            array.reserve(numberArraySize);
+            for (jni::jint j = 0; j < numberArraySize; j++) {
+                array.emplace_back(values[i * numberArraySize + j]);
+            }
+            feature->properties[jni::Make<std::string>(env, numberArrayKeys.Get(env, i))] = std::move(array);
+        }
+    }
+
+    setAsync([this, feature](ActorRef<GeoJSONDataCallback> _callback) {
+        converter->self().invoke(&FeatureConverter::convertFeature, feature, _callback);
+    });
+}
+
 void GeoJSONSource::setURL(jni::JNIEnv& env, const jni::String& url) {
+    converter->self().invoke(&FeatureConverter::resetData);
+
     // Update the core source
     source.as<style::GeoJSONSource>()->setURL(jni::Make<std::string>(env, url));
 }
 
+void GeoJSONSource::setRetainFeatures(jni::JNIEnv&, jni::jboolean retain) {
+    converter->self().invoke(&FeatureConverter::setRetainFeatures, static_cast<bool>(retain));
+}
+
+void GeoJSONSource::updateFeatures(jni::JNIEnv& env,
+                                   const jni::Array<jni::Object<geojson::Feature>>& add,
+                                   const jni::Array<jni::Object<geojson::Feature>>& update_,
+                                   const jni::Array<jni::String>& remove) {
+    auto diff = std::make_shared<FeatureDiff>(FeatureDiff{jni::NewGlobal<jni::EnvAttachingDeleter>(env, add),
+                                                          jni::NewGlobal<jni::EnvAttachingDeleter>(env, update_),
+                                                          jni::NewGlobal<jni::EnvAttachingDeleter>(env, remove)});
+
+    // Diffs aren't coalesced like the data, every diff is applied after the awaiting update
+    if (awaitingUpdate) {
+        awaitingUpdate->diffs.push_back(std::move(diff));
+        return;
+    }
+
+    setAsync(
+        [this](ActorRef<GeoJSONDataCallback> _callback) {
+            converter->self().invoke(&FeatureConverter::updateFeatures, _callback);
+        },
+        {std::move(diff)});
+}
+
+void GeoJSONSource::loadGeoJSONStream(jni::JNIEnv& env, const jni::Object<GeoJSONLoad>& load) {
+    loadAsync(GeoJSONLoad::fromStream(env, load));
+}
+
+void GeoJSONSource::loadGeoJSONFile(jni::JNIEnv& env, const jni::Object<GeoJSONLoad>& load, const jni::String& path) {
+    loadAsync(GeoJSONLoad::fromFile(env, load, path));
+}
+
+void GeoJSONSource::loadGeoJSONBuffer(jni::JNIEnv& env,
+                                      const jni::Object<GeoJSONLoad>& load,
+                                      const jni::Object<java::nio::ByteBuffer>& buffer,
+                                      const jni::Array<jni::jbyte>& bytes,
+                                      jni::jint offset,
+                                      jni::jint length) {
+    loadAsync(GeoJSONLoad::fromBuffer(env, load, buffer, bytes, offset, length));
+}
+
+void GeoJSONSource::loadAsync(std::shared_ptr<GeoJSONLoad> load) {
+    // The input is read and parsed on the converter thread, the data is set like any other update
+    Update::Converter converterFn = [this, load](ActorRef<GeoJSONDataCallback> _callback) {
+        converter->self().invoke(&FeatureConverter::convertLoad, load, _callback);
+    };
+
+    setAsync(converterFn, {}, std::move(load));
+}
+
 jni::Local<jni::String> GeoJSONSource::getURL(jni::JNIEnv& env) {
     std::optional<std::string> url = source.as<style::GeoJSONSource>()->getURL();
     return url ? jni::Make<jni::String>(env, *url) : jni::Local<jni::String>();
@@ -177,7 +296,9 @@ void GeoJSONSource::setCollectionAsync(jni::JNIEnv& env, const jni::Object<JNITy
     setAsync(converterFn);
 }
 
-void GeoJSONSource::setAsync(Update::Converter converterFn) {
+void GeoJSONSource::setAsync(Update::Converter converterFn,
+                             std::vector<std::shared_ptr<FeatureDiff>> diffs,
+                             std::shared_ptr<GeoJSONLoad> load) {
     awaitingUpdate = std::make_unique<Update>(
         std::move(converterFn),
         std::make_unique<Actor<GeoJSONDataCallback>>(
@@ -185,17 +306,24 @@ void GeoJSONSource::setAsync(Update::Converter converterFn) {
                 // conversion from Java features to core ones finished
                 android::UniqueEnv _env = android::AttachEnv();
 
-                // Update the core source
-                source.as<mbgl::style::GeoJSONSource>()->setGeoJSONData(std::move(geoJSONData));
+                // Update the core source, there's no data when diffs couldn't be applied
+                if (geoJSONData) {
+                    source.as<mbgl::style::GeoJSONSource>()->setGeoJSONData(std::move(geoJSONData));
+                }
+
+                if (update->load) {
+                    update->load->finish(*_env);
+                }
 
                 // if there is an awaiting update, execute it, otherwise, release resources
                 if (awaitingUpdate) {
-                    update = std::move(awaitingUpdate);
-                    update->converterFn(update->callback->self());
+                    runUpdate();
                 } else {
                     update.reset();
                 }
             }));
+    awaitingUpdate->diffs = std::move(diffs);
+    awaitingUpdate->load = std::move(load);
 
     // If another update is running, wait
     if (update) {
@@ -203,11 +331,21 @@ void GeoJSONSource::setAsync(Update::Converter converterFn) {
     }
 
     // no updates are being processed, execute this one
+    runUpdate();
+}
+
+void GeoJSONSource::runUpdate() {
     update = std::move(awaitingUpdate);
+    // the diffs are queued first, the converter applies them to the data it converts next
+    if (!update->diffs.empty()) {
+        converter->self().invoke(&FeatureConverter::queueDiffs, std::move(update->diffs));
+    }
     update->converterFn(update->callback->self());
 }
 
 void GeoJSONSource::registerNative(jni::JNIEnv& env) {
+    GeoJSONLoad::registerNative(env);
+
     // Lookup the class
     static auto& javaClass = jni::Class<GeoJSONSource>::Singleton(env);
 
@@ -225,7 +363,13 @@ void GeoJSONSource::registerNative(jni::JNIEnv& env) {
         METHOD(&GeoJSONSource::setFeatureCollection, "nativeSetFeatureCollection"),
         METHOD(&GeoJSONSource::setFeature, "nativeSetFeature"),
         METHOD(&GeoJSONSource::setGeometry, "nativeSetGeometry"),
+        METHOD(&GeoJSONSource::setPointFeature, "nativeSetPointFeature"),
         METHOD(&GeoJSONSource::setURL, "nativeSetUrl"),
+        METHOD(&GeoJSONSource::setRetainFeatures, "nativeSetRetainFeatures"),
+        METHOD(&GeoJSONSource::updateFeatures, "nativeUpdateFeatures"),
+        METHOD(&GeoJSONSource::loadGeoJSONStream, "nativeLoadGeoJsonStream"),
+        METHOD(&GeoJSONSource::loadGeoJSONFile, "nativeLoadGeoJsonFile"),
+        METHOD(&GeoJSONSource::loadGeoJSONBuffer, "nativeLoadGeoJsonBuffer"),
         METHOD(&GeoJSONSource::getURL, "nativeGetUrl"),
         METHOD(&GeoJSONSource::querySourceFeatures, "querySourceFeatures"),
         METHOD(&GeoJSONSource::getClusterChildren, "nativeGetClusterChildren"),
@@ -242,11 +386,33 @@ void FeatureConverter::convertJson(std::shared_ptr<std::string> json, ActorRef<G
     std::optional<GeoJSON> converted = parseGeoJSON(*json, error);
     if (!converted) {
         mbgl::Log::Error(mbgl::Event::JNI, "Error setting geo json: " + error.message);
+        diffs.clear();
+        callback.invoke(&GeoJSONDataCallback::operator(), std::shared_ptr<style::GeoJSONData>());
         return;
     }
 
-    callback.invoke(&GeoJSONDataCallback::operator(),
-                    style::GeoJSONData::create(*converted, sequencedScheduler, options));
+    callback.invoke(&GeoJSONDataCallback::operator(), createData(std::move(*converted)));
+}
+
+void FeatureConverter::convertFeature(std::shared_ptr<mbgl::GeoJSONFeature> feature,
+                                      ActorRef<GeoJSONDataCallback> callback) {
+    callback.invoke(&GeoJSONDataCallback::operator(), createData(*feature));
+}
+
+void FeatureConverter::convertLoad(std::shared_ptr<GeoJSONLoad> load, ActorRef<GeoJSONDataCallback> callback) {
+    android::UniqueEnv _env = android::AttachEnv();
+    std::optional<GeoJSON> loaded = load->parse(*_env);
+    if (!loaded) {
+        // The current data stays, the diffs following the load apply to it
+        std::shared_ptr<style::GeoJSONData> data;
+        if (!diffs.empty()) {
+            data = updateData();
+        }
+        callback.invoke(&GeoJSONDataCallback::operator(), std::move(data));
+        return;
+    }
+
+    callback.invoke(&GeoJSONDataCallback::operator(), createData(std::move(*loaded)));
 }
 
 template <class JNIType>
@@ -258,8 +424,113 @@ void FeatureConverter::convertObject(
     android::UniqueEnv _env = android::AttachEnv();
     // Convert the jni object
     auto geometry = JNIType::convert(*_env, *jObject);
-    callback.invoke(&GeoJSONDataCallback::operator(),
-                    style::GeoJSONData::create(geometry, sequencedScheduler, options));
+    callback.invoke(&GeoJSONDataCallback::operator(), createData(std::move(geometry)));
+}
+
+void FeatureConverter::queueDiffs(std::vector<std::shared_ptr<FeatureDiff>> diffs_) {
+    diffs.insert(diffs.end(), diffs_.begin(), diffs_.end());
+}
+
+void FeatureConverter::updateFeatures(ActorRef<GeoJSONDataCallback> callback) {
+    callback.invoke(&GeoJSONDataCallback::operator(), updateData());
+}
+
+void FeatureConverter::resetData() {
+    updatable = false;
+    features.reset();
+    updatableData.reset();
+}
+
+void FeatureConverter::setRetainFeatures(bool retain) {
+    retainFeatures = retain;
+    if (!retainFeatures) {
+        features.reset();
+    }
+}
+
+static bool hasFeatureIDs(const GeoJSON& geoJSON) {
+    return geoJSON.match(
+        [](const mbgl::FeatureCollection& collection) {
+            return std::all_of(collection.begin(), collection.end(), [](const mbgl::GeoJSONFeature& feature) {
+                return !feature.id.is<mbgl::NullValue>();
+            });
+        },
+        [](const mbgl::GeoJSONFeature& feature) { return !feature.id.is<mbgl::NullValue>(); },
+        [](const auto&) { return false; });
+}
+
+std::shared_ptr<style::GeoJSONData> FeatureConverter::createData(GeoJSON geoJSON) {
+    updatable = hasFeatureIDs(geoJSON);
+    features.reset();
+    updatableData.reset();
+
+    if (updatable && !diffs.empty()) {
+        // updated right away, the data isn't indexed as a whole
+        updatableData = style::GeoJSONData::createUpdatable(geoJSON, sequencedScheduler, options);
+        return updateData();
+    }
+
+    auto data = style::GeoJSONData::create(geoJSON, sequencedScheduler, options);
+    if (updatable && retainFeatures) {
+        features = std::make_unique<GeoJSON>(std::move(geoJSON));
+    } else if (updatable) {
+        // without its features, the data can't be indexed by a diff
+        updatable = false;
+    } else if (!diffs.empty()) {
+        // logs the diffs that can't be applied
+        updateData();
+    }
+    return data;
+}
+
+std::shared_ptr<style::GeoJSONData> FeatureConverter::updateData() {
+    // the source is updated incrementally, the data set next is kept for the diffs following it
+    retainFeatures = true;
+    if (!updatable) {
+        mbgl::Log::Error(mbgl::Event::JNI,
+                         "Error updating geo json: features without an id, not retained or loaded from a URL can't "
+                         "be updated");
+        diffs.clear();
+        return nullptr;
+    }
+
+    if (!updatableData) {
+        updatableData = style::GeoJSONData::createUpdatable(
+            features ? *features : GeoJSON{mbgl::FeatureCollection{}}, sequencedScheduler, options);
+        features.reset();
+    }
+
+    android::UniqueEnv _env = android::AttachEnv();
+    for (const auto& diff : diffs) {
+        if (auto data = updatableData->update(diff->convert(*_env))) {
+            updatableData = std::move(data);
+        }
+    }
+    diffs.clear();
+    return updatableData;
+}
+
+style::GeoJSONDiff FeatureDiff::convert(jni::JNIEnv& env) const {
+    style::GeoJSONDiff diff;
+
+    const std::size_t removeCount = remove.Length(env);
+    diff.remove.reserve(removeCount);
+    for (std::size_t i = 0; i < removeCount; i++) {
+        diff.remove.emplace_back(jni::Make<std::string>(env, remove.Get(env, i)));
+    }
+
+    const std::size_t addCount = add.Length(env);
+    diff.add.reserve(addCount);
+    for (std::size_t i = 0; i < addCount; i++) {
+        diff.add.push_back(geojson::Feature::convert(env, add.Get(env, i)));
+    }
+
+    const std::size_t updateCount = update.Length(env);
+    diff.update.reserve(updateCount);
+    for (std::size_t i = 0; i < updateCount; i++) {
+        diff.update.push_back(geojson::Feature::convert(env, update.Get(env, i)));
+    }
+    return diff;
 }
 
 Update::Update(Converter _converterFn, std::unique_ptr<Actor<GeoJSONDataCallback>> _callback)
@@ -1,6 +1,7 @@
 #pragma once
 
 #include "source.hpp"
+#include "geojson_load.hpp"
 #include <mbgl/style/sources/geojson_source.hpp>
 #include "../../geojson/geometry.hpp"
 #include "../../geojson/feature.hpp"
@@ -13,20 +14,56 @@ namespace android {
 
 using GeoJSONDataCallback = std::function<void(std::shared_ptr<style::GeoJSONData>)>;
 
+// Features added, updated and removed by id, converted on the converter thread
+struct FeatureDiff {
+    jni::Global<jni::Array<jni::Object<geojson::Feature>>, jni::EnvAttachingDeleter> add;
+    jni::Global<jni::Array<jni::Object<geojson::Feature>>, jni::EnvAttachingDeleter> update;
+    jni::Global<jni::Array<jni::String>, jni::EnvAttachingDeleter> remove;
+
+    style::GeoJSONDiff convert(jni::JNIEnv&) const;
+};
+
 class FeatureConverter {
 public:
-    explicit FeatureConverter(Immutable<style::GeoJSONOptions> options_)
+    FeatureConverter(Immutable<style::GeoJSONOptions> options_, bool updatable_)
         : options(std::move(options_)),
-          sequencedScheduler(Scheduler::GetSequenced()) {}
+          sequencedScheduler(Scheduler::GetSequenced()),
+          updatable(updatable_) {}
     void convertJson(std::shared_ptr<std::string>, ActorRef<GeoJSONDataCallback>);
 
+    void convertFeature(std::shared_ptr<mbgl::GeoJSONFeature>, ActorRef<GeoJSONDataCallback>);
+
+    void convertLoad(std::shared_ptr<GeoJSONLoad>, ActorRef<GeoJSONDataCallback>);
+
     template <class JNIType>
     void convertObject(std::shared_ptr<jni::Global<jni::Object<JNIType>, jni::EnvAttachingDeleter>>,
                        ActorRef<GeoJSONDataCallback>);
 
+    // Diffs applied to the data converted next, or to the current data by updateFeatures
+    void queueDiffs(std::vector<std::shared_ptr<FeatureDiff>>);
+    void updateFeatures(ActorRef<GeoJSONDataCallback>);
+
+    // The data was set by URL, it can't be updated
+    void resetData();
+
+    // Whether data set next is kept for diffs, it is after the first diff
+    void setRetainFeatures(bool);
+
 private:
+    std::shared_ptr<style::GeoJSONData> createData(GeoJSON);
+    std::shared_ptr<style::GeoJSONData> updateData();
+
     Immutable<style::GeoJSONOptions> options;
     std::shared_ptr<Scheduler> sequencedScheduler;
+
+    std::vector<std::shared_ptr<FeatureDiff>> diffs;
+    // Whether the features of the current data have ids
+    bool updatable;
+    // Whether the features of data set next are kept
+    bool retainFeatures = false;
+    // The features of the current data, if retained, kept until the first diff makes the data updatable
+    std::unique_ptr<GeoJSON> features;
+    std::shared_ptr<style::GeoJSONData> updatableData;
 };
 
 struct Update {
@@ -35,6 +72,12 @@ struct Update {
 
     std::unique_ptr<Actor<GeoJSONDataCallback>> callback;
 
+    // Diffs following the conversion, queued until the update starts
+    std::vector<std::shared_ptr<FeatureDiff>> diffs;
+
+    // The load reported once its data is set
+    std::shared_ptr<GeoJSONLoad> load;
+
     Update(Converter, std::unique_ptr<Actor<GeoJSONDataCallback>>);
 };
 
@@ -54,7 +97,33 @@ private:
     void setFeatureCollection(jni::JNIEnv&, const jni::Object<geojson::FeatureCollection>&);
     void setFeature(jni::JNIEnv&, const jni::Object<geojson::Feature>&);
     void setGeometry(jni::JNIEnv&, const jni::Object<geojson::Geometry>&);
+    void setPointFeature(jni::JNIEnv&,
+                         jni::jdouble,
+                         jni::jdouble,
+                         const jni::Array<jni::String>&,
+                         const jni::Array<jni::jdouble>&,
+                         const jni::Array<jni::String>&,
+                         const jni::Array<jni::String>&,
+                         const jni::Array<jni::String>&,
+                         const jni::Array<jni::jboolean>&,
+                         const jni::Array<jni::String>&,
+                         const jni::Array<jni::jdouble>&,
+                         jni::jint);
     void setURL(jni::JNIEnv&, const jni::String&);
+    void setRetainFeatures(jni::JNIEnv&, jni::jboolean);
+    void updateFeatures(jni::JNIEnv&,
+                        const jni::Array<jni::Object<geojson::Feature>>&,
+                        const jni::Array<jni::Object<geojson::Feature>>&,
+                        const jni::Array<jni::String>&);
+    void loadGeoJSONStream(jni::JNIEnv&, const jni::Object<GeoJSONLoad>&);
+    void loadGeoJSONFile(jni::JNIEnv&, const jni::Object<GeoJSONLoad>&, const jni::String&);
+    void loadGeoJSONBuffer(jni::JNIEnv&,
+                           const jni::Object<GeoJSONLoad>&,
+                           const jni::Object<java::nio::ByteBuffer>&,
+                           const jni::Array<jni::jbyte>&,
+                           jni::jint,
+                           jni::jint);
+    void loadAsync(std::shared_ptr<GeoJSONLoad>);
 
     jni::Local<jni::Array<jni::Object<geojson::Feature>>> querySourceFeatures(jni::JNIEnv&,
                                                                               const jni::Array<jni::Object<>>&);
@@ -78,7 +147,10 @@ private:
     template <class JNIType>
     void setCollectionAsync(jni::JNIEnv&, const jni::Object<JNIType>&);
 
-    void setAsync(Update::Converter);
+    void setAsync(Update::Converter,
+                  std::vector<std::shared_ptr<FeatureDiff>> diffs = {},
+                  std::shared_ptr<GeoJSONLoad> load = nullptr);
+    void runUpdate();
 
 }; // class GeoJSONSource
 
@@ -12,12 +12,17 @@ import timber.log.Timber;
 
 import org.maplibre.android.constants.MapLibreConstants;
 import org.maplibre.android.exceptions.MapLibreConfigurationException;
+import org.maplibre.android.http.HttpConnectionOptions;
+import org.maplibre.android.module.http.HttpRequestUtil;
+import org.maplibre.android.net.ConnectivityListener;
 import org.maplibre.android.net.ConnectivityReceiver;
 import org.maplibre.android.storage.FileSource;
 import org.maplibre.android.util.DefaultStyle;
 import org.maplibre.android.util.TileServerOptions;
 import org.maplibre.android.utils.ThreadUtils;
 
+import java.util.Collections;
+
 /**
  * The entry point to initialize the MapLibre Android SDK.
  * <p>
@@ -34,6 +39,8 @@ public final class MapLibre {
   private static final String TAG = "Mbgl-MapLibre";
   private static ModuleProvider moduleProvider;
   private static MapLibre INSTANCE;
+  @Nullable
+  private static HttpConnectionOptions httpConnectionOptions;
 
   private Context context;
   @Nullable
@@ -59,7 +66,7 @@ public final class MapLibre {
       Context appContext = context.getApplicationContext();
       FileSource.initializeFileDirsPaths(appContext);
       INSTANCE = new MapLibre(appContext, null);
-      ConnectivityReceiver.instance(appContext);
+      registerConnectivityListeners(appContext);
     }
 
     TileServerOptions tileServerOptions = TileServerOptions.get(WellKnownTileServer.MapLibre);
@@ -97,7 +104,7 @@ public final class MapLibre {
       Context appContext = context.getApplicationContext();
       FileSource.initializeFileDirsPaths(appContext);
       INSTANCE = new MapLibre(appContext, apiKey);
-      ConnectivityReceiver.instance(appContext);
+      registerConnectivityListeners(appContext);
     } else {
       INSTANCE.apiKey = apiKey;
     }
@@ -110,6 +117,16 @@ public final class MapLibre {
     return INSTANCE;
   }
 
+  private static void registerConnectivityListeners(@NonNull Context appContext) {
+    ConnectivityReceiver.instance(appContext).addListener(new ConnectivityListener() {
+      @Override
+      public void onNetworkStateChanged(boolean connected) {
+        // addresses resolved on the previous network may not be reachable from the new one
+        HttpRequestUtil.clearDnsCache();
+      }
+    });
+  }
+
   MapLibre(@NonNull Context context, @Nullable String apiKey) {
     this.context = context;
     this.apiKey = apiKey;
@@ -151,6 +168,36 @@ public final class MapLibre {
     return INSTANCE.tileServerOptions;
   }
 
+  /**
+   * Set the connection settings of the default http implementation: dispatcher limits, connection pool,
+   * dns cache, HTTP/2 and pre-warming of connections to the hosts referenced by a style.
+   * <p>
+   * When pre-warming is enabled, a connection to the base url of the configured tile server is opened right away.
+   * This configuration has no effect when a custom OkHttp client or {@link ModuleProvider} is used.
+   * </p>
+   *
+   * @param options the connection options
+   */
+  public static synchronized void setHttpConnectionOptions(@NonNull HttpConnectionOptions options) {
+    httpConnectionOptions = options;
+    HttpRequestUtil.setConnectionOptions(options);
+
+    if (options.isPrewarmConnections() && INSTANCE != null && INSTANCE.tileServerOptions != null
+      && INSTANCE.tileServerOptions.getBaseURL() != null) {
+      HttpRequestUtil.prewarmConnections(Collections.singletonList(INSTANCE.tileServerOptions.getBaseURL()));
+    }
+  }
+
+  /**
+   * Get the connection settings of the default http implementation.
+   *
+   * @return the options set with {@link #setHttpConnectionOptions(HttpConnectionOptions)}, or null for defaults
+   */
+  @Nullable
+  public static synchronized HttpConnectionOptions getHttpConnectionOptions() {
+    return httpConnectionOptions;
+  }
+
   /**
    * Get all pre-defined styles
    *
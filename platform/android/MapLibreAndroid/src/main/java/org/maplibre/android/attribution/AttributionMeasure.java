@@ -17,16 +17,30 @@ public class AttributionMeasure {
   private Bitmap snapshot;
   private TextView textView;
   private TextView textViewShort;
+  private float textWidth;
+  private float textHeight;
+  private float textShortWidth;
+  private float textShortHeight;
   private float margin;
 
   private boolean shorterText;
 
   AttributionMeasure(Bitmap snapshot, Bitmap logo, Bitmap logoSmall, TextView tv, TextView tvShort, float margin) {
+    this(snapshot, logo, logoSmall, tv.getMeasuredWidth(), tv.getMeasuredHeight(), tvShort.getMeasuredWidth(),
+      tvShort.getMeasuredHeight(), margin);
+    this.textView = tv;
+    this.textViewShort = tvShort;
+  }
+
+  AttributionMeasure(Bitmap snapshot, Bitmap logo, Bitmap logoSmall, float textWidth, float textHeight,
+                     float textShortWidth, float textShortHeight, float margin) {
     this.snapshot = snapshot;
     this.logo = logo;
     this.logoSmall = logoSmall;
-    this.textView = tv;
-    this.textViewShort = tvShort;
+    this.textWidth = textWidth;
+    this.textHeight = textHeight;
+    this.textShortWidth = textShortWidth;
+    this.textShortHeight = textShortHeight;
     this.margin = margin;
   }
 
@@ -54,7 +68,7 @@ public class AttributionMeasure {
       float width = measure.getLogoContainerWidth() + measure.getTextViewContainerWidth();
       boolean fitBounds = width <= measure.getMaxSize();
       if (fitBounds) {
-        PointF anchor = calculateAnchor(measure.snapshot, measure.textView, measure.margin);
+        PointF anchor = measure.calculateAnchor(false);
         return new AttributionLayout(measure.logo, anchor, false);
       }
       return null;
@@ -68,7 +82,7 @@ public class AttributionMeasure {
       float width = measure.getLogoContainerWidth() + measure.getTextViewShortContainerWidth();
       boolean fitBounds = width <= measure.getMaxSizeShort();
       if (fitBounds) {
-        PointF anchor = calculateAnchor(measure.snapshot, measure.textViewShort, measure.margin);
+        PointF anchor = measure.calculateAnchor(true);
         return new AttributionLayout(measure.logo, anchor, true);
       }
       return null;
@@ -82,7 +96,7 @@ public class AttributionMeasure {
       float width = measure.getLogoSmallContainerWidth() + measure.getTextViewContainerWidth();
       boolean fitBounds = width <= measure.getMaxSize();
       if (fitBounds) {
-        PointF anchor = calculateAnchor(measure.snapshot, measure.textView, measure.margin);
+        PointF anchor = measure.calculateAnchor(false);
         return new AttributionLayout(measure.logoSmall, anchor, false);
       }
       return null;
@@ -96,7 +110,7 @@ public class AttributionMeasure {
       float width = measure.getLogoContainerWidth() + measure.getTextViewShortContainerWidth();
       boolean fitBounds = width <= measure.getMaxSizeShort();
       if (fitBounds) {
-        PointF anchor = calculateAnchor(measure.snapshot, measure.textViewShort, measure.margin);
+        PointF anchor = measure.calculateAnchor(true);
         return new AttributionLayout(measure.logoSmall, anchor, true);
       }
       return null;
@@ -110,7 +124,7 @@ public class AttributionMeasure {
       float width = measure.getTextViewContainerWidth() + measure.margin;
       boolean fitBounds = width <= measure.getMaxSize();
       if (fitBounds) {
-        return new AttributionLayout(null, calculateAnchor(measure.snapshot, measure.textView, measure.margin), false);
+        return new AttributionLayout(null, measure.calculateAnchor(false), false);
       }
       return null;
     }
@@ -123,7 +137,7 @@ public class AttributionMeasure {
       float width = measure.getTextViewShortContainerWidth() + measure.margin;
       boolean fitBounds = width <= measure.getMaxSizeShort();
       if (fitBounds) {
-        PointF anchor = calculateAnchor(measure.snapshot, measure.textViewShort, measure.margin);
+        PointF anchor = measure.calculateAnchor(true);
         return new AttributionLayout(null, anchor, true);
       }
       return null;
@@ -138,13 +152,17 @@ public class AttributionMeasure {
     }
   }
 
-  private static PointF calculateAnchor(Bitmap snapshot, TextView textView, float margin) {
+  private PointF calculateAnchor(boolean shortText) {
     return new PointF(
-      snapshot.getWidth() - textView.getMeasuredWidth() - margin,
-      snapshot.getHeight() - margin - textView.getMeasuredHeight()
+      snapshot.getWidth() - (shortText ? textShortWidth : textWidth) - margin,
+      snapshot.getHeight() - margin - (shortText ? textShortHeight : textHeight)
     );
   }
 
+  /**
+   * @return the text view of the measured layout, null when the measure was built from text sizes
+   */
+  @Nullable
   public TextView getTextView() {
     return shorterText ? textViewShort : textView;
   }
@@ -175,7 +193,7 @@ public class AttributionMeasure {
   }
 
   private float getTextViewContainerWidth() {
-    return textView.getMeasuredWidth() + margin;
+    return textWidth + margin;
   }
 
   private float getLogoContainerWidth() {
@@ -183,7 +201,7 @@ public class AttributionMeasure {
   }
 
   private  float getTextViewShortContainerWidth() {
-    return textViewShort.getMeasuredWidth() + margin;
+    return textShortWidth + margin;
   }
 
   private float getLogoSmallContainerWidth() {
@@ -204,6 +222,10 @@ public class AttributionMeasure {
     private Bitmap logoSmall;
     private TextView textView;
     private TextView textViewShort;
+    private float textWidth;
+    private float textHeight;
+    private float textShortWidth;
+    private float textShortHeight;
     private float marginPadding;
 
     @NonNull
@@ -236,6 +258,34 @@ public class AttributionMeasure {
       return this;
     }
 
+    /**
+     * Sets the size of the long attribution text, measured without a view.
+     *
+     * @param width  the width of the text with its background
+     * @param height the height of the text with its background
+     * @return this
+     */
+    @NonNull
+    public Builder setTextSize(float width, float height) {
+      this.textWidth = width;
+      this.textHeight = height;
+      return this;
+    }
+
+    /**
+     * Sets the size of the short attribution text, measured without a view.
+     *
+     * @param width  the width of the text with its background
+     * @param height the height of the text with its background
+     * @return this
+     */
+    @NonNull
+    public Builder setTextSizeShort(float width, float height) {
+      this.textShortWidth = width;
+      this.textShortHeight = height;
+      return this;
+    }
+
     @NonNull
     public Builder setMarginPadding(float marginPadding) {
       this.marginPadding = marginPadding;
@@ -244,7 +294,11 @@ public class AttributionMeasure {
 
     @NonNull
     public AttributionMeasure build() {
-      return new AttributionMeasure(snapshot, logo, logoSmall, textView, textViewShort, marginPadding);
+      if (textView != null && textViewShort != null) {
+        return new AttributionMeasure(snapshot, logo, logoSmall, textView, textViewShort, marginPadding);
+      }
+      return new AttributionMeasure(snapshot, logo, logoSmall, textWidth, textHeight, textShortWidth, textShortHeight,
+        marginPadding);
     }
   }
 }
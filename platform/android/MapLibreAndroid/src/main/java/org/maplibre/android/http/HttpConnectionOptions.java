@@ -0,0 +1,268 @@
+package org.maplibre.android.http;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection settings used by the default http implementation to request map resources.
+ * <p>
+ * Apply them with {@link org.maplibre.android.MapLibre#setHttpConnectionOptions(HttpConnectionOptions)}.
+ * </p>
+ */
+public final class HttpConnectionOptions {
+
+  private final int maxRequests;
+  private final int maxRequestsPerHost;
+  private final int maxIdleConnections;
+  private final long keepAliveDurationMillis;
+  private final long dnsCacheTtlMillis;
+  private final boolean http2Enabled;
+  private final boolean prewarmConnections;
+
+  private HttpConnectionOptions(@NonNull Builder builder) {
+    this.maxRequests = builder.maxRequests;
+    this.maxRequestsPerHost = builder.maxRequestsPerHost;
+    this.maxIdleConnections = builder.maxIdleConnections;
+    this.keepAliveDurationMillis = builder.keepAliveDurationMillis;
+    this.dnsCacheTtlMillis = builder.dnsCacheTtlMillis;
+    this.http2Enabled = builder.http2Enabled;
+    this.prewarmConnections = builder.prewarmConnections;
+  }
+
+  /**
+   * Returns the maximum number of requests executed concurrently across all hosts.
+   *
+   * @return the maximum number of concurrent requests
+   */
+  public int getMaxRequests() {
+    return maxRequests;
+  }
+
+  /**
+   * Returns the maximum number of requests executed concurrently against a single host.
+   *
+   * @return the maximum number of concurrent requests per host
+   */
+  public int getMaxRequestsPerHost() {
+    return maxRequestsPerHost;
+  }
+
+  /**
+   * Returns the maximum number of idle connections kept in the connection pool.
+   *
+   * @return the maximum number of idle connections
+   */
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  /**
+   * Returns how long idle connections are kept alive, in milliseconds.
+   *
+   * @return the keep alive duration in milliseconds
+   */
+  public long getKeepAliveDurationMillis() {
+    return keepAliveDurationMillis;
+  }
+
+  /**
+   * Returns how long resolved host addresses are cached, in milliseconds. 0 disables the cache.
+   *
+   * @return the dns cache time to live in milliseconds
+   */
+  public long getDnsCacheTtlMillis() {
+    return dnsCacheTtlMillis;
+  }
+
+  /**
+   * Returns whether HTTP/2 is negotiated with hosts that support it.
+   *
+   * @return true if HTTP/2 is enabled
+   */
+  public boolean isHttp2Enabled() {
+    return http2Enabled;
+  }
+
+  /**
+   * Returns whether connections to the hosts of the tiles, sprites and glyphs referenced by a style are opened as
+   * soon as the style is received.
+   *
+   * @return true if connections are pre-warmed
+   */
+  public boolean isPrewarmConnections() {
+    return prewarmConnections;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    HttpConnectionOptions that = (HttpConnectionOptions) o;
+
+    if (maxRequests != that.maxRequests) {
+      return false;
+    }
+    if (maxRequestsPerHost != that.maxRequestsPerHost) {
+      return false;
+    }
+    if (maxIdleConnections != that.maxIdleConnections) {
+      return false;
+    }
+    if (keepAliveDurationMillis != that.keepAliveDurationMillis) {
+      return false;
+    }
+    if (dnsCacheTtlMillis != that.dnsCacheTtlMillis) {
+      return false;
+    }
+    if (http2Enabled != that.http2Enabled) {
+      return false;
+    }
+    return prewarmConnections == that.prewarmConnections;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = maxRequests;
+    result = 31 * result + maxRequestsPerHost;
+    result = 31 * result + maxIdleConnections;
+    result = 31 * result + (int) (keepAliveDurationMillis ^ (keepAliveDurationMillis >>> 32));
+    result = 31 * result + (int) (dnsCacheTtlMillis ^ (dnsCacheTtlMillis >>> 32));
+    result = 31 * result + (http2Enabled ? 1 : 0);
+    result = 31 * result + (prewarmConnections ? 1 : 0);
+    return result;
+  }
+
+  public static final class Builder {
+
+    private int maxRequests = 64;
+    private int maxRequestsPerHost = 20;
+    private int maxIdleConnections = 10;
+    private long keepAliveDurationMillis = TimeUnit.MINUTES.toMillis(5);
+    private long dnsCacheTtlMillis = 0;
+    private boolean http2Enabled = true;
+    private boolean prewarmConnections = false;
+
+    /**
+     * Set the maximum number of requests executed concurrently across all hosts. Default is 64.
+     *
+     * @param maxRequests the maximum number of concurrent requests, at least 1
+     * @return reference to builder
+     */
+    @NonNull
+    public Builder setMaxRequests(int maxRequests) {
+      if (maxRequests < 1) {
+        throw new IllegalArgumentException("maxRequests < 1: " + maxRequests);
+      }
+      this.maxRequests = maxRequests;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of requests executed concurrently against a single host. Default is 20.
+     *
+     * @param maxRequestsPerHost the maximum number of concurrent requests per host, at least 1
+     * @return reference to builder
+     */
+    @NonNull
+    public Builder setMaxRequestsPerHost(int maxRequestsPerHost) {
+      if (maxRequestsPerHost < 1) {
+        throw new IllegalArgumentException("maxRequestsPerHost < 1: " + maxRequestsPerHost);
+      }
+      this.maxRequestsPerHost = maxRequestsPerHost;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of idle connections kept in the connection pool. Default is 10.
+     *
+     * @param maxIdleConnections the maximum number of idle connections
+     * @return reference to builder
+     */
+    @NonNull
+    public Builder setMaxIdleConnections(int maxIdleConnections) {
+      if (maxIdleConnections < 0) {
+        throw new IllegalArgumentException("maxIdleConnections < 0: " + maxIdleConnections);
+      }
+      this.maxIdleConnections = maxIdleConnections;
+      return this;
+    }
+
+    /**
+     * Set how long idle connections are kept alive. Default is 5 minutes.
+     *
+     * @param duration the keep alive duration
+     * @param unit     the unit of duration
+     * @return reference to builder
+     */
+    @NonNull
+    public Builder setKeepAliveDuration(long duration, @NonNull TimeUnit unit) {
+      if (duration <= 0) {
+        throw new IllegalArgumentException("duration <= 0: " + duration);
+      }
+      this.keepAliveDurationMillis = unit.toMillis(duration);
+      return this;
+    }
+
+    /**
+     * Set how long resolved host addresses are cached. Default is 0, which disables the cache.
+     * <p>
+     * The addresses of a host are resolved again after a failed request to it or a change of connectivity.
+     * </p>
+     *
+     * @param ttl  the time to live of a cached lookup
+     * @param unit the unit of ttl
+     * @return reference to builder
+     */
+    @NonNull
+    public Builder setDnsCacheTtl(long ttl, @NonNull TimeUnit unit) {
+      if (ttl < 0) {
+        throw new IllegalArgumentException("ttl < 0: " + ttl);
+      }
+      this.dnsCacheTtlMillis = unit.toMillis(ttl);
+      return this;
+    }
+
+    /**
+     * Set whether HTTP/2 is negotiated with hosts that support it, multiplexing tile requests over a single
+     * connection per host. Default is true.
+     *
+     * @param http2Enabled true to enable HTTP/2
+     * @return reference to builder
+     */
+    @NonNull
+    public Builder setHttp2Enabled(boolean http2Enabled) {
+      this.http2Enabled = http2Enabled;
+      return this;
+    }
+
+    /**
+     * Set whether connections to the hosts of the tiles, sprites and glyphs referenced by a style or TileJSON are
+     * opened as soon as it is received, instead of on the first request to them. Each host receives a HEAD
+     * request. Default is false.
+     *
+     * @param prewarmConnections true to pre-warm connections
+     * @return reference to builder
+     */
+    @NonNull
+    public Builder setPrewarmConnections(boolean prewarmConnections) {
+      this.prewarmConnections = prewarmConnections;
+      return this;
+    }
+
+    /**
+     * Builds the options.
+     *
+     * @return the connection options
+     */
+    @NonNull
+    public HttpConnectionOptions build() {
+      return new HttpConnectionOptions(this);
+    }
+  }
+}
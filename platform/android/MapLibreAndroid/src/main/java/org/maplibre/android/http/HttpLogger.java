@@ -2,6 +2,8 @@ package org.maplibre.android.http;
 
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import org.maplibre.android.log.Logger;
 
 import static org.maplibre.android.http.HttpRequest.CONNECTION_ERROR;
@@ -14,9 +16,39 @@ public class HttpLogger {
   public static boolean logRequestUrl;
   public static boolean logEnabled = true;
 
+  @Nullable
+  private static volatile HttpMetricsListener metricsListener;
+
   private HttpLogger(){
   }
 
+  /**
+   * Set a listener receiving the timings of every request made by the default http client.
+   * <p>
+   * Metrics are only collected while a listener is set.
+   * </p>
+   *
+   * @param listener the listener, or null to stop collecting metrics
+   */
+  public static void setMetricsListener(@Nullable HttpMetricsListener listener) {
+    metricsListener = listener;
+  }
+
+  @Nullable
+  public static HttpMetricsListener getMetricsListener() {
+    return metricsListener;
+  }
+
+  /**
+   * Returns whether a message of the given severity would be logged, to skip formatting messages that aren't.
+   *
+   * @param type the log severity
+   * @return true if the message would be logged
+   */
+  public static boolean isLoggable(int type) {
+    return logEnabled && Logger.isLoggable(type);
+  }
+
   public static void logFailure(int type, String errorMessage, String requestUrl) {
     log(type == TEMPORARY_ERROR ? Log.DEBUG : type == CONNECTION_ERROR ? Log.INFO : Log.WARN,
       String.format(
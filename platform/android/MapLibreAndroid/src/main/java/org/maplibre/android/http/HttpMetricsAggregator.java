@@ -0,0 +1,311 @@
+package org.maplibre.android.http;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates request metrics into rolling histograms per host and per resource kind.
+ * <p>
+ * Each histogram covers the last {@code windowCount} windows of {@code windowMillis}, older samples
+ * drop out as time passes. Latencies are counted in power of two millisecond buckets, percentiles are
+ * reported as the upper bound of the bucket they fall in. The least recently used hosts are dropped
+ * beyond {@link #MAX_HOSTS}.
+ * </p>
+ */
+public final class HttpMetricsAggregator implements HttpMetricsListener {
+
+  public static final long DEFAULT_WINDOW_MILLIS = 10_000;
+  public static final int DEFAULT_WINDOW_COUNT = 6;
+  public static final int MAX_HOSTS = 64;
+
+  private static final int KIND_COUNT = HttpRequestMetrics.KIND_TILE + 1;
+
+  private final long windowMillis;
+  private final int windowCount;
+  private final Map<String, Rolling> hosts = new LinkedHashMap<String, Rolling>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Rolling> eldest) {
+      return size() > MAX_HOSTS;
+    }
+  };
+  private final Rolling[] kinds = new Rolling[KIND_COUNT];
+
+  public HttpMetricsAggregator() {
+    this(DEFAULT_WINDOW_MILLIS, DEFAULT_WINDOW_COUNT);
+  }
+
+  /**
+   * @param windowMillis the duration of a window
+   * @param windowCount  the number of windows kept
+   */
+  public HttpMetricsAggregator(long windowMillis, int windowCount) {
+    if (windowMillis <= 0 || windowCount <= 0) {
+      throw new IllegalArgumentException("windowMillis and windowCount must be positive");
+    }
+    this.windowMillis = windowMillis;
+    this.windowCount = windowCount;
+    for (int i = 0; i < KIND_COUNT; i++) {
+      kinds[i] = new Rolling(windowCount);
+    }
+  }
+
+  @Override
+  public void onRequestFinished(@NonNull HttpRequestMetrics metrics) {
+    long epoch = SystemClock.elapsedRealtime() / windowMillis;
+    synchronized (this) {
+      Rolling host = hosts.get(metrics.getHost());
+      if (host == null) {
+        host = new Rolling(windowCount);
+        hosts.put(metrics.getHost(), host);
+      }
+      host.record(metrics, epoch);
+      kinds[metrics.getKind()].record(metrics, epoch);
+    }
+  }
+
+  /**
+   * Returns the hosts with samples, most recently used last.
+   *
+   * @return the hosts
+   */
+  @NonNull
+  public synchronized List<String> getHosts() {
+    return new ArrayList<>(hosts.keySet());
+  }
+
+  /**
+   * Returns the histogram of a host over the rolling period.
+   *
+   * @param host the host
+   * @return the histogram, or null if there are no samples for the host
+   */
+  @Nullable
+  public synchronized Histogram getHostHistogram(@NonNull String host) {
+    Rolling rolling = hosts.get(host);
+    return rolling != null ? rolling.snapshot(SystemClock.elapsedRealtime() / windowMillis) : null;
+  }
+
+  /**
+   * Returns the histogram of a resource kind over the rolling period.
+   *
+   * @param kind the resource kind
+   * @return the histogram
+   */
+  @NonNull
+  public synchronized Histogram getKindHistogram(@HttpRequestMetrics.ResourceKind int kind) {
+    return kinds[kind].snapshot(SystemClock.elapsedRealtime() / windowMillis);
+  }
+
+  /**
+   * Drops all samples.
+   */
+  public synchronized void reset() {
+    hosts.clear();
+    for (int i = 0; i < KIND_COUNT; i++) {
+      kinds[i] = new Rolling(windowCount);
+    }
+  }
+
+  /**
+   * Ring of windows, a window is reused once its epoch has rolled out of the period.
+   */
+  private static final class Rolling {
+
+    private final Histogram[] windows;
+    private final long[] epochs;
+
+    Rolling(int windowCount) {
+      windows = new Histogram[windowCount];
+      epochs = new long[windowCount];
+      for (int i = 0; i < windowCount; i++) {
+        windows[i] = new Histogram();
+        epochs[i] = Long.MIN_VALUE;
+      }
+    }
+
+    void record(@NonNull HttpRequestMetrics metrics, long epoch) {
+      int index = (int) (epoch % windows.length);
+      if (epochs[index] != epoch) {
+        epochs[index] = epoch;
+        windows[index] = new Histogram();
+      }
+      windows[index].record(metrics);
+    }
+
+    @NonNull
+    Histogram snapshot(long epoch) {
+      Histogram result = new Histogram();
+      for (int i = 0; i < windows.length; i++) {
+        if (epochs[i] > epoch - windows.length) {
+          result.add(windows[i]);
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Counters and latency distributions of a set of requests.
+   */
+  public static final class Histogram {
+
+    /**
+     * Number of latency buckets, the first one counts everything below 2 ms and the last one
+     * everything from 2^{@code BUCKET_COUNT - 1} ms.
+     */
+    public static final int BUCKET_COUNT = 17;
+
+    private final long[] total = new long[BUCKET_COUNT];
+    private final long[] timeToFirstByte = new long[BUCKET_COUNT];
+    private final long[] queue = new long[BUCKET_COUNT];
+    private long count;
+    private long failures;
+    private long cacheHits;
+    private long notModified;
+    private long bytes;
+    private long transferNanos;
+
+    Histogram() {
+    }
+
+    void record(@NonNull HttpRequestMetrics metrics) {
+      count++;
+      if (metrics.isFailed()) {
+        failures++;
+      }
+      if (metrics.isCacheHit()) {
+        cacheHits++;
+      }
+      if (metrics.isNotModified()) {
+        notModified++;
+      }
+      bytes += metrics.getBytes();
+      if (metrics.getTransferNanos() > 0) {
+        transferNanos += metrics.getTransferNanos();
+      }
+      total[bucketOf(metrics.getTotalNanos())]++;
+      if (metrics.getTimeToFirstByteNanos() >= 0) {
+        timeToFirstByte[bucketOf(metrics.getTimeToFirstByteNanos())]++;
+      }
+      if (metrics.getQueueNanos() >= 0) {
+        queue[bucketOf(metrics.getQueueNanos())]++;
+      }
+    }
+
+    void add(@NonNull Histogram other) {
+      count += other.count;
+      failures += other.failures;
+      cacheHits += other.cacheHits;
+      notModified += other.notModified;
+      bytes += other.bytes;
+      transferNanos += other.transferNanos;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        total[i] += other.total[i];
+        timeToFirstByte[i] += other.timeToFirstByte[i];
+        queue[i] += other.queue[i];
+      }
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getFailureCount() {
+      return failures;
+    }
+
+    public long getCacheHitCount() {
+      return cacheHits;
+    }
+
+    public long getNotModifiedCount() {
+      return notModified;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    /**
+     * Returns the throughput of response bodies, the bytes received divided by the time spent reading them.
+     *
+     * @return bytes per second, 0 without samples
+     */
+    public double getBytesPerSecond() {
+      return transferNanos > 0 ? bytes * 1e9 / transferNanos : 0;
+    }
+
+    /**
+     * Returns the total request duration below which the given fraction of requests completed.
+     *
+     * @param quantile a value between 0 and 1, e.g. 0.95
+     * @return the upper bound of the matching bucket in milliseconds, 0 without samples
+     */
+    public long getTotalMillis(double quantile) {
+      return percentile(total, quantile);
+    }
+
+    /**
+     * Returns the time to first byte below which the given fraction of requests received their response headers.
+     *
+     * @param quantile a value between 0 and 1, e.g. 0.95
+     * @return the upper bound of the matching bucket in milliseconds, 0 without samples
+     */
+    public long getTimeToFirstByteMillis(double quantile) {
+      return percentile(timeToFirstByte, quantile);
+    }
+
+    /**
+     * Returns the time waiting for the dispatcher below which the given fraction of requests started.
+     *
+     * @param quantile a value between 0 and 1, e.g. 0.95
+     * @return the upper bound of the matching bucket in milliseconds, 0 without samples
+     */
+    public long getQueueMillis(double quantile) {
+      return percentile(queue, quantile);
+    }
+
+    /**
+     * Returns a copy of the total duration buckets, bucket i counts requests that took less than 2^(i + 1) ms.
+     *
+     * @return the bucket counts
+     */
+    @NonNull
+    public long[] getTotalBuckets() {
+      return total.clone();
+    }
+
+    private static long percentile(@NonNull long[] buckets, double quantile) {
+      long samples = 0;
+      for (long bucket : buckets) {
+        samples += bucket;
+      }
+      if (samples == 0) {
+        return 0;
+      }
+
+      long rank = (long) Math.ceil(Math.max(0, Math.min(1, quantile)) * samples);
+      long seen = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i];
+        if (seen >= rank && seen > 0) {
+          return 1L << (i + 1);
+        }
+      }
+      return 1L << buckets.length;
+    }
+
+    private static int bucketOf(long nanos) {
+      long millis = Math.max(1, nanos / 1_000_000);
+      int bucket = 63 - Long.numberOfLeadingZeros(millis);
+      return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+  }
+}
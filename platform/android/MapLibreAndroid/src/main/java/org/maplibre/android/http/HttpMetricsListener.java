@@ -0,0 +1,16 @@
+package org.maplibre.android.http;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Receives the metrics of every completed map resource request.
+ * <p>
+ * Invoked on the http client threads, implementations must be thread safe and return quickly.
+ * Install one with {@link HttpLogger#setMetricsListener(HttpMetricsListener)}, {@link HttpMetricsAggregator}
+ * keeps rolling histograms per host and resource kind.
+ * </p>
+ */
+public interface HttpMetricsListener {
+
+  void onRequestFinished(@NonNull HttpRequestMetrics metrics);
+}
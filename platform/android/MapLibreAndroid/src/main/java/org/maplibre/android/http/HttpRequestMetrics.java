@@ -0,0 +1,226 @@
+package org.maplibre.android.http;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Timings and transfer statistics of a single map resource request.
+ * <p>
+ * Durations are in nanoseconds and measured from the events of the http client. A phase that didn't happen,
+ * for instance the dns lookup and handshake of a request reusing a pooled connection, has a duration of -1.
+ * </p>
+ */
+public final class HttpRequestMetrics {
+
+  /**
+   * Style and TileJSON documents.
+   */
+  public static final int KIND_STYLE = 0;
+
+  /**
+   * Sprite images and metadata.
+   */
+  public static final int KIND_SPRITE = 1;
+
+  /**
+   * Glyph ranges.
+   */
+  public static final int KIND_GLYPH = 2;
+
+  /**
+   * Vector, raster and raster-dem tiles, and any other resource.
+   */
+  public static final int KIND_TILE = 3;
+
+  @IntDef( {KIND_STYLE, KIND_SPRITE, KIND_GLYPH, KIND_TILE})
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface ResourceKind {
+  }
+
+  @NonNull
+  private final String url;
+  @NonNull
+  private final String host;
+  @ResourceKind
+  private final int kind;
+  @Nullable
+  private final String protocol;
+  private final int responseCode;
+  private final boolean failed;
+  private final boolean cacheHit;
+  private final long queueNanos;
+  private final long dnsNanos;
+  private final long connectNanos;
+  private final long tlsNanos;
+  private final long timeToFirstByteNanos;
+  private final long transferNanos;
+  private final long totalNanos;
+  private final long bytes;
+
+  public HttpRequestMetrics(@NonNull String url, @NonNull String host, @ResourceKind int kind,
+                            @Nullable String protocol, int responseCode, boolean failed, boolean cacheHit,
+                            long queueNanos, long dnsNanos, long connectNanos, long tlsNanos, long timeToFirstByteNanos,
+                            long transferNanos, long totalNanos, long bytes) {
+    this.url = url;
+    this.host = host;
+    this.kind = kind;
+    this.protocol = protocol;
+    this.responseCode = responseCode;
+    this.failed = failed;
+    this.cacheHit = cacheHit;
+    this.queueNanos = queueNanos;
+    this.dnsNanos = dnsNanos;
+    this.connectNanos = connectNanos;
+    this.tlsNanos = tlsNanos;
+    this.timeToFirstByteNanos = timeToFirstByteNanos;
+    this.transferNanos = transferNanos;
+    this.totalNanos = totalNanos;
+    this.bytes = bytes;
+  }
+
+  @NonNull
+  public String getUrl() {
+    return url;
+  }
+
+  @NonNull
+  public String getHost() {
+    return host;
+  }
+
+  @ResourceKind
+  public int getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the negotiated protocol, e.g. h2 or http/1.1, or null if no connection was acquired.
+   *
+   * @return the protocol
+   */
+  @Nullable
+  public String getProtocol() {
+    return protocol;
+  }
+
+  /**
+   * Returns the http status code, or -1 if no response was received.
+   *
+   * @return the status code
+   */
+  public int getResponseCode() {
+    return responseCode;
+  }
+
+  /**
+   * Returns whether the request failed or was cancelled before the response was read completely.
+   *
+   * @return true if the request failed
+   */
+  public boolean isFailed() {
+    return failed;
+  }
+
+  /**
+   * Returns whether the response was served from the http cache without going to the network.
+   *
+   * @return true for a cache hit
+   */
+  public boolean isCacheHit() {
+    return cacheHit;
+  }
+
+  /**
+   * Returns whether the server confirmed that the cached copy of the resource is still valid.
+   *
+   * @return true for a 304 response
+   */
+  public boolean isNotModified() {
+    return responseCode == 304;
+  }
+
+  /**
+   * Returns the time the request waited for the dispatcher before it started, e.g. behind the limit of
+   * concurrent requests per host. This is client side and not part of the other durations.
+   *
+   * @return the queue time in nanoseconds, or -1 if the request was cancelled before it started
+   */
+  public long getQueueNanos() {
+    return queueNanos;
+  }
+
+  public long getDnsNanos() {
+    return dnsNanos;
+  }
+
+  public long getConnectNanos() {
+    return connectNanos;
+  }
+
+  public long getTlsNanos() {
+    return tlsNanos;
+  }
+
+  /**
+   * Returns the time from sending the request headers until the response headers started arriving, the
+   * round trip and the time the server took, excluding the queue time and connection setup.
+   *
+   * @return the time to first byte in nanoseconds
+   */
+  public long getTimeToFirstByteNanos() {
+    return timeToFirstByteNanos;
+  }
+
+  /**
+   * Returns the time spent reading the response, from the response headers until the end of the body.
+   *
+   * @return the transfer time in nanoseconds
+   */
+  public long getTransferNanos() {
+    return transferNanos;
+  }
+
+  /**
+   * Returns the time from the start of the request, once it left the dispatcher queue, until the end of the
+   * response. It excludes the queue time.
+   *
+   * @return the total duration in nanoseconds
+   */
+  public long getTotalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * Returns the number of response body bytes received.
+   *
+   * @return the body size
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "HttpRequestMetrics{"
+      + "url='" + url + '\''
+      + ", kind=" + kind
+      + ", protocol=" + protocol
+      + ", responseCode=" + responseCode
+      + ", failed=" + failed
+      + ", cacheHit=" + cacheHit
+      + ", queueNanos=" + queueNanos
+      + ", dnsNanos=" + dnsNanos
+      + ", connectNanos=" + connectNanos
+      + ", tlsNanos=" + tlsNanos
+      + ", timeToFirstByteNanos=" + timeToFirstByteNanos
+      + ", transferNanos=" + transferNanos
+      + ", totalNanos=" + totalNanos
+      + ", bytes=" + bytes
+      + '}';
+  }
+}
@@ -1,5 +1,9 @@
 package org.maplibre.android.http;
 
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
 /**
  * Interface definition for a callback to be invoked when either a response was returned for a requested resource or
  * when an error occurred when requesting the resource.
@@ -21,6 +25,31 @@ public interface HttpResponder {
   void onResponse(int responseCode, String eTag, String lastModified, String cacheControl, String expires,
                   String retryAfter, String xRateLimitReset, byte[] body);
 
+  /**
+   * Invoked when a resource has finished and its body was read into a direct buffer.
+   * <p>
+   * The buffer is only valid for the duration of this call, it's recycled by the caller afterwards.
+   * Implementations that can't consume direct memory fall back to {@link #onResponse(int, String, String, String,
+   * String, String, String, byte[])}.
+   * </p>
+   *
+   * @param responseCode    http response code
+   * @param eTag            http header, identifier for a specific version of a resource
+   * @param lastModified    http header, used to determine if a resource hasn't been modified since
+   * @param cacheControl    http header, used to determine cache strategy of a resource
+   * @param expires         http header, used to determine when a resource is stale
+   * @param retryAfter      http header, used to indicate when the service is expected to be unavailable to the client
+   * @param xRateLimitReset http header, used to determine the remaining window before the rate limit resets
+   * @param body            http response body, in a direct buffer starting at position 0
+   * @param length          the number of valid bytes in body
+   */
+  default void onResponse(int responseCode, String eTag, String lastModified, String cacheControl, String expires,
+                          String retryAfter, String xRateLimitReset, @NonNull ByteBuffer body, int length) {
+    byte[] bytes = new byte[length];
+    body.duplicate().get(bytes, 0, length);
+    onResponse(responseCode, eTag, lastModified, cacheControl, expires, retryAfter, xRateLimitReset, bytes);
+  }
+
   /**
    * Invoked when a resource failed to be retrieved.
    *
@@ -1,19 +1,19 @@
 package org.maplibre.android.http;
 
 import androidx.annotation.Keep;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import org.maplibre.android.MapLibre;
 
-import java.util.concurrent.locks.ReentrantLock;
+import java.nio.ByteBuffer;
 
 @Keep
 public class NativeHttpRequest implements HttpResponder {
 
   private final HttpRequest httpRequest = MapLibre.getModuleProvider().createHttpRequest();
 
-  // Reentrancy is not needed, but "Lock" is an abstract class.
-  private final ReentrantLock lock = new ReentrantLock();
+  private final RequestState state = new RequestState();
 
   @Keep
   private long nativePtr;
@@ -31,23 +31,24 @@ public class NativeHttpRequest implements HttpResponder {
     httpRequest.executeRequest(this, nativePtr, resourceUrl, dataRange, etag, modified, offlineUsage);
   }
 
-  public void cancel() {
+  /**
+   * Cancels the request without waiting for a response that is being delivered on another thread.
+   *
+   * @return true if the native side keeps ownership of its peer and must release it
+   */
+  @Keep
+  public boolean cancel() {
+    boolean releasePeer = state.cancel();
     httpRequest.cancelRequest();
-
-    // TODO: We need a lock here because we can try
-    // to cancel at the same time the request is getting
-    // answered on the OkHTTP thread. We could get rid of
-    // this lock by using Runnable when we move Android
-    // implementation of mbgl::RunLoop to Looper.
-    lock.lock();
-    nativePtr = 0;
-    lock.unlock();
+    return releasePeer;
   }
 
   public void onResponse(int responseCode, String etag, String lastModified, String cacheControl, String expires,
                          String retryAfter, String xRateLimitReset, byte[] body) {
-    lock.lock();
-    if (nativePtr != 0) {
+    if (!state.beginDelivery()) {
+      return;
+    }
+    try {
       nativeOnResponse(responseCode,
         etag,
         lastModified,
@@ -56,8 +57,30 @@ public class NativeHttpRequest implements HttpResponder {
         retryAfter,
         xRateLimitReset,
         body);
+    } finally {
+      endDelivery();
+    }
+  }
+
+  @Override
+  public void onResponse(int responseCode, String etag, String lastModified, String cacheControl, String expires,
+                         String retryAfter, String xRateLimitReset, @NonNull ByteBuffer body, int length) {
+    if (!state.beginDelivery()) {
+      return;
+    }
+    try {
+      nativeOnResponseDirect(responseCode,
+        etag,
+        lastModified,
+        cacheControl,
+        expires,
+        retryAfter,
+        xRateLimitReset,
+        body,
+        length);
+    } finally {
+      endDelivery();
     }
-    lock.unlock();
   }
 
   private void executeLocalRequest(String resourceUrl) {
@@ -65,22 +88,28 @@ public class NativeHttpRequest implements HttpResponder {
       @Override
       public void onResponse(@Nullable byte[] bytes) {
         if (bytes != null) {
-          lock.lock();
-          if (nativePtr != 0) {
-            NativeHttpRequest.this.nativeOnResponse(200, null, null, null, null, null, null, bytes);
-          }
-          lock.unlock();
+          NativeHttpRequest.this.onResponse(200, null, null, null, null, null, null, bytes);
         }
       }
     }).execute(resourceUrl);
   }
 
   public void handleFailure(int type, String errorMessage) {
-    lock.lock();
-    if (nativePtr != 0) {
+    if (!state.beginDelivery()) {
+      return;
+    }
+    try {
       nativeOnFailure(type, errorMessage);
+    } finally {
+      endDelivery();
+    }
+  }
+
+  private void endDelivery() {
+    if (state.endDelivery()) {
+      // cancelled while delivering, the native request is gone and the peer is ours to release
+      nativeRelease();
     }
-    lock.unlock();
   }
 
   @Keep
@@ -89,4 +118,12 @@ public class NativeHttpRequest implements HttpResponder {
   @Keep
   private native void nativeOnResponse(int code, String etag, String modified, String cacheControl, String expires,
                                        String retryAfter, String xRateLimitReset, byte[] body);
+
+  @Keep
+  private native void nativeOnResponseDirect(int code, String etag, String modified, String cacheControl,
+                                             String expires, String retryAfter, String xRateLimitReset,
+                                             ByteBuffer body, int length);
+
+  @Keep
+  private native void nativeRelease();
 }
@@ -0,0 +1,52 @@
+package org.maplibre.android.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free state machine deciding who owns the native peer of a {@link NativeHttpRequest}.
+ * <p>
+ * A request is pending until a response or failure starts being delivered. Cancelling never waits for a
+ * delivery in progress, instead ownership of the native peer moves to the delivering thread which releases it
+ * when it returns from native. In every other case the native side keeps ownership and releases it itself.
+ * </p>
+ */
+final class RequestState {
+
+  static final int PENDING = 0;
+  static final int DELIVERING = 1;
+  static final int DONE = 2;
+  static final int CANCELLED = 3;
+
+  private final AtomicInteger state = new AtomicInteger(PENDING);
+
+  /**
+   * Claims the request for delivery, only the first response or failure is delivered.
+   *
+   * @return true if the caller may call into native
+   */
+  boolean beginDelivery() {
+    return state.compareAndSet(PENDING, DELIVERING);
+  }
+
+  /**
+   * Marks the delivery as finished.
+   *
+   * @return true if the request was cancelled while delivering, the caller must release the native peer
+   */
+  boolean endDelivery() {
+    return !state.compareAndSet(DELIVERING, DONE);
+  }
+
+  /**
+   * Cancels the request, never blocks.
+   *
+   * @return true if the caller must release the native peer, false if a delivery in progress will
+   */
+  boolean cancel() {
+    return state.getAndSet(CANCELLED) != DELIVERING;
+  }
+
+  int get() {
+    return state.get();
+  }
+}
@@ -9,9 +9,13 @@ import org.maplibre.android.location.modes.RenderMode;
 import org.maplibre.android.maps.Style;
 import org.maplibre.android.style.expressions.Expression;
 import org.maplibre.android.style.layers.Layer;
+import org.maplibre.android.style.layers.PropertyValue;
 import org.maplibre.android.utils.BitmapUtils;
 import org.maplibre.android.utils.ColorUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.maplibre.android.location.LocationComponentConstants.BACKGROUND_ICON;
 import static org.maplibre.android.location.LocationComponentConstants.BACKGROUND_STALE_ICON;
 import static org.maplibre.android.location.LocationComponentConstants.BEARING_ICON;
@@ -35,6 +39,10 @@ class IndicatorLocationLayerRenderer implements LocationLayerRenderer {
   private double lastBearing = 0;
   private float lastAccuracy = 0;
 
+  // the properties set between beginUpdates and endUpdates, set on the layer at once
+  private final List<PropertyValue<?>> pendingProperties = new ArrayList<>(3);
+  private boolean isUpdating;
+
   IndicatorLocationLayerRenderer(LayerSourceProvider layerSourceProvider) {
     this.layerSourceProvider = layerSourceProvider;
   }
@@ -92,6 +100,20 @@ class IndicatorLocationLayerRenderer implements LocationLayerRenderer {
     );
   }
 
+  @Override
+  public void beginUpdates() {
+    isUpdating = true;
+  }
+
+  @Override
+  public void endUpdates() {
+    isUpdating = false;
+    if (!pendingProperties.isEmpty()) {
+      layer.setProperties(pendingProperties.toArray(new PropertyValue<?>[0]));
+      pendingProperties.clear();
+    }
+  }
+
   @Override
   public void setLatLng(LatLng latLng) {
     setLayerLocation(latLng);
@@ -109,9 +131,7 @@ class IndicatorLocationLayerRenderer implements LocationLayerRenderer {
 
   @Override
   public void setAccuracyRadius(Float accuracy) {
-    layer.setProperties(
-      LocationPropertyFactory.accuracyRadius(accuracy)
-    );
+    setProperty(LocationPropertyFactory.accuracyRadius(accuracy));
     lastAccuracy = accuracy;
   }
 
@@ -169,19 +189,23 @@ class IndicatorLocationLayerRenderer implements LocationLayerRenderer {
 
   private void setLayerLocation(LatLng latLng) {
     Double[] values = new Double[] {latLng.getLatitude(), latLng.getLongitude(), 0d};
-    layer.setProperties(
-      LocationPropertyFactory.location(values)
-    );
+    setProperty(LocationPropertyFactory.location(values));
     lastLatLng = latLng;
   }
 
   private void setLayerBearing(double bearing) {
-    layer.setProperties(
-      LocationPropertyFactory.bearing(bearing)
-    );
+    setProperty(LocationPropertyFactory.bearing(bearing));
     lastBearing = bearing;
   }
 
+  private void setProperty(PropertyValue<?> property) {
+    if (isUpdating) {
+      pendingProperties.add(property);
+    } else {
+      layer.setProperties(property);
+    }
+  }
+
   /**
    * Adjust the visibility of the pulsing LocationComponent circle.
    */
@@ -5,6 +5,7 @@ import android.location.Location;
 import android.os.SystemClock;
 import android.util.SparseArray;
 import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
 import android.view.animation.LinearInterpolator;
 
 import androidx.annotation.NonNull;
@@ -45,10 +46,13 @@ import org.maplibre.android.geometry.LatLng;
 final class LocationAnimatorCoordinator {
 
   private static final String TAG = "Mbgl-LocationAnimatorCoordinator";
+  private static final Interpolator LINEAR_INTERPOLATOR = new LinearInterpolator();
 
   @VisibleForTesting
   final SparseArray<MapLibreAnimator> animatorArray = new SparseArray<>();
 
+  private final List<Animator> playedAnimators = new ArrayList<>();
+
   private final Projection projection;
   private Location previousLocation;
   private float previousAccuracyRadius = -1;
@@ -387,14 +391,15 @@ final class LocationAnimatorCoordinator {
   }
 
   private void playAnimators(long duration, @MapLibreAnimator.Type int... animatorTypes) {
-    List<Animator> animators = new ArrayList<>();
+    // the animator set copies the animators, the list is reused for every update
+    playedAnimators.clear();
     for (@MapLibreAnimator.Type int animatorType : animatorTypes) {
       Animator animator = animatorArray.get(animatorType);
       if (animator != null) {
-        animators.add(animator);
+        playedAnimators.add(animator);
       }
     }
-    animatorSetProvider.startAnimation(animators, new LinearInterpolator(), duration);
+    animatorSetProvider.startAnimation(playedAnimators, LINEAR_INTERPOLATOR, duration);
   }
 
   /**
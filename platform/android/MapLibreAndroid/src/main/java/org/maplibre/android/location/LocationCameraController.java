@@ -29,6 +29,12 @@ import org.maplibre.android.geometry.LatLng;
 
 final class LocationCameraController {
 
+  private static final int PENDING_LATLNG = 1;
+  private static final int PENDING_BEARING = 1 << 1;
+  private static final int PENDING_ZOOM = 1 << 2;
+  private static final int PENDING_TILT = 1 << 3;
+  private static final int PENDING_PADDING = 1 << 4;
+
   @CameraMode.Mode
   private int cameraMode;
 
@@ -47,6 +53,20 @@ final class LocationCameraController {
   private LatLng lastLocation;
   private boolean isEnabled;
 
+  @Nullable
+  private LocationFrameCoalescer frameCoalescer;
+  private final LocationFrameCoalescer.Target frameTarget = this::applyCameraValues;
+
+  // values of the camera animators not applied yet, flags of PENDING_*
+  private int pendingValues;
+  @Nullable
+  private LatLng pendingLatLng;
+  private float pendingBearing;
+  private float pendingZoom;
+  private float pendingTilt;
+  @Nullable
+  private double[] pendingPadding;
+
   LocationCameraController(
     Context context,
     MapLibreMap maplibreMap,
@@ -116,6 +136,8 @@ final class LocationCameraController {
 
     final boolean wasTracking = isLocationTracking();
     this.cameraMode = cameraMode;
+    // values animated for the previous mode
+    clearCameraValues();
 
     if (cameraMode != CameraMode.NONE) {
       maplibreMap.cancelTransitions();
@@ -197,13 +219,21 @@ final class LocationCameraController {
     return cameraMode;
   }
 
+  /**
+   * Sets the coalescer applying the values of the camera animators once per frame,
+   * without a coalescer every value moves the camera when pushed.
+   */
+  void setFrameCoalescer(@Nullable LocationFrameCoalescer frameCoalescer) {
+    this.frameCoalescer = frameCoalescer;
+  }
+
   private void setBearing(float bearing) {
     if (isTransitioning) {
       return;
     }
 
-    transform.moveCamera(maplibreMap, CameraUpdateFactory.bearingTo(bearing), null);
-    onCameraMoveInvalidateListener.onInvalidateCameraMove();
+    pendingBearing = bearing;
+    updateCamera(PENDING_BEARING);
   }
 
   private void setLatLng(@NonNull LatLng latLng) {
@@ -211,8 +241,8 @@ final class LocationCameraController {
       return;
     }
     lastLocation = latLng;
-    transform.moveCamera(maplibreMap, CameraUpdateFactory.newLatLng(latLng), null);
-    onCameraMoveInvalidateListener.onInvalidateCameraMove();
+    pendingLatLng = latLng;
+    updateCamera(PENDING_LATLNG);
   }
 
   private void setZoom(float zoom) {
@@ -220,8 +250,8 @@ final class LocationCameraController {
       return;
     }
 
-    transform.moveCamera(maplibreMap, CameraUpdateFactory.zoomTo(zoom), null);
-    onCameraMoveInvalidateListener.onInvalidateCameraMove();
+    pendingZoom = zoom;
+    updateCamera(PENDING_ZOOM);
   }
 
   private void setPadding(double[] padding) {
@@ -229,8 +259,8 @@ final class LocationCameraController {
       return;
     }
 
-    transform.moveCamera(maplibreMap, CameraUpdateFactory.paddingTo(padding), null);
-    onCameraMoveInvalidateListener.onInvalidateCameraMove();
+    pendingPadding = padding;
+    updateCamera(PENDING_PADDING);
   }
 
   private void setTilt(float tilt) {
@@ -238,10 +268,57 @@ final class LocationCameraController {
       return;
     }
 
-    transform.moveCamera(maplibreMap, CameraUpdateFactory.tiltTo(tilt), null);
+    pendingTilt = tilt;
+    updateCamera(PENDING_TILT);
+  }
+
+  private void updateCamera(int pendingValue) {
+    pendingValues |= pendingValue;
+    if (frameCoalescer != null) {
+      frameCoalescer.requestFrame(frameTarget);
+    } else {
+      applyCameraValues();
+    }
+  }
+
+  /**
+   * Moves the camera to all the values pushed since the last frame at once.
+   */
+  private void applyCameraValues() {
+    int values = pendingValues;
+    LatLng latLng = pendingLatLng;
+    double[] padding = pendingPadding;
+    clearCameraValues();
+    if (values == 0 || isTransitioning) {
+      return;
+    }
+
+    CameraPosition.Builder builder = new CameraPosition.Builder();
+    if ((values & PENDING_LATLNG) != 0) {
+      builder.target(latLng);
+    }
+    if ((values & PENDING_BEARING) != 0) {
+      builder.bearing(pendingBearing);
+    }
+    if ((values & PENDING_ZOOM) != 0) {
+      builder.zoom(pendingZoom);
+    }
+    if ((values & PENDING_TILT) != 0) {
+      builder.tilt(pendingTilt);
+    }
+    if ((values & PENDING_PADDING) != 0) {
+      builder.padding(padding);
+    }
+    transform.moveCamera(maplibreMap, CameraUpdateFactory.newCameraPosition(builder.build()), null);
     onCameraMoveInvalidateListener.onInvalidateCameraMove();
   }
 
+  private void clearCameraValues() {
+    pendingValues = 0;
+    pendingLatLng = null;
+    pendingPadding = null;
+  }
+
   private final MapLibreAnimator.AnimationsValueChangeListener<LatLng> latLngValueListener =
     new MapLibreAnimator.AnimationsValueChangeListener<LatLng>() {
       @Override
@@ -127,6 +127,8 @@ public final class LocationComponent {
   private LocationCameraController locationCameraController;
 
   private LocationAnimatorCoordinator locationAnimatorCoordinator;
+  @Nullable
+  private LocationFrameCoalescer frameCoalescer;
 
   /**
    * Holds last location which is being returned in the {@link #getLastKnownLocation()}
@@ -1145,6 +1147,9 @@ public final class LocationComponent {
 
     stopPulsingLocationCircle();
     locationAnimatorCoordinator.cancelAllAnimations();
+    if (frameCoalescer != null) {
+      frameCoalescer.cancel();
+    }
     if (locationEngine != null) {
       locationEngine.removeLocationUpdates(currentLocationEngineListener);
     }
@@ -1178,6 +1183,10 @@ public final class LocationComponent {
     locationCameraController = new LocationCameraController(
       context, maplibreMap, transform, cameraTrackingChangedListener, options, onCameraMoveInvalidateListener);
 
+    frameCoalescer = new LocationFrameCoalescer();
+    locationLayerController.setFrameCoalescer(frameCoalescer);
+    locationCameraController.setFrameCoalescer(frameCoalescer);
+
     locationAnimatorCoordinator = new LocationAnimatorCoordinator(
       maplibreMap.getProjection(),
       MapLibreAnimatorSetProvider.getInstance(),
@@ -0,0 +1,82 @@
+package org.maplibre.android.location;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the values pushed by the location animators once per frame.
+ * <p>
+ * The location animators are ticked together from the vsync callback of the platform, each one pushing its own value
+ * to the camera or to the location layer. Pushing every value on its own moves the camera and updates the location
+ * source several times a frame, and once per event of a compass firing at 50 to 100 Hz. Instead, the controllers keep
+ * the latest values and request a frame from the coalescer, which applies them together from a single
+ * {@link Choreographer} callback: one camera jump and one layer update per frame.
+ * </p>
+ * <p>
+ * Values pushed while a frame is being drawn are applied at the start of the next one, the camera and the location
+ * layer stay in step with each other.
+ * </p>
+ */
+final class LocationFrameCoalescer implements Choreographer.FrameCallback {
+
+  /**
+   * Keeps the latest values pushed by the animators and applies them at once.
+   */
+  interface Target {
+    void applyFrame();
+  }
+
+  private final Choreographer choreographer;
+  private List<Target> pendingTargets = new ArrayList<>(2);
+  private List<Target> appliedTargets = new ArrayList<>(2);
+  private boolean frameScheduled;
+
+  LocationFrameCoalescer() {
+    this(Choreographer.getInstance());
+  }
+
+  LocationFrameCoalescer(@NonNull Choreographer choreographer) {
+    this.choreographer = choreographer;
+  }
+
+  /**
+   * Applies the values of the target with the next frame. The target is applied once however often it's requested.
+   */
+  void requestFrame(@NonNull Target target) {
+    if (!pendingTargets.contains(target)) {
+      pendingTargets.add(target);
+    }
+    if (!frameScheduled) {
+      frameScheduled = true;
+      choreographer.postFrameCallback(this);
+    }
+  }
+
+  /**
+   * Drops the values not applied yet.
+   */
+  void cancel() {
+    if (frameScheduled) {
+      frameScheduled = false;
+      choreographer.removeFrameCallback(this);
+    }
+    pendingTargets.clear();
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    frameScheduled = false;
+    // targets requesting a frame while applied are kept for the next one
+    List<Target> targets = pendingTargets;
+    pendingTargets = appliedTargets;
+    appliedTargets = targets;
+    for (int i = 0; i < targets.size(); i++) {
+      targets.get(i).applyFrame();
+    }
+    targets.clear();
+  }
+}
@@ -36,6 +36,12 @@ final class LocationLayerController {
 
   private static final String TAG = "Mbgl-LocationLayerController";
 
+  private static final int PENDING_LATLNG = 1;
+  private static final int PENDING_GPS_BEARING = 1 << 1;
+  private static final int PENDING_COMPASS_BEARING = 1 << 2;
+  private static final int PENDING_ACCURACY_RADIUS = 1 << 3;
+  private static final int PENDING_PULSING_RADIUS = 1 << 4;
+
   @RenderMode.Mode
   private int renderMode;
 
@@ -52,6 +58,19 @@ final class LocationLayerController {
 
   private LocationLayerRenderer locationLayerRenderer;
 
+  @Nullable
+  private LocationFrameCoalescer frameCoalescer;
+  private final LocationFrameCoalescer.Target frameTarget = this::applyLayerValues;
+
+  // values of the layer animators not applied yet, flags of PENDING_*
+  private int pendingValues;
+  @Nullable
+  private LatLng pendingLatLng;
+  private float pendingGpsBearing;
+  private float pendingCompassBearing;
+  private float pendingAccuracyRadius;
+  private float pendingPulsingRadius;
+
   LocationLayerController(MapLibreMap maplibreMap, Style style,
                           LayerSourceProvider layerSourceProvider,
                           LayerFeatureProvider featureProvider,
@@ -262,7 +281,8 @@ final class LocationLayerController {
     new MapLibreAnimator.AnimationsValueChangeListener<LatLng>() {
       @Override
       public void onNewAnimationValue(LatLng value) {
-        locationLayerRenderer.setLatLng(value);
+        pendingLatLng = value;
+        updateLayer(PENDING_LATLNG);
       }
   };
 
@@ -270,7 +290,8 @@ final class LocationLayerController {
     new MapLibreAnimator.AnimationsValueChangeListener<Float>() {
       @Override
       public void onNewAnimationValue(Float value) {
-        locationLayerRenderer.setGpsBearing(value);
+        pendingGpsBearing = value;
+        updateLayer(PENDING_GPS_BEARING);
       }
   };
 
@@ -278,7 +299,8 @@ final class LocationLayerController {
     new MapLibreAnimator.AnimationsValueChangeListener<Float>() {
       @Override
       public void onNewAnimationValue(Float value) {
-        locationLayerRenderer.setCompassBearing(value);
+        pendingCompassBearing = value;
+        updateLayer(PENDING_COMPASS_BEARING);
       }
   };
 
@@ -286,7 +308,8 @@ final class LocationLayerController {
     new MapLibreAnimator.AnimationsValueChangeListener<Float>() {
       @Override
       public void onNewAnimationValue(Float value) {
-        locationLayerRenderer.setAccuracyRadius(value);
+        pendingAccuracyRadius = value;
+        updateLayer(PENDING_ACCURACY_RADIUS);
       }
   };
 
@@ -297,14 +320,63 @@ final class LocationLayerController {
     new MapLibreAnimator.AnimationsValueChangeListener<Float>() {
       @Override
       public void onNewAnimationValue(Float newPulseRadiusValue) {
-        Float newPulseOpacityValue = null;
-        if (options.pulseFadeEnabled()) {
-          newPulseOpacityValue = (float) 1 - ((newPulseRadiusValue / 100) * 3);
-        }
-        locationLayerRenderer.updatePulsingUi(newPulseRadiusValue, newPulseOpacityValue);
+        pendingPulsingRadius = newPulseRadiusValue;
+        updateLayer(PENDING_PULSING_RADIUS);
       }
   };
 
+  /**
+   * Sets the coalescer applying the values of the layer animators once per frame,
+   * without a coalescer every value updates the layer when pushed.
+   */
+  void setFrameCoalescer(@Nullable LocationFrameCoalescer frameCoalescer) {
+    this.frameCoalescer = frameCoalescer;
+  }
+
+  private void updateLayer(int pendingValue) {
+    pendingValues |= pendingValue;
+    if (frameCoalescer != null) {
+      frameCoalescer.requestFrame(frameTarget);
+    } else {
+      applyLayerValues();
+    }
+  }
+
+  /**
+   * Updates the layer with all the values pushed since the last frame at once.
+   */
+  private void applyLayerValues() {
+    int values = pendingValues;
+    LatLng latLng = pendingLatLng;
+    pendingValues = 0;
+    pendingLatLng = null;
+    if (values == 0) {
+      return;
+    }
+
+    locationLayerRenderer.beginUpdates();
+    if ((values & PENDING_LATLNG) != 0) {
+      locationLayerRenderer.setLatLng(latLng);
+    }
+    if ((values & PENDING_GPS_BEARING) != 0) {
+      locationLayerRenderer.setGpsBearing(pendingGpsBearing);
+    }
+    if ((values & PENDING_COMPASS_BEARING) != 0) {
+      locationLayerRenderer.setCompassBearing(pendingCompassBearing);
+    }
+    if ((values & PENDING_ACCURACY_RADIUS) != 0) {
+      locationLayerRenderer.setAccuracyRadius(pendingAccuracyRadius);
+    }
+    if ((values & PENDING_PULSING_RADIUS) != 0) {
+      Float newPulseOpacityValue = null;
+      if (options.pulseFadeEnabled()) {
+        newPulseOpacityValue = (float) 1 - ((pendingPulsingRadius / 100) * 3);
+      }
+      locationLayerRenderer.updatePulsingUi(pendingPulsingRadius, newPulseOpacityValue);
+    }
+    locationLayerRenderer.endUpdates();
+  }
+
   Set<AnimatorListenerHolder> getAnimationListeners() {
     Set<AnimatorListenerHolder> holders = new HashSet<>();
     holders.add(new AnimatorListenerHolder(MapLibreAnimator.ANIMATOR_LAYER_LATLNG, latLngValueListener));
@@ -26,6 +26,10 @@ interface LocationLayerRenderer {
 
   void styleAccuracy(float accuracyAlpha, int accuracyColor);
 
+  void beginUpdates();
+
+  void endUpdates();
+
   void setLatLng(LatLng latLng);
 
   void setGpsBearing(Float gpsBearing);
@@ -44,10 +44,7 @@ import android.graphics.Bitmap;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.maplibre.geojson.Feature;
-import org.maplibre.geojson.Point;
 
 import org.maplibre.android.geometry.LatLng;
 import org.maplibre.android.location.modes.RenderMode;
@@ -56,6 +53,7 @@ import org.maplibre.android.style.expressions.Expression;
 import org.maplibre.android.style.layers.Layer;
 import org.maplibre.android.style.layers.SymbolLayer;
 import org.maplibre.android.style.sources.GeoJsonSource;
+import org.maplibre.android.style.sources.PointFeature;
 
 import java.util.Set;
 
@@ -64,15 +62,29 @@ final class SymbolLocationLayerRenderer implements LocationLayerRenderer {
   private final LayerSourceProvider layerSourceProvider;
 
   private final Set<String> layerSet;
-  private Feature locationFeature;
+  private final Feature locationFeature;
   private GeoJsonSource locationSource;
+  private boolean isUpdating;
+  private boolean isSourceOutdated;
+
+  // the state of the puck, updated in place and set on the source without converting a GeoJSON feature
+  private final PointFeature puckFeature = new PointFeature(
+    new String[] {PROPERTY_GPS_BEARING, PROPERTY_COMPASS_BEARING, PROPERTY_ACCURACY_RADIUS, PROPERTY_ACCURACY_ALPHA,
+      PROPERTY_PULSING_RADIUS, PROPERTY_PULSING_OPACITY},
+    new String[] {PROPERTY_ACCURACY_COLOR, PROPERTY_FOREGROUND_ICON, PROPERTY_BACKGROUND_ICON,
+      PROPERTY_FOREGROUND_STALE_ICON, PROPERTY_BACKGROUND_STALE_ICON, PROPERTY_BEARING_ICON},
+    new String[] {PROPERTY_LOCATION_STALE},
+    new String[] {PROPERTY_FOREGROUND_ICON_OFFSET, PROPERTY_SHADOW_ICON_OFFSET},
+    2
+  );
 
   SymbolLocationLayerRenderer(LayerSourceProvider layerSourceProvider,
                               LayerFeatureProvider featureProvider,
                               boolean isStale) {
     this.layerSourceProvider = layerSourceProvider;
     this.layerSet = layerSourceProvider.getEmptyLayerSet();
-    this.locationFeature = featureProvider.generateLocationFeature(locationFeature, isStale);
+    this.locationFeature = featureProvider.generateLocationFeature(null, isStale);
+    puckFeature.setBoolean(PROPERTY_LOCATION_STALE, isStale);
   }
 
   @Override
@@ -152,15 +164,29 @@ final class SymbolLocationLayerRenderer implements LocationLayerRenderer {
 
   @Override
   public void styleAccuracy(float accuracyAlpha, int accuracyColor) {
-    locationFeature.addNumberProperty(PROPERTY_ACCURACY_ALPHA, accuracyAlpha);
-    locationFeature.addStringProperty(PROPERTY_ACCURACY_COLOR, colorToRgbaString(accuracyColor));
+    puckFeature.setNumber(PROPERTY_ACCURACY_ALPHA, accuracyAlpha);
+    puckFeature.setString(PROPERTY_ACCURACY_COLOR, colorToRgbaString(accuracyColor));
     refreshSource();
   }
 
+  @Override
+  public void beginUpdates() {
+    isUpdating = true;
+  }
+
+  @Override
+  public void endUpdates() {
+    isUpdating = false;
+    if (isSourceOutdated) {
+      isSourceOutdated = false;
+      refreshSource();
+    }
+  }
+
   @Override
   public void setLatLng(LatLng latLng) {
-    Point point = Point.fromLngLat(latLng.getLongitude(), latLng.getLatitude());
-    setLocationPoint(point);
+    puckFeature.setCoordinate(latLng.getLongitude(), latLng.getLatitude());
+    refreshSource();
   }
 
   @Override
@@ -192,7 +218,7 @@ final class SymbolLocationLayerRenderer implements LocationLayerRenderer {
 
   @Override
   public void setLocationStale(boolean isStale, int renderMode) {
-    locationFeature.addBooleanProperty(PROPERTY_LOCATION_STALE, isStale);
+    puckFeature.setBoolean(PROPERTY_LOCATION_STALE, isStale);
     refreshSource();
     if (renderMode != RenderMode.GPS) {
       setLayerVisibility(ACCURACY_LAYER, !isStale);
@@ -202,11 +228,11 @@ final class SymbolLocationLayerRenderer implements LocationLayerRenderer {
   @Override
   public void updateIconIds(String foregroundIconString, String foregroundStaleIconString, String backgroundIconString,
                             String backgroundStaleIconString, String bearingIconString) {
-    locationFeature.addStringProperty(PROPERTY_FOREGROUND_ICON, foregroundIconString);
-    locationFeature.addStringProperty(PROPERTY_BACKGROUND_ICON, backgroundIconString);
-    locationFeature.addStringProperty(PROPERTY_FOREGROUND_STALE_ICON, foregroundStaleIconString);
-    locationFeature.addStringProperty(PROPERTY_BACKGROUND_STALE_ICON, backgroundStaleIconString);
-    locationFeature.addStringProperty(PROPERTY_BEARING_ICON, bearingIconString);
+    puckFeature.setString(PROPERTY_FOREGROUND_ICON, foregroundIconString);
+    puckFeature.setString(PROPERTY_BACKGROUND_ICON, backgroundIconString);
+    puckFeature.setString(PROPERTY_FOREGROUND_STALE_ICON, foregroundStaleIconString);
+    puckFeature.setString(PROPERTY_BACKGROUND_STALE_ICON, backgroundStaleIconString);
+    puckFeature.setString(PROPERTY_BEARING_ICON, bearingIconString);
     refreshSource();
   }
 
@@ -227,15 +253,8 @@ final class SymbolLocationLayerRenderer implements LocationLayerRenderer {
   }
 
   private void updateForegroundOffset(double tilt) {
-    JsonArray foregroundJsonArray = new JsonArray();
-    foregroundJsonArray.add(0f);
-    foregroundJsonArray.add((float) (-0.05 * tilt));
-    locationFeature.addProperty(PROPERTY_FOREGROUND_ICON_OFFSET, foregroundJsonArray);
-
-    JsonArray backgroundJsonArray = new JsonArray();
-    backgroundJsonArray.add(0f);
-    backgroundJsonArray.add((float) (0.05 * tilt));
-    locationFeature.addProperty(PROPERTY_SHADOW_ICON_OFFSET, backgroundJsonArray);
+    puckFeature.setNumberArrayValue(PROPERTY_FOREGROUND_ICON_OFFSET, 1, (float) (-0.05 * tilt));
+    puckFeature.setNumberArrayValue(PROPERTY_SHADOW_ICON_OFFSET, 1, (float) (0.05 * tilt));
 
     refreshSource();
   }
@@ -283,9 +302,9 @@ final class SymbolLocationLayerRenderer implements LocationLayerRenderer {
    */
   @Override
   public void updatePulsingUi(float radius, @Nullable Float opacity) {
-    locationFeature.addNumberProperty(PROPERTY_PULSING_RADIUS, radius);
+    puckFeature.setNumber(PROPERTY_PULSING_RADIUS, radius);
     if (opacity != null) {
-      locationFeature.addNumberProperty(PROPERTY_PULSING_OPACITY, opacity);
+      puckFeature.setNumber(PROPERTY_PULSING_OPACITY, opacity);
     }
     refreshSource();
   }
@@ -316,9 +335,16 @@ final class SymbolLocationLayerRenderer implements LocationLayerRenderer {
   private void addLocationSource() {
     locationSource = layerSourceProvider.generateSource(locationFeature);
     style.addSource(locationSource);
+    // restores the state of the puck, e.g. after the style changed
+    locationSource.setPointFeature(puckFeature);
   }
 
   private void refreshSource() {
+    // updates between beginUpdates and endUpdates set the feature on the source once
+    if (isUpdating) {
+      isSourceOutdated = true;
+      return;
+    }
     // prevents exception when other style has been set with an update in flight
     // https://github.com/maplibre/maplibre-native/issues/3348
     if (!style.isFullyLoaded()) {
@@ -326,25 +352,17 @@ final class SymbolLocationLayerRenderer implements LocationLayerRenderer {
     }
     GeoJsonSource source = style.getSourceAs(LOCATION_SOURCE);
     if (source != null) {
-      locationSource.setGeoJson(locationFeature);
-    }
-  }
-
-  private void setLocationPoint(Point locationPoint) {
-    JsonObject properties = locationFeature.properties();
-    if (properties != null) {
-      locationFeature = Feature.fromGeometry(locationPoint, properties);
-      refreshSource();
+      locationSource.setPointFeature(puckFeature);
     }
   }
 
   private void setBearingProperty(@NonNull String propertyId, float bearing) {
-    locationFeature.addNumberProperty(propertyId, bearing);
+    puckFeature.setNumber(propertyId, bearing);
     refreshSource();
   }
 
   private void updateAccuracyRadius(float accuracy) {
-    locationFeature.addNumberProperty(PROPERTY_ACCURACY_RADIUS, accuracy);
+    puckFeature.setNumber(PROPERTY_ACCURACY_RADIUS, accuracy);
     refreshSource();
   }
 }
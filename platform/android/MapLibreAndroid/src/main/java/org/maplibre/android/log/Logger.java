@@ -90,6 +90,19 @@ public final class Logger {
     Logger.logLevel = logLevel;
   }
 
+  /**
+   * Returns whether a message of the given severity would be emitted with the current verbosity.
+   * <p>
+   * Useful to skip building expensive log messages.
+   * </p>
+   *
+   * @param severity the log severity
+   * @return true if the message would be logged
+   */
+  public static boolean isLoggable(int severity) {
+    return logLevel <= severity;
+  }
+
   /**
    * Replace the current used logger definition.
    *
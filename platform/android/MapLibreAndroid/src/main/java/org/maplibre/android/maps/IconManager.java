@@ -3,12 +3,16 @@ package org.maplibre.android.maps;
 import android.graphics.Bitmap;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.maplibre.android.MapLibre;
 import org.maplibre.android.annotations.Icon;
 import org.maplibre.android.annotations.IconFactory;
 import org.maplibre.android.annotations.Marker;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,10 +26,21 @@ import java.util.Map;
  * Keep track of icons added and the resulting average icon size. This is used internally by our
  * gestures detection to calculate the size of a touch target.
  * </p>
+ * <p>
+ * Icons are uploaded in batches through a reused direct buffer, and the top offset of an icon is
+ * kept once uploaded instead of being queried for every marker.
+ * </p>
  */
 class IconManager {
 
+  // direct buffers above this size are released after an upload, a single larger icon is uploaded alone
+  private static final int MAX_UPLOAD_BUFFER_BYTES = 1024 * 1024;
+
   private final Map<Icon, Integer> iconMap = new HashMap<>();
+  private final Map<String, Integer> topOffsets = new HashMap<>();
+
+  @Nullable
+  private ByteBuffer uploadBuffer;
 
   private NativeMap nativeMap;
   private int highestIconWidth;
@@ -47,8 +62,48 @@ class IconManager {
     return icon;
   }
 
+  /**
+   * Loads the icons of markers added together, distinct icons are uploaded in a single native call,
+   * and sets the top offset of each marker.
+   */
+  void loadIconsForMarkers(@NonNull List<Marker> markers) {
+    int count = markers.size();
+    Icon[] icons = new Icon[count];
+    List<Icon> newIcons = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Marker marker = markers.get(i);
+      Icon icon = marker.getIcon();
+      boolean defaultIcon = icon == null;
+      if (defaultIcon) {
+        icon = IconFactory.getInstance(MapLibre.getApplicationContext()).defaultMarker();
+        marker.setIcon(icon);
+      }
+
+      Integer refCounter = iconMap.get(icon);
+      if (refCounter == null) {
+        iconMap.put(icon, 1);
+        Bitmap bitmap = icon.getBitmap();
+        updateHighestIconSize(bitmap.getWidth(), defaultIcon ? bitmap.getHeight() / 2 : bitmap.getHeight());
+        newIcons.add(icon);
+      } else {
+        iconMap.put(icon, refCounter + 1);
+      }
+      icons[i] = icon;
+    }
+
+    loadIcons(newIcons);
+    for (int i = 0; i < count; i++) {
+      markers.get(i).setTopOffsetPixels(getTopOffsetPixelsForIcon(icons[i]));
+    }
+  }
+
   int getTopOffsetPixelsForIcon(@NonNull Icon icon) {
-    return (int) (nativeMap.getTopOffsetPixelsForAnnotationSymbol(icon.getId()) * nativeMap.getPixelRatio());
+    Integer topOffset = topOffsets.get(icon.getId());
+    if (topOffset == null) {
+      topOffset = toPixels(nativeMap.getTopOffsetPixelsForAnnotationSymbol(icon.getId()));
+      topOffsets.put(icon.getId(), topOffset);
+    }
+    return topOffset;
   }
 
   int getHighestIconWidth() {
@@ -101,18 +156,103 @@ class IconManager {
   }
 
   private void loadIcon(Icon icon) {
-    Bitmap bitmap = icon.getBitmap();
-    nativeMap.addAnnotationIcon(icon.getId(),
-      bitmap.getWidth(),
-      bitmap.getHeight(),
-      icon.getScale(),
-      icon.toBytes());
+    loadIcons(Collections.singletonList(icon));
   }
 
-  void reloadIcons() {
-    for (Icon icon : iconMap.keySet()) {
-      loadIcon(icon);
+  /**
+   * Uploads icons in batches that fit the upload buffer, copying bitmaps directly into it.
+   */
+  private void loadIcons(@NonNull List<Icon> icons) {
+    int count = icons.size();
+    int start = 0;
+    while (start < count) {
+      int end = start;
+      int bytes = 0;
+      while (end < count) {
+        int iconBytes = byteCount(icons.get(end).getBitmap());
+        if (end > start && bytes + iconBytes > MAX_UPLOAD_BUFFER_BYTES) {
+          break;
+        }
+        bytes += iconBytes;
+        end++;
+      }
+
+      int batchSize = end - start;
+      String[] symbols = new String[batchSize];
+      int[] widths = new int[batchSize];
+      int[] heights = new int[batchSize];
+      float[] scales = new float[batchSize];
+      int[] byteCounts = new int[batchSize];
+      ByteBuffer buffer = obtainUploadBuffer(bytes);
+      for (int i = 0; i < batchSize; i++) {
+        Icon icon = icons.get(start + i);
+        Bitmap bitmap = toArgb8888(icon.getBitmap());
+        symbols[i] = icon.getId();
+        widths[i] = bitmap.getWidth();
+        heights[i] = bitmap.getHeight();
+        scales[i] = icon.getScale();
+        int position = buffer.position();
+        bitmap.copyPixelsToBuffer(buffer);
+        byteCounts[i] = buffer.position() - position;
+        if (bitmap != icon.getBitmap()) {
+          bitmap.recycle();
+        }
+      }
+
+      double[] offsets = nativeMap.addAnnotationIcons(symbols, widths, heights, scales, byteCounts, buffer);
+      for (int i = 0; i < batchSize; i++) {
+        if (i < offsets.length) {
+          topOffsets.put(symbols[i], toPixels(offsets[i]));
+        } else {
+          topOffsets.remove(symbols[i]);
+        }
+      }
+
+      if (buffer.capacity() > MAX_UPLOAD_BUFFER_BYTES) {
+        uploadBuffer = null;
+      }
+      start = end;
+    }
+  }
+
+  @NonNull
+  private ByteBuffer obtainUploadBuffer(int bytes) {
+    ByteBuffer buffer = uploadBuffer;
+    if (buffer == null || buffer.capacity() < bytes) {
+      buffer = ByteBuffer.allocateDirect(bytes);
+      uploadBuffer = buffer;
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Returns the number of bytes the icon takes in the upload buffer once converted to {@link Bitmap.Config#ARGB_8888}.
+   */
+  private static int byteCount(@NonNull Bitmap bitmap) {
+    if (bitmap.getConfig() == Bitmap.Config.ARGB_8888) {
+      return bitmap.getRowBytes() * bitmap.getHeight();
     }
+    return bitmap.getWidth() * bitmap.getHeight() * 4;
+  }
+
+  /**
+   * Core expects 4 bytes per pixel, other configurations are converted to a temporary copy.
+   */
+  @NonNull
+  private static Bitmap toArgb8888(@NonNull Bitmap bitmap) {
+    if (bitmap.getConfig() == Bitmap.Config.ARGB_8888) {
+      return bitmap;
+    }
+    return bitmap.copy(Bitmap.Config.ARGB_8888, false);
+  }
+
+  private int toPixels(double topOffset) {
+    return (int) (topOffset * nativeMap.getPixelRatio());
+  }
+
+  void reloadIcons() {
+    loadIcons(new ArrayList<>(iconMap.keySet()));
   }
 
   void ensureIconLoaded(@NonNull Marker marker, @NonNull MapLibreMap maplibreMap) {
@@ -147,6 +287,7 @@ class IconManager {
   private void remove(Icon icon) {
     nativeMap.removeAnnotationIcon(icon.getId());
     iconMap.remove(icon);
+    topOffsets.remove(icon.getId());
   }
 
   private void updateIconRefCounter(Icon icon, int refCounter) {
@@ -1,10 +1,15 @@
 package org.maplibre.android.maps;
 
 import androidx.annotation.Keep;
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
 
 @Keep
 public class Image {
   private final byte[] buffer;
+  // pixels in a direct buffer when buffer is null, copied by native without a Java array
+  private final ByteBuffer directBuffer;
   private final float pixelRatio;
   private final String name;
   private final int width;
@@ -21,6 +26,7 @@ public class Image {
   public Image(byte[] buffer, float pixelRatio, String name, int width, int height, boolean sdf,
                float[] stretchX, float[] stretchY, float[] content) {
     this.buffer = buffer;
+    this.directBuffer = null;
     this.pixelRatio = pixelRatio;
     this.name = name;
     this.width = width;
@@ -30,4 +36,22 @@ public class Image {
     this.stretchX = stretchX;
     this.stretchY = stretchY;
   }
+
+  Image(@NonNull ByteBuffer directBuffer, float pixelRatio, String name, int width, int height, boolean sdf,
+        float[] stretchX, float[] stretchY, float[] content) {
+    this.buffer = null;
+    this.directBuffer = directBuffer;
+    this.pixelRatio = pixelRatio;
+    this.name = name;
+    this.width = width;
+    this.height = height;
+    this.sdf = sdf;
+    this.content = content;
+    this.stretchX = stretchX;
+    this.stretchY = stretchY;
+  }
+
+  String getName() {
+    return name;
+  }
 }
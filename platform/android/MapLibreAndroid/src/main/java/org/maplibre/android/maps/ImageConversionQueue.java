@@ -0,0 +1,297 @@
+package org.maplibre.android.maps;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.DisplayMetrics;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.annotation.VisibleForTesting;
+
+import org.maplibre.android.log.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts bitmaps of images added asynchronously to a style, see {@link Style#addImageAsync(String, Bitmap)}.
+ * <p>
+ * Conversions run on a small pool of background threads owned by MapLibre, not on the shared executor of
+ * {@code AsyncTask}. Pixels are taken from the {@link ImageRegistry} or copied into pooled direct buffers, which
+ * native copies once into the style image, without going through a Java array. Images converted during a frame
+ * are added to the style with a single {@link NativeMap#addImages(Image[])} call from a {@link Choreographer}
+ * frame callback.
+ * </p>
+ * <p>
+ * At most {@link #MAX_QUEUED_JOBS} jobs wait for a thread. Beyond that, a job is converted on the thread
+ * submitting it, slowing down a caller that adds images faster than they can be converted.
+ * </p>
+ * <p>
+ * Adding an image synchronously or removing it cancels a pending conversion of the same name, and clearing
+ * the style cancels all of them.
+ * </p>
+ */
+final class ImageConversionQueue implements Choreographer.FrameCallback {
+
+  private static final String TAG = "Mbgl-ImageConversionQueue";
+
+  private static final int THREAD_COUNT =
+    Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+  @VisibleForTesting
+  static final int MAX_QUEUED_JOBS = 64;
+
+  private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+    THREAD_COUNT, THREAD_COUNT, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(MAX_QUEUED_JOBS), runnable -> {
+      Thread thread = new Thread(() -> {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        runnable.run();
+      }, "MapLibre-ImageConversion");
+      thread.setDaemon(true);
+      return thread;
+    }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+  static {
+    EXECUTOR.allowCoreThreadTimeOut(true);
+  }
+
+  @VisibleForTesting
+  static final BufferPool BUFFER_POOL = new BufferPool();
+
+  @NonNull
+  private final NativeMap nativeMap;
+  private final Runnable postFrameCallback = this::postFrameCallback;
+  private final ConcurrentLinkedQueue<Job> converted = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  // main thread only, the latest job of every image name still waiting to be added
+  private final Map<String, Job> pending = new HashMap<>();
+  private final List<Job> jobs = new ArrayList<>();
+  // created with the first job, published to converting threads by the executor
+  private Handler mainHandler;
+
+  ImageConversionQueue(@NonNull NativeMap nativeMap) {
+    this.nativeMap = nativeMap;
+  }
+
+  /**
+   * Converts images in the background and adds them to the style on a following frame.
+   */
+  @UiThread
+  void submit(@NonNull Style.Builder.ImageWrapper[] images, @Nullable Style.OnImagesAddedListener listener) {
+    if (mainHandler == null) {
+      mainHandler = new Handler(Looper.getMainLooper());
+    }
+    Job job = new Job(images, listener);
+    for (Style.Builder.ImageWrapper image : images) {
+      pending.put(image.getId(), job);
+    }
+    jobs.add(job);
+    job.future = EXECUTOR.submit(() -> convert(job));
+  }
+
+  /**
+   * Drops a pending conversion of an image, for example when it's added synchronously or removed.
+   */
+  @UiThread
+  void cancel(@NonNull String name) {
+    pending.remove(name);
+  }
+
+  /**
+   * Drops all pending conversions, buffers of conversions already running are returned once they complete.
+   */
+  @UiThread
+  void cancelAll() {
+    pending.clear();
+    for (Job job : jobs) {
+      Future<?> future = job.future;
+      if (future != null) {
+        future.cancel(false);
+      }
+    }
+    jobs.clear();
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    scheduled.set(false);
+
+    List<Job> completed = new ArrayList<>();
+    List<Image> images = new ArrayList<>();
+    Job job;
+    while ((job = converted.poll()) != null) {
+      completed.add(job);
+      for (Image image : job.images) {
+        if (pending.get(image.getName()) == job) {
+          pending.remove(image.getName());
+          job.added.add(image.getName());
+          images.add(image);
+        }
+      }
+    }
+
+    if (!images.isEmpty() && !nativeMap.isDestroyed()) {
+      nativeMap.addImages(images.toArray(new Image[0]));
+    }
+
+    for (Job completedJob : completed) {
+      for (ByteBuffer buffer : completedJob.buffers) {
+        BUFFER_POOL.release(buffer);
+      }
+      // a job with every image cancelled was dropped by cancelAll or replaced, and isn't reported
+      if (jobs.remove(completedJob) && completedJob.listener != null && !completedJob.added.isEmpty()) {
+        completedJob.listener.onImagesAdded(completedJob.added);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int getConvertedCount() {
+    return converted.size();
+  }
+
+  private void convert(@NonNull Job job) {
+    try {
+      job.images = toImages(job);
+    } catch (RuntimeException exception) {
+      // e.g. a recycled bitmap, the job completes without images
+      Logger.e(TAG, "Failed to convert images", exception);
+    }
+    converted.add(job);
+
+    if (scheduled.compareAndSet(false, true)) {
+      mainHandler.post(postFrameCallback);
+    }
+  }
+
+  @NonNull
+  private static Image[] toImages(@NonNull Job job) {
+    Style.Builder.ImageWrapper[] wrappers = job.wrappers;
+    Image[] images = new Image[wrappers.length];
+    for (int i = 0; i < wrappers.length; i++) {
+      Style.Builder.ImageWrapper wrapper = wrappers[i];
+      Bitmap bitmap = wrapper.getBitmap();
+      float pixelRatio = (float) bitmap.getDensity() / DisplayMetrics.DENSITY_DEFAULT;
+      ByteBuffer pixels = ImageRegistry.getInstance().obtainPixels(bitmap, pixelRatio, wrapper.isSdf());
+      if (pixels == null) {
+        // not retained by the registry, converted into a pooled buffer returned once added
+        if (bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+          bitmap = bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        }
+        pixels = BUFFER_POOL.acquire(bitmap.getByteCount());
+        bitmap.copyPixelsToBuffer(pixels);
+        job.buffers.add(pixels);
+      }
+      images[i] = Style.toImage(wrapper, pixels, pixelRatio);
+    }
+    return images;
+  }
+
+  private void postFrameCallback() {
+    Choreographer.getInstance().postFrameCallback(this);
+  }
+
+  private static final class Job {
+
+    @NonNull
+    final Style.Builder.ImageWrapper[] wrappers;
+    @Nullable
+    final Style.OnImagesAddedListener listener;
+    // written by the converting thread, published through the converted queue
+    final List<ByteBuffer> buffers = new ArrayList<>();
+    @NonNull
+    Image[] images = new Image[0];
+    // main thread only
+    final List<String> added = new ArrayList<>();
+    @Nullable
+    Future<?> future;
+
+    Job(@NonNull Style.Builder.ImageWrapper[] wrappers, @Nullable Style.OnImagesAddedListener listener) {
+      this.wrappers = wrappers;
+      this.listener = listener;
+    }
+  }
+
+  /**
+   * Direct buffers bucketed by power of two capacities, retaining a bounded amount of idle memory.
+   */
+  @VisibleForTesting
+  static final class BufferPool {
+
+    static final int MIN_CAPACITY = 4 * 1024;
+    static final int MAX_CAPACITY = 1024 * 1024;
+    static final long MAX_IDLE_BYTES = 4 * 1024 * 1024;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_CAPACITY);
+    private static final int BUCKET_COUNT = Integer.numberOfTrailingZeros(MAX_CAPACITY) - MIN_SHIFT + 1;
+
+    private final ConcurrentLinkedQueue<ByteBuffer>[] buckets;
+    private final AtomicLong idleBytes = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    BufferPool() {
+      buckets = new ConcurrentLinkedQueue[BUCKET_COUNT];
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        buckets[i] = new ConcurrentLinkedQueue<>();
+      }
+    }
+
+    @NonNull
+    ByteBuffer acquire(int minimumCapacity) {
+      int bucket = bucketFor(minimumCapacity);
+      if (bucket < 0) {
+        return ByteBuffer.allocateDirect(minimumCapacity);
+      }
+
+      ByteBuffer buffer = buckets[bucket].poll();
+      if (buffer != null) {
+        idleBytes.addAndGet(-buffer.capacity());
+        buffer.clear();
+        return buffer;
+      }
+      return ByteBuffer.allocateDirect(MIN_CAPACITY << bucket);
+    }
+
+    void release(@NonNull ByteBuffer buffer) {
+      int capacity = buffer.capacity();
+      int bucket = bucketFor(capacity);
+      if (bucket < 0 || (MIN_CAPACITY << bucket) != capacity) {
+        return;
+      }
+      if (idleBytes.addAndGet(capacity) > MAX_IDLE_BYTES) {
+        idleBytes.addAndGet(-capacity);
+        return;
+      }
+      buckets[bucket].offer(buffer);
+    }
+
+    long getIdleBytes() {
+      return idleBytes.get();
+    }
+
+    private static int bucketFor(int capacity) {
+      if (capacity > MAX_CAPACITY) {
+        return -1;
+      }
+      if (capacity <= MIN_CAPACITY) {
+        return 0;
+      }
+      return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+  }
+}
@@ -0,0 +1,243 @@
+package org.maplibre.android.maps;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Process-wide registry of converted style image pixels, shared by all styles and map views.
+ * <p>
+ * Style images are converted from a {@link Bitmap} into premultiplied RGBA pixels before being handed to native.
+ * The registry keeps these pixels in direct buffers, keyed by a hash of their content together with the size,
+ * pixel ratio and sdf flag of the image, so the same icons added by another style or map view are not converted
+ * and copied again. Adding the same bitmap again is recognized by its identity and generation id without reading
+ * its pixels at all.
+ * </p>
+ * <p>
+ * Entries are evicted least recently used first beyond {@link #getMaxSizeBytes()}. A size of 0 disables the
+ * registry. The registry is also cleared when a map view receives {@link MapView#onLowMemory()}.
+ * </p>
+ * <p>
+ * The registry is disabled by default: retained pixels stay in memory next to the copy native keeps, which
+ * only pays off for apps adding the same images to several styles or map views.
+ * </p>
+ */
+public final class ImageRegistry {
+
+  public static final long DEFAULT_MAX_SIZE_BYTES = 0;
+
+  private static final ImageRegistry INSTANCE = new ImageRegistry();
+
+  private final LinkedHashMap<Key, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // bitmaps seen before, to recognize them without hashing their pixels
+  private final WeakHashMap<Bitmap, BitmapKey> bitmaps = new WeakHashMap<>();
+
+  private long maxSizeBytes = DEFAULT_MAX_SIZE_BYTES;
+  private long sizeBytes;
+  private long hitCount;
+  private long missCount;
+
+  @NonNull
+  public static ImageRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  @VisibleForTesting
+  ImageRegistry() {
+  }
+
+  /**
+   * Set the maximum size of the pixels retained by the registry, 0 disables it.
+   * Default is {@link #DEFAULT_MAX_SIZE_BYTES}, disabled.
+   *
+   * @param maxSizeBytes the size in bytes
+   */
+  public synchronized void setMaxSizeBytes(long maxSizeBytes) {
+    if (maxSizeBytes < 0) {
+      throw new IllegalArgumentException("maxSizeBytes < 0: " + maxSizeBytes);
+    }
+    this.maxSizeBytes = maxSizeBytes;
+    trimToSize();
+  }
+
+  public synchronized long getMaxSizeBytes() {
+    return maxSizeBytes;
+  }
+
+  /**
+   * Returns the size of the pixels currently retained.
+   *
+   * @return the size in bytes
+   */
+  public synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  /**
+   * Returns the number of images served from the registry without converting their bitmap.
+   *
+   * @return the hit count
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of images converted and added to the registry.
+   *
+   * @return the miss count
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Drops all retained pixels, counters are kept.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    bitmaps.clear();
+    sizeBytes = 0;
+  }
+
+  /**
+   * Returns the premultiplied ARGB_8888 pixels of a bitmap in a direct buffer shared with other images,
+   * which must not be modified.
+   *
+   * @param bitmap     the image bitmap
+   * @param pixelRatio the pixel ratio of the image
+   * @param sdf        the sdf flag of the image
+   * @return the pixels, or null if the registry is disabled or the image is too large to be retained
+   */
+  @Nullable
+  ByteBuffer obtainPixels(@NonNull Bitmap bitmap, float pixelRatio, boolean sdf) {
+    long byteCount = (long) bitmap.getWidth() * bitmap.getHeight() * 4;
+    int generationId = bitmap.getGenerationId();
+    synchronized (this) {
+      if (byteCount > maxSizeBytes) {
+        return null;
+      }
+      BitmapKey bitmapKey = bitmaps.get(bitmap);
+      if (bitmapKey != null && bitmapKey.generationId == generationId
+        && bitmapKey.key.pixelRatio == pixelRatio && bitmapKey.key.sdf == sdf) {
+        ByteBuffer pixels = entries.get(bitmapKey.key);
+        if (pixels != null) {
+          hitCount++;
+          return pixels.duplicate();
+        }
+      }
+    }
+
+    Bitmap argbBitmap = bitmap.getConfig() != Bitmap.Config.ARGB_8888
+      ? bitmap.copy(Bitmap.Config.ARGB_8888, false) : bitmap;
+    ByteBuffer pixels = ByteBuffer.allocateDirect(argbBitmap.getByteCount());
+    argbBitmap.copyPixelsToBuffer(pixels);
+    pixels.rewind();
+    Key key = new Key(hash(pixels), argbBitmap.getWidth(), argbBitmap.getHeight(), pixelRatio, sdf);
+
+    synchronized (this) {
+      ByteBuffer cached = entries.get(key);
+      if (cached != null && cached.equals(pixels)) {
+        hitCount++;
+        bitmaps.put(bitmap, new BitmapKey(key, generationId));
+        return cached.duplicate();
+      }
+
+      missCount++;
+      if (pixels.capacity() > maxSizeBytes) {
+        return pixels;
+      }
+      // on the unlikely collision of hashes the newer pixels replace the older ones
+      ByteBuffer previous = entries.put(key, pixels);
+      if (previous != null) {
+        sizeBytes -= previous.capacity();
+      }
+      sizeBytes += pixels.capacity();
+      bitmaps.put(bitmap, new BitmapKey(key, generationId));
+      trimToSize();
+      return pixels.duplicate();
+    }
+  }
+
+  private void trimToSize() {
+    Iterator<Map.Entry<Key, ByteBuffer>> iterator = entries.entrySet().iterator();
+    while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+      sizeBytes -= iterator.next().getValue().capacity();
+      iterator.remove();
+    }
+  }
+
+  private static long hash(@NonNull ByteBuffer pixels) {
+    ByteBuffer buffer = pixels.duplicate().order(ByteOrder.nativeOrder());
+    long hash = 0xcbf29ce484222325L;
+    while (buffer.remaining() >= 8) {
+      hash = (hash ^ buffer.getLong()) * 0x100000001b3L;
+    }
+    while (buffer.hasRemaining()) {
+      hash = (hash ^ buffer.get()) * 0x100000001b3L;
+    }
+    // spread the bits of the last rounds
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    return hash ^ (hash >>> 33);
+  }
+
+  private static final class Key {
+
+    final long hash;
+    final int width;
+    final int height;
+    final float pixelRatio;
+    final boolean sdf;
+
+    Key(long hash, int width, int height, float pixelRatio, boolean sdf) {
+      this.hash = hash;
+      this.width = width;
+      this.height = height;
+      this.pixelRatio = pixelRatio;
+      this.sdf = sdf;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return hash == key.hash && width == key.width && height == key.height
+        && Float.compare(pixelRatio, key.pixelRatio) == 0 && sdf == key.sdf;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = (int) (hash ^ (hash >>> 32));
+      result = 31 * result + width;
+      result = 31 * result + height;
+      result = 31 * result + Float.floatToIntBits(pixelRatio);
+      return 31 * result + (sdf ? 1 : 0);
+    }
+  }
+
+  private static final class BitmapKey {
+
+    final Key key;
+    final int generationId;
+
+    BitmapKey(Key key, int generationId) {
+      this.key = key;
+      this.generationId = generationId;
+    }
+  }
+}
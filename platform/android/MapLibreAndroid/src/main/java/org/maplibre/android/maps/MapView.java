@@ -5,6 +5,7 @@ import android.graphics.Bitmap;
 import android.graphics.PointF;
 import android.graphics.drawable.ColorDrawable;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
@@ -30,6 +31,7 @@ import org.maplibre.android.exceptions.MapLibreConfigurationException;
 import org.maplibre.android.location.LocationComponent;
 import org.maplibre.android.maps.renderer.MapRenderer;
 import org.maplibre.android.maps.widgets.CompassView;
+import org.maplibre.android.module.http.HttpRequestUtil;
 import org.maplibre.android.net.ConnectivityReceiver;
 import org.maplibre.android.storage.FileSource;
 import org.maplibre.android.utils.BitmapUtils;
@@ -169,6 +171,11 @@ public class MapView extends FrameLayout implements NativeMapView.ViewCallback {
             developerAnimationListeners);
     maplibreMap.injectAnnotationManager(annotationManager);
 
+    // tiles under the camera of this map are requested before prefetched tiles
+    RequestViewportListener requestViewportListener = new RequestViewportListener();
+    maplibreMap.addOnCameraMoveListener(requestViewportListener);
+    maplibreMap.addOnCameraIdleListener(requestViewportListener);
+
     // user input
     mapGestureDetector = new MapGestureDetector(context, transform, proj, uiSettings,
             annotationManager, cameraDispatcher);
@@ -244,6 +251,39 @@ public class MapView extends FrameLayout implements NativeMapView.ViewCallback {
     };
   }
 
+  /**
+   * Reports the viewport of the map to the request scheduler while the camera moves, at most every
+   * {@link #MOVE_INTERVAL_MS}, and when it's idle.
+   */
+  private class RequestViewportListener implements MapLibreMap.OnCameraMoveListener,
+    MapLibreMap.OnCameraIdleListener {
+
+    private static final long MOVE_INTERVAL_MS = 100;
+
+    private long lastUpdate;
+
+    @Override
+    public void onCameraMove() {
+      long now = SystemClock.uptimeMillis();
+      if (now - lastUpdate >= MOVE_INTERVAL_MS) {
+        update(now);
+      }
+    }
+
+    @Override
+    public void onCameraIdle() {
+      update(SystemClock.uptimeMillis());
+    }
+
+    private void update(long now) {
+      if (HttpRequestUtil.isRequestSchedulingEnabled() && maplibreMap != null) {
+        lastUpdate = now;
+        HttpRequestUtil.setViewport(maplibreMap, maplibreMap.getProjection().getVisibleRegion().latLngBounds,
+          maplibreMap.getCameraPosition().zoom);
+      }
+    }
+  }
+
   private MapLibreMap.OnCompassAnimationListener createCompassAnimationListener(@NonNull final CameraChangeDispatcher
                                                                                       cameraChangeDispatcher) {
     return new MapLibreMap.OnCompassAnimationListener() {
@@ -425,6 +465,7 @@ public class MapView extends FrameLayout implements NativeMapView.ViewCallback {
     }
 
     if (maplibreMap != null) {
+      HttpRequestUtil.setViewport(maplibreMap, null, 0);
       maplibreMap.onDestroy();
     }
 
@@ -469,7 +510,8 @@ public class MapView extends FrameLayout implements NativeMapView.ViewCallback {
    * Set the rendering refresh mode and wake up the render thread if it is sleeping.
    *
    * @param mode can be:
-   * {@link MapRenderer.RenderingRefreshMode#CONTINUOUS} or {@link MapRenderer.RenderingRefreshMode#WHEN_DIRTY}
+   * {@link MapRenderer.RenderingRefreshMode#CONTINUOUS}, {@link MapRenderer.RenderingRefreshMode#WHEN_DIRTY} or
+   * {@link MapRenderer.RenderingRefreshMode#VSYNC_PACED}
    * default is {@link MapRenderer.RenderingRefreshMode#WHEN_DIRTY}
    */
   public void setRenderingRefreshMode(MapRenderer.RenderingRefreshMode mode) {
@@ -574,6 +616,7 @@ public class MapView extends FrameLayout implements NativeMapView.ViewCallback {
    */
   @UiThread
   public void onLowMemory() {
+    ImageRegistry.getInstance().clear();
     if (nativeMapView != null && maplibreMap != null && !destroyed) {
       nativeMapView.onLowMemory();
     }
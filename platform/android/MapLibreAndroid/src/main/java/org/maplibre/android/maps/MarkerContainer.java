@@ -45,13 +45,10 @@ class MarkerContainer implements Markers {
     int count = markerOptionsList.size();
     List<Marker> markers = new ArrayList<>(count);
     if (nativeMapView != null && count > 0) {
-      BaseMarkerOptions markerOptions;
-      Marker marker;
       for (int i = 0; i < count; i++) {
-        markerOptions = markerOptionsList.get(i);
-        marker = prepareMarker(markerOptions);
-        markers.add(marker);
+        markers.add(markerOptionsList.get(i).getMarker());
       }
+      iconManager.loadIconsForMarkers(markers);
 
       if (markers.size() > 0) {
         long[] ids = nativeMapView.addMarkers(markers);
@@ -92,22 +89,14 @@ class MarkerContainer implements Markers {
   public List<Marker> obtainAllIn(@NonNull RectF rectangle) {
     RectF rect = nativeMapView.getDensityDependantRectangle(rectangle);
     long[] ids = nativeMapView.queryPointAnnotations(rect);
-    List<Long> idsList = new ArrayList<>(ids.length);
+    List<Marker> markers = new ArrayList<>(ids.length);
     for (long id : ids) {
-      idsList.add(id);
-    }
-
-    List<Marker> annotations = new ArrayList<>(ids.length);
-    List<Annotation> annotationList = obtainAnnotations();
-    int count = annotationList.size();
-    for (int i = 0; i < count; i++) {
-      Annotation annotation = annotationList.get(i);
-      if (annotation instanceof org.maplibre.android.annotations.Marker && idsList.contains(annotation.getId())) {
-        annotations.add((org.maplibre.android.annotations.Marker) annotation);
+      Annotation annotation = annotations.get(id);
+      if (annotation instanceof Marker) {
+        markers.add((Marker) annotation);
       }
     }
-
-    return new ArrayList<>(annotations);
+    return markers;
   }
 
   @Override
@@ -135,13 +124,4 @@ class MarkerContainer implements Markers {
   private void ensureIconLoaded(Marker marker, @NonNull MapLibreMap maplibreMap) {
     iconManager.ensureIconLoaded(marker, maplibreMap);
   }
-
-  @NonNull
-  private List<Annotation> obtainAnnotations() {
-    List<Annotation> annotations = new ArrayList<>();
-    for (int i = 0; i < this.annotations.size(); i++) {
-      annotations.add(this.annotations.get(this.annotations.keyAt(i)));
-    }
-    return annotations;
-  }
 }
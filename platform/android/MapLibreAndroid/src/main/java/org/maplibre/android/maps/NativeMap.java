@@ -23,6 +23,7 @@ import org.maplibre.android.style.layers.TransitionOptions;
 import org.maplibre.android.style.light.Light;
 import org.maplibre.android.style.sources.Source;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 interface NativeMap {
@@ -211,6 +212,8 @@ interface NativeMap {
 
   void latLngsForPixels(@NonNull double[] input, @NonNull double[] output);
 
+  void getProjectionState(@NonNull double[] output);
+
   //
   // Utils API
   //
@@ -279,8 +282,21 @@ interface NativeMap {
 
   void addAnnotationIcon(String symbol, int width, int height, float scale, byte[] pixels);
 
+  /**
+   * Adds annotation icons in one call, the pixels of all icons are packed one after another in a direct buffer.
+   * Each icon takes the given number of bytes, which must be 4 bytes per pixel.
+   *
+   * @return the top offset of each icon in density independent pixels
+   */
+  @NonNull
+  double[] addAnnotationIcons(@NonNull String[] symbols, @NonNull int[] widths, @NonNull int[] heights,
+                              @NonNull float[] scales, @NonNull int[] byteCounts, @NonNull ByteBuffer pixels);
+
   void removeAnnotationIcon(String symbol);
 
+  /**
+   * Returns the ids of the point annotations rendered in a rectangle, topmost first.
+   */
   @NonNull
   long[] queryPointAnnotations(RectF rectF);
 
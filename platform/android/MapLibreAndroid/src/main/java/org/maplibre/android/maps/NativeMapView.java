@@ -39,6 +39,7 @@ import org.maplibre.android.style.sources.Source;
 import org.maplibre.android.utils.BitmapUtils;
 import org.maplibre.android.tile.TileOperation;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -606,6 +607,16 @@ final class NativeMapView implements NativeMap {
     nativeAddAnnotationIcon(symbol, width, height, scale, pixels);
   }
 
+  @Override
+  @NonNull
+  public double[] addAnnotationIcons(@NonNull String[] symbols, @NonNull int[] widths, @NonNull int[] heights,
+                                     @NonNull float[] scales, @NonNull int[] byteCounts, @NonNull ByteBuffer pixels) {
+    if (checkState("addAnnotationIcons")) {
+      return new double[] {};
+    }
+    return nativeAddAnnotationIcons(symbols, widths, heights, scales, byteCounts, pixels);
+  }
+
   @Override
   public void removeAnnotationIcon(String symbol) {
     if (checkState("removeAnnotationIcon")) {
@@ -727,6 +738,13 @@ final class NativeMapView implements NativeMap {
     }
   }
 
+  @Override
+  public void getProjectionState(@NonNull double[] output) {
+    if (!checkState("getProjectionState")) {
+      nativeGetProjectionState(output);
+    }
+  }
+
 
   @Override
   public double getTopOffsetPixelsForAnnotationSymbol(String symbolName) {
@@ -1413,6 +1431,11 @@ final class NativeMapView implements NativeMap {
   @Keep
   private native void nativeAddAnnotationIcon(String symbol, int width, int height, float scale, byte[] pixels);
 
+  @NonNull
+  @Keep
+  private native double[] nativeAddAnnotationIcons(String[] symbols, int[] widths, int[] heights, float[] scales,
+                                                   int[] byteCounts, ByteBuffer pixels);
+
   @Keep
   private native void nativeRemoveAnnotationIcon(String symbol);
 
@@ -1456,6 +1479,9 @@ final class NativeMapView implements NativeMap {
   @Keep
   private native void nativeGetVisibleCoordinateBounds(double[] output);
 
+  @Keep
+  private native void nativeGetProjectionState(double[] output);
+
   @NonNull
   @Keep
   private native LatLng nativeLatLngForPixel(float x, float y);
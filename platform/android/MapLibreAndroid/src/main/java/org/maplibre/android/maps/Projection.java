@@ -302,6 +302,19 @@ public class Projection {
     nativeMapView.pixelsForLatLngs(input, output);
   }
 
+  /**
+   * Captures the current camera of the map into a projection that projects large numbers of points without
+   * calling into native, usable from any thread. The snapshot doesn't follow later camera changes.
+   *
+   * @return the projection of the current camera
+   */
+  @NonNull
+  public ProjectionSnapshot snapshot() {
+    double[] state = new double[ProjectionSnapshot.STATE_LENGTH];
+    nativeMapView.getProjectionState(state);
+    return new ProjectionSnapshot(state, nativeMapView.getPixelRatio());
+  }
+
   float getHeight() {
     return mapView.getHeight();
   }
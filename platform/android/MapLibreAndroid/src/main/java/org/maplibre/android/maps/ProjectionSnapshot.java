@@ -0,0 +1,306 @@
+package org.maplibre.android.maps;
+
+import android.graphics.PointF;
+
+import androidx.annotation.NonNull;
+
+import org.maplibre.android.constants.GeometryConstants;
+import org.maplibre.android.geometry.LatLng;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * A projection between screen locations and geographic coordinates for the camera of a map at the moment it
+ * was captured with {@link Projection#snapshot()}.
+ * <p>
+ * The transform of the map is read once when the snapshot is captured, projecting points afterwards doesn't
+ * call into native and doesn't allocate per point. A snapshot is immutable and can be used from any thread, for example
+ * to project the vertices of an overlay on a worker thread while the camera keeps moving, or to project ranges
+ * of a large array on several threads.
+ * </p>
+ * <p>
+ * Coordinates are given as interleaved latitude, longitude pairs and screen locations as interleaved x, y pairs
+ * in screen pixels relative to the top left of the map, like {@link Projection#toScreenLocations(double[], double[])}.
+ * Like the map itself, a snapshot of a map without a size projects every coordinate to the top left of the
+ * screen and every screen location to the top left of the world.
+ * </p>
+ */
+public final class ProjectionSnapshot {
+
+  // coordinate matrix, inverted matrix, scale, width, height, center longitude
+  static final int STATE_LENGTH = 36;
+
+  private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+  private static final double RADIANS_TO_DEGREES = 180 / Math.PI;
+
+  private final double[] coordMatrix = new double[16];
+  private final double[] invertedMatrix = new double[16];
+  private final double scale;
+  private final double height;
+  private final double centerLongitude;
+  private final float pixelRatio;
+  private final float width;
+  private final boolean empty;
+
+  ProjectionSnapshot(@NonNull double[] state, float pixelRatio) {
+    System.arraycopy(state, 0, coordMatrix, 0, 16);
+    System.arraycopy(state, 16, invertedMatrix, 0, 16);
+    this.scale = state[32];
+    this.width = (float) (state[33] * pixelRatio);
+    this.height = state[34];
+    this.centerLongitude = state[35];
+    this.pixelRatio = pixelRatio;
+    this.empty = state[33] == 0 || state[34] == 0;
+  }
+
+  /**
+   * Returns the width of the map when the snapshot was captured.
+   *
+   * @return the width in screen pixels
+   */
+  public float getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the map when the snapshot was captured.
+   *
+   * @return the height in screen pixels
+   */
+  public float getHeight() {
+    return (float) (height * pixelRatio);
+  }
+
+  /**
+   * Returns the screen location of a geographical coordinate.
+   *
+   * @param location the coordinate
+   * @return the screen location in screen pixels
+   * @see Projection#toScreenLocation(LatLng)
+   */
+  @NonNull
+  public PointF toScreenLocation(@NonNull LatLng location) {
+    double[] point = new double[2];
+    project(location.getLatitude(), location.getLongitude(), point);
+    return new PointF((float) point[0], (float) point[1]);
+  }
+
+  /**
+   * Returns the geographical coordinate of a screen location.
+   *
+   * @param point the screen location in screen pixels
+   * @return the coordinate
+   * @see Projection#fromScreenLocation(PointF)
+   */
+  @NonNull
+  public LatLng fromScreenLocation(@NonNull PointF point) {
+    double[] latLng = new double[2];
+    unproject(point.x, point.y, latLng);
+    return new LatLng(latLng[0], latLng[1]);
+  }
+
+  /**
+   * Projects geographical coordinates to screen locations.
+   *
+   * @param input        interleaved latitude, longitude pairs
+   * @param inputOffset  the index of the first latitude in input
+   * @param output       receives interleaved x, y pairs
+   * @param outputOffset the index of the first x in output
+   * @param count        the number of points
+   */
+  public void toScreenLocations(@NonNull double[] input, int inputOffset,
+                                @NonNull float[] output, int outputOffset, int count) {
+    double[] point = new double[2];
+    for (int i = 0; i < count; i++) {
+      project(input[inputOffset + 2 * i], input[inputOffset + 2 * i + 1], point);
+      output[outputOffset + 2 * i] = (float) point[0];
+      output[outputOffset + 2 * i + 1] = (float) point[1];
+    }
+  }
+
+  /**
+   * Projects geographical coordinates to screen locations.
+   *
+   * @param input        interleaved latitude, longitude pairs
+   * @param inputOffset  the index of the first latitude in input
+   * @param output       receives interleaved x, y pairs
+   * @param outputOffset the index of the first x in output
+   * @param count        the number of points
+   */
+  public void toScreenLocations(@NonNull double[] input, int inputOffset,
+                                @NonNull double[] output, int outputOffset, int count) {
+    double[] point = new double[2];
+    for (int i = 0; i < count; i++) {
+      project(input[inputOffset + 2 * i], input[inputOffset + 2 * i + 1], point);
+      output[outputOffset + 2 * i] = point[0];
+      output[outputOffset + 2 * i + 1] = point[1];
+    }
+  }
+
+  /**
+   * Projects geographical coordinates to screen locations, starting at the positions of the buffers.
+   * The positions of the buffers are not changed.
+   *
+   * @param input        latitude, longitude pairs
+   * @param inputStride  the number of values from one latitude to the next in input, at least 2
+   * @param output       receives x, y pairs
+   * @param outputStride the number of values from one x to the next in output, at least 2
+   * @param count        the number of points
+   */
+  public void toScreenLocations(@NonNull DoubleBuffer input, int inputStride,
+                                @NonNull FloatBuffer output, int outputStride, int count) {
+    checkStride(inputStride, outputStride);
+    int inputIndex = input.position();
+    int outputIndex = output.position();
+    double[] point = new double[2];
+    for (int i = 0; i < count; i++) {
+      project(input.get(inputIndex), input.get(inputIndex + 1), point);
+      output.put(outputIndex, (float) point[0]);
+      output.put(outputIndex + 1, (float) point[1]);
+      inputIndex += inputStride;
+      outputIndex += outputStride;
+    }
+  }
+
+  /**
+   * Projects screen locations to geographical coordinates.
+   *
+   * @param input        interleaved x, y pairs
+   * @param inputOffset  the index of the first x in input
+   * @param output       receives interleaved latitude, longitude pairs
+   * @param outputOffset the index of the first latitude in output
+   * @param count        the number of points
+   */
+  public void fromScreenLocations(@NonNull float[] input, int inputOffset,
+                                  @NonNull double[] output, int outputOffset, int count) {
+    double[] latLng = new double[2];
+    for (int i = 0; i < count; i++) {
+      unproject(input[inputOffset + 2 * i], input[inputOffset + 2 * i + 1], latLng);
+      output[outputOffset + 2 * i] = latLng[0];
+      output[outputOffset + 2 * i + 1] = latLng[1];
+    }
+  }
+
+  /**
+   * Projects screen locations to geographical coordinates.
+   *
+   * @param input        interleaved x, y pairs
+   * @param inputOffset  the index of the first x in input
+   * @param output       receives interleaved latitude, longitude pairs
+   * @param outputOffset the index of the first latitude in output
+   * @param count        the number of points
+   */
+  public void fromScreenLocations(@NonNull double[] input, int inputOffset,
+                                  @NonNull double[] output, int outputOffset, int count) {
+    double[] latLng = new double[2];
+    for (int i = 0; i < count; i++) {
+      unproject(input[inputOffset + 2 * i], input[inputOffset + 2 * i + 1], latLng);
+      output[outputOffset + 2 * i] = latLng[0];
+      output[outputOffset + 2 * i + 1] = latLng[1];
+    }
+  }
+
+  /**
+   * Projects screen locations to geographical coordinates, starting at the positions of the buffers.
+   * The positions of the buffers are not changed.
+   *
+   * @param input        x, y pairs
+   * @param inputStride  the number of values from one x to the next in input, at least 2
+   * @param output       receives latitude, longitude pairs
+   * @param outputStride the number of values from one latitude to the next in output, at least 2
+   * @param count        the number of points
+   */
+  public void fromScreenLocations(@NonNull FloatBuffer input, int inputStride,
+                                  @NonNull DoubleBuffer output, int outputStride, int count) {
+    checkStride(inputStride, outputStride);
+    int inputIndex = input.position();
+    int outputIndex = output.position();
+    double[] latLng = new double[2];
+    for (int i = 0; i < count; i++) {
+      unproject(input.get(inputIndex), input.get(inputIndex + 1), latLng);
+      output.put(outputIndex, latLng[0]);
+      output.put(outputIndex + 1, latLng[1]);
+      inputIndex += inputStride;
+      outputIndex += outputStride;
+    }
+  }
+
+  // mirrors Map::pixelForLatLng and Transform::latLngToScreenCoordinate
+  private void project(double latitude, double longitude, @NonNull double[] point) {
+    if (empty) {
+      point[0] = 0;
+      point[1] = 0;
+      return;
+    }
+
+    // take the shortest path from the center, e.g. to show a point beyond the antimeridian
+    if (longitude < GeometryConstants.MIN_WRAP_LONGITUDE || longitude >= GeometryConstants.MAX_WRAP_LONGITUDE) {
+      double wrapped = GeometryConstants.MIN_WRAP_LONGITUDE
+        + (longitude - GeometryConstants.MIN_WRAP_LONGITUDE) % GeometryConstants.LONGITUDE_SPAN;
+      longitude = longitude < GeometryConstants.MIN_WRAP_LONGITUDE ? wrapped + GeometryConstants.LONGITUDE_SPAN : wrapped;
+    }
+    double delta = Math.abs(centerLongitude - longitude);
+    if (delta > 180 && delta < 360) {
+      if (longitude > 0 && centerLongitude < 0) {
+        longitude -= 360;
+      } else if (longitude < 0 && centerLongitude > 0) {
+        longitude += 360;
+      }
+    }
+
+    latitude = Math.max(GeometryConstants.MIN_MERCATOR_LATITUDE,
+      Math.min(GeometryConstants.MAX_MERCATOR_LATITUDE, latitude));
+    double x = (180 + longitude) * scale / 360;
+    double y = (180 - RADIANS_TO_DEGREES * Math.log(Math.tan(Math.PI / 4 + latitude * DEGREES_TO_RADIANS / 2)))
+      * scale / 360;
+
+    double[] m = coordMatrix;
+    double w = m[3] * x + m[7] * y + m[15];
+    point[0] = (m[0] * x + m[4] * y + m[12]) / w * pixelRatio;
+    // TransformState flips y upwards and Transform flips it back, the coordinate matrix is already top down
+    point[1] = (m[1] * x + m[5] * y + m[13]) / w * pixelRatio;
+  }
+
+  // mirrors Transform::screenCoordinateToLatLng
+  private void unproject(double screenX, double screenY, @NonNull double[] latLng) {
+    if (empty) {
+      latLng[0] = toLatitude(0);
+      latLng[1] = -180;
+      return;
+    }
+
+    double x = screenX / pixelRatio;
+    double y = screenY / pixelRatio;
+
+    // intersect the ray between the near and far plane through the point with the ground
+    double[] m = invertedMatrix;
+    double x0 = m[0] * x + m[4] * y + m[12];
+    double y0 = m[1] * x + m[5] * y + m[13];
+    double z0 = m[2] * x + m[6] * y + m[14];
+    double w0 = m[3] * x + m[7] * y + m[15];
+    double w1 = w0 + m[11];
+    double px0 = x0 / w0;
+    double py0 = y0 / w0;
+    double px1 = (x0 + m[8]) / w1;
+    double py1 = (y0 + m[9]) / w1;
+    double pz0 = z0 / w0;
+    double pz1 = (z0 + m[10]) / w1;
+    double t = pz0 == pz1 ? 0 : -pz0 / (pz1 - pz0);
+
+    double px = (px0 * (1 - t) + px1 * t) / scale * 360;
+    double py = (py0 * (1 - t) + py1 * t) / scale * 360;
+    latLng[0] = toLatitude(py);
+    latLng[1] = px - 180;
+  }
+
+  private static double toLatitude(double y) {
+    return Math.atan(Math.exp((180 - y) * DEGREES_TO_RADIANS)) * 360 / Math.PI - 90;
+  }
+
+  private static void checkStride(int inputStride, int outputStride) {
+    if (inputStride < 2 || outputStride < 2) {
+      throw new IllegalArgumentException("Stride must be at least 2: " + inputStride + ", " + outputStride);
+    }
+  }
+}
@@ -2,7 +2,6 @@ package org.maplibre.android.maps;
 
 import android.graphics.Bitmap;
 import android.graphics.drawable.Drawable;
-import android.os.AsyncTask;
 import android.util.DisplayMetrics;
 import android.util.Pair;
 
@@ -19,7 +18,6 @@ import org.maplibre.android.style.sources.Source;
 import org.maplibre.android.util.DefaultStyle;
 import org.maplibre.android.utils.BitmapUtils;
 
-import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -45,6 +43,7 @@ public class Style {
   private final HashMap<String, Layer> layers = new HashMap<>();
   private final HashMap<String, Bitmap> images = new HashMap<>();
   private final Builder builder;
+  private final ImageConversionQueue imageConversionQueue;
   private boolean fullyLoaded;
 
   /**
@@ -56,6 +55,7 @@ public class Style {
   private Style(@NonNull Builder builder, @NonNull NativeMap nativeMap) {
     this.builder = builder;
     this.nativeMap = nativeMap;
+    this.imageConversionQueue = new ImageConversionQueue(nativeMap);
   }
 
   /**
@@ -375,6 +375,7 @@ public class Style {
    */
   public void addImage(@NonNull final String name, @NonNull Bitmap bitmap, boolean sdf) {
     validateState("addImage");
+    imageConversionQueue.cancel(name);
     nativeMap.addImages(new Image[] {toImage(new Builder.ImageWrapper(name, bitmap, sdf))});
   }
 
@@ -393,6 +394,7 @@ public class Style {
                        @NonNull List<ImageStretches> stretchY,
                        @Nullable ImageContent content) {
     validateState("addImage");
+    imageConversionQueue.cancel(name);
     nativeMap.addImages(new Image[] {
       toImage(new Builder.ImageWrapper(name, bitmap, sdf, stretchX, stretchY, content))});
   }
@@ -466,8 +468,24 @@ public class Style {
    * @param sdf    the flag indicating image is an SDF or template image
    */
   public void addImageAsync(@NonNull final String name, @NonNull Bitmap bitmap, boolean sdf) {
+    addImageAsync(name, bitmap, sdf, null);
+  }
+
+  /**
+   * Adds an image asynchronously, to be used in the map's style.
+   * <p>
+   * The listener isn't invoked if the image is removed, replaced or the style is changed before it's added.
+   * </p>
+   *
+   * @param name     the name of the image
+   * @param bitmap   the pre-multiplied Bitmap
+   * @param sdf      the flag indicating image is an SDF or template image
+   * @param listener the listener invoked once the image has been added
+   */
+  public void addImageAsync(@NonNull final String name, @NonNull Bitmap bitmap, boolean sdf,
+                            @Nullable OnImagesAddedListener listener) {
     validateState("addImage");
-    new BitmapImageConversionTask(nativeMap).execute(new Builder.ImageWrapper(name, bitmap, sdf));
+    imageConversionQueue.submit(new Builder.ImageWrapper[] {new Builder.ImageWrapper(name, bitmap, sdf)}, listener);
   }
 
   /**
@@ -485,8 +503,8 @@ public class Style {
                             @NonNull List<ImageStretches> stretchY,
                             @Nullable ImageContent content) {
     validateState("addImage");
-    new BitmapImageConversionTask(nativeMap)
-      .execute(new Builder.ImageWrapper(name, bitmap, sdf, stretchX, stretchY, content));
+    imageConversionQueue.submit(
+      new Builder.ImageWrapper[] {new Builder.ImageWrapper(name, bitmap, sdf, stretchX, stretchY, content)}, null);
   }
 
   /**
@@ -522,6 +540,7 @@ public class Style {
     Image[] convertedImages = new Image[images.size()];
     int index = 0;
     for (Builder.ImageWrapper imageWrapper : Builder.ImageWrapper.convertToImageArray(images, sdf)) {
+      imageConversionQueue.cancel(imageWrapper.id);
       convertedImages[index] = toImage(imageWrapper);
       index++;
     }
@@ -547,6 +566,7 @@ public class Style {
     int index = 0;
     for (Builder.ImageWrapper imageWrapper
       : Builder.ImageWrapper.convertToImageArray(images, sdf, stretchX, stretchY, content)) {
+      imageConversionQueue.cancel(imageWrapper.id);
       convertedImages[index] = toImage(imageWrapper);
       index++;
     }
@@ -583,8 +603,24 @@ public class Style {
    * @param sdf    the flag indicating image is an SDF or template image
    */
   public void addImagesAsync(@NonNull HashMap<String, Bitmap> images, boolean sdf) {
+    addImagesAsync(images, sdf, null);
+  }
+
+  /**
+   * Adds images asynchronously, to be used in the map's style.
+   * <p>
+   * The listener receives the names of the images added, images removed, replaced or dropped by a style
+   * change in the meantime are left out. It isn't invoked when none are left.
+   * </p>
+   *
+   * @param images   the map of images to add
+   * @param sdf      the flag indicating image is an SDF or template image
+   * @param listener the listener invoked once the images have been added
+   */
+  public void addImagesAsync(@NonNull HashMap<String, Bitmap> images, boolean sdf,
+                             @Nullable OnImagesAddedListener listener) {
     validateState("addImages");
-    new BitmapImageConversionTask(nativeMap).execute(Builder.ImageWrapper.convertToImageArray(images, sdf));
+    imageConversionQueue.submit(Builder.ImageWrapper.convertToImageArray(images, sdf), listener);
   }
 
   /**
@@ -601,8 +637,8 @@ public class Style {
                              @NonNull List<ImageStretches> stretchY,
                              @Nullable ImageContent content) {
     validateState("addImages");
-    new BitmapImageConversionTask(nativeMap)
-      .execute(Builder.ImageWrapper.convertToImageArray(images, sdf, stretchX, stretchY, content));
+    imageConversionQueue.submit(
+      Builder.ImageWrapper.convertToImageArray(images, sdf, stretchX, stretchY, content), null);
   }
 
   /**
@@ -612,6 +648,7 @@ public class Style {
    */
   public void removeImage(@NonNull String name) {
     validateState("removeImage");
+    imageConversionQueue.cancel(name);
     nativeMap.removeImage(name);
   }
 
@@ -699,6 +736,7 @@ public class Style {
    */
   void clear() {
     fullyLoaded = false;
+    imageConversionQueue.cancelAll();
     for (Layer layer : layers.values()) {
       if (layer != null) {
         layer.setDetached();
@@ -1332,28 +1370,23 @@ public class Style {
 
   public static Image toImage(Builder.ImageWrapper imageWrapper) {
     Bitmap bitmap = imageWrapper.bitmap;
+    float pixelRatio = (float) bitmap.getDensity() / DisplayMetrics.DENSITY_DEFAULT;
+    ByteBuffer pixels = ImageRegistry.getInstance().obtainPixels(bitmap, pixelRatio, imageWrapper.sdf);
+    if (pixels != null) {
+      return toImage(imageWrapper, pixels, pixelRatio);
+    }
+
     if (bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
       bitmap = bitmap.copy(Bitmap.Config.ARGB_8888, false);
     }
 
     ByteBuffer buffer = ByteBuffer.allocate(bitmap.getByteCount());
     bitmap.copyPixelsToBuffer(buffer);
-    float pixelRatio = (float) bitmap.getDensity() / DisplayMetrics.DENSITY_DEFAULT;
 
     if (imageWrapper.getStretchX() != null && imageWrapper.getStretchY() != null) {
-      float[] arrayX = new float[imageWrapper.getStretchX().size() * 2];
-      for (int i = 0; i < imageWrapper.getStretchX().size(); i++) {
-        arrayX[i * 2] = imageWrapper.getStretchX().get(i).getFirst();
-        arrayX[i * 2 + 1] = imageWrapper.getStretchX().get(i).getSecond();
-      }
-
-      float[] arrayY = new float[imageWrapper.getStretchY().size() * 2];
-      for (int i = 0; i < imageWrapper.getStretchY().size(); i++) {
-        arrayY[i * 2] = imageWrapper.getStretchY().get(i).getFirst();
-        arrayY[i * 2 + 1] = imageWrapper.getStretchY().get(i).getSecond();
-      }
       return new Image(buffer.array(), pixelRatio, imageWrapper.id,
-        bitmap.getWidth(), bitmap.getHeight(), imageWrapper.sdf, arrayX, arrayY,
+        bitmap.getWidth(), bitmap.getHeight(), imageWrapper.sdf,
+        toStretchArray(imageWrapper.getStretchX()), toStretchArray(imageWrapper.getStretchY()),
         imageWrapper.getContent() == null ? null : imageWrapper.getContent().getContentArray()
       );
     }
@@ -1363,32 +1396,39 @@ public class Style {
     );
   }
 
-  private static class BitmapImageConversionTask extends AsyncTask<Builder.ImageWrapper, Void, Image[]> {
-
-    private WeakReference<NativeMap> nativeMap;
-
-    BitmapImageConversionTask(NativeMap nativeMap) {
-      this.nativeMap = new WeakReference<>(nativeMap);
-    }
+  /**
+   * Creates an image reading its pixels from a direct buffer.
+   */
+  @NonNull
+  static Image toImage(@NonNull Builder.ImageWrapper imageWrapper, @NonNull ByteBuffer pixels, float pixelRatio) {
+    Bitmap bitmap = imageWrapper.bitmap;
+    boolean stretchable = imageWrapper.getStretchX() != null && imageWrapper.getStretchY() != null;
+    return new Image(pixels, pixelRatio, imageWrapper.id, bitmap.getWidth(), bitmap.getHeight(), imageWrapper.sdf,
+      stretchable ? toStretchArray(imageWrapper.getStretchX()) : null,
+      stretchable ? toStretchArray(imageWrapper.getStretchY()) : null,
+      stretchable && imageWrapper.getContent() != null ? imageWrapper.getContent().getContentArray() : null);
+  }
 
-    @NonNull
-    @Override
-    protected Image[] doInBackground(Builder.ImageWrapper... params) {
-      List<Image> images = new ArrayList<>();
-      for (Builder.ImageWrapper param : params) {
-        images.add(toImage(param));
-      }
-      return images.toArray(new Image[images.size()]);
+  @NonNull
+  static float[] toStretchArray(@NonNull List<ImageStretches> stretches) {
+    float[] array = new float[stretches.size() * 2];
+    for (int i = 0; i < stretches.size(); i++) {
+      array[i * 2] = stretches.get(i).getFirst();
+      array[i * 2 + 1] = stretches.get(i).getSecond();
     }
+    return array;
+  }
 
-    @Override
-    protected void onPostExecute(@NonNull Image[] images) {
-      super.onPostExecute(images);
-      NativeMap nativeMap = this.nativeMap.get();
-      if (nativeMap != null && !nativeMap.isDestroyed()) {
-        nativeMap.addImages(images);
-      }
-    }
+  /**
+   * Callback invoked on the main thread once images added asynchronously are part of the style.
+   */
+  public interface OnImagesAddedListener {
+    /**
+     * Invoked when images have been added to the style.
+     *
+     * @param names the names of the images added
+     */
+    void onImagesAdded(@NonNull List<String> names);
   }
 
   /**
@@ -0,0 +1,156 @@
+package org.maplibre.android.maps.renderer;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aligns render requests to display vsync, see {@link MapRenderer.RenderingRefreshMode#VSYNC_PACED}.
+ * <p>
+ * Render requests only mark the map dirty, renders are requested from {@link Choreographer} frame callbacks
+ * on the main thread. With a maximum fps, a render happens on every n-th vsync so that the frame rate is the
+ * highest integer divider of the refresh rate not above the maximum, e.g. 120, 60, 40 or 30 fps on a 120 Hz
+ * display. A vsync is skipped while the previous frame hasn't been drawn. Frame callbacks are only posted
+ * while the map is dirty, an idle map doesn't wake up the main thread.
+ * </p>
+ */
+final class FramePacer implements Choreographer.FrameCallback {
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  // vsync intervals above this are pauses between frame callbacks, not display refreshes
+  private static final long MAX_VSYNC_PERIOD_NANOS = NANOS_PER_SECOND / 20;
+
+  // a frame not drawn after this long was dropped by the render thread, e.g. while the surface was gone
+  private static final long FRAME_TIMEOUT_NANOS = NANOS_PER_SECOND / 10;
+
+  private final Runnable renderRequest;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Runnable postFrameCallback = this::postFrameCallback;
+  private final AtomicBoolean dirty = new AtomicBoolean();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+
+  private volatile boolean released;
+  private volatile boolean framePending;
+  private volatile long minFrameIntervalNanos;
+
+  // main thread only
+  private long lastVsyncNanos;
+  private long vsyncPeriodNanos;
+  private long lastFrameNanos;
+
+  /**
+   * @param renderRequest requests a render from the render thread, invoked on the main thread
+   * @param maximumFps    the maximum frame rate, 0 or less for the refresh rate of the display
+   */
+  FramePacer(@NonNull Runnable renderRequest, int maximumFps) {
+    this.renderRequest = renderRequest;
+    setMaximumFps(maximumFps);
+  }
+
+  void setMaximumFps(int maximumFps) {
+    minFrameIntervalNanos = maximumFps > 0 ? NANOS_PER_SECOND / maximumFps : 0;
+  }
+
+  /**
+   * Marks the map dirty, it will be rendered on the next eligible vsync. May be called from any thread.
+   */
+  void requestFrame() {
+    dirty.set(true);
+    schedule();
+  }
+
+  /**
+   * Called on the render thread once a requested frame has been drawn.
+   */
+  void onFrameDrawn() {
+    framePending = false;
+    if (dirty.get()) {
+      schedule();
+    }
+  }
+
+  void release() {
+    released = true;
+    mainHandler.removeCallbacks(postFrameCallback);
+    if (Looper.myLooper() == Looper.getMainLooper()) {
+      Choreographer.getInstance().removeFrameCallback(this);
+    }
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    scheduled.set(false);
+    if (released) {
+      return;
+    }
+
+    long sinceLastVsync = frameTimeNanos - lastVsyncNanos;
+    if (lastVsyncNanos > 0 && sinceLastVsync > 0 && sinceLastVsync < MAX_VSYNC_PERIOD_NANOS) {
+      // the shortest interval seen is the display refresh period, callbacks are never early
+      vsyncPeriodNanos = vsyncPeriodNanos == 0 ? sinceLastVsync : Math.min(vsyncPeriodNanos, sinceLastVsync);
+    }
+    lastVsyncNanos = frameTimeNanos;
+
+    if (framePending && frameTimeNanos - lastFrameNanos < FRAME_TIMEOUT_NANOS) {
+      // the previous frame hasn't been drawn yet, try again on the next vsync
+      schedule();
+      return;
+    }
+    framePending = false;
+
+    if (frameTimeNanos - lastFrameNanos < requiredIntervalNanos()) {
+      schedule();
+      return;
+    }
+
+    if (!dirty.getAndSet(false)) {
+      return;
+    }
+    lastFrameNanos = frameTimeNanos;
+    framePending = true;
+    renderRequest.run();
+  }
+
+  /**
+   * Returns the time to wait between frames, a whole number of vsync periods at least as long as the minimum
+   * frame interval, minus half a period of tolerance to keep jittery callbacks on the intended vsync.
+   */
+  private long requiredIntervalNanos() {
+    long minInterval = minFrameIntervalNanos;
+    if (vsyncPeriodNanos == 0 || minInterval == 0) {
+      return minInterval;
+    }
+    // the small margin keeps e.g. 40 fps on a 120 Hz display at a divider of 3 despite rounding
+    long divider = Math.max(1, (long) Math.ceil((double) minInterval / vsyncPeriodNanos - 0.05));
+    return divider * vsyncPeriodNanos - vsyncPeriodNanos / 2;
+  }
+
+  @VisibleForTesting
+  long getVsyncPeriodNanos() {
+    return vsyncPeriodNanos;
+  }
+
+  private void schedule() {
+    if (released || !scheduled.compareAndSet(false, true)) {
+      return;
+    }
+
+    if (Looper.myLooper() == Looper.getMainLooper()) {
+      postFrameCallback();
+    } else {
+      mainHandler.post(postFrameCallback);
+    }
+  }
+
+  private void postFrameCallback() {
+    if (!released) {
+      Choreographer.getInstance().postFrameCallback(this);
+    }
+  }
+}
@@ -8,6 +8,7 @@ import android.view.View;
 import androidx.annotation.CallSuper;
 import androidx.annotation.Keep;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.maplibre.android.LibraryLoader;
 import org.maplibre.android.log.Logger;
@@ -45,11 +46,23 @@ public abstract class MapRenderer implements MapRendererScheduler {
      * This mode is preferred when benchmarking the rendering
      */
     CONTINUOUS,
+
+    /**
+     * The map is rendered in response to an event that affects the rendering of the map, like
+     * {@link #WHEN_DIRTY}, but renders are started on display vsync. The maximum fps set with
+     * {@link MapRenderer#setMaximumFps(int)} is applied as a divider of the refresh rate instead of by
+     * sleeping on the render thread, and a vsync is skipped while the previous frame is still being drawn.
+     * This mode is preferred for a steady frame rate below the refresh rate of the display.
+     */
+    VSYNC_PACED,
   }
 
   // Holds the pointer to the native peer after initialization
   private long nativePtr = 0;
   private double expectedRenderTime = 0;
+  private int maximumFps;
+  @Nullable
+  private volatile FramePacer framePacer;
   private MapLibreMap.OnFpsChangedListener onFpsChangedListener;
 
   public static MapRenderer create(MapLibreMapOptions options, @NonNull Context context, Runnable initCallback) {
@@ -131,7 +144,19 @@ public abstract class MapRenderer implements MapRendererScheduler {
     } catch (java.lang.Error error) {
       Logger.e(TAG, error.getMessage());
     }
-    long renderTime = System.nanoTime() - startTime;
+
+    FramePacer pacer = framePacer;
+    if (pacer != null) {
+      pacer.onFrameDrawn();
+    } else {
+      sleepUntilExpectedRenderTime(System.nanoTime() - startTime);
+    }
+    if (onFpsChangedListener != null) {
+      updateFps();
+    }
+  }
+
+  private void sleepUntilExpectedRenderTime(long renderTime) {
     if (renderTime < expectedRenderTime) {
       try {
         Thread.sleep((long) ((expectedRenderTime - renderTime) / 1E6));
@@ -139,11 +164,45 @@ public abstract class MapRenderer implements MapRendererScheduler {
         Logger.e(TAG, ex.getMessage());
       }
     }
-    if (onFpsChangedListener != null) {
-      updateFps();
+  }
+
+  /**
+   * Starts pacing render requests to display vsync, for {@link RenderingRefreshMode#VSYNC_PACED}.
+   *
+   * @param renderRequest requests a render from the render thread, invoked on the main thread
+   */
+  protected void enableFramePacing(@NonNull Runnable renderRequest) {
+    if (framePacer == null) {
+      framePacer = new FramePacer(renderRequest, maximumFps);
+    }
+  }
+
+  protected void disableFramePacing() {
+    FramePacer pacer = framePacer;
+    if (pacer != null) {
+      framePacer = null;
+      pacer.release();
     }
   }
 
+  protected boolean isFramePacingEnabled() {
+    return framePacer != null;
+  }
+
+  /**
+   * Defers a render request to the next paced vsync when frame pacing is enabled. May be called from any thread.
+   *
+   * @return true if the request was deferred, false if the caller should request the render itself
+   */
+  protected boolean requestPacedRender() {
+    FramePacer pacer = framePacer;
+    if (pacer == null) {
+      return false;
+    }
+    pacer.requestFrame();
+    return true;
+  }
+
   public void setSwapBehaviorFlush(boolean flush) {
     nativeSetSwapBehaviorFlush(flush);
   }
@@ -204,6 +263,11 @@ public abstract class MapRenderer implements MapRendererScheduler {
       // Not valid, just return
       return;
     }
+    this.maximumFps = maximumFps;
     expectedRenderTime = 1E9 / maximumFps;
+    FramePacer pacer = framePacer;
+    if (pacer != null) {
+      pacer.setMaximumFps(maximumFps);
+    }
   }
 }
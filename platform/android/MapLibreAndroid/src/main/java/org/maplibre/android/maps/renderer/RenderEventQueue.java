@@ -0,0 +1,148 @@
+package org.maplibre.android.maps.renderer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Queue of events to run on a render thread, written by any thread and drained by the render thread only.
+ * <p>
+ * Producers link their event without taking a lock. The monitor of the render thread is only entered
+ * to wake the render thread up when it's idle, so while the map is animating and the render thread is
+ * busy, queueing an event doesn't contend with the render loop or the ui thread.
+ * </p>
+ * <p>
+ * The render thread polls events and waits for work with {@link #await()}, both while holding the monitor,
+ * like it does for the rest of its state.
+ * </p>
+ */
+public final class RenderEventQueue {
+
+  private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+    AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+  private static final AtomicIntegerFieldUpdater<RenderEventQueue> CONSUMER_WAITING =
+    AtomicIntegerFieldUpdater.newUpdater(RenderEventQueue.class, "consumerWaiting");
+
+  private final Object lock;
+  private final AtomicReference<Node> tail;
+
+  // written by the consumer only
+  private volatile Node head;
+
+  // 1 while the consumer is about to wait, cleared by the single producer that wakes it up
+  private volatile int consumerWaiting;
+
+  // guarded by lock
+  private int emptyWaiters;
+
+  /**
+   * @param lock the monitor the render thread waits on
+   */
+  public RenderEventQueue(@NonNull Object lock) {
+    this.lock = lock;
+    Node stub = new Node(null);
+    this.head = stub;
+    this.tail = new AtomicReference<>(stub);
+  }
+
+  /**
+   * Adds an event, may be called from any thread.
+   *
+   * @param runnable the event
+   */
+  public void offer(@NonNull Runnable runnable) {
+    Node node = new Node(runnable);
+    Node previous = tail.getAndSet(node);
+    NEXT.lazySet(previous, node);
+
+    // tail is volatile and written before reading the flag, a consumer setting the flag
+    // before its last emptiness check either sees this event or gets notified
+    if (consumerWaiting == 1 && CONSUMER_WAITING.compareAndSet(this, 1, 0)) {
+      synchronized (lock) {
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Removes the next event. Must be called by the render thread while holding the monitor.
+   *
+   * @return the event, or null if there is none
+   */
+  @Nullable
+  public Runnable poll() {
+    Node next = head.next;
+    if (next == null) {
+      // empty, or a producer swapped the tail and is about to link its node
+      return null;
+    }
+
+    Runnable runnable = next.runnable;
+    next.runnable = null;
+    head = next;
+    if (emptyWaiters > 0 && isEmpty()) {
+      lock.notifyAll();
+    }
+    return runnable;
+  }
+
+  /**
+   * Returns true when no event is queued. An event that was polled but is still running doesn't count.
+   *
+   * @return true if the queue is empty
+   */
+  public boolean isEmpty() {
+    return head == tail.get();
+  }
+
+  /**
+   * Waits on the monitor until an event is offered or the monitor is notified for another reason.
+   * Must be called by the render thread while holding the monitor, in place of {@code lock.wait()}.
+   *
+   * @throws InterruptedException if the render thread is interrupted
+   */
+  public void await() throws InterruptedException {
+    consumerWaiting = 1;
+    try {
+      if (isEmpty()) {
+        lock.wait();
+      }
+    } finally {
+      consumerWaiting = 0;
+    }
+  }
+
+  /**
+   * Blocks until every queued event has been taken by the render thread. Must not be called from the render thread.
+   */
+  public void waitForEmpty() {
+    synchronized (lock) {
+      emptyWaiters++;
+      try {
+        while (!isEmpty()) {
+          try {
+            lock.wait();
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      } finally {
+        emptyWaiters--;
+      }
+    }
+  }
+
+  private static final class Node {
+
+    @Nullable
+    Runnable runnable;
+    volatile Node next;
+
+    Node(@Nullable Runnable runnable) {
+      this.runnable = runnable;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package org.maplibre.android.maps.renderer;
+
+import android.view.Display;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import org.maplibre.android.maps.MapLibreMap;
+import org.maplibre.android.maps.MapView;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Lowers rendering quality while frames miss their time budget and restores it once the map is idle.
+ * <p>
+ * The governor follows the encoding and rendering time reported for every frame through
+ * {@link MapView.OnDidFinishRenderingFrameListener}. When their moving average exceeds the frame budget of
+ * the target frame rate, it steps down one level at a time: first tile prefetching is paused, then the
+ * maximum frame rate is lowered, giving the render thread a steadier and reachable pace on slow devices,
+ * for example during gestures on a dense style. All levels are restored when the map becomes idle.
+ * </p>
+ * <p>
+ * The governor owns the maximum frame rate of the map view while it's enabled, use {@link #setTargetFps(int)}
+ * instead of {@link MapView#setMaximumFps(int)}.
+ * </p>
+ */
+@UiThread
+public final class RenderQualityGovernor implements MapView.OnDidFinishRenderingFrameListener,
+  MapView.OnDidBecomeIdleListener {
+
+  /**
+   * Full quality.
+   */
+  public static final int LEVEL_FULL = 0;
+
+  /**
+   * Tile prefetching is paused.
+   */
+  public static final int LEVEL_NO_PREFETCH = 1;
+
+  /**
+   * Tile prefetching is paused and the maximum frame rate is lowered to the reduced frame rate.
+   */
+  public static final int LEVEL_REDUCED_FPS = 2;
+
+  @IntDef( {LEVEL_FULL, LEVEL_NO_PREFETCH, LEVEL_REDUCED_FPS})
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface QualityLevel {
+  }
+
+  /**
+   * Listener notified when the governor changes the quality level.
+   */
+  public interface OnQualityLevelChangedListener {
+
+    void onQualityLevelChanged(@QualityLevel int level);
+  }
+
+  static final int DEFAULT_REDUCED_FPS = 30;
+
+  // weight of the last frame in the moving average of frame times
+  private static final double SMOOTHING = 0.2;
+
+  // frames to observe after a change before stepping down again
+  private static final int FRAMES_BETWEEN_STEPS = 30;
+
+  private static final float FALLBACK_REFRESH_RATE = 60;
+
+  @NonNull
+  private final MapView mapView;
+  @NonNull
+  private final MapLibreMap maplibreMap;
+  @Nullable
+  private OnQualityLevelChangedListener listener;
+
+  private int targetFps;
+  private int reducedFps = DEFAULT_REDUCED_FPS;
+  private boolean enabled;
+  @QualityLevel
+  private int level = LEVEL_FULL;
+  private int prefetchZoomDelta;
+  private double averageFrameTime;
+  private int framesSinceStep;
+
+  /**
+   * Creates a governor for a map, call {@link #enable()} to start it.
+   *
+   * @param mapView     the map view
+   * @param maplibreMap the map of the map view
+   */
+  public RenderQualityGovernor(@NonNull MapView mapView, @NonNull MapLibreMap maplibreMap) {
+    this.mapView = mapView;
+    this.maplibreMap = maplibreMap;
+    Display display = mapView.getDisplay();
+    float refreshRate = display != null ? display.getRefreshRate() : FALLBACK_REFRESH_RATE;
+    this.targetFps = Math.round(refreshRate > 0 ? refreshRate : FALLBACK_REFRESH_RATE);
+  }
+
+  /**
+   * Set the frame rate the map is rendered at with full quality, and which defines the time budget of a frame.
+   * Default is the refresh rate of the display.
+   *
+   * @param targetFps the target frame rate
+   */
+  public void setTargetFps(@IntRange(from = 1) int targetFps) {
+    if (targetFps < 1) {
+      throw new IllegalArgumentException("targetFps < 1: " + targetFps);
+    }
+    this.targetFps = targetFps;
+    if (enabled && level < LEVEL_REDUCED_FPS) {
+      mapView.setMaximumFps(targetFps);
+    }
+  }
+
+  public int getTargetFps() {
+    return targetFps;
+  }
+
+  /**
+   * Set the maximum frame rate applied at {@link #LEVEL_REDUCED_FPS}. Default is 30.
+   *
+   * @param reducedFps the reduced frame rate
+   */
+  public void setReducedFps(@IntRange(from = 1) int reducedFps) {
+    if (reducedFps < 1) {
+      throw new IllegalArgumentException("reducedFps < 1: " + reducedFps);
+    }
+    this.reducedFps = reducedFps;
+    if (enabled && level == LEVEL_REDUCED_FPS) {
+      mapView.setMaximumFps(reducedFps);
+    }
+  }
+
+  public int getReducedFps() {
+    return reducedFps;
+  }
+
+  public void setOnQualityLevelChangedListener(@Nullable OnQualityLevelChangedListener listener) {
+    this.listener = listener;
+  }
+
+  @QualityLevel
+  public int getLevel() {
+    return level;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts watching frame times.
+   */
+  public void enable() {
+    if (enabled) {
+      return;
+    }
+    enabled = true;
+    averageFrameTime = 0;
+    framesSinceStep = 0;
+    mapView.setMaximumFps(targetFps);
+    mapView.addOnDidFinishRenderingFrameListener(this);
+    mapView.addOnDidBecomeIdleListener(this);
+  }
+
+  /**
+   * Stops watching frame times and restores full quality.
+   */
+  public void disable() {
+    if (!enabled) {
+      return;
+    }
+    mapView.removeOnDidFinishRenderingFrameListener(this);
+    mapView.removeOnDidBecomeIdleListener(this);
+    setLevel(LEVEL_FULL);
+    enabled = false;
+  }
+
+  @Override
+  public void onDidFinishRenderingFrame(boolean fully, double frameEncodingTime, double frameRenderingTime) {
+    if (!enabled) {
+      return;
+    }
+
+    double frameTime = frameEncodingTime + frameRenderingTime;
+    averageFrameTime = averageFrameTime == 0
+      ? frameTime : averageFrameTime + SMOOTHING * (frameTime - averageFrameTime);
+    framesSinceStep++;
+
+    if (framesSinceStep >= FRAMES_BETWEEN_STEPS && averageFrameTime > 1.0 / targetFps
+      && level < LEVEL_REDUCED_FPS) {
+      setLevel(level + 1);
+    }
+  }
+
+  @Override
+  public void onDidBecomeIdle() {
+    if (enabled) {
+      averageFrameTime = 0;
+      setLevel(LEVEL_FULL);
+    }
+  }
+
+  private void setLevel(@QualityLevel int newLevel) {
+    framesSinceStep = 0;
+    if (newLevel == level) {
+      return;
+    }
+
+    if (level == LEVEL_FULL) {
+      prefetchZoomDelta = maplibreMap.getPrefetchZoomDelta();
+    }
+    if (newLevel == LEVEL_FULL) {
+      maplibreMap.setPrefetchZoomDelta(prefetchZoomDelta);
+    } else {
+      maplibreMap.setPrefetchZoomDelta(0);
+    }
+    if ((newLevel == LEVEL_REDUCED_FPS) != (level == LEVEL_REDUCED_FPS)) {
+      mapView.setMaximumFps(newLevel == LEVEL_REDUCED_FPS ? reducedFps : targetFps);
+    }
+
+    level = newLevel;
+    if (listener != null) {
+      listener.onQualityLevelChanged(newLevel);
+    }
+  }
+}
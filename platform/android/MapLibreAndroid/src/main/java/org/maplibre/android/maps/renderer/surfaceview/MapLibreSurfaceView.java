@@ -6,10 +6,10 @@ import android.util.AttributeSet;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 import org.maplibre.android.maps.renderer.MapRenderer;
+import org.maplibre.android.maps.renderer.RenderEventQueue;
 
 import androidx.annotation.NonNull;
 
-import java.util.ArrayList;
 
 public abstract class MapLibreSurfaceView extends SurfaceView implements SurfaceHolder.Callback2 {
 
@@ -274,6 +274,7 @@ public abstract class MapLibreSurfaceView extends SurfaceView implements Surface
       renderMode = MapRenderer.RenderingRefreshMode.WHEN_DIRTY;
       wantRenderNotification = false;
       renderThreadManager = aRenderThreadManager;
+      eventQueue = new RenderEventQueue(aRenderThreadManager);
     }
 
     @Override
@@ -451,26 +452,14 @@ public abstract class MapLibreSurfaceView extends SurfaceView implements Surface
      * @param r the runnable to be run on the rendering thread.
      */
     public void queueEvent(@NonNull Runnable r) {
-      synchronized (renderThreadManager) {
-        eventQueue.add(r);
-        renderThreadManager.notifyAll();
-      }
+      eventQueue.offer(r);
     }
 
     /**
      * Wait for the queue to become empty
     */
     public void waitForEmpty() {
-      synchronized (renderThreadManager) {
-        // Wait for the queue to be empty
-        while (!this.eventQueue.isEmpty()) {
-          try {
-            renderThreadManager.wait();
-          } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
-          }
-        }
-      }
+      eventQueue.waitForEmpty();
     }
 
     // Once the thread is started, all accesses to the following member
@@ -487,11 +476,12 @@ public abstract class MapLibreSurfaceView extends SurfaceView implements Surface
     protected boolean requestRender;
     protected boolean wantRenderNotification;
     protected boolean renderComplete;
-    protected ArrayList<Runnable> eventQueue = new ArrayList<>();
     protected boolean sizeChanged = true;
     protected Runnable finishDrawingRunnable = null;
     protected RenderThreadManager renderThreadManager = null;
     // End of member variables protected by the sRenderThreadManager monitor.
+    // Offered to by any thread, drained by the render thread while holding the monitor.
+    protected final RenderEventQueue eventQueue;
 
   }
 
@@ -54,6 +54,7 @@ public class SurfaceViewMapRenderer extends MapRenderer {
 
   @Override
   public void onDestroy() {
+    disableFramePacing();
     super.onDestroy();
   }
 
@@ -90,7 +91,9 @@ public class SurfaceViewMapRenderer extends MapRenderer {
    */
   @Override
   public void requestRender() {
-    surfaceView.requestRender();
+    if (!requestPacedRender()) {
+      surfaceView.requestRender();
+    }
   }
 
   /**
@@ -118,7 +121,14 @@ public class SurfaceViewMapRenderer extends MapRenderer {
    */
   @Override
   public void setRenderingRefreshMode(MapRenderer.RenderingRefreshMode mode) {
-    surfaceView.setRenderingRefreshMode(mode);
+    if (mode == MapRenderer.RenderingRefreshMode.VSYNC_PACED) {
+      // the render thread draws on request, the requests come from the pacer
+      enableFramePacing(surfaceView::requestRender);
+      surfaceView.setRenderingRefreshMode(MapRenderer.RenderingRefreshMode.WHEN_DIRTY);
+    } else {
+      disableFramePacing();
+      surfaceView.setRenderingRefreshMode(mode);
+    }
   }
 
   /**
@@ -126,6 +136,9 @@ public class SurfaceViewMapRenderer extends MapRenderer {
    */
   @Override
   public MapRenderer.RenderingRefreshMode getRenderingRefreshMode() {
+    if (isFramePacingEnabled()) {
+      return MapRenderer.RenderingRefreshMode.VSYNC_PACED;
+    }
     return surfaceView.getRenderingRefreshMode();
   }
 }
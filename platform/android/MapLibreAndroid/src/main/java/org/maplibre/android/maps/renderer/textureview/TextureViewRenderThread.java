@@ -7,7 +7,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 
-import java.util.LinkedList;
+import org.maplibre.android.maps.renderer.RenderEventQueue;
 
 /**
  * The render thread is responsible for managing the communication between the
@@ -23,8 +23,10 @@ abstract class TextureViewRenderThread extends Thread implements TextureView.Sur
   // Lock used for synchronization
   protected final Object lock = new Object();
 
+  // Offered to by any thread, drained by the render thread while holding lock
+  protected final RenderEventQueue eventQueue = new RenderEventQueue(lock);
+
   // Guarded by lock
-  protected final LinkedList<Runnable> eventQueue = new LinkedList<>();
   @Nullable
   protected SurfaceTexture surfaceTexture;
   protected boolean hasNativeSurface;
@@ -121,10 +123,7 @@ abstract class TextureViewRenderThread extends Thread implements TextureView.Sur
     if (runnable == null) {
       throw new IllegalArgumentException("runnable must not be null");
     }
-    synchronized (lock) {
-      eventQueue.add(runnable);
-      lock.notifyAll();
-    }
+    eventQueue.offer(runnable);
   }
 
   /**
@@ -133,16 +132,7 @@ abstract class TextureViewRenderThread extends Thread implements TextureView.Sur
    */
   @UiThread
   void waitForEmpty() {
-    synchronized (lock) {
-      // Wait for the queue to be empty
-      while (!this.eventQueue.isEmpty()) {
-        try {
-          lock.wait(0);
-        } catch (InterruptedException ex) {
-          Thread.currentThread().interrupt();
-        }
-      }
-    }
+    eventQueue.waitForEmpty();
   }
 
   @UiThread
@@ -0,0 +1,303 @@
+package org.maplibre.android.module.http;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Cookie;
+import okhttp3.CookieJar;
+import okhttp3.HttpUrl;
+
+/**
+ * In memory cookie store shared by all requests of the default OkHttp client.
+ * <p>
+ * Cookies are indexed by domain, a request only looks at the buckets of its host and parent domains,
+ * so its cost doesn't depend on the number of cookies stored for other hosts. A cookie replaces the one
+ * with the same name and path, expired cookies are dropped when they're encountered and the number of
+ * cookies is capped per domain and in total, evicting the oldest first.
+ * </p>
+ */
+final class BoundedCookieJar implements CookieJar {
+
+  static final int MAX_COOKIES_PER_DOMAIN = 50;
+  static final int MAX_COOKIES = 3000;
+
+  private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicLong updates = new AtomicLong();
+  private final Object trimLock = new Object();
+  private final int maxCookiesPerDomain;
+  private final int maxCookies;
+
+  BoundedCookieJar() {
+    this(MAX_COOKIES_PER_DOMAIN, MAX_COOKIES);
+  }
+
+  @VisibleForTesting
+  BoundedCookieJar(int maxCookiesPerDomain, int maxCookies) {
+    this.maxCookiesPerDomain = maxCookiesPerDomain;
+    this.maxCookies = maxCookies;
+  }
+
+  @Override
+  public void saveFromResponse(@NonNull HttpUrl url, @NonNull List<Cookie> cookies) {
+    long now = System.currentTimeMillis();
+    for (Cookie cookie : cookies) {
+      while (!save(cookie, now)) {
+        // the bucket was removed while empty, retry with a new one
+      }
+    }
+
+    if (size.get() > maxCookies) {
+      trim(now);
+    }
+  }
+
+  private boolean save(@NonNull Cookie cookie, long now) {
+    Bucket bucket = buckets.get(cookie.domain());
+    if (bucket == null) {
+      bucket = new Bucket();
+      Bucket existing = buckets.putIfAbsent(cookie.domain(), bucket);
+      if (existing != null) {
+        bucket = existing;
+      }
+    }
+    synchronized (bucket) {
+      if (bucket.detached) {
+        return false;
+      }
+      bucket.updateOrder = updates.incrementAndGet();
+      size.addAndGet(bucket.put(cookie, now, maxCookiesPerDomain));
+      return true;
+    }
+  }
+
+  @NonNull
+  @Override
+  public List<Cookie> loadForRequest(@NonNull HttpUrl url) {
+    List<Cookie> result = null;
+    long now = System.currentTimeMillis();
+    String domain = url.host();
+    while (domain != null) {
+      Bucket bucket = buckets.get(domain);
+      if (bucket != null) {
+        synchronized (bucket) {
+          result = bucket.collect(url, now, result);
+          size.addAndGet(-bucket.takeRemoved());
+        }
+      }
+      domain = parentDomain(domain);
+    }
+    return result != null ? result : Collections.emptyList();
+  }
+
+  @NonNull
+  List<Cookie> getAllCookies() {
+    List<Cookie> result = new ArrayList<>();
+    for (Bucket bucket : buckets.values()) {
+      synchronized (bucket) {
+        result.addAll(bucket.cookies.values());
+      }
+    }
+    return result;
+  }
+
+  void clear() {
+    for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+      Bucket bucket = entry.getValue();
+      synchronized (bucket) {
+        size.addAndGet(-bucket.cookies.size());
+        bucket.cookies.clear();
+        bucket.detached = true;
+        buckets.remove(entry.getKey(), bucket);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int size() {
+    return size.get();
+  }
+
+  /**
+   * Returns the number of cookies {@link #loadForRequest(HttpUrl)} walks through for the url, its cost.
+   */
+  @VisibleForTesting
+  int countVisited(@NonNull HttpUrl url) {
+    int count = 0;
+    String domain = url.host();
+    while (domain != null) {
+      Bucket bucket = buckets.get(domain);
+      if (bucket != null) {
+        synchronized (bucket) {
+          count += bucket.cookies.size();
+        }
+      }
+      domain = parentDomain(domain);
+    }
+    return count;
+  }
+
+  /**
+   * Removes expired cookies from all domains, then evicts the oldest cookies of the least recently
+   * updated domains until the store is back under its cap.
+   */
+  private void trim(long now) {
+    synchronized (trimLock) {
+      if (size.get() > maxCookies) {
+        trimLocked(now);
+      }
+    }
+  }
+
+  private void trimLocked(long now) {
+    List<Map.Entry<String, Bucket>> entries = new ArrayList<>(buckets.entrySet());
+    for (Map.Entry<String, Bucket> entry : entries) {
+      Bucket bucket = entry.getValue();
+      synchronized (bucket) {
+        size.addAndGet(-bucket.removeExpired(now));
+        // saves keep updating updateOrder, sorting needs a stable copy
+        bucket.trimOrder = bucket.updateOrder;
+      }
+    }
+
+    if (size.get() <= maxCookies) {
+      removeEmptyBuckets(entries);
+      return;
+    }
+
+    Collections.sort(entries, (first, second) -> Long.compare(first.getValue().trimOrder, second.getValue().trimOrder));
+    for (Map.Entry<String, Bucket> entry : entries) {
+      Bucket bucket = entry.getValue();
+      synchronized (bucket) {
+        Iterator<Cookie> iterator = bucket.cookies.values().iterator();
+        while (size.get() > maxCookies && iterator.hasNext()) {
+          iterator.next();
+          iterator.remove();
+          size.decrementAndGet();
+        }
+      }
+      if (size.get() <= maxCookies) {
+        break;
+      }
+    }
+    removeEmptyBuckets(entries);
+  }
+
+  private void removeEmptyBuckets(@NonNull List<Map.Entry<String, Bucket>> entries) {
+    for (Map.Entry<String, Bucket> entry : entries) {
+      Bucket bucket = entry.getValue();
+      synchronized (bucket) {
+        // a bucket is only removed while empty, a concurrent save re-creates it
+        if (bucket.cookies.isEmpty()) {
+          bucket.detached = true;
+          buckets.remove(entry.getKey(), bucket);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the domain one label up, or null for a top level domain and ip addresses which have no parents.
+   */
+  private static String parentDomain(@NonNull String domain) {
+    if (domain.indexOf(':') >= 0 || Character.isDigit(domain.charAt(domain.length() - 1))) {
+      return null;
+    }
+    int dot = domain.indexOf('.');
+    if (dot < 0 || dot == domain.length() - 1) {
+      return null;
+    }
+    return domain.substring(dot + 1);
+  }
+
+  /**
+   * Cookies of one domain in insertion order, guarded by the bucket's monitor. A detached bucket
+   * has been removed from the store and must not receive cookies anymore.
+   */
+  private static final class Bucket {
+
+    private final LinkedHashMap<String, Cookie> cookies = new LinkedHashMap<>();
+    private long updateOrder;
+    private long trimOrder;
+    private int removed;
+    private boolean detached;
+
+    /**
+     * Stores a cookie, replacing the one with the same identity. A cookie that's already expired deletes
+     * the stored one as servers use that to clear cookies.
+     *
+     * @return the change in the number of stored cookies
+     */
+    int put(@NonNull Cookie cookie, long now, int maxCookies) {
+      String key = keyOf(cookie);
+      int delta = cookies.remove(key) != null ? -1 : 0;
+      if (cookie.expiresAt() <= now) {
+        return delta;
+      }
+
+      cookies.put(key, cookie);
+      delta++;
+      if (cookies.size() > maxCookies) {
+        delta -= removeExpired(now);
+        Iterator<Cookie> iterator = cookies.values().iterator();
+        while (cookies.size() > maxCookies) {
+          iterator.next();
+          iterator.remove();
+          delta--;
+        }
+      }
+      return delta;
+    }
+
+    List<Cookie> collect(@NonNull HttpUrl url, long now, List<Cookie> result) {
+      Iterator<Cookie> iterator = cookies.values().iterator();
+      while (iterator.hasNext()) {
+        Cookie cookie = iterator.next();
+        if (cookie.expiresAt() <= now) {
+          iterator.remove();
+          removed++;
+        } else if (cookie.matches(url)) {
+          if (result == null) {
+            result = new ArrayList<>();
+          }
+          result.add(cookie);
+        }
+      }
+      return result;
+    }
+
+    int takeRemoved() {
+      int count = removed;
+      removed = 0;
+      return count;
+    }
+
+    int removeExpired(long now) {
+      int count = 0;
+      Iterator<Cookie> iterator = cookies.values().iterator();
+      while (iterator.hasNext()) {
+        if (iterator.next().expiresAt() <= now) {
+          iterator.remove();
+          count++;
+        }
+      }
+      return count;
+    }
+
+    // a cookie is identified by its name, domain and path (RFC 6265 5.3), host-only or not
+    @NonNull
+    private static String keyOf(@NonNull Cookie cookie) {
+      return cookie.name() + ';' + cookie.domain() + ';' + cookie.path();
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package org.maplibre.android.module.http;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Dns;
+
+/**
+ * Caches successful host lookups for a configurable time, so tile hosts are resolved once per ttl
+ * instead of once per new connection. Entries are evicted when a request to the host fails or the network
+ * changes, as the cached addresses may be the cause or no longer be reachable.
+ */
+final class CachingDns implements Dns {
+
+  private final Dns delegate;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  private volatile long ttlMillis;
+
+  CachingDns(@NonNull Dns delegate, long ttlMillis) {
+    this.delegate = delegate;
+    this.ttlMillis = ttlMillis;
+  }
+
+  void setTtlMillis(long ttlMillis) {
+    this.ttlMillis = ttlMillis;
+    if (ttlMillis == 0) {
+      entries.clear();
+    }
+  }
+
+  /**
+   * Forgets the addresses of a host, after a request to it failed.
+   */
+  void evict(@NonNull String hostname) {
+    entries.remove(hostname);
+  }
+
+  /**
+   * Forgets the addresses of all hosts, after a change of network.
+   */
+  void clear() {
+    entries.clear();
+  }
+
+  @VisibleForTesting
+  boolean isCached(@NonNull String hostname) {
+    return entries.containsKey(hostname);
+  }
+
+  @NonNull
+  @Override
+  public List<InetAddress> lookup(@NonNull String hostname) throws UnknownHostException {
+    long ttl = ttlMillis;
+    if (ttl == 0) {
+      return delegate.lookup(hostname);
+    }
+
+    long now = SystemClock.elapsedRealtime();
+    Entry entry = entries.get(hostname);
+    if (entry != null && entry.expiresAt > now) {
+      return entry.addresses;
+    }
+
+    // failures aren't cached, the next connection attempt resolves again
+    List<InetAddress> addresses = delegate.lookup(hostname);
+    entries.put(hostname, new Entry(addresses, now + ttl));
+    return addresses;
+  }
+
+  private static final class Entry {
+    private final List<InetAddress> addresses;
+    private final long expiresAt;
+
+    Entry(List<InetAddress> addresses, long expiresAt) {
+      this.addresses = addresses;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package org.maplibre.android.module.http;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.maplibre.android.http.HttpLogger;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Opens connections to the hosts referenced by a style before the first resource is requested from them.
+ * <p>
+ * As an interceptor, it inspects style and TileJSON responses and collects the origins of their tiles, sprite
+ * and glyphs urls. Other urls, such as those of nested TileJSON documents, are requested right away and need no
+ * pre-warming, or aren't map resources at all. A lightweight HEAD request to each origin
+ * resolves the host, performs the TLS handshake and leaves a connection in the pool, so that the first tile
+ * requests after a style load don't pay for it serially per host.
+ * </p>
+ */
+final class ConnectionPrewarmer implements Interceptor {
+
+  static final String PREWARM_TAG = "maplibre-prewarm";
+  private static final long MAX_INSPECTED_BODY_SIZE = 4 * 1024 * 1024;
+
+  private final Executor executor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "MapLibre-ConnectionPrewarmer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Map<String, Long> warmedAt = new ConcurrentHashMap<>();
+
+  @Nullable
+  private volatile Call.Factory client;
+  private volatile boolean enabled;
+  private volatile long keepAliveMillis;
+
+  ConnectionPrewarmer(long keepAliveMillis) {
+    this.keepAliveMillis = keepAliveMillis;
+  }
+
+  void configure(@NonNull Call.Factory client, boolean enabled, long keepAliveMillis) {
+    this.client = client;
+    this.enabled = enabled;
+    this.keepAliveMillis = keepAliveMillis;
+  }
+
+  @NonNull
+  @Override
+  public Response intercept(@NonNull Chain chain) throws IOException {
+    Request request = chain.request();
+    Response response = chain.proceed(request);
+    if (!enabled || PREWARM_TAG.equals(request.tag()) || !response.isSuccessful()) {
+      return response;
+    }
+
+    HttpUrl url = request.url();
+    if (RequestPriority.parseTile(url) != null || RequestPriority.classify(url, false) != RequestPriority.STYLE) {
+      return response;
+    }
+
+    ResponseBody body = response.body();
+    if (body == null || body.contentLength() > MAX_INSPECTED_BODY_SIZE) {
+      return response;
+    }
+
+    // the requesting host already has a connection
+    String origin = originOf(url.toString());
+    if (origin != null) {
+      warmedAt.put(origin, SystemClock.elapsedRealtime());
+    }
+    final String json = response.peekBody(MAX_INSPECTED_BODY_SIZE).string();
+    executor.execute(() -> prewarm(collectOrigins(json)));
+    return response;
+  }
+
+  /**
+   * Opens connections to the origins of the given urls, skipping the ones that are still warm.
+   *
+   * @param urls absolute urls or origins
+   */
+  void prewarm(@NonNull Collection<String> urls) {
+    Call.Factory client = this.client;
+    if (client == null) {
+      return;
+    }
+
+    long now = SystemClock.elapsedRealtime();
+    for (String url : urls) {
+      String origin = originOf(url);
+      if (origin == null) {
+        continue;
+      }
+
+      Long lastWarmed = warmedAt.get(origin);
+      if (lastWarmed != null && now - lastWarmed < keepAliveMillis) {
+        continue;
+      }
+      warmedAt.put(origin, now);
+
+      HttpUrl httpUrl = HttpUrl.parse(origin + "/");
+      if (httpUrl == null) {
+        continue;
+      }
+      HttpLogger.log(Log.VERBOSE, "[HTTP] Pre-warming connection to " + origin);
+      Request request = new Request.Builder().url(httpUrl).head().tag(PREWARM_TAG).build();
+      client.newCall(request).enqueue(new Callback() {
+        @Override
+        public void onFailure(@NonNull Call call, @NonNull IOException e) {
+          // nothing to do, the resource request will surface connection errors
+        }
+
+        @Override
+        public void onResponse(@NonNull Call call, @NonNull Response response) {
+          response.close();
+        }
+      });
+    }
+  }
+
+  /**
+   * Collects the origins of the tiles, sprite and glyphs urls of a style or TileJSON document.
+   *
+   * @param json the document
+   * @return the origins, e.g. https://tiles.example.com, in document order
+   */
+  @NonNull
+  @VisibleForTesting
+  static Set<String> collectOrigins(@NonNull String json) {
+    Set<String> origins = new LinkedHashSet<>();
+    try {
+      JsonElement document = JsonParser.parseString(json);
+      if (!document.isJsonObject()) {
+        return origins;
+      }
+      JsonObject root = document.getAsJsonObject();
+      // a single sprite url, or an array of sprites with an id and url each
+      JsonElement sprite = root.get("sprite");
+      if (sprite != null && sprite.isJsonArray()) {
+        for (JsonElement element : sprite.getAsJsonArray()) {
+          if (element.isJsonObject()) {
+            addOrigin(element.getAsJsonObject().get("url"), origins);
+          }
+        }
+      } else {
+        addOrigin(sprite, origins);
+      }
+      addOrigin(root.get("glyphs"), origins);
+      // a TileJSON document, or the inline TileJSON of the sources of a style
+      addTileOrigins(root, origins);
+      JsonElement sources = root.get("sources");
+      if (sources != null && sources.isJsonObject()) {
+        for (Map.Entry<String, JsonElement> entry : sources.getAsJsonObject().entrySet()) {
+          if (entry.getValue().isJsonObject()) {
+            addTileOrigins(entry.getValue().getAsJsonObject(), origins);
+          }
+        }
+      }
+    } catch (RuntimeException exception) {
+      // not a json document after all, nothing to pre-warm
+    }
+    return origins;
+  }
+
+  private static void addTileOrigins(@NonNull JsonObject tileJson, @NonNull Set<String> origins) {
+    JsonElement tiles = tileJson.get("tiles");
+    if (tiles != null && tiles.isJsonArray()) {
+      for (JsonElement tile : tiles.getAsJsonArray()) {
+        addOrigin(tile, origins);
+      }
+    }
+  }
+
+  private static void addOrigin(@Nullable JsonElement element, @NonNull Set<String> origins) {
+    if (element != null && element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+      String origin = originOf(element.getAsString());
+      if (origin != null) {
+        origins.add(origin);
+      }
+    }
+  }
+
+  /**
+   * Returns the scheme and authority of an absolute http url, or null for anything else including
+   * templated hosts such as https://{s}.tiles.example.com.
+   */
+  @Nullable
+  @VisibleForTesting
+  static String originOf(@NonNull String url) {
+    String lowerCase = url.toLowerCase(Locale.US);
+    int start;
+    if (lowerCase.startsWith("https://")) {
+      start = 8;
+    } else if (lowerCase.startsWith("http://")) {
+      start = 7;
+    } else {
+      return null;
+    }
+
+    int end = url.length();
+    for (int i = start; i < url.length(); i++) {
+      char c = url.charAt(i);
+      if (c == '/' || c == '?' || c == '#') {
+        end = i;
+        break;
+      }
+    }
+
+    String authority = lowerCase.substring(start, end);
+    if (authority.isEmpty() || authority.indexOf('{') >= 0 || authority.indexOf('@') >= 0) {
+      return null;
+    }
+    return lowerCase.substring(0, start) + authority;
+  }
+}
@@ -10,6 +10,8 @@ import androidx.annotation.VisibleForTesting;
 
 import org.maplibre.android.BuildConfig;
 import org.maplibre.android.constants.MapLibreConstants;
+import org.maplibre.android.geometry.LatLngBounds;
+import org.maplibre.android.http.HttpConnectionOptions;
 import org.maplibre.android.http.HttpIdentifier;
 import org.maplibre.android.http.HttpLogger;
 import org.maplibre.android.http.HttpRequest;
@@ -22,19 +24,25 @@ import java.net.NoRouteToHostException;
 import java.net.ProtocolException;
 import java.net.SocketException;
 import java.net.UnknownHostException;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLException;
 
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.ConnectionPool;
 import okhttp3.Cookie;
-import okhttp3.CookieJar;
 import okhttp3.Dispatcher;
+import okhttp3.Dns;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
@@ -52,47 +60,40 @@ public class HttpRequestImpl implements HttpRequest {
                   Build.SUPPORTED_ABIS[0])
   );
 
-  private static final InMemoryCookieJar cookieJar = new InMemoryCookieJar();
+  private static final BoundedCookieJar cookieJar = new BoundedCookieJar();
+
+  private static final HttpConnectionOptions DEFAULT_CONNECTION_OPTIONS = new HttpConnectionOptions.Builder().build();
+
+  @VisibleForTesting
+  static final CachingDns dns = new CachingDns(Dns.SYSTEM, DEFAULT_CONNECTION_OPTIONS.getDnsCacheTtlMillis());
+
+  private static final ConnectionPrewarmer prewarmer =
+          new ConnectionPrewarmer(DEFAULT_CONNECTION_OPTIONS.getKeepAliveDurationMillis());
 
   @VisibleForTesting
-  static final OkHttpClient DEFAULT_CLIENT = new OkHttpClient.Builder()
-          .dispatcher(getDispatcher())
-          .cookieJar(cookieJar)
-          .build();
+  static final OkHttpClient DEFAULT_CLIENT = buildClient(getDispatcher(), DEFAULT_CONNECTION_OPTIONS);
+
+  // DEFAULT_CLIENT until connection options are applied
+  private static OkHttpClient defaultClient = DEFAULT_CLIENT;
 
   @VisibleForTesting
   static Call.Factory client = DEFAULT_CLIENT;
 
-  private Call call;
+  private static final ResponseBufferPool bufferPool = new ResponseBufferPool();
 
-  // Simple in-memory cookie storage implementation
-  private static class InMemoryCookieJar implements CookieJar {
-    private final List<Cookie> cookies = new ArrayList<>();
+  private static volatile boolean directResponseDelivery;
 
-    @Override
-    public void saveFromResponse(HttpUrl url, List<Cookie> cookies) {
-      this.cookies.addAll(cookies);
-    }
+  private static final HttpRequestScheduler scheduler = new HttpRequestScheduler();
 
-    @Override
-    public List<Cookie> loadForRequest(HttpUrl url) {
-      List<Cookie> validCookies = new ArrayList<>();
-      for (Cookie cookie : cookies) {
-        if (cookie.matches(url)) {
-          validCookies.add(cookie);
-        }
-      }
-      return validCookies;
-    }
+  private static volatile boolean requestScheduling;
 
-    public List<Cookie> getAllCookies() {
-      return new ArrayList<>(cookies);
-    }
+  private Call call;
 
-    public void clearCookies() {
-      cookies.clear();
-    }
-  }
+  @Nullable
+  private HttpRequestScheduler.Job job;
+
+  @Nullable
+  private HttpResponder responder;
 
   // Method to get all stored cookies
   public static List<Cookie> getAllCookies() {
@@ -101,7 +102,7 @@ public class HttpRequestImpl implements HttpRequest {
 
   // Method to clear all stored cookies
   public static void clearCookies() {
-    cookieJar.clearCookies();
+    cookieJar.clear();
   }
 
   @Override
@@ -111,7 +112,6 @@ public class HttpRequestImpl implements HttpRequest {
     OkHttpCallback callback = new OkHttpCallback(httpRequest);
     try {
       HttpUrl httpUrl = HttpUrl.parse(resourceUrl);
-      HttpLogger.log(Log.WARN, String.format("[HTTP] parse resourceUrl %s", resourceUrl));
       if (httpUrl == null) {
         HttpLogger.log(Log.ERROR, String.format("[HTTP] Unable to parse resourceUrl %s", resourceUrl));
         return;
@@ -136,6 +136,11 @@ public class HttpRequestImpl implements HttpRequest {
       }
 
       final Request request = builder.build();
+      if (requestScheduling) {
+        responder = httpRequest;
+        job = scheduler.submit(client, request, offlineUsage, httpRequest);
+        return;
+      }
       call = client.newCall(request);
       call.enqueue(callback);
     } catch (Exception exception) {
@@ -145,10 +150,21 @@ public class HttpRequestImpl implements HttpRequest {
 
   @Override
   public void cancelRequest() {
+    if (job != null && responder != null) {
+      if (HttpLogger.isLoggable(Log.DEBUG)) {
+        HttpLogger.log(Log.DEBUG, String.format("[HTTP] This request was cancelled (%s). This is expected for tiles"
+                + " that were being prefetched but are no longer needed for the map to render.", job.url()));
+      }
+      scheduler.cancel(job, responder);
+      return;
+    }
+
     // call can be null if the constructor gets aborted (e.g, under a NoRouteToHostException).
     if (call != null) {
-      HttpLogger.log(Log.DEBUG, String.format("[HTTP] This request was cancelled (%s). This is expected for tiles"
-              + " that were being prefetched but are no longer needed for the map to render.", call.request().url()));
+      if (HttpLogger.isLoggable(Log.DEBUG)) {
+        HttpLogger.log(Log.DEBUG, String.format("[HTTP] This request was cancelled (%s). This is expected for tiles"
+                + " that were being prefetched but are no longer needed for the map to render.", call.request().url()));
+      }
       call.cancel();
     }
   }
@@ -162,10 +178,53 @@ public class HttpRequestImpl implements HttpRequest {
   }
 
   public static void setOkHttpClient(@Nullable Call.Factory client) {
-    HttpRequestImpl.client = Objects.requireNonNullElse(client, DEFAULT_CLIENT);
+    HttpRequestImpl.client = Objects.requireNonNullElse(client, defaultClient);
+  }
+
+  public static synchronized void setConnectionOptions(@NonNull HttpConnectionOptions options) {
+    Dispatcher dispatcher = defaultClient.dispatcher();
+    dispatcher.setMaxRequests(options.getMaxRequests());
+    dispatcher.setMaxRequestsPerHost(options.getMaxRequestsPerHost());
+    dns.setTtlMillis(options.getDnsCacheTtlMillis());
+
+    // the connection pool and protocols can't be changed on an existing client
+    OkHttpClient configured = buildClient(dispatcher, options);
+    if (client == defaultClient) {
+      client = configured;
+    }
+    defaultClient.connectionPool().evictAll();
+    defaultClient = configured;
+  }
+
+  public static void clearDnsCache() {
+    dns.clear();
+  }
+
+  public static void prewarmConnections(@NonNull Collection<String> urls) {
+    prewarmer.prewarm(urls);
   }
 
-  private static class OkHttpCallback implements Callback {
+  public static void enableDirectResponseDelivery(boolean enabled) {
+    directResponseDelivery = enabled;
+  }
+
+  public static void enableRequestScheduling(boolean enabled) {
+    requestScheduling = enabled;
+  }
+
+  public static void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    scheduler.setMaxConcurrentRequests(maxConcurrentRequests);
+  }
+
+  public static boolean isRequestSchedulingEnabled() {
+    return requestScheduling;
+  }
+
+  public static void setViewport(@NonNull Object owner, @Nullable LatLngBounds bounds, double zoom) {
+    scheduler.setViewport(owner, bounds != null ? new TileViewport(bounds, zoom) : null);
+  }
+
+  static class OkHttpCallback implements Callback {
 
     private HttpResponder httpRequest;
 
@@ -181,8 +240,10 @@ public class HttpRequestImpl implements HttpRequest {
     @Override
     public void onResponse(@NonNull Call call, @NonNull Response response) {
       if (response.isSuccessful()) {
-        HttpLogger.log(Log.VERBOSE, String.format("[HTTP] Request was successful (code = %s).", response.code()));
-      } else {
+        if (HttpLogger.isLoggable(Log.VERBOSE)) {
+          HttpLogger.log(Log.VERBOSE, String.format("[HTTP] Request was successful (code = %s).", response.code()));
+        }
+      } else if (HttpLogger.isLoggable(Log.DEBUG)) {
         // We don't want to call this unsuccessful because a 304 isn't really an error
         String message = !TextUtils.isEmpty(response.message()) ? response.message() : "No additional information";
         HttpLogger.log(Log.DEBUG, String.format("[HTTP] Request with response = %s: %s", response.code(), message));
@@ -194,6 +255,11 @@ public class HttpRequestImpl implements HttpRequest {
         return;
       }
 
+      if (directResponseDelivery) {
+        deliverDirect(call, response, responseBody);
+        return;
+      }
+
       byte[] body;
       try {
         body = responseBody.bytes();
@@ -215,7 +281,34 @@ public class HttpRequestImpl implements HttpRequest {
               body);
     }
 
-    private void handleFailure(@Nullable Call call, Exception e) {
+    private void deliverDirect(@NonNull Call call, @NonNull Response response, @NonNull ResponseBody responseBody) {
+      ByteBuffer body;
+      try {
+        body = bufferPool.read(responseBody.source(), responseBody.contentLength());
+      } catch (IOException ioException) {
+        onFailure(call, ioException);
+        return;
+      } finally {
+        response.close();
+      }
+
+      try {
+        // native copies the body out of the buffer before returning, so it can be recycled right after
+        httpRequest.onResponse(response.code(),
+                response.header("ETag"),
+                response.header("Last-Modified"),
+                response.header("Cache-Control"),
+                response.header("Expires"),
+                response.header("Retry-After"),
+                response.header("x-rate-limit-reset"),
+                body,
+                body.remaining());
+      } finally {
+        bufferPool.release(body);
+      }
+    }
+
+    void handleFailure(@Nullable Call call, Exception e) {
       String errorMessage = e.getMessage() != null ? e.getMessage() : "Error processing the request";
       int type = getFailureType(e);
 
@@ -223,6 +316,10 @@ public class HttpRequestImpl implements HttpRequest {
         String requestUrl = call.request().url().toString();
         HttpLogger.logFailure(type, errorMessage, requestUrl);
       }
+      if (call != null && type != PERMANENT_ERROR) {
+        // the cached addresses of the host may be the cause, it is resolved again on the next connection
+        dns.evict(call.request().url().host());
+      }
       httpRequest.handleFailure(type, errorMessage);
     }
 
@@ -237,6 +334,24 @@ public class HttpRequestImpl implements HttpRequest {
     }
   }
 
+  @NonNull
+  private static OkHttpClient buildClient(@NonNull Dispatcher dispatcher, @NonNull HttpConnectionOptions options) {
+    OkHttpClient client = new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .cookieJar(cookieJar)
+            .dns(dns)
+            .connectionPool(new ConnectionPool(options.getMaxIdleConnections(),
+                    options.getKeepAliveDurationMillis(), TimeUnit.MILLISECONDS))
+            .protocols(options.isHttp2Enabled()
+                    ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                    : Collections.singletonList(Protocol.HTTP_1_1))
+            .addInterceptor(prewarmer)
+            .eventListenerFactory(MetricsEventListener.FACTORY)
+            .build();
+    prewarmer.configure(client, options.isPrewarmConnections(), options.getKeepAliveDurationMillis());
+    return client;
+  }
+
   @NonNull
   private static Dispatcher getDispatcher() {
     Dispatcher dispatcher = new Dispatcher();
@@ -0,0 +1,325 @@
+package org.maplibre.android.module.http;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.maplibre.android.http.HttpResponder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Orders map resource requests by priority before they reach the OkHttp dispatcher.
+ * <p>
+ * Styles, sprites and glyphs go first, then tiles in the viewport of a map, then tiles that are only needed
+ * for prefetching and finally offline downloads. Pending tile requests are reclassified whenever the viewport
+ * of a map changes. Requests for the same url and validators share a single network call.
+ * </p>
+ */
+final class HttpRequestScheduler {
+
+  /**
+   * The requests kept in flight across all hosts. It's lower than the 64 requests of the OkHttp dispatcher on
+   * purpose: a request handed over to OkHttp waits in its first come, first served queue once its host has
+   * {@link okhttp3.Dispatcher#getMaxRequestsPerHost()} calls running, 5 by default, where a visible tile can't
+   * overtake a prefetched one anymore. 20 keeps four tile hosts busy, which covers the usual a-d subdomains,
+   * while the other requests wait here in priority order.
+   */
+  static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 20;
+
+  private final Object lock = new Object();
+  private final PriorityQueue<Job> pending = new PriorityQueue<>();
+  private final Map<String, Job> jobs = new HashMap<>();
+
+  private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+  private int inFlight;
+  private long sequence;
+
+  // the viewport of each map, weakly held in case a map isn't destroyed
+  private final Map<Object, TileViewport> viewports = new WeakHashMap<>();
+
+  /**
+   * Schedules a request, joining an identical request that is pending or in flight if there is one.
+   *
+   * @return the job the responder is attached to, used to cancel the request
+   */
+  @NonNull
+  Job submit(@NonNull Call.Factory factory, @NonNull Request request, boolean offlineUsage,
+             @NonNull HttpResponder responder) {
+    Job job;
+    synchronized (lock) {
+      String key = keyOf(request);
+      job = jobs.get(key);
+      if (job != null) {
+        job.responders.add(responder);
+        if (offlineUsage || !job.offlineUsage) {
+          return job;
+        }
+        // an online request may join a pending offline one, it should not wait behind the whole download
+        if (job.call == null && pending.remove(job)) {
+          job.offlineUsage = false;
+          job.priority = classify(job);
+          pending.add(job);
+        }
+        return job;
+      }
+
+      job = new Job(key, factory, request, offlineUsage, sequence++);
+      job.responders.add(responder);
+      job.priority = classify(job);
+      jobs.put(key, job);
+      pending.add(job);
+    }
+    dispatch();
+    return job;
+  }
+
+  /**
+   * Detaches a responder from a job, the network call is cancelled once no responder is left.
+   */
+  void cancel(@NonNull Job job, @NonNull HttpResponder responder) {
+    Call call;
+    synchronized (lock) {
+      if (!job.responders.remove(responder) || !job.responders.isEmpty()) {
+        return;
+      }
+      // requests arriving from now on must not join a call that is being cancelled
+      removeJob(job);
+      job.cancelled = true;
+      call = job.call;
+      if (call == null) {
+        pending.remove(job);
+        return;
+      }
+    }
+    call.cancel();
+  }
+
+  /**
+   * Updates the viewport of a map and reorders pending tile requests accordingly. A tile is visible when it's in
+   * the viewport of any map.
+   *
+   * @param owner    the map the viewport belongs to
+   * @param viewport the viewport, or null to remove the viewport of the map
+   */
+  void setViewport(@NonNull Object owner, @Nullable TileViewport viewport) {
+    synchronized (lock) {
+      if (viewport != null) {
+        viewports.put(owner, viewport);
+      } else if (viewports.remove(owner) == null) {
+        return;
+      }
+      if (pending.isEmpty()) {
+        return;
+      }
+      List<Job> jobs = new ArrayList<>(pending);
+      pending.clear();
+      for (Job job : jobs) {
+        job.priority = classify(job);
+        pending.add(job);
+      }
+    }
+  }
+
+  void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    if (maxConcurrentRequests < 1) {
+      throw new IllegalArgumentException("maxConcurrentRequests < 1: " + maxConcurrentRequests);
+    }
+    synchronized (lock) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+    dispatch();
+  }
+
+  @VisibleForTesting
+  int getPendingCount() {
+    synchronized (lock) {
+      return pending.size();
+    }
+  }
+
+  @VisibleForTesting
+  int getInFlightCount() {
+    synchronized (lock) {
+      return inFlight;
+    }
+  }
+
+  private void dispatch() {
+    while (true) {
+      Job job;
+      synchronized (lock) {
+        if (inFlight >= maxConcurrentRequests || pending.isEmpty()) {
+          return;
+        }
+        job = pending.poll();
+        inFlight++;
+      }
+
+      try {
+        Call call = job.factory.newCall(job.request);
+        boolean cancelled;
+        synchronized (lock) {
+          job.call = call;
+          cancelled = job.cancelled;
+        }
+        call.enqueue(new JobCallback(job));
+        if (cancelled) {
+          // cancelled between leaving the queue and getting a call
+          call.cancel();
+        }
+      } catch (Exception exception) {
+        new HttpRequestImpl.OkHttpCallback(new FanOutResponder(finish(job))).handleFailure(null, exception);
+      }
+    }
+  }
+
+  private void removeJob(@NonNull Job job) {
+    if (jobs.get(job.key) == job) {
+      jobs.remove(job.key);
+    }
+  }
+
+  /**
+   * Marks a job as done and returns the responders to deliver to. Requests arriving from now on start a new job.
+   */
+  @NonNull
+  private List<HttpResponder> finish(@NonNull Job job) {
+    List<HttpResponder> responders;
+    synchronized (lock) {
+      inFlight--;
+      removeJob(job);
+      responders = new ArrayList<>(job.responders);
+      job.responders.clear();
+    }
+    dispatch();
+    return responders;
+  }
+
+  private int classify(@NonNull Job job) {
+    if (!job.offlineUsage && job.tile != null) {
+      return RequestPriority.classifyTile(job.tile, viewports.values());
+    }
+    return RequestPriority.classify(job.request.url(), job.offlineUsage);
+  }
+
+  @NonNull
+  private static String keyOf(@NonNull Request request) {
+    return request.url() + "|" + request.header("Range") + "|" + request.header("If-None-Match")
+      + "|" + request.header("If-Modified-Since");
+  }
+
+  static final class Job implements Comparable<Job> {
+
+    private final String key;
+    private final Call.Factory factory;
+    private final Request request;
+    private final long sequence;
+    @Nullable
+    private final int[] tile;
+    private final List<HttpResponder> responders = new ArrayList<>(1);
+
+    private boolean offlineUsage;
+    private boolean cancelled;
+    private int priority;
+    @Nullable
+    private Call call;
+
+    Job(@NonNull String key, @NonNull Call.Factory factory, @NonNull Request request, boolean offlineUsage,
+        long sequence) {
+      this.key = key;
+      this.factory = factory;
+      this.request = request;
+      this.offlineUsage = offlineUsage;
+      this.sequence = sequence;
+      this.tile = RequestPriority.parseTile(request.url());
+    }
+
+    @NonNull
+    HttpUrl url() {
+      return request.url();
+    }
+
+    @VisibleForTesting
+    int getPriority() {
+      return priority;
+    }
+
+    @Override
+    public int compareTo(@NonNull Job other) {
+      if (priority != other.priority) {
+        return Integer.compare(priority, other.priority);
+      }
+      return Long.compare(sequence, other.sequence);
+    }
+  }
+
+  /**
+   * Releases the job slot when the call completes, then fans the result out to every attached responder.
+   */
+  private final class JobCallback implements Callback {
+
+    private final Job job;
+
+    JobCallback(@NonNull Job job) {
+      this.job = job;
+    }
+
+    @Override
+    public void onFailure(@NonNull Call call, @NonNull IOException e) {
+      new HttpRequestImpl.OkHttpCallback(new FanOutResponder(finish(job))).onFailure(call, e);
+    }
+
+    @Override
+    public void onResponse(@NonNull Call call, @NonNull Response response) {
+      new HttpRequestImpl.OkHttpCallback(new FanOutResponder(finish(job))).onResponse(call, response);
+    }
+  }
+
+  private static final class FanOutResponder implements HttpResponder {
+
+    private final List<HttpResponder> responders;
+
+    FanOutResponder(@NonNull List<HttpResponder> responders) {
+      this.responders = responders;
+    }
+
+    @Override
+    public void onResponse(int responseCode, String eTag, String lastModified, String cacheControl, String expires,
+                           String retryAfter, String xRateLimitReset, byte[] body) {
+      for (HttpResponder responder : responders) {
+        responder.onResponse(responseCode, eTag, lastModified, cacheControl, expires, retryAfter, xRateLimitReset,
+          body);
+      }
+    }
+
+    @Override
+    public void onResponse(int responseCode, String eTag, String lastModified, String cacheControl, String expires,
+                           String retryAfter, String xRateLimitReset, @NonNull ByteBuffer body, int length) {
+      for (HttpResponder responder : responders) {
+        responder.onResponse(responseCode, eTag, lastModified, cacheControl, expires, retryAfter, xRateLimitReset,
+          body, length);
+      }
+    }
+
+    @Override
+    public void handleFailure(int type, String errorMessage) {
+      for (HttpResponder responder : responders) {
+        responder.handleFailure(type, errorMessage);
+      }
+    }
+  }
+}
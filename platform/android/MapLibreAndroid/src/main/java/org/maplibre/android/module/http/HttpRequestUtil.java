@@ -3,6 +3,14 @@ package org.maplibre.android.module.http;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import org.maplibre.android.geometry.LatLngBounds;
+import org.maplibre.android.http.HttpConnectionOptions;
+import org.maplibre.android.http.HttpLogger;
+import org.maplibre.android.http.HttpMetricsAggregator;
+import org.maplibre.android.http.HttpMetricsListener;
+
+import java.util.Collection;
+
 import okhttp3.Call;
 import okio.Buffer;
 
@@ -51,6 +59,152 @@ public class HttpRequestUtil {
     HttpRequestImpl.setOkHttpClient(client);
   }
 
+  /**
+   * Enable delivering response bodies to the native side through pooled direct buffers. Default value is false.
+   * <p>
+   * Instead of materializing every body as a byte array, the body is streamed into a recycled direct
+   * buffer sized from the Content-Length header, and copied once into native memory. This reduces heap churn
+   * and garbage collection pauses when many tiles are loaded in a short period of time.
+   * </p>
+   * <p>
+   * This configuration will outlast the lifecycle of the Map.
+   * </p>
+   *
+   * @param enabled True will deliver responses through direct buffers, false will use byte arrays
+   */
+  public static void setDirectResponseDeliveryEnabled(boolean enabled) {
+    HttpRequestImpl.enableDirectResponseDelivery(enabled);
+  }
+
+  /**
+   * Enable priority based scheduling of map resource requests. Default value is false.
+   * <p>
+   * Requests are classified from their url: styles, sprites and glyphs are dispatched first, followed by tiles
+   * in the viewport of a map, prefetched tiles and finally resources for offline regions. Identical requests that
+   * are in flight at the same time share a single network call.
+   * </p>
+   * <p>
+   * Each {@link org.maplibre.android.maps.MapView} reports its viewport whenever its camera is idle. The requests
+   * of all maps share the scheduler: with several maps, a tile is visible when it's in the viewport of any of them.
+   * </p>
+   * <p>
+   * This configuration will outlast the lifecycle of the Map.
+   * </p>
+   *
+   * @param enabled True will schedule requests by priority, false will enqueue them in the order they arrive
+   */
+  public static void setRequestSchedulingEnabled(boolean enabled) {
+    HttpRequestImpl.enableRequestScheduling(enabled);
+  }
+
+  /**
+   * Set the maximum number of requests the scheduler keeps in flight, across all hosts. Default value is 20.
+   * <p>
+   * The requests beyond the per host limit of the OkHttp dispatcher, 5 by default, wait in its queue in the order
+   * they were sent instead of by priority. Raise this value along with the per host limit of the client, or when
+   * the resources come from more than four hosts.
+   * </p>
+   * <p>
+   * Requires {@link #setRequestSchedulingEnabled(boolean)} to be activated.
+   * </p>
+   *
+   * @param maxConcurrentRequests the maximum number of concurrent requests, at least 1
+   */
+  public static void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    HttpRequestImpl.setMaxConcurrentRequests(maxConcurrentRequests);
+  }
+
+  /**
+   * @return true if map resource requests are scheduled by priority
+   */
+  public static boolean isRequestSchedulingEnabled() {
+    return HttpRequestImpl.isRequestSchedulingEnabled();
+  }
+
+  /**
+   * Set an additional visible region, used to dispatch tiles under it before prefetched tiles, for maps whose
+   * viewport isn't reported by a {@link org.maplibre.android.maps.MapView}.
+   * <p>
+   * The viewports of the maps are reported automatically while their camera moves and when it's idle, a tile in this region or in
+   * the viewport of any map is visible. Pending requests are reordered on every call. Passing null removes the
+   * region.
+   * </p>
+   * <p>
+   * Requires {@link #setRequestSchedulingEnabled(boolean)} to be activated.
+   * </p>
+   *
+   * @param bounds the visible bounds, or null
+   * @param zoom   the zoom level of the camera
+   */
+  public static void setViewport(@Nullable LatLngBounds bounds, double zoom) {
+    HttpRequestImpl.setViewport(HttpRequestUtil.class, bounds, zoom);
+  }
+
+  /**
+   * Set the visible region of a map, replacing the region previously set for the same map.
+   * <p>
+   * Called by {@link org.maplibre.android.maps.MapView} while the camera of its map moves, every 100 ms at most,
+   * and when it's idle, and with null bounds when the map is destroyed.
+   * </p>
+   *
+   * @param map    the map the region belongs to
+   * @param bounds the visible bounds of the map, or null
+   * @param zoom   the zoom level of the camera
+   */
+  public static void setViewport(@NonNull Object map, @Nullable LatLngBounds bounds, double zoom) {
+    HttpRequestImpl.setViewport(map, bounds, zoom);
+  }
+
+  /**
+   * Set the connection settings of the default OkHttp client.
+   * <p>
+   * Dispatcher limits and the dns cache apply immediately, a new connection pool is created for the other settings.
+   * This configuration survives across mapView instances and has no effect on a client set with
+   * {@link #setOkHttpClient(Call.Factory)}.
+   * </p>
+   *
+   * @param options the connection options
+   */
+  public static void setConnectionOptions(@NonNull HttpConnectionOptions options) {
+    HttpRequestImpl.setConnectionOptions(options);
+  }
+
+  /**
+   * Open connections to the hosts of the given urls ahead of the first request to them.
+   * <p>
+   * When enabled with {@link HttpConnectionOptions.Builder#setPrewarmConnections(boolean)}, the hosts of the
+   * tiles, sprites and glyphs referenced by a style are pre-warmed automatically when the style is received,
+   * this is useful for hosts that are only known by the application, e.g. those of a tile server configuration.
+   * </p>
+   *
+   * @param urls absolute http urls
+   */
+  public static void prewarmConnections(@NonNull Collection<String> urls) {
+    HttpRequestImpl.prewarmConnections(urls);
+  }
+
+  /**
+   * Forget the host addresses cached as configured with {@link HttpConnectionOptions.Builder#setDnsCacheTtl}.
+   * <p>
+   * The cache is cleared automatically when connectivity changes, and the addresses of a host are forgotten
+   * when a request to it fails.
+   * </p>
+   */
+  public static void clearDnsCache() {
+    HttpRequestImpl.clearDnsCache();
+  }
+
+  /**
+   * Set a listener receiving the dns, connect, TLS, time to first byte and transfer timings of every request
+   * made by the default OkHttp client. Use {@link HttpMetricsAggregator} to get rolling histograms per host
+   * and resource kind.
+   *
+   * @param listener the listener, or null to stop collecting metrics
+   */
+  public static void setMetricsListener(@Nullable HttpMetricsListener listener) {
+    HttpLogger.setMetricsListener(listener);
+  }
+
   @NonNull
   static String toHumanReadableAscii(String s) {
     for (int i = 0, length = s.length(), c; i < length; i += Character.charCount(c)) {
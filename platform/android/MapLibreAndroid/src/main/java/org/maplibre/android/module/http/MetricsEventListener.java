@@ -0,0 +1,211 @@
+package org.maplibre.android.module.http;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.maplibre.android.http.HttpLogger;
+import org.maplibre.android.http.HttpMetricsListener;
+import org.maplibre.android.http.HttpRequestMetrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * Records the timings of a single call and hands them to the {@link HttpMetricsListener} of {@link HttpLogger}.
+ * <p>
+ * The factory returns {@link EventListener#NONE} while no listener is set, so calls don't pay for metrics
+ * nobody reads.
+ * </p>
+ */
+final class MetricsEventListener extends EventListener {
+
+  static final EventListener.Factory FACTORY = call -> {
+    HttpMetricsListener listener = HttpLogger.getMetricsListener();
+    if (listener == null || ConnectionPrewarmer.PREWARM_TAG.equals(call.request().tag())) {
+      return EventListener.NONE;
+    }
+    return new MetricsEventListener(listener);
+  };
+
+  private final HttpMetricsListener listener;
+
+  private long callStart = -1;
+  // when the call left the dispatcher queue, the first event of its execution
+  private long executionStart = -1;
+  private long requestHeadersStart = -1;
+  private long dnsStart = -1;
+  private long dnsNanos = -1;
+  private long connectStart = -1;
+  private long connectNanos = -1;
+  private long tlsStart = -1;
+  private long tlsNanos = -1;
+  private long timeToFirstByteNanos = -1;
+  private long responseHeadersEnd = -1;
+  private long transferNanos = -1;
+  private long bytes;
+  private int responseCode = -1;
+  private boolean cacheHit;
+  @Nullable
+  private Protocol protocol;
+  private boolean reported;
+
+  @VisibleForTesting
+  MetricsEventListener(@NonNull HttpMetricsListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public void callStart(@NonNull Call call) {
+    callStart = System.nanoTime();
+  }
+
+  @Override
+  public void proxySelectStart(@NonNull Call call, @NonNull HttpUrl url) {
+    started();
+  }
+
+  @Override
+  public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+    dnsStart = started();
+  }
+
+  @Override
+  public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> inetAddressList) {
+    dnsNanos = System.nanoTime() - dnsStart;
+  }
+
+  @Override
+  public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy) {
+    connectStart = started();
+  }
+
+  @Override
+  public void secureConnectStart(@NonNull Call call) {
+    tlsStart = System.nanoTime();
+  }
+
+  @Override
+  public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+    tlsNanos = System.nanoTime() - tlsStart;
+  }
+
+  @Override
+  public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy,
+                         @Nullable Protocol protocol) {
+    connectNanos = System.nanoTime() - connectStart;
+  }
+
+  @Override
+  public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+    started();
+    protocol = connection.protocol();
+  }
+
+  @Override
+  public void requestHeadersStart(@NonNull Call call) {
+    requestHeadersStart = System.nanoTime();
+  }
+
+  @Override
+  public void responseHeadersStart(@NonNull Call call) {
+    if (requestHeadersStart >= 0) {
+      timeToFirstByteNanos = System.nanoTime() - requestHeadersStart;
+    }
+  }
+
+  @Override
+  public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+    responseHeadersEnd = System.nanoTime();
+    responseCode = response.code();
+  }
+
+  @Override
+  public void responseBodyEnd(@NonNull Call call, long byteCount) {
+    bytes = byteCount;
+    if (responseHeadersEnd >= 0) {
+      transferNanos = System.nanoTime() - responseHeadersEnd;
+    }
+  }
+
+  @Override
+  public void cacheHit(@NonNull Call call, @NonNull Response response) {
+    started();
+    cacheHit = true;
+    responseCode = response.code();
+  }
+
+  @Override
+  public void cacheMiss(@NonNull Call call) {
+    started();
+  }
+
+  @Override
+  public void callEnd(@NonNull Call call) {
+    report(call, false);
+  }
+
+  @Override
+  public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+    report(call, true);
+  }
+
+  private void report(@NonNull Call call, boolean failed) {
+    if (reported) {
+      return;
+    }
+    reported = true;
+
+    HttpUrl url = call.request().url();
+    long end = System.nanoTime();
+    long queueNanos = executionStart >= 0 && callStart >= 0 ? executionStart - callStart : -1;
+    long start = executionStart >= 0 ? executionStart : callStart;
+    long totalNanos = start >= 0 ? end - start : -1;
+    listener.onRequestFinished(new HttpRequestMetrics(url.toString(), url.host(), kindOf(url),
+      protocol != null ? protocol.toString() : null, responseCode, failed, cacheHit, queueNanos, dnsNanos,
+      connectNanos, tlsNanos, timeToFirstByteNanos, transferNanos, totalNanos, bytes));
+  }
+
+  /**
+   * Marks the end of the dispatcher queue on the first event of the execution of the call. The call starts in
+   * the interceptors, which emit no event of their own: the first event is the cache lookup, the route
+   * selection or the acquisition of a pooled connection.
+   *
+   * @return the current time
+   */
+  private long started() {
+    long now = System.nanoTime();
+    if (executionStart < 0) {
+      executionStart = now;
+    }
+    return now;
+  }
+
+  @HttpRequestMetrics.ResourceKind
+  static int kindOf(@NonNull HttpUrl url) {
+    if (RequestPriority.parseTile(url) != null) {
+      return HttpRequestMetrics.KIND_TILE;
+    }
+    switch (RequestPriority.classify(url, false)) {
+      case RequestPriority.STYLE:
+        return HttpRequestMetrics.KIND_STYLE;
+      case RequestPriority.SPRITE:
+        return HttpRequestMetrics.KIND_SPRITE;
+      case RequestPriority.GLYPH:
+        return HttpRequestMetrics.KIND_GLYPH;
+      default:
+        return HttpRequestMetrics.KIND_TILE;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package org.maplibre.android.module.http;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Classifies map resource requests from their url, lower values are dispatched first.
+ */
+final class RequestPriority {
+
+  static final int STYLE = 0;
+  static final int SPRITE = 1;
+  static final int GLYPH = 2;
+  static final int VISIBLE_TILE = 3;
+  static final int TILE = 4;
+  static final int PREFETCH_TILE = 5;
+  static final int OFFLINE = 6;
+
+  @IntDef( {STYLE, SPRITE, GLYPH, VISIBLE_TILE, TILE, PREFETCH_TILE, OFFLINE})
+  @Retention(RetentionPolicy.SOURCE)
+  @interface Value {
+  }
+
+  private RequestPriority() {
+  }
+
+  /**
+   * Classify a request that doesn't map to a tile coordinate.
+   *
+   * @param url          the request url
+   * @param offlineUsage true when the resource is requested for an offline region
+   * @return the priority, {@link #TILE} for anything that isn't a style, sprite or glyph
+   */
+  @Value
+  static int classify(@NonNull HttpUrl url, boolean offlineUsage) {
+    if (offlineUsage) {
+      return OFFLINE;
+    }
+
+    List<String> segments = url.pathSegments();
+    String last = segments.isEmpty() ? "" : segments.get(segments.size() - 1).toLowerCase(Locale.US);
+    if (last.startsWith("sprite") || containsSegment(segments, "sprites")) {
+      return SPRITE;
+    }
+    if ((last.endsWith(".pbf") && isGlyphRange(last)) || containsSegment(segments, "fonts")
+      || containsSegment(segments, "glyphs")) {
+      return GLYPH;
+    }
+    if (last.endsWith(".json") || containsSegment(segments, "styles")) {
+      return STYLE;
+    }
+    return TILE;
+  }
+
+  /**
+   * Classify a tile request against the viewports of the maps.
+   *
+   * @param tile      the tile coordinate parsed from the request url
+   * @param viewports the viewports, empty when unknown
+   * @return {@link #VISIBLE_TILE} when a viewport contains the tile, {@link #PREFETCH_TILE} otherwise,
+   * or {@link #TILE} when the viewports are unknown
+   */
+  @Value
+  static int classifyTile(@NonNull int[] tile, @NonNull Collection<TileViewport> viewports) {
+    if (viewports.isEmpty()) {
+      return TILE;
+    }
+    for (TileViewport viewport : viewports) {
+      if (viewport.contains(tile[0], tile[1], tile[2])) {
+        return VISIBLE_TILE;
+      }
+    }
+    return PREFETCH_TILE;
+  }
+
+  /**
+   * Parses a z/x/y tile coordinate from the path of a url, e.g. /tiles/14/8190/5448.pbf or /14/8190/5448@2x.png.
+   *
+   * @param url the request url
+   * @return an array of z, x, y or null if the url doesn't contain a tile coordinate
+   */
+  @Nullable
+  static int[] parseTile(@NonNull HttpUrl url) {
+    List<String> segments = url.pathSegments();
+    for (int i = segments.size() - 3; i >= 0; i--) {
+      int z = parseInt(segments.get(i));
+      int x = parseInt(segments.get(i + 1));
+      int y = parseInt(stripExtension(segments.get(i + 2)));
+      if (z >= 0 && z <= 30 && x >= 0 && y >= 0 && x < (1 << z) && y < (1 << z)) {
+        return new int[] {z, x, y};
+      }
+    }
+    return null;
+  }
+
+  private static boolean isGlyphRange(String segment) {
+    // glyph ranges are requested as {start}-{end}.pbf, e.g. 0-255.pbf
+    int dash = segment.indexOf('-');
+    return dash > 0 && parseInt(segment.substring(0, dash)) >= 0
+      && parseInt(stripExtension(segment.substring(dash + 1))) >= 0;
+  }
+
+  private static boolean containsSegment(List<String> segments, String name) {
+    for (String segment : segments) {
+      if (name.equalsIgnoreCase(segment)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @NonNull
+  private static String stripExtension(@NonNull String segment) {
+    int end = segment.length();
+    for (int i = 0; i < segment.length(); i++) {
+      char c = segment.charAt(i);
+      if (c == '.' || c == '@') {
+        end = i;
+        break;
+      }
+    }
+    return segment.substring(0, end);
+  }
+
+  private static int parseInt(@NonNull String value) {
+    if (value.isEmpty() || value.length() > 9) {
+      return -1;
+    }
+    int result = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+    return result;
+  }
+}
@@ -0,0 +1,143 @@
+package org.maplibre.android.module.http;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okio.BufferedSource;
+
+/**
+ * Pool of direct byte buffers used to hand response bodies to native without materializing a byte array.
+ * <p>
+ * Buffers are bucketed by power of two capacities between {@link #MIN_CAPACITY} and {@link #MAX_CAPACITY}.
+ * Each bucket retains a bounded number of idle buffers, anything above that is left to the garbage collector.
+ * </p>
+ */
+final class ResponseBufferPool {
+
+  @VisibleForTesting
+  static final int MIN_CAPACITY = 16 * 1024;
+  @VisibleForTesting
+  static final int MAX_CAPACITY = 2 * 1024 * 1024;
+
+  // Retain at most this many bytes of idle buffers per bucket
+  private static final int MAX_IDLE_BYTES_PER_BUCKET = 2 * 1024 * 1024;
+
+  private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_CAPACITY);
+  private static final int BUCKET_COUNT = Integer.numberOfTrailingZeros(MAX_CAPACITY) - MIN_SHIFT + 1;
+
+  private final ConcurrentLinkedQueue<ByteBuffer>[] buckets;
+  private final AtomicInteger[] idleCounts;
+
+  @SuppressWarnings("unchecked")
+  ResponseBufferPool() {
+    buckets = new ConcurrentLinkedQueue[BUCKET_COUNT];
+    idleCounts = new AtomicInteger[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = new ConcurrentLinkedQueue<>();
+      idleCounts[i] = new AtomicInteger();
+    }
+  }
+
+  /**
+   * Reads the remainder of a source into a pooled buffer.
+   *
+   * @param source        the source to drain
+   * @param contentLength the expected length, or -1 when unknown (e.g. chunked or transparently gzipped bodies)
+   * @return a buffer flipped for reading, to be returned through {@link #release(ByteBuffer)}
+   * @throws IOException when reading from the source fails, the buffer is released in that case
+   */
+  @NonNull
+  ByteBuffer read(@NonNull BufferedSource source, long contentLength) throws IOException {
+    ByteBuffer buffer = acquire(contentLength > 0 ? contentLength : MIN_CAPACITY);
+    try {
+      while (true) {
+        if (!buffer.hasRemaining()) {
+          if (source.exhausted()) {
+            break;
+          }
+          buffer = grow(buffer);
+        }
+        if (source.read(buffer) == -1) {
+          break;
+        }
+      }
+    } catch (IOException | RuntimeException exception) {
+      release(buffer);
+      throw exception;
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  @NonNull
+  ByteBuffer acquire(long minimumCapacity) {
+    int bucket = bucketFor(minimumCapacity);
+    if (bucket < 0) {
+      // Too large to be pooled, still direct so native can read it in place
+      return ByteBuffer.allocateDirect((int) minimumCapacity);
+    }
+
+    ByteBuffer buffer = buckets[bucket].poll();
+    if (buffer != null) {
+      idleCounts[bucket].decrementAndGet();
+      buffer.clear();
+      return buffer;
+    }
+    return ByteBuffer.allocateDirect(MIN_CAPACITY << bucket);
+  }
+
+  void release(@Nullable ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect()) {
+      return;
+    }
+
+    int capacity = buffer.capacity();
+    int bucket = bucketFor(capacity);
+    if (bucket < 0 || (MIN_CAPACITY << bucket) != capacity) {
+      return;
+    }
+
+    int maxIdle = Math.max(1, MAX_IDLE_BYTES_PER_BUCKET / capacity);
+    if (idleCounts[bucket].incrementAndGet() > maxIdle) {
+      idleCounts[bucket].decrementAndGet();
+      return;
+    }
+    buckets[bucket].offer(buffer);
+  }
+
+  @VisibleForTesting
+  int idleCount(int capacity) {
+    int bucket = bucketFor(capacity);
+    return bucket < 0 ? 0 : idleCounts[bucket].get();
+  }
+
+  @NonNull
+  private ByteBuffer grow(@NonNull ByteBuffer buffer) {
+    long capacity = (long) buffer.capacity() * 2;
+    if (capacity > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Response body exceeds the maximum buffer size");
+    }
+    ByteBuffer grown = acquire(capacity);
+    buffer.flip();
+    grown.put(buffer);
+    release(buffer);
+    return grown;
+  }
+
+  private static int bucketFor(long capacity) {
+    if (capacity > MAX_CAPACITY) {
+      return -1;
+    }
+    if (capacity <= MIN_CAPACITY) {
+      return 0;
+    }
+    int shift = 64 - Long.numberOfLeadingZeros(capacity - 1);
+    return shift - MIN_SHIFT;
+  }
+}
@@ -0,0 +1,67 @@
+package org.maplibre.android.module.http;
+
+import androidx.annotation.NonNull;
+
+import org.maplibre.android.geometry.LatLngBounds;
+
+/**
+ * Immutable snapshot of the visible area of the map, used to tell visible tiles apart from prefetched ones.
+ */
+final class TileViewport {
+
+  private static final double MAX_LATITUDE = 85.05112878;
+
+  private final double zoom;
+  private final double west;
+  private final double east;
+  private final double north;
+  private final double south;
+
+  TileViewport(@NonNull LatLngBounds bounds, double zoom) {
+    this.zoom = zoom;
+    this.west = bounds.longitudeWest;
+    this.east = bounds.longitudeEast;
+    this.north = Math.min(bounds.latitudeNorth, MAX_LATITUDE);
+    this.south = Math.max(bounds.latitudeSouth, -MAX_LATITUDE);
+  }
+
+  /**
+   * Returns true when the tile intersects the viewport at a zoom level the renderer needs for the current frame.
+   * <p>
+   * Tiles more than one zoom level below the camera are the parents requested by prefetching,
+   * the extra level accounts for sources with 512 pixel tiles.
+   * </p>
+   */
+  boolean contains(int z, int x, int y) {
+    if (z < Math.floor(zoom) - 1 || z > Math.ceil(zoom) + 1) {
+      return false;
+    }
+
+    int tiles = 1 << z;
+    int minY = latToTileY(north, tiles);
+    int maxY = latToTileY(south, tiles);
+    if (y < minY || y > maxY) {
+      return false;
+    }
+
+    // bounds aren't wrapped, west may be below -180 and east above 180
+    int minX = lonToTileX(west, tiles);
+    int maxX = lonToTileX(east, tiles);
+    if (maxX - minX + 1 >= tiles) {
+      return true;
+    }
+    int wrappedMinX = Math.floorMod(minX, tiles);
+    int wrappedX = Math.floorMod(x - wrappedMinX, tiles);
+    return wrappedX <= maxX - minX;
+  }
+
+  private static int lonToTileX(double longitude, int tiles) {
+    return (int) Math.floor((longitude + 180.0) / 360.0 * tiles);
+  }
+
+  private static int latToTileY(double latitude, int tiles) {
+    double sin = Math.sin(Math.toRadians(latitude));
+    double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    return Math.min(tiles - 1, Math.max(0, (int) Math.floor(y * tiles)));
+  }
+}
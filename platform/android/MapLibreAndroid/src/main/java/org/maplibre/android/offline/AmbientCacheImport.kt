@@ -0,0 +1,23 @@
+package org.maplibre.android.offline
+
+/**
+ * An import of records into the ambient cache started with [OfflineManager.importAmbientCache]. The imports
+ * run one after the other on a worker thread.
+ */
+class AmbientCacheImport internal constructor() {
+
+    /**
+     * Whether the import was cancelled.
+     */
+    @Volatile
+    var isCancelled = false
+        private set
+
+    /**
+     * Cancels the import before its next batch, the batches imported before are kept. The callback of the
+     * import isn't invoked anymore.
+     */
+    fun cancel() {
+        isCancelled = true
+    }
+}
@@ -0,0 +1,24 @@
+package org.maplibre.android.offline
+
+import androidx.annotation.Keep
+
+/**
+ * A resource to insert into the ambient cache with [OfflineManager.importAmbientCache], as if it was requested
+ * while rendering a map.
+ *
+ * @param url            the URL of the resource
+ * @param data           the uncompressed data of the resource
+ * @param modified       the "modified" response header, in seconds since 1970, or 0 if not set
+ * @param expires        the "expires" response header, in seconds since 1970, or 0 if not set
+ * @param etag           the "entity tag" response header
+ * @param mustRevalidate whether the resource can't be used once it's stale
+ */
+@Keep
+class AmbientCacheRecord @JvmOverloads constructor(
+    val url: String,
+    val data: ByteArray,
+    val modified: Long = 0,
+    val expires: Long = 0,
+    val etag: String? = null,
+    val mustRevalidate: Boolean = false
+)
@@ -17,6 +17,8 @@ import java.io.FileInputStream
 import java.io.FileOutputStream
 import java.io.IOException
 import java.nio.channels.FileChannel
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 
 /**
  * The offline manager is the main entry point for offline-related functionality.
@@ -128,6 +130,23 @@ class OfflineManager private constructor(context: Context) {
         fun onError(error: String)
     }
 
+    /**
+     * This callback receives the progress of a merge as well, after each transaction of the merge.
+     */
+    @Keep
+    interface MergeOfflineRegionsProgressCallback : MergeOfflineRegionsCallback {
+        /**
+         * Receives the progress of the merge. The tiles and resources the main database already had in the same
+         * version or a newer one count as merged.
+         *
+         * @param mergedTileCount     the tiles of the merged regions merged so far
+         * @param tileCount           the tiles of the merged regions
+         * @param mergedResourceCount the resources of the merged regions merged so far
+         * @param resourceCount       the resources of the merged regions
+         */
+        fun onProgress(mergedTileCount: Long, tileCount: Long, mergedResourceCount: Long, resourceCount: Long)
+    }
+
     init {
         this.context = context.applicationContext
         fileSource = FileSource.getInstance(this.context)
@@ -217,11 +236,18 @@ class OfflineManager private constructor(context: Context) {
      * The callback reference is **strongly kept** throughout the process,
      * so it needs to be wrapped in a weak reference or released on the client side if necessary.
      *
-     * The secondary database may need to be upgraded to the latest schema.
-     * This is done in-place and requires write-access to the provided path.
+     * With a [MergeOfflineRegionsCallback], the merge is done in a single transaction. The secondary database may
+     * need to be upgraded to the latest schema. This is done in-place and requires write-access to the provided path.
      * If the app's process doesn't have write-access to the provided path,
      * the file will be copied to the temporary, internal directory for the duration of the merge.
      *
+     * With a [MergeOfflineRegionsProgressCallback], the merge is done in transactions of a limited number of tiles
+     * or resources, the map requests made meanwhile are served in between and the callback receives the progress
+     * after each of them. The secondary database is opened read-only, it can be located in a path the app's process
+     * can't write to and isn't copied. It needs to have the schema of the main database. A merge that was cancelled
+     * with [cancelMergeOfflineRegions], failed, or was interrupted by the app's process ending keeps the tiles and
+     * resources merged so far, and resumes from its last transaction when it's started again with the same path.
+     *
      * Only resources and tiles that belong to a region will be copied over. Identical
      * regions will be flattened into a single new region in the main database.
      *
@@ -231,10 +257,14 @@ class OfflineManager private constructor(context: Context) {
      * Merged regions may not be in a completed status if the secondary database
      * does not contain all the tiles or resources required by the region definition.
      *
-     * @param path     secondary database writable path
-     * @param callback completion/error callback
+     * @param path     secondary database readable path, writable for a [MergeOfflineRegionsCallback]
+     * @param callback completion/error callback, or a [MergeOfflineRegionsProgressCallback] for an incremental merge
      */
     fun mergeOfflineRegions(path: String, callback: MergeOfflineRegionsCallback) {
+        if (callback is MergeOfflineRegionsProgressCallback) {
+            mergeOfflineRegionsIncrementally(path, callback)
+            return
+        }
         val src = File(path)
         Thread {
             var errorMessage: String? = null
@@ -265,6 +295,55 @@ class OfflineManager private constructor(context: Context) {
         }.start()
     }
 
+    private fun mergeOfflineRegionsIncrementally(path: String, callback: MergeOfflineRegionsProgressCallback) {
+        val file = File(path)
+        if (!file.canRead()) {
+            handler.post { callback.onError("Secondary database needs to be located in a readable path.") }
+            return
+        }
+        fileSource.activate()
+        nativeMergeOfflineRegionsIncrementally(
+            fileSource,
+            file.absolutePath,
+            object : MergeOfflineRegionsProgressCallback {
+                override fun onProgress(
+                    mergedTileCount: Long,
+                    tileCount: Long,
+                    mergedResourceCount: Long,
+                    resourceCount: Long
+                ) {
+                    handler.post {
+                        callback.onProgress(mergedTileCount, tileCount, mergedResourceCount, resourceCount)
+                    }
+                }
+
+                override fun onMerge(offlineRegions: Array<OfflineRegion>?) {
+                    handler.post {
+                        fileSource.deactivate()
+                        callback.onMerge(offlineRegions)
+                    }
+                }
+
+                override fun onError(error: String) {
+                    handler.post {
+                        fileSource.deactivate()
+                        callback.onError(error)
+                    }
+                }
+            }
+        )
+    }
+
+    /**
+     * Cancels the incremental merge of a secondary database before its next transaction, its callback receives an
+     * error. The tiles and resources merged so far are kept, and the merge resumes from there when it's started again.
+     *
+     * @param path secondary database path, as passed to [mergeOfflineRegions]
+     */
+    fun cancelMergeOfflineRegions(path: String) {
+        nativeCancelMergeOfflineRegions(File(path).absolutePath)
+    }
+
     /**
      * Delete existing database and re-initialize.
      *
@@ -454,6 +533,148 @@ class OfflineManager private constructor(context: Context) {
         fun onError(message: String)
     }
 
+    /**
+     * This callback receives the progress and the outcome of an import into the ambient cache.
+     */
+    @Keep
+    interface ImportAmbientCacheCallback {
+        /**
+         * Receives the progress of the import, after each batch of resources.
+         *
+         * @param importedCount the resources imported so far
+         * @param totalCount    the resources to import, or -1 if unknown
+         */
+        fun onProgress(importedCount: Long, totalCount: Long)
+
+        /**
+         * Receives the end of the import.
+         *
+         * @param insertedCount the resources that weren't cached yet, the others were updated
+         */
+        fun onImported(insertedCount: Long)
+
+        /**
+         * Receives an error message if the import failed. The batches imported before are kept.
+         *
+         * @param message the error message
+         */
+        fun onError(message: String)
+    }
+
+    /**
+     * Inserts resources into the ambient cache, as [putResourceWithUrl] does for a single resource.
+     *
+     * The records are read on a worker thread and inserted in batches, a database transaction each, which is
+     * much faster than inserting them one by one. The imports run one after the other, an import can be
+     * cancelled between its batches. The callback is invoked on the main thread.
+     *
+     * The ambient cache keeps to its maximum size, see [setMaximumAmbientCacheSize], the least recently used
+     * resources are evicted to make room for the imported ones.
+     *
+     * @param records  the resources to insert, read on a worker thread
+     * @param callback the callback of the progress and the outcome
+     * @param compress false to store the data as is, which is faster to import but takes more space
+     * @return the import, to cancel it
+     */
+    @JvmOverloads
+    fun importAmbientCache(
+        records: Iterator<AmbientCacheRecord>,
+        callback: ImportAmbientCacheCallback?,
+        compress: Boolean = true
+    ): AmbientCacheImport {
+        val cacheImport = AmbientCacheImport()
+        fileSource.activate()
+        importExecutor.execute {
+            var importedCount = 0L
+            var insertedCount = 0L
+            try {
+                val batch = ArrayList<AmbientCacheRecord>(IMPORT_BATCH_SIZE)
+                while (!cacheImport.isCancelled && records.hasNext()) {
+                    batch.clear()
+                    while (batch.size < IMPORT_BATCH_SIZE && records.hasNext()) {
+                        batch.add(records.next())
+                    }
+                    if (cacheImport.isCancelled) {
+                        break
+                    }
+                    insertedCount += nativePutResources(batch.toTypedArray(), compress)
+                    importedCount += batch.size
+                    val progress = importedCount
+                    handler.post {
+                        if (!cacheImport.isCancelled) {
+                            callback?.onProgress(progress, -1)
+                        }
+                    }
+                }
+                val inserted = insertedCount
+                handler.post {
+                    fileSource.deactivate()
+                    if (!cacheImport.isCancelled) {
+                        callback?.onImported(inserted)
+                    }
+                }
+            } catch (exception: Exception) {
+                handler.post {
+                    fileSource.deactivate()
+                    if (!cacheImport.isCancelled) {
+                        callback?.onError(exception.message ?: exception.toString())
+                    }
+                }
+            }
+        }
+        return cacheImport
+    }
+
+    /**
+     * Inserts the tiles of an MBTiles file into the ambient cache, as the tiles of a source with the URL
+     * template would be cached while rendering a map.
+     *
+     * The file is read on the database thread in batches, a database transaction each, and the map requests
+     * made meanwhile are served between the batches. Gzipped tiles are decompressed. The callback is invoked
+     * on the main thread.
+     *
+     * @param mbtiles     the MBTiles file
+     * @param urlTemplate the URL template of the tiles, as in the TileJSON of the source
+     * @param pixelRatio  the pixel ratio of the tiles, for templates with a {ratio} token
+     * @param callback    the callback of the progress and the outcome
+     * @param compress    false to store the data as is, which is faster to import but takes more space
+     */
+    @JvmOverloads
+    fun importAmbientCache(
+        mbtiles: File,
+        urlTemplate: String,
+        pixelRatio: Float,
+        callback: ImportAmbientCacheCallback?,
+        compress: Boolean = true
+    ) {
+        fileSource.activate()
+        nativeImportMBTiles(
+            mbtiles.absolutePath,
+            urlTemplate,
+            pixelRatio,
+            compress,
+            object : ImportAmbientCacheCallback {
+                override fun onProgress(importedCount: Long, totalCount: Long) {
+                    handler.post { callback?.onProgress(importedCount, totalCount) }
+                }
+
+                override fun onImported(insertedCount: Long) {
+                    handler.post {
+                        fileSource.deactivate()
+                        callback?.onImported(insertedCount)
+                    }
+                }
+
+                override fun onError(message: String) {
+                    handler.post {
+                        fileSource.deactivate()
+                        callback?.onError(message)
+                    }
+                }
+            }
+        )
+    }
+
     private fun mergeOfflineDatabaseFiles(file: File, callback: MergeOfflineRegionsCallback, isTemporaryFile: Boolean) {
         fileSource.activate()
         mergeOfflineRegions(
@@ -589,6 +810,12 @@ class OfflineManager private constructor(context: Context) {
     @Keep
     private external fun mergeOfflineRegions(fileSource: FileSource, path: String, callback: MergeOfflineRegionsCallback)
 
+    @Keep
+    private external fun nativeMergeOfflineRegionsIncrementally(fileSource: FileSource, path: String, callback: MergeOfflineRegionsProgressCallback)
+
+    @Keep
+    private external fun nativeCancelMergeOfflineRegions(path: String)
+
     @Keep
     private external fun nativeResetDatabase(callback: FileSourceCallback?)
 
@@ -604,12 +831,25 @@ class OfflineManager private constructor(context: Context) {
     @Keep
     private external fun nativeSetMaximumAmbientCacheSize(size: Long, callback: FileSourceCallback?)
 
+    // Blocks until the batch is stored, throws when it can't be
+    @Keep
+    private external fun nativePutResources(records: Array<AmbientCacheRecord>, compress: Boolean): Long
+
+    @Keep
+    private external fun nativeImportMBTiles(
+        path: String,
+        urlTemplate: String,
+        pixelRatio: Float,
+        compress: Boolean,
+        callback: ImportAmbientCacheCallback
+    )
+
     /**
      * Insert the provided resource into the ambient cache
      * This method mimics the caching that would take place if the equivalent
      * resource were requested in the process of map rendering.
      * Use this method to pre-warm the cache with resources you know
-     * will be requested.
+     * will be requested, or [importAmbientCache] for many resources.
      *
      * This call is asynchronous: the data may not be immediately available
      * for in-progress requests, although subsequent requests should have
@@ -629,6 +869,14 @@ class OfflineManager private constructor(context: Context) {
     companion object {
         private const val TAG = "Mbgl - OfflineManager"
 
+        // The resources inserted in a transaction by importAmbientCache
+        private const val IMPORT_BATCH_SIZE = 1000
+
+        // Runs the imports of records one after the other
+        private val importExecutor: ExecutorService by lazy {
+            Executors.newSingleThreadExecutor { Thread(it, "AmbientCacheImport") }
+        }
+
         //
         // Static methods
         //
@@ -288,6 +288,21 @@ class OfflineRegion @Keep private constructor(offlineRegionPtr: Long, fileSource
         setOfflineRegionDownloadState(state)
     }
 
+    /**
+     * Set how the regional resources are downloaded: the concurrency per host, the order of the
+     * tiles and checkpoints to resume from. The options apply when the download is next set to
+     * [STATE_ACTIVE].
+     *
+     * @param options the download options
+     */
+    fun setDownloadOptions(options: OfflineRegionDownloadOptions) {
+        setOfflineRegionDownloadOptions(
+            options.maximumConcurrentRequestsPerHost,
+            options.isZoomOrdered,
+            options.isCheckpointing
+        )
+    }
+
     /**
      * Retrieve the current status of the region. The query will be executed
      * asynchronously and the results passed to the given callback which will be
@@ -431,6 +446,13 @@ class OfflineRegion @Keep private constructor(offlineRegionPtr: Long, fileSource
     @Keep
     private external fun setOfflineRegionDownloadState(@DownloadState offlineRegionDownloadState: Int)
 
+    @Keep
+    private external fun setOfflineRegionDownloadOptions(
+        maximumConcurrentRequestsPerHost: Int,
+        zoomOrdered: Boolean,
+        checkpoints: Boolean
+    )
+
     @Keep
     private external fun getOfflineRegionStatus(callback: OfflineRegionStatusCallback)
 
@@ -0,0 +1,22 @@
+package org.maplibre.android.offline
+
+/**
+ * How the resources of an [OfflineRegion] are downloaded, see [OfflineRegion.setDownloadOptions].
+ *
+ * @param maximumConcurrentRequestsPerHost the maximum number of requests to a single host at once, on top of
+ * the limit on all requests. 0 sets no limit per host.
+ * @param isZoomOrdered true to download the tiles of all sources zoom level by zoom level, so that the lower zoom
+ * levels of the whole region are usable first. Otherwise the sources are downloaded one after the other.
+ * @param isCheckpointing true to store checkpoints of the downloaded tiles while the region downloads, so that a
+ * download resumed after it was interrupted, even by the end of the process, doesn't check the tiles it finished
+ * again. The checkpoints are removed once the download is complete.
+ */
+class OfflineRegionDownloadOptions @JvmOverloads constructor(
+    val maximumConcurrentRequestsPerHost: Int = 0,
+    val isZoomOrdered: Boolean = false,
+    val isCheckpointing: Boolean = false
+) {
+    init {
+        require(maximumConcurrentRequestsPerHost >= 0) { "The maximum number of requests per host can't be negative" }
+    }
+}
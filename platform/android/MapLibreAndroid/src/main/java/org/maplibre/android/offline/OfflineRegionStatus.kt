@@ -85,7 +85,21 @@ class OfflineRegionStatus
      * precise number of required resources, at which point it is set to true.
      *
      */
-    val isRequiredResourceCountPrecise: Boolean
+    val isRequiredResourceCountPrecise: Boolean,
+    /**
+     * The bytes downloaded per second over the last seconds of an active download. Resources that
+     * were in the database already don't count.
+     */
+    val bytesPerSecond: Double,
+    /**
+     * The tiles downloaded per second over the last seconds of an active download.
+     */
+    val tilesPerSecond: Double,
+    /**
+     * The estimated time, in seconds, until the download is complete at the current rate, or -1 while
+     * it isn't known: until the download ran for a few seconds and the required resource count is precise.
+     */
+    val estimatedSecondsRemaining: Long
 ) {
     /**
      * Get the number of resources (inclusive of tiles) that have been fully downloaded
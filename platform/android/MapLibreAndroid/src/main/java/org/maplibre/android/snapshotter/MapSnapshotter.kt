@@ -7,9 +7,7 @@ import android.os.Handler
 import android.os.Looper
 import android.text.Html
 import android.text.TextUtils
-import android.view.View
-import android.view.ViewGroup
-import android.widget.TextView
+import android.util.TypedValue
 import androidx.annotation.Keep
 import androidx.annotation.UiThread
 import androidx.core.content.res.ResourcesCompat
@@ -30,6 +28,9 @@ import org.maplibre.android.style.layers.Layer
 import org.maplibre.android.style.sources.Source
 import org.maplibre.android.utils.FontUtils
 import org.maplibre.android.utils.ThreadUtils
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import kotlin.math.ceil
 
 /**
  * The map snapshotter creates a large of the map, rendered
@@ -47,6 +48,7 @@ open class MapSnapshotter(context: Context, options: Options) {
     private var callback: SnapshotReadyCallback? = null
     private var errorHandler: ErrorHandler? = null
     private var observer: Observer? = null
+    private var resultListener: ResultListener? = null
 
     /**
      * Get notified on snapshot completion.
@@ -100,6 +102,15 @@ open class MapSnapshotter(context: Context, options: Options) {
         fun onStyleImageMissing(imageName: String)
     }
 
+    /**
+     * Receives a result of [render] on the main thread, without the overlay.
+     */
+    internal interface ResultListener {
+        fun onSnapshotReady(snapshot: MapSnapshot)
+
+        fun onSnapshotFailed(error: String)
+    }
+
     /**
      * MapSnapshotter options
      */
@@ -150,6 +161,12 @@ open class MapSnapshotter(context: Context, options: Options) {
         var builder: Style.Builder? = null
             private set
 
+        /**
+         * @return the output the snapshot is written to, null to deliver the bitmap only
+         */
+        var output: SnapshotOutput? = null
+            private set
+
         /**
          * @param width  the width of the image
          * @param height the height of the image
@@ -290,6 +307,19 @@ open class MapSnapshotter(context: Context, options: Options) {
             return this
         }
 
+        /**
+         * Writes the snapshot, encoded or as raw pixels, to a buffer or file descriptor. The overlay is drawn and
+         * the snapshot is written on a background thread, the callback is invoked on the UI thread once written
+         * and the bitmap of the snapshot was recycled.
+         *
+         * @param output the output, null to deliver the bitmap only
+         * @return the mutated [Options]
+         */
+        fun withOutput(output: SnapshotOutput?): Options {
+            this.output = output
+            return this
+        }
+
         /**
          * @return the style url
          */
@@ -357,6 +387,28 @@ open class MapSnapshotter(context: Context, options: Options) {
         nativeStart()
     }
 
+    /**
+     * Renders a snapshot with the current size and camera, as often as needed. Unlike [start], the result is
+     * passed to the listener as soon as it's rendered, without posting it or drawing the overlay.
+     *
+     * @param listener the listener of the result
+     */
+    internal fun render(listener: ResultListener) {
+        check(callback == null && resultListener == null) { "Snapshotter was already started" }
+        checkThread()
+        resultListener = listener
+        nativeStart()
+    }
+
+    /**
+     * Draws the logo and attribution overlay, like a snapshot of [start].
+     *
+     * @param mapSnapshot the map snapshot to draw the overlay on
+     */
+    internal fun drawOverlay(mapSnapshot: MapSnapshot) {
+        addOverlay(mapSnapshot)
+    }
+
     /**
      * Updates the snapshotter with a new size
      *
@@ -470,7 +522,7 @@ open class MapSnapshotter(context: Context, options: Options) {
     }
 
     /**
-     * Draw an overlay on the map snapshot.
+     * Draw an overlay on the map snapshot. With an [Options.output], it's drawn on a background thread.
      *
      * @param mapSnapshot the map snapshot to draw the overlay on
      */
@@ -482,18 +534,15 @@ open class MapSnapshotter(context: Context, options: Options) {
     }
 
     private fun drawOverlay(mapSnapshot: MapSnapshot, snapshot: Bitmap, canvas: Canvas, margin: Int) {
-        val measure = getAttributionMeasure(mapSnapshot, snapshot, margin)
-        val layout = measure.measure()
-        drawLogo(mapSnapshot, canvas, margin, layout!!)
-        drawAttribution(mapSnapshot, canvas, measure, layout)
-    }
-
-    private fun getAttributionMeasure(mapSnapshot: MapSnapshot, snapshot: Bitmap, margin: Int): AttributionMeasure {
         val logo = createScaledLogo(snapshot)
-        val longText = createTextView(mapSnapshot, false, logo.scale)
-        val shortText = createTextView(mapSnapshot, true, logo.scale)
-        return AttributionMeasure.Builder().setSnapshot(snapshot).setLogo(logo.large).setLogoSmall(logo.small).setTextView(longText).setTextViewShort(shortText)
+        val longText = AttributionText(mapSnapshot, false, logo.scale)
+        val shortText = AttributionText(mapSnapshot, true, logo.scale)
+        val measure = AttributionMeasure.Builder().setSnapshot(snapshot).setLogo(logo.large).setLogoSmall(logo.small)
+            .setTextSize(longText.width, longText.height).setTextSizeShort(shortText.width, shortText.height)
             .setMarginPadding(margin.toFloat()).build()
+        val layout = measure.measure()
+        drawLogo(mapSnapshot, canvas, margin, layout!!)
+        drawAttribution(mapSnapshot, canvas, if (layout.isShortText) shortText else longText, layout)
     }
 
     private fun drawLogo(mapSnapshot: MapSnapshot, canvas: Canvas, margin: Int, layout: AttributionLayout) {
@@ -509,48 +558,62 @@ open class MapSnapshotter(context: Context, options: Options) {
         }
     }
 
-    private fun drawAttribution(mapSnapshot: MapSnapshot, canvas: Canvas, measure: AttributionMeasure, layout: AttributionLayout?) {
+    private fun drawAttribution(mapSnapshot: MapSnapshot, canvas: Canvas, text: AttributionText, layout: AttributionLayout) {
         // draw attribution
-        val anchorPoint = layout!!.anchorPoint
+        val anchorPoint = layout.anchorPoint
         if (anchorPoint != null) {
-            drawAttribution(canvas, measure, anchorPoint)
+            text.draw(canvas, anchorPoint)
         } else {
             val snapshot = mapSnapshot.bitmap
             Logger.e(TAG, "Could not generate attribution for snapshot size: ${snapshot.width} x ${snapshot.height}. You are required to provide your own attribution for the used sources: ${mapSnapshot.attributions.joinToString()}")
         }
     }
 
-    private fun drawAttribution(canvas: Canvas, measure: AttributionMeasure, anchorPoint: PointF) {
-        canvas.save()
-        canvas.translate(anchorPoint.x, anchorPoint.y)
-        measure.textView.draw(canvas)
-        canvas.restore()
-    }
-
-    private fun createTextView(mapSnapshot: MapSnapshot, shortText: Boolean, scale: Float): TextView {
-        val textColor = ResourcesCompat.getColor(context.resources, R.color.maplibre_gray_dark, context.theme)
-        val widthMeasureSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED)
-        val heightMeasureSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED)
-        val textView = TextView(context)
-        textView.layoutParams = ViewGroup.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT)
-        textView.isSingleLine = true
-        textView.textSize = 10 * scale
-        textView.setTextColor(textColor)
-        textView.setBackgroundResource(R.drawable.maplibre_rounded_corner)
-        val attributionString = createAttributionString(mapSnapshot, shortText)
-        if (attributionString == "") {
-            Logger.w(
-                TAG,
-                String.format(
-                    "Attribution string is empty. Make sure you provide your own attribution for the used sources if needed.",
+    /**
+     * An attribution string drawn with its background straight on the canvas, without inflating a view, so the
+     * overlay can be drawn on any thread.
+     */
+    private inner class AttributionText(mapSnapshot: MapSnapshot, shortText: Boolean, scale: Float) {
+        private val text: String
+        private val paint = Paint(Paint.ANTI_ALIAS_FLAG)
+        private val background = ResourcesCompat.getDrawable(context.resources, R.drawable.maplibre_rounded_corner, context.theme)!!
+        private val padding = Rect()
+        val width: Float
+        val height: Float
+
+        init {
+            val attributionString = createAttributionString(mapSnapshot, shortText)
+            if (attributionString == "") {
+                Logger.w(
+                    TAG,
+                    "Attribution string is empty. Make sure you provide your own attribution for the used sources if needed."
                 )
-            )
-            return TextView(context)
+            }
+            text = fromHTML(attributionString).toString().trim()
+            paint.textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 10 * scale, context.resources.displayMetrics)
+            paint.color = ResourcesCompat.getColor(context.resources, R.color.maplibre_gray_dark, context.theme)
+            background.getPadding(padding)
+            if (text.isEmpty()) {
+                width = 0f
+                height = 0f
+            } else {
+                val metrics = paint.fontMetricsInt
+                width = ceil(paint.measureText(text)) + padding.left + padding.right
+                height = (metrics.bottom - metrics.top + padding.top + padding.bottom).toFloat()
+            }
+        }
+
+        fun draw(canvas: Canvas, anchor: PointF) {
+            if (text.isEmpty()) {
+                return
+            }
+            canvas.save()
+            canvas.translate(anchor.x, anchor.y)
+            background.setBounds(0, 0, width.toInt(), height.toInt())
+            background.draw(canvas)
+            canvas.drawText(text, padding.left.toFloat(), (padding.top - paint.fontMetricsInt.top).toFloat(), paint)
+            canvas.restore()
         }
-        textView.text = fromHTML(attributionString)
-        textView.measure(widthMeasureSpec, heightMeasureSpec)
-        textView.layout(0, 0, textView.measuredWidth, textView.measuredHeight)
-        return textView
     }
 
     /**
@@ -614,7 +677,17 @@ open class MapSnapshotter(context: Context, options: Options) {
      */
     @Keep
     protected fun onSnapshotReady(snapshot: MapSnapshot) {
-        Handler(Looper.getMainLooper()).post {
+        resultListener?.let {
+            resultListener = null
+            it.onSnapshotReady(snapshot)
+            return
+        }
+        val output = options.output
+        if (output != null) {
+            writeAsync(snapshot, output)
+            return
+        }
+        mainHandler.post {
             if (callback != null) {
                 addOverlay(snapshot)
                 callback!!.onSnapshotReady(snapshot)
@@ -623,6 +696,47 @@ open class MapSnapshotter(context: Context, options: Options) {
         }
     }
 
+    // Draws the overlay and writes the snapshot in the background, the result is dropped when cancelled meanwhile
+    private fun writeAsync(snapshot: MapSnapshot, output: SnapshotOutput) {
+        val callback = callback
+        if (callback == null) {
+            snapshot.bitmap.recycle()
+            return
+        }
+        val errorHandler = errorHandler
+        outputExecutor.execute {
+            var error: String? = null
+            try {
+                addOverlay(snapshot)
+                writeOutput(snapshot, output)
+            } catch (exception: Exception) {
+                error = exception.message ?: exception.toString()
+                snapshot.bitmap.recycle()
+            }
+            mainHandler.post {
+                if (this.callback === callback) {
+                    reset()
+                    if (error == null) {
+                        callback.onSnapshotReady(snapshot)
+                    } else {
+                        errorHandler?.onError(error)
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the snapshot, with the overlay drawn already, and recycles its bitmap.
+     */
+    internal fun writeOutput(snapshot: MapSnapshot, output: SnapshotOutput) {
+        try {
+            output.write(snapshot.bitmap)
+        } finally {
+            snapshot.bitmap.recycle()
+        }
+    }
+
     /**
      * Called by JNI peer when snapshot has failed.
      *
@@ -630,7 +744,12 @@ open class MapSnapshotter(context: Context, options: Options) {
      */
     @Keep
     protected fun onSnapshotFailed(reason: String) {
-        Handler(Looper.getMainLooper()).post {
+        resultListener?.let {
+            resultListener = null
+            it.onSnapshotFailed(reason)
+            return
+        }
+        mainHandler.post {
             if (errorHandler != null) {
                 errorHandler!!.onError(reason)
                 reset()
@@ -718,6 +837,7 @@ open class MapSnapshotter(context: Context, options: Options) {
     protected fun reset() {
         callback = null
         errorHandler = null
+        resultListener = null
     }
 
     @Keep
@@ -771,6 +891,13 @@ open class MapSnapshotter(context: Context, options: Options) {
     companion object {
         private const val TAG = "Mbgl-MapSnapshotter"
         private const val LOGO_MARGIN_DP = 4
+
+        private val mainHandler = Handler(Looper.getMainLooper())
+
+        // writes the snapshots of all snapshotters with an output, one at a time
+        private val outputExecutor: ExecutorService by lazy {
+            Executors.newSingleThreadExecutor { Thread(it, "MapSnapshotterOutput") }
+        }
     }
 }
 
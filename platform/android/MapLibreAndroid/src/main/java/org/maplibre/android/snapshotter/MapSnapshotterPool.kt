@@ -0,0 +1,250 @@
+package org.maplibre.android.snapshotter
+
+import android.content.Context
+import android.os.Handler
+import android.os.Looper
+import androidx.annotation.UiThread
+import org.maplibre.android.camera.CameraPosition
+import org.maplibre.android.geometry.LatLngBounds
+import org.maplibre.android.storage.FileSource
+import org.maplibre.android.utils.ThreadUtils
+import java.util.concurrent.Executor
+
+/**
+ * A pool of snapshotters sharing a style, for rendering many snapshots. Unlike a [MapSnapshotter] per snapshot,
+ * each snapshotter of the pool loads the style and its resources once and keeps them, and renders the queued jobs
+ * back to back: the next job starts as soon as a snapshot was rendered, while the previous one is delivered.
+ *
+ * Jobs can be submitted from any thread, the results are delivered on the executor. The pool itself must be
+ * created and released on the UI thread.
+ *
+ * @param context  the Context that is or contains the Application context
+ * @param options  the options of the style, logo, pixel ratio, the initial size of the snapshotters and the camera
+ * and region of the jobs without their own.
+ * The sources and layers of a style builder can only be added to one style, a pool of more than one snapshotter
+ * needs a style without them.
+ * @param size     the number of snapshotters rendering at the same time
+ * @param executor the executor the overlay is drawn and the results are delivered on
+ */
+@UiThread
+class MapSnapshotterPool(context: Context, options: MapSnapshotter.Options, size: Int, private val executor: Executor) {
+
+    private val handler = Handler(Looper.getMainLooper())
+    private val fileSource = FileSource.getInstance(context)
+    private val queue = ArrayDeque<QueuedJob>()
+    private val idle = ArrayDeque<MapSnapshotter>()
+    private val snapshotters: List<MapSnapshotter>
+    private var released = false
+
+    // the camera of the options, every job starts from it
+    private val cameraPosition = options.cameraPosition ?: CameraPosition.DEFAULT
+    private val region = options.region
+
+    /**
+     * A snapshot to render: its size and camera, and whether to draw the logo and attribution overlay. A job
+     * without a camera position or region shows the camera and region of the options of the pool.
+     *
+     * @param width  the width of the image
+     * @param height the height of the image
+     */
+    class Job(val width: Int, val height: Int) {
+        /**
+         * @return the camera position
+         */
+        var cameraPosition: CameraPosition? = null
+            private set
+
+        /**
+         * @return the region
+         */
+        var region: LatLngBounds? = null
+            private set
+
+        /**
+         * @return whether the logo and attribution overlay is drawn
+         */
+        var drawOverlay = true
+            private set
+
+        /**
+         * @return the output the snapshot is written to, null to deliver the bitmap only
+         */
+        var output: SnapshotOutput? = null
+            private set
+
+        init {
+            require(!(width == 0 || height == 0)) { "Unable to create a snapshot with width or height set to 0" }
+        }
+
+        /**
+         * @param cameraPosition The camera position to use, the [CameraPosition.target] is overridden
+         * by region if set in conjunction.
+         * @return the mutated [Job]
+         */
+        fun withCameraPosition(cameraPosition: CameraPosition?): Job {
+            this.cameraPosition = cameraPosition
+            return this
+        }
+
+        /**
+         * @param region the region to show in the snapshot. This is applied after the camera position
+         * @return the mutated [Job]
+         */
+        fun withRegion(region: LatLngBounds?): Job {
+            this.region = region
+            return this
+        }
+
+        /**
+         * @param drawOverlay false to skip drawing the logo and attribution, for images that show it elsewhere
+         * @return the mutated [Job]
+         */
+        fun withOverlay(drawOverlay: Boolean): Job {
+            this.drawOverlay = drawOverlay
+            return this
+        }
+
+        /**
+         * @param output the output the snapshot is written to on the executor, after the overlay. The bitmap of
+         * the snapshot is recycled once written.
+         * @return the mutated [Job]
+         */
+        fun withOutput(output: SnapshotOutput?): Job {
+            this.output = output
+            return this
+        }
+    }
+
+    private class QueuedJob(
+        val job: Job,
+        val callback: MapSnapshotter.SnapshotReadyCallback,
+        val errorHandler: MapSnapshotter.ErrorHandler?
+    )
+
+    init {
+        ThreadUtils.checkThread(TAG)
+        require(size > 0) { "A pool needs at least one snapshotter" }
+        val builder = options.builder
+        require(size == 1 || builder == null || (builder.sources.isEmpty() && builder.layers.isEmpty())) {
+            "The sources and layers of a style builder can't be shared by snapshotters"
+        }
+        // the style and its resources are loaded right away and kept loading between the jobs
+        fileSource.activate()
+        snapshotters = List(size) { MapSnapshotter(context, options) }
+        idle.addAll(snapshotters)
+    }
+
+    /**
+     * The number of jobs waiting for a snapshotter.
+     */
+    val queuedJobCount: Int
+        get() = synchronized(queue) { queue.size }
+
+    /**
+     * Queues a job, rendered by the next idle snapshotter. Can be called from any thread.
+     *
+     * @param job          the snapshot to render
+     * @param callback     the callback of the snapshot, invoked on the executor
+     * @param errorHandler the error handler, invoked on the executor
+     */
+    @JvmOverloads
+    fun submit(
+        job: Job,
+        callback: MapSnapshotter.SnapshotReadyCallback,
+        errorHandler: MapSnapshotter.ErrorHandler? = null
+    ) {
+        synchronized(queue) {
+            check(!released) { "The pool was released" }
+            queue.addLast(QueuedJob(job, callback, errorHandler))
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            dispatch()
+        } else {
+            handler.post { dispatch() }
+        }
+    }
+
+    /**
+     * Drops the queued jobs, the snapshots being rendered are still delivered. Can be called from any thread.
+     */
+    fun cancelQueuedJobs() {
+        synchronized(queue) {
+            queue.clear()
+        }
+    }
+
+    /**
+     * Drops the queued jobs and the snapshots being rendered, and releases the snapshotters.
+     */
+    fun release() {
+        ThreadUtils.checkThread(TAG)
+        synchronized(queue) {
+            if (released) {
+                return
+            }
+            released = true
+            queue.clear()
+        }
+        for (snapshotter in snapshotters) {
+            snapshotter.cancel()
+        }
+        idle.clear()
+        fileSource.deactivate()
+    }
+
+    private fun dispatch() {
+        while (idle.isNotEmpty()) {
+            val next = synchronized(queue) {
+                if (released) null else queue.removeFirstOrNull()
+            } ?: return
+            render(idle.removeFirst(), next)
+        }
+    }
+
+    private fun render(snapshotter: MapSnapshotter, queued: QueuedJob) {
+        val job = queued.job
+        snapshotter.setSize(job.width, job.height)
+        // the camera and region of the previous job stay on the snapshotter otherwise
+        snapshotter.setCameraPosition(job.cameraPosition ?: cameraPosition)
+        (if (job.cameraPosition != null) job.region else job.region ?: region)?.let { snapshotter.setRegion(it) }
+        snapshotter.render(object : MapSnapshotter.ResultListener {
+            override fun onSnapshotReady(snapshot: MapSnapshot) {
+                executor.execute {
+                    if (job.drawOverlay) {
+                        snapshotter.drawOverlay(snapshot)
+                    }
+                    val output = job.output
+                    if (output != null) {
+                        try {
+                            snapshotter.writeOutput(snapshot, output)
+                        } catch (exception: Exception) {
+                            queued.errorHandler?.onError(exception.message ?: exception.toString())
+                            return@execute
+                        }
+                    }
+                    queued.callback.onSnapshotReady(snapshot)
+                }
+                onIdle(snapshotter)
+            }
+
+            override fun onSnapshotFailed(error: String) {
+                queued.errorHandler?.let { executor.execute { it.onError(error) } }
+                onIdle(snapshotter)
+            }
+        })
+    }
+
+    // the next job starts once the snapshotter returned from its callback, the result is delivered meanwhile
+    private fun onIdle(snapshotter: MapSnapshotter) {
+        handler.post {
+            if (!released) {
+                idle.addLast(snapshotter)
+                dispatch()
+            }
+        }
+    }
+
+    companion object {
+        private const val TAG = "Mbgl-MapSnapshotterPool"
+    }
+}
@@ -0,0 +1,146 @@
+package org.maplibre.android.snapshotter
+
+import android.graphics.Bitmap
+import androidx.annotation.WorkerThread
+import java.io.FileDescriptor
+import java.io.FileOutputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+
+/**
+ * Where a snapshot is written: encoded, or as raw pixels, into a buffer or a file descriptor. The snapshot is
+ * written on a background thread, with the logo and attribution overlay, and its bitmap is recycled afterwards.
+ *
+ * Raw pixels are premultiplied RGBA, 4 bytes per pixel, row by row. Snapshots sharing an output are written one
+ * after the other.
+ *
+ * @see MapSnapshotter.Options.withOutput
+ * @see MapSnapshotterPool.Job.withOutput
+ */
+class SnapshotOutput private constructor(
+    private val format: Bitmap.CompressFormat?,
+    private val quality: Int,
+    private val buffer: ByteBuffer?,
+    private val fileDescriptor: FileDescriptor?
+) {
+    // reused by the snapshots written to the file descriptor as raw pixels
+    private var pixelBuffer: ByteBuffer? = null
+
+    /**
+     * Writes the bitmap, throws when it doesn't fit in the buffer or can't be written. The jobs of a pool can
+     * share the output and write on several threads, one after the other.
+     */
+    @Synchronized
+    @WorkerThread
+    internal fun write(bitmap: Bitmap) {
+        if (format == null) {
+            writePixels(bitmap)
+        } else {
+            val stream = buffer?.let { ByteBufferOutputStream(it) } ?: FileOutputStream(fileDescriptor)
+            // the file descriptor is the caller's, it's flushed but not closed
+            check(bitmap.compress(format, quality, stream)) { "The snapshot couldn't be encoded as $format" }
+            stream.flush()
+        }
+    }
+
+    private fun writePixels(bitmap: Bitmap) {
+        if (buffer != null) {
+            check(buffer.remaining() >= bitmap.byteCount) {
+                "The buffer is too small for ${bitmap.byteCount} bytes of pixels"
+            }
+            bitmap.copyPixelsToBuffer(buffer)
+        } else {
+            writePixels(bitmap, FileOutputStream(fileDescriptor).channel)
+        }
+    }
+
+    private fun writePixels(bitmap: Bitmap, channel: FileChannel) {
+        val pixels = obtainPixelBuffer(bitmap.byteCount)
+        bitmap.copyPixelsToBuffer(pixels)
+        pixels.flip()
+        // the file descriptor is the caller's, the channel isn't closed
+        while (pixels.hasRemaining()) {
+            channel.write(pixels)
+        }
+    }
+
+    // A direct buffer, which the channel writes without first copying it like a heap buffer
+    private fun obtainPixelBuffer(byteCount: Int): ByteBuffer {
+        var pixels = pixelBuffer
+        if (pixels == null || pixels.capacity() < byteCount) {
+            pixels = ByteBuffer.allocateDirect(byteCount)
+            pixelBuffer = pixels
+        }
+        pixels.clear()
+        pixels.limit(byteCount)
+        return pixels
+    }
+
+    // Writes from the position of the buffer, which is advanced by the bytes written
+    private class ByteBufferOutputStream(private val buffer: ByteBuffer) : OutputStream() {
+        override fun write(b: Int) {
+            check(buffer.hasRemaining()) { "The buffer is too small for the encoded snapshot" }
+            buffer.put(b.toByte())
+        }
+
+        override fun write(b: ByteArray, off: Int, len: Int) {
+            check(buffer.remaining() >= len) { "The buffer is too small for the encoded snapshot" }
+            buffer.put(b, off, len)
+        }
+    }
+
+    companion object {
+        /**
+         * Encodes the snapshot into the buffer, from its position. Once written, the position of the buffer is
+         * the end of the encoded image.
+         *
+         * @param format  the image format
+         * @param quality the quality, from 0 to 100, ignored by lossless formats
+         * @param buffer  the buffer, large enough for the encoded image
+         * @return the output
+         */
+        @JvmStatic
+        fun encoded(format: Bitmap.CompressFormat, quality: Int, buffer: ByteBuffer): SnapshotOutput {
+            require(quality in 0..100) { "The quality must be from 0 to 100" }
+            return SnapshotOutput(format, quality, buffer, null)
+        }
+
+        /**
+         * Encodes the snapshot into the file descriptor, which isn't closed.
+         *
+         * @param format         the image format
+         * @param quality        the quality, from 0 to 100, ignored by lossless formats
+         * @param fileDescriptor the file descriptor, open for writing
+         * @return the output
+         */
+        @JvmStatic
+        fun encoded(format: Bitmap.CompressFormat, quality: Int, fileDescriptor: FileDescriptor): SnapshotOutput {
+            require(quality in 0..100) { "The quality must be from 0 to 100" }
+            return SnapshotOutput(format, quality, null, fileDescriptor)
+        }
+
+        /**
+         * Copies the pixels of the snapshot into the buffer, from its position. Once written, the position of
+         * the buffer is the end of the pixels.
+         *
+         * @param buffer the buffer, with at least width * height * 4 bytes remaining
+         * @return the output
+         */
+        @JvmStatic
+        fun pixels(buffer: ByteBuffer): SnapshotOutput {
+            return SnapshotOutput(null, 100, buffer, null)
+        }
+
+        /**
+         * Writes the pixels of the snapshot into the file descriptor, which isn't closed.
+         *
+         * @param fileDescriptor the file descriptor, open for writing
+         * @return the output
+         */
+        @JvmStatic
+        fun pixels(fileDescriptor: FileDescriptor): SnapshotOutput {
+            return SnapshotOutput(null, 100, null, fileDescriptor)
+        }
+    }
+}
@@ -9,16 +9,19 @@ import org.maplibre.android.geometry.LatLngBounds
 import org.maplibre.android.geometry.LatLngBounds.Companion.from
 import org.maplibre.android.style.expressions.Expression
 import java.lang.ref.WeakReference
+import java.nio.ByteBuffer
 import java.util.Locale
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.LinkedBlockingDeque
 import java.util.concurrent.LinkedBlockingQueue
 import java.util.concurrent.ThreadFactory
 import java.util.concurrent.ThreadPoolExecutor
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
 import java.util.concurrent.locks.Lock
 import java.util.concurrent.locks.ReentrantLock
-import kotlin.collections.HashMap
 
 /**
  * Custom Vector Source, allows using FeatureCollections.
@@ -27,18 +30,31 @@ import kotlin.collections.HashMap
  * CustomGeometrySource uses a coalescing model for frequent data updates targeting the same tile id,
  * which means, that the in-progress request as well as the last scheduled request are guaranteed to finish.
  * Any requests scheduled meanwhile can be canceled.
+ *
+ *
+ * Optionally, the feature collections returned by the [GeometryTileProvider] are kept in a least recently used cache,
+ * see [CustomGeometrySourceOptions.withCacheSize], and the most recently requested tiles are fetched first,
+ * see [CustomGeometrySourceOptions.withLifoScheduling].
+ *
+ *
+ * Tiles are provided either as feature collections by a [GeometryTileProvider] or as encoded vector tiles
+ * by a [VectorTileProvider].
  */
-class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeometrySourceOptions?, private val provider: GeometryTileProvider?) : Source() {
+class CustomGeometrySource private constructor(
+    id: String?,
+    options: CustomGeometrySourceOptions?,
+    private val provider: GeometryTileProvider?,
+    private val vectorTileProvider: VectorTileProvider?
+) : Source() {
     private val executorLock: Lock = ReentrantLock()
     private var executor: ThreadPoolExecutor? = null
-    private val awaitingTasksMap: MutableMap<TileID, GeometryTileRequest> = HashMap()
+    private val lifoScheduling = options?.lifoScheduling ?: false
+    private val cache: GeometryTileCache? = options?.cacheSize?.takeIf { it > 0 }?.let { GeometryTileCache(it) }
 
     /**
-     * A map containing in-progress requests targeting distinct tiles.
-     * A request is considered in-progress when it's started by the ThreadPoolExecutor.
-     * A request is marked as done when the data is passed from the JNI layer to the core, after the features conversion.
+     * The requests of the tiles being fetched.
      */
-    private val inProgressTasksMap: MutableMap<TileID, AtomicBoolean?> = HashMap()
+    private val tileStates = ConcurrentHashMap<TileID, TileState>()
 
     /**
      * Create a CustomGeometrySource
@@ -55,7 +71,33 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
      *
      * @param id       The source id.
      * @param options  CustomGeometrySourceOptions.
+     * @param provider The tile provider that returns geometry data for this source.
      */
+    @UiThread
+    constructor(id: String?, options: CustomGeometrySourceOptions?, provider: GeometryTileProvider?) :
+        this(id, options, provider, null)
+
+    /**
+     * Create a CustomGeometrySource provided with encoded vector tiles.
+     *
+     * @param id       The source id.
+     * @param provider The tile provider that returns encoded vector tiles for this source.
+     */
+    @UiThread
+    constructor(id: String?, provider: VectorTileProvider) : this(id, CustomGeometrySourceOptions(), provider)
+
+    /**
+     * Create a CustomGeometrySource provided with encoded vector tiles, with non-default
+     * [CustomGeometrySourceOptions]. The wrap, clip, buffer and tolerance options don't apply to encoded tiles.
+     *
+     * @param id       The source id.
+     * @param options  CustomGeometrySourceOptions.
+     * @param provider The tile provider that returns encoded vector tiles for this source.
+     */
+    @UiThread
+    constructor(id: String?, options: CustomGeometrySourceOptions?, provider: VectorTileProvider) :
+        this(id, options, null, provider)
+
     init {
         initialize(id, options)
     }
@@ -63,30 +105,32 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
     /**
      * Invalidate previously provided features within a given bounds at all zoom levels.
      * Invoking this method will result in new requests to `GeometryTileProvider` for regions
-     * that contain, include, or intersect with the provided bounds.
+     * that contain, include, or intersect with the provided bounds. Cached features of these tiles are dropped.
      *
      * @param bounds The region in which features should be invalidated at all zoom levels
      */
     fun invalidateRegion(bounds: LatLngBounds) {
+        cache?.removeAll(bounds)
         nativeInvalidateBounds(bounds)
     }
 
     /**
      * Invalidate the geometry contents of a specific tile. Invoking this method will result
-     * in new requests to `GeometryTileProvider` for visible tiles.
+     * in new requests to `GeometryTileProvider` for visible tiles. Cached features of this tile are dropped.
      *
      * @param zoomLevel Tile zoom level.
      * @param x         Tile X coordinate.
      * @param y         Tile Y coordinate.
      */
     fun invalidateTile(zoomLevel: Int, x: Int, y: Int) {
+        cache?.remove(TileID(zoomLevel, x, y))
         nativeInvalidateTile(zoomLevel, x, y)
     }
 
     /**
      * Set or update geometry contents of a specific tile. Use this method to update tiles
      * for which `GeometryTileProvider` was previously invoked. This method can be called from
-     * background threads.
+     * background threads. The features replace the cached features of this tile, if any.
      *
      * @param zoomLevel Tile zoom level.
      * @param x         Tile X coordinate.
@@ -94,9 +138,29 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
      * @param data      Feature collection for the tile.
      */
     fun setTileData(zoomLevel: Int, x: Int, y: Int, data: FeatureCollection) {
+        cache?.put(TileID(zoomLevel, x, y), data)
         nativeSetTileData(zoomLevel, x, y, data)
     }
 
+    /**
+     * Set or update geometry contents of a specific tile from an encoded Mapbox Vector Tile, without building
+     * a [FeatureCollection]. This method can be called from background threads. The features replace the cached
+     * features of this tile, if any, the buffer is then kept and its content shouldn't be changed.
+     *
+     *
+     * The tile is read from the position to the limit of the buffer, the position isn't changed. A direct buffer is
+     * read without a copy on the Java side. Style layers without a source layer use the first layer of the tile.
+     *
+     * @param zoomLevel Tile zoom level.
+     * @param x         Tile X coordinate.
+     * @param y         Tile Y coordinate.
+     * @param data      Encoded vector tile.
+     */
+    fun setTileData(zoomLevel: Int, x: Int, y: Int, data: ByteBuffer) {
+        cache?.put(TileID(zoomLevel, x, y), data)
+        setVectorTileData(zoomLevel, x, y, data)
+    }
+
     /**
      * Queries the source for features.
      *
@@ -118,6 +182,9 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
     @Keep
     private external fun nativeSetTileData(z: Int, x: Int, y: Int, data: FeatureCollection)
 
+    @Keep
+    private external fun nativeSetVectorTileData(z: Int, x: Int, y: Int, buffer: ByteBuffer?, bytes: ByteArray?, offset: Int, length: Int)
+
     @Keep
     private external fun nativeInvalidateTile(z: Int, x: Int, y: Int)
 
@@ -128,44 +195,58 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
     @Throws(Throwable::class)
     protected external fun finalize()
 
-    private fun setTileData(tileId: TileID, data: FeatureCollection) {
-        nativeSetTileData(tileId.z, tileId.x, tileId.y, data)
+    private fun setTileData(tileId: TileID, data: Any) {
+        if (data is ByteBuffer) {
+            setVectorTileData(tileId.z, tileId.x, tileId.y, data)
+        } else {
+            nativeSetTileData(tileId.z, tileId.x, tileId.y, data as FeatureCollection)
+        }
+    }
+
+    private fun setVectorTileData(z: Int, x: Int, y: Int, data: ByteBuffer) {
+        if (data.isDirect) {
+            nativeSetVectorTileData(z, x, y, data, null, data.position(), data.remaining())
+        } else if (data.hasArray()) {
+            nativeSetVectorTileData(z, x, y, null, data.array(), data.arrayOffset() + data.position(), data.remaining())
+        } else {
+            val bytes = ByteArray(data.remaining())
+            data.duplicate().get(bytes)
+            nativeSetVectorTileData(z, x, y, null, bytes, 0, bytes.size)
+        }
     }
 
     /**
-     * Tile data request can come from a number of different threads.
-     * To remove race condition for requests targeting the same tile id we are first checking if there is a request
-     * already enqueued, if yes, we are replacing it.
-     * Otherwise, we are checking if there is an in-progress request, if yes,
-     * we are creating or replacing an awaiting request.
-     * If none of the above, we are enqueueing the request.
+     * Tile data requests can come from a number of different threads.
+     * The latest request replaces the pending request of the tile, if any, and at most one task per tile is scheduled
+     * on the executor, fetching the latest request when run. Requests are coalesced without locking.
      */
     @WorkerThread
     @Keep
     private fun fetchTile(z: Int, x: Int, y: Int) {
-        val cancelFlag = AtomicBoolean(false)
         val tileID = TileID(z, x, y)
-        val request = GeometryTileRequest(tileID, provider, awaitingTasksMap, inProgressTasksMap, this, cancelFlag)
-        synchronized(awaitingTasksMap) {
-            synchronized(inProgressTasksMap) {
-                if (executor!!.queue.contains(request)) {
-                    executor!!.remove(request)
-                    executeRequest(request)
-                } else if (inProgressTasksMap.containsKey(tileID)) {
-                    awaitingTasksMap.put(tileID, request)
-                } else {
-                    executeRequest(request)
-                }
-            }
+        var state = tileStates[tileID]
+        if (state == null) {
+            val newState = TileState(tileID)
+            state = tileStates.putIfAbsent(tileID, newState) ?: newState
         }
+        state.pending.set(AtomicBoolean(false))
+        scheduleTile(state)
     }
 
-    private fun executeRequest(request: GeometryTileRequest) {
+    private fun scheduleTile(state: TileState) {
+        if (state.scheduled.compareAndSet(false, true) && !executeRequest(GeometryTileRequest(state, provider, vectorTileProvider, cache, this))) {
+            state.scheduled.set(false)
+        }
+    }
+
+    private fun executeRequest(request: GeometryTileRequest): Boolean {
         executorLock.lock()
         try {
             if (executor != null && !executor!!.isShutdown) {
                 executor!!.execute(request)
+                return true
             }
+            return false
         } finally {
             executorLock.unlock()
         }
@@ -174,30 +255,16 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
     /**
      * We want to cancel only the oldest request, therefore, we are first checking if it's in progress,
      * if not or if the currently in progress request has already been canceled,
-     * we are searching for any request in the executor's queue.
-     * Otherwise, we are removing an awaiting request targeting this tile id.
-     *
-     *
-     * [GeometryTileRequest.equals] is overridden to cover only the tile id,
-     * therefore, we can use an empty request to search the executor's queue.
+     * we are dropping the pending request of this tile id.
      */
     @WorkerThread
     @Keep
     private fun cancelTile(z: Int, x: Int, y: Int) {
-        val tileID = TileID(z, x, y)
-        synchronized(awaitingTasksMap) {
-            synchronized(inProgressTasksMap) {
-                val cancelFlag = inProgressTasksMap[tileID]
-                // check if there is an in progress task
-                if (!(cancelFlag != null && cancelFlag.compareAndSet(false, true))) {
-                    // if there is no tasks in progress or the in progress task was already cancelled, check the executor's queue
-                    val emptyRequest = GeometryTileRequest(tileID, null, null, null, null, null)
-                    if (!executor!!.queue.remove(emptyRequest)) {
-                        // if there was no tasks in queue, remove from the awaiting map
-                        awaitingTasksMap.remove(tileID)
-                    }
-                }
-            }
+        val state = tileStates[TileID(z, x, y)] ?: return
+        val cancelFlag = state.inProgress
+        // check if there is an in progress task
+        if (!(cancelFlag != null && cancelFlag.compareAndSet(false, true))) {
+            state.pending.set(null)
         }
     }
 
@@ -208,12 +275,14 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
             if (executor != null && !executor!!.isShutdown) {
                 executor!!.shutdownNow()
             }
+            // tasks dropped by the previous executor left their tiles scheduled
+            tileStates.clear()
             ThreadPoolExecutor(
                 THREAD_POOL_LIMIT,
                 THREAD_POOL_LIMIT,
                 0L,
                 TimeUnit.MILLISECONDS,
-                LinkedBlockingQueue(),
+                if (lifoScheduling) LifoBlockingDeque() else LinkedBlockingQueue<Runnable>(),
                 object : ThreadFactory {
                     val threadCount = AtomicInteger()
                     val poolId = poolCount.getAndIncrement()
@@ -232,6 +301,7 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
         executorLock.lock()
         try {
             executor!!.shutdownNow()
+            tileStates.clear()
         } finally {
             executorLock.unlock()
         }
@@ -239,12 +309,12 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
 
     @Keep
     private fun isCancelled(z: Int, x: Int, y: Int): Boolean {
-        return inProgressTasksMap[TileID(z, x, y)]!!.get()
+        return tileStates[TileID(z, x, y)]?.inProgress?.get() ?: false
     }
 
     internal class TileID(var z: Int, var x: Int, var y: Int) {
         override fun hashCode(): Int {
-            return intArrayOf(z, x, y).contentHashCode()
+            return 31 * (31 * z + x) + y
         }
 
         override fun equals(other: Any?): Boolean {
@@ -261,81 +331,89 @@ class CustomGeometrySource @UiThread constructor(id: String?, options: CustomGeo
         }
     }
 
+    /**
+     * The requests of a tile, each one represented by its cancel flag.
+     */
+    internal class TileState(val id: TileID) {
+        /**
+         * The latest request not started yet, replaced by newer requests.
+         */
+        val pending = AtomicReference<AtomicBoolean?>()
+
+        /**
+         * Whether a task fetching the pending request is scheduled or running.
+         */
+        val scheduled = AtomicBoolean()
+
+        /**
+         * The request being fetched.
+         * A request is considered in-progress when it's started by the ThreadPoolExecutor.
+         * A request is marked as done when the data is passed from the JNI layer to the core, after the features conversion.
+         */
+        @Volatile
+        var inProgress: AtomicBoolean? = null
+    }
+
     internal class GeometryTileRequest(
-        private val id: TileID,
+        private val state: TileState,
         private val provider: GeometryTileProvider?,
-        private val awaiting: MutableMap<TileID, GeometryTileRequest>?,
-        private val inProgress: MutableMap<TileID, AtomicBoolean?>?,
-        _source: CustomGeometrySource?,
-        _cancelled: AtomicBoolean?
+        private val vectorTileProvider: VectorTileProvider?,
+        private val cache: GeometryTileCache?,
+        _source: CustomGeometrySource?
     ) : Runnable {
-        private val sourceRef: WeakReference<CustomGeometrySource?>
-        private val cancelled: AtomicBoolean?
-
-        init {
-            sourceRef = WeakReference(_source)
-            cancelled = _cancelled
-        }
+        private val sourceRef: WeakReference<CustomGeometrySource?> = WeakReference(_source)
 
         override fun run() {
-            synchronized(awaiting!!) {
-                synchronized(inProgress!!) {
-                    if (inProgress.containsKey(id)) {
-                        // request targeting this tile id is already being processed,
-                        // scenario that should occur only if the tile is being requested when
-                        // another request is switching threads to execute
-                        if (!awaiting.containsKey(id)) {
-                            awaiting[id] = this
-                        }
-                        return
-                    } else {
-                        inProgress.put(id, cancelled)
+            val id = state.id
+            val cancelFlag = state.pending.getAndSet(null)
+            if (cancelFlag != null) {
+                state.inProgress = cancelFlag
+                if (!cancelFlag.get()) {
+                    val data = cache?.get(id) ?: fetch(id)
+                    val source = sourceRef.get()
+                    if (!cancelFlag.get() && source != null) {
+                        source.setTileData(id, data)
                     }
                 }
+                state.inProgress = null
             }
-            if (!isCancelled()) {
-                val data = provider!!.getFeaturesForBounds(from(id.z, id.x, id.y), id.z)
-                val source = sourceRef.get()
-                if (!isCancelled() && source != null) {
-                    source.setTileData(id, data)
-                }
-            }
-            synchronized(awaiting) {
-                synchronized(inProgress!!) {
-                    inProgress.remove(id)
-
-                    // executing the next request targeting the same tile
-                    if (awaiting.containsKey(id)) {
-                        val queuedRequest = awaiting[id]
-                        val source = sourceRef.get()
-                        if (source != null && queuedRequest != null) {
-                            source.executor!!.execute(queuedRequest)
-                        }
-                        awaiting.remove(id)
-                    }
-                }
-            }
-        }
+            state.scheduled.set(false)
 
-        private fun isCancelled(): Boolean {
-            return cancelled!!.get()
+            val source = sourceRef.get() ?: return
+            if (state.pending.get() != null) {
+                // executing the request made while fetching
+                source.scheduleTile(state)
+            } else {
+                // a request racing with the removal may fetch the tile from a detached state, it's fetched twice at worst
+                source.tileStates.remove(id, state)
+            }
         }
 
-        override fun equals(other: Any?): Boolean {
-            if (this === other) {
-                return true
+        private fun fetch(id: TileID): Any {
+            val generation = cache?.generation() ?: 0
+            val data: Any = if (vectorTileProvider != null) {
+                vectorTileProvider.getTileData(id.z, id.x, id.y) ?: EMPTY_VECTOR_TILE
+            } else {
+                provider!!.getFeaturesForBounds(from(id.z, id.x, id.y), id.z)
             }
-            if (other == null || javaClass != other.javaClass) {
-                return false
-            }
-            val request = other as GeometryTileRequest
-            return id == request.id
+            cache?.put(id, data, generation)
+            return data
         }
     }
 
+    /**
+     * Runs the most recently scheduled tiles first, the ones of the current viewport.
+     */
+    internal class LifoBlockingDeque : LinkedBlockingDeque<Runnable>() {
+        override fun offer(e: Runnable): Boolean = offerFirst(e)
+    }
+
     companion object {
         const val THREAD_PREFIX = "CustomGeom"
         const val THREAD_POOL_LIMIT = 4
         private val poolCount = AtomicInteger()
+
+        // a vector tile without layers
+        private val EMPTY_VECTOR_TILE = ByteBuffer.allocateDirect(0)
     }
 }
@@ -71,4 +71,43 @@ class CustomGeometrySourceOptions : HashMap<String?, Any?>() {
         this["tolerance"] = tolerance
         return this
     }
+
+    /**
+     * Keep the feature collections returned by the [GeometryTileProvider] in a least recently used cache, so tiles
+     * shown again, for example when panning back, aren't requested from the provider again. Cached tiles are dropped
+     * by [CustomGeometrySource.invalidateTile] and [CustomGeometrySource.invalidateRegion].
+     *
+     * The size of a feature collection is estimated from its number of features, positions and properties.
+     *
+     * @param cacheSize the maximum estimated size of the cache in bytes - Defaults to 0, no cache.
+     * @return the current instance for chaining
+     */
+    fun withCacheSize(cacheSize: Long): CustomGeometrySourceOptions {
+        this[CACHE_SIZE] = cacheSize
+        return this
+    }
+
+    /**
+     * Fetch the most recently requested tiles first. The tiles of the current viewport are then fetched before the
+     * tiles still queued for a viewport the map has moved away from.
+     *
+     * @param lifoScheduling defaults to false, tiles are fetched in the order they are requested
+     * @return the current instance for chaining
+     */
+    fun withLifoScheduling(lifoScheduling: Boolean): CustomGeometrySourceOptions {
+        this[LIFO_SCHEDULING] = lifoScheduling
+        return this
+    }
+
+    internal val cacheSize: Long
+        get() = this[CACHE_SIZE] as Long? ?: 0L
+
+    internal val lifoScheduling: Boolean
+        get() = this[LIFO_SCHEDULING] as Boolean? ?: false
+
+    companion object {
+        // read by CustomGeometrySource, ignored by the core
+        private const val CACHE_SIZE = "cacheSize"
+        private const val LIFO_SCHEDULING = "lifoScheduling"
+    }
 }
@@ -0,0 +1,91 @@
+package org.maplibre.android.style.sources
+
+import org.maplibre.geojson.Feature
+
+/**
+ * Changes to the features of a [GeoJsonSource] matched by feature id, applied with [GeoJsonSource.updateGeoJson].
+ *
+ * Whatever the order they're made in, the features are removed first, then added, then updated.
+ */
+class GeoJsonDiff {
+    internal val addedFeatures = ArrayList<Feature>()
+    internal val updatedFeatures = ArrayList<Feature>()
+    internal val removedIds = ArrayList<String>()
+
+    /**
+     * Whether the diff doesn't change any feature.
+     */
+    val isEmpty: Boolean
+        get() = addedFeatures.isEmpty() && updatedFeatures.isEmpty() && removedIds.isEmpty()
+
+    /**
+     * Add a feature, replacing the feature with the same id.
+     *
+     * @param feature the feature, with an id
+     * @return the current instance for chaining
+     */
+    fun add(feature: Feature): GeoJsonDiff {
+        addedFeatures.add(requireId(feature))
+        return this
+    }
+
+    /**
+     * Add features, replacing the features with the same ids.
+     *
+     * @param features the features, with an id
+     * @return the current instance for chaining
+     */
+    fun add(features: Collection<Feature>): GeoJsonDiff {
+        features.forEach { add(it) }
+        return this
+    }
+
+    /**
+     * Replace the feature with the same id, the feature is ignored when the source has none.
+     *
+     * @param feature the feature, with an id
+     * @return the current instance for chaining
+     */
+    fun update(feature: Feature): GeoJsonDiff {
+        updatedFeatures.add(requireId(feature))
+        return this
+    }
+
+    /**
+     * Replace the features with the same ids, features the source doesn't have are ignored.
+     *
+     * @param features the features, with an id
+     * @return the current instance for chaining
+     */
+    fun update(features: Collection<Feature>): GeoJsonDiff {
+        features.forEach { update(it) }
+        return this
+    }
+
+    /**
+     * Remove the feature with the id.
+     *
+     * @param id the id of the feature
+     * @return the current instance for chaining
+     */
+    fun remove(id: String): GeoJsonDiff {
+        removedIds.add(id)
+        return this
+    }
+
+    /**
+     * Remove the features with the ids.
+     *
+     * @param ids the ids of the features
+     * @return the current instance for chaining
+     */
+    fun remove(ids: Collection<String>): GeoJsonDiff {
+        removedIds.addAll(ids)
+        return this
+    }
+
+    private fun requireId(feature: Feature): Feature {
+        requireNotNull(feature.id()) { "A feature of a diff needs an id" }
+        return feature
+    }
+}
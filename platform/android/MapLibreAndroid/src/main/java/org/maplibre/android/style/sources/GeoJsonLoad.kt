@@ -0,0 +1,148 @@
+package org.maplibre.android.style.sources
+
+import android.os.Handler
+import android.os.Looper
+import androidx.annotation.Keep
+import androidx.annotation.WorkerThread
+import java.io.InputStream
+
+/**
+ * GeoJson loaded into a [GeoJsonSource] with [GeoJsonSource.loadGeoJson]. The input is read and parsed chunk by
+ * chunk on a worker thread and the data of the source is replaced at once when it was parsed.
+ *
+ * A load is cancelled when the data of the source is set again before the load started. Data set while it's
+ * running waits for it, [GeoJsonSource.updateGeoJson] diffs made after it apply to the loaded data.
+ */
+class GeoJsonLoad internal constructor(
+    private val input: InputStream?,
+    private val callback: Callback?
+) {
+    private val handler = Handler(Looper.getMainLooper())
+
+    @Volatile
+    private var cancelled = false
+
+    @Volatile
+    private var readError: String? = null
+
+    @Volatile
+    private var closed = false
+
+    /**
+     * Whether the load finished: the data was set, or it failed or was cancelled.
+     */
+    @Volatile
+    var isFinished = false
+        private set
+
+    /**
+     * Cancels the load, the source keeps its data. Once the data was parsed, the load can't be cancelled.
+     */
+    fun cancel() {
+        cancelled = true
+    }
+
+    internal fun onDetached() {
+        onFinished(STATUS_CANCELLED, null)
+    }
+
+    @Keep
+    @WorkerThread
+    private fun isCancelled(): Boolean {
+        return cancelled
+    }
+
+    /**
+     * Reads the next bytes of the stream, -1 at the end or when it failed.
+     */
+    @Keep
+    @WorkerThread
+    private fun read(buffer: ByteArray): Int {
+        if (input == null || closed) {
+            return -1
+        }
+        return try {
+            var count: Int
+            do {
+                count = input.read(buffer)
+            } while (count == 0)
+            if (count < 0) {
+                close()
+            }
+            count
+        } catch (exception: Exception) {
+            readError = exception.message ?: exception.toString()
+            close()
+            -1
+        }
+    }
+
+    @Keep
+    @WorkerThread
+    private fun onProgress(bytesRead: Long, totalBytes: Long) {
+        callback?.let { handler.post { it.onProgress(bytesRead, totalBytes) } }
+    }
+
+    @Keep
+    private fun onFinished(status: Int, message: String?) {
+        close()
+        isFinished = true
+        val error = readError ?: message ?: ""
+        callback?.let {
+            handler.post {
+                when (status) {
+                    STATUS_LOADED -> it.onLoaded()
+                    STATUS_ERROR -> it.onError(error)
+                    else -> it.onCancelled()
+                }
+            }
+        }
+    }
+
+    @Synchronized
+    private fun close() {
+        if (!closed) {
+            closed = true
+            try {
+                input?.close()
+            } catch (ignore: Exception) {
+            }
+        }
+    }
+
+    /**
+     * Callback of a [GeoJsonLoad], invoked on the main thread.
+     */
+    interface Callback {
+        /**
+         * Invoked while the input is read.
+         *
+         * @param bytesRead  the bytes read so far
+         * @param totalBytes the size of the input, -1 when it isn't known
+         */
+        fun onProgress(bytesRead: Long, totalBytes: Long)
+
+        /**
+         * Invoked when the data of the source was replaced.
+         */
+        fun onLoaded()
+
+        /**
+         * Invoked when the input couldn't be read or isn't valid GeoJson, the source keeps its data.
+         *
+         * @param error the error message
+         */
+        fun onError(error: String)
+
+        /**
+         * Invoked when the load was cancelled, or replaced by a later update of the source.
+         */
+        fun onCancelled()
+    }
+
+    companion object {
+        private const val STATUS_LOADED = 0
+        private const val STATUS_ERROR = 1
+        private const val STATUS_CANCELLED = 2
+    }
+}
@@ -6,8 +6,11 @@ import org.maplibre.geojson.Feature
 import org.maplibre.geojson.FeatureCollection
 import org.maplibre.geojson.Geometry
 import org.maplibre.android.style.expressions.Expression
+import java.io.File
+import java.io.InputStream
 import java.net.URI
 import java.net.URL
+import java.nio.ByteBuffer
 import java.util.*
 
 /**
@@ -255,6 +258,34 @@ class GeoJsonSource : Source {
         nativeSetGeometry(geometry)
     }
 
+    /**
+     * Updates the GeoJson with a single point feature with typed properties. Unlike [setGeoJson] there's no
+     * [Feature] or JSON to convert, which makes it suitable for a feature updated every frame. The update is
+     * performed asynchronously, so the data won't be immediately visible or available to query when this method
+     * returns. The feature can be updated and set again right away.
+     *
+     * @param feature the point feature to set
+     */
+    fun setPointFeature(feature: PointFeature) {
+        if (detached) {
+            return
+        }
+        checkThread()
+        nativeSetPointFeature(
+            feature.longitude,
+            feature.latitude,
+            feature.numberKeys,
+            feature.numbers,
+            feature.stringKeys,
+            feature.strings,
+            feature.booleanKeys,
+            feature.booleans,
+            feature.numberArrayKeys,
+            feature.numberArrays,
+            feature.numberArraySize
+        )
+    }
+
     /**
      * Updates the GeoJson. The update is performed asynchronously,
      * so the data won't be immediately visible or available to query when this method returns.
@@ -289,6 +320,126 @@ class GeoJsonSource : Source {
         nativeSetGeoJsonString(json)
     }
 
+    /**
+     * Adds, updates and removes features by id. Unlike [setGeoJson], only the changed features are converted and
+     * only the tiles around them are loaded again, which suits large data with a few features changing often. The
+     * update is performed asynchronously, so the data won't be immediately visible or available to query when this
+     * method returns. Diffs aren't dropped when the source is updated faster than the data is converted, they're
+     * applied in order.
+     *
+     * A diff applies to the features of the diffs since the data was last set. The features of an empty source are
+     * the features of its diffs. To apply diffs to the features set with [setGeoJson], all of which need an id,
+     * call [setRetainFeatures] first. Features without an id, not retained, or loaded from a URL or with the style
+     * can't be updated, the diff is logged and ignored.
+     *
+     * @param diff the changed features
+     */
+    fun updateGeoJson(diff: GeoJsonDiff) {
+        if (detached) {
+            return
+        }
+        checkThread()
+        if (diff.isEmpty) {
+            return
+        }
+        nativeUpdateFeatures(
+            diff.addedFeatures.toTypedArray(),
+            diff.updatedFeatures.toTypedArray(),
+            diff.removedIds.toTypedArray()
+        )
+    }
+
+    /**
+     * Keeps the features set with [setGeoJson] from now on, so that [updateGeoJson] can apply diffs to them. The
+     * features are kept next to the tiled data until the first diff indexes them, which is why this is disabled
+     * by default. It's enabled by the first [updateGeoJson] too, the data set after a diff is kept.
+     *
+     * @param retain true to keep the features set with [setGeoJson]
+     */
+    fun setRetainFeatures(retain: Boolean) {
+        if (detached) {
+            return
+        }
+        checkThread()
+        nativeSetRetainFeatures(retain)
+    }
+
+    /**
+     * Loads the GeoJson from a stream. Unlike [setGeoJson], there's no String or [FeatureCollection] to build on
+     * the main thread: the stream is read and parsed chunk by chunk on a worker thread and the data of the source
+     * is replaced at once when it was parsed, which suits large data. The stream is read to its end and closed.
+     *
+     * @param input    the GeoJson, UTF-8 encoded
+     * @param callback the optional callback for progress and the outcome of the load
+     * @return the load, which can be cancelled
+     */
+    @JvmOverloads
+    fun loadGeoJson(input: InputStream, callback: GeoJsonLoad.Callback? = null): GeoJsonLoad {
+        val load = GeoJsonLoad(input, callback)
+        if (detached) {
+            load.onDetached()
+            return load
+        }
+        checkThread()
+        nativeLoadGeoJsonStream(load)
+        return load
+    }
+
+    /**
+     * Loads the GeoJson from a file, read and parsed chunk by chunk on a worker thread. The data of the source is
+     * replaced at once when it was parsed.
+     *
+     * @param file     the GeoJson file, UTF-8 encoded
+     * @param callback the optional callback for progress and the outcome of the load
+     * @return the load, which can be cancelled
+     */
+    @JvmOverloads
+    fun loadGeoJson(file: File, callback: GeoJsonLoad.Callback? = null): GeoJsonLoad {
+        val load = GeoJsonLoad(null, callback)
+        if (detached) {
+            load.onDetached()
+            return load
+        }
+        checkThread()
+        nativeLoadGeoJsonFile(load, file.absolutePath)
+        return load
+    }
+
+    /**
+     * Loads the GeoJson from the remaining bytes of a buffer, parsed on a worker thread. A direct buffer is read
+     * in place and must not be changed until the load finished. The data of the source is replaced at once when
+     * it was parsed.
+     *
+     * @param buffer   the GeoJson, UTF-8 encoded
+     * @param callback the optional callback for progress and the outcome of the load
+     * @return the load, which can be cancelled
+     */
+    @JvmOverloads
+    fun loadGeoJson(buffer: ByteBuffer, callback: GeoJsonLoad.Callback? = null): GeoJsonLoad {
+        val load = GeoJsonLoad(null, callback)
+        if (detached) {
+            load.onDetached()
+            return load
+        }
+        checkThread()
+        when {
+            buffer.isDirect -> nativeLoadGeoJsonBuffer(load, buffer, null, buffer.position(), buffer.remaining())
+            buffer.hasArray() -> nativeLoadGeoJsonBuffer(
+                load,
+                null,
+                buffer.array(),
+                buffer.arrayOffset() + buffer.position(),
+                buffer.remaining()
+            )
+            else -> {
+                // a read-only heap buffer doesn't expose its array
+                val copy = ByteBuffer.allocateDirect(buffer.remaining()).put(buffer.duplicate())
+                nativeLoadGeoJsonBuffer(load, copy, null, 0, copy.capacity())
+            }
+        }
+        return load
+    }
+
     /**
      * Updates the url
      *
@@ -480,6 +631,46 @@ class GeoJsonSource : Source {
     @Keep
     private external fun nativeSetGeometry(geometry: Geometry?)
 
+    @Keep
+    private external fun nativeSetPointFeature(
+        longitude: Double,
+        latitude: Double,
+        numberKeys: Array<String>,
+        numbers: DoubleArray,
+        stringKeys: Array<String>,
+        strings: Array<String?>,
+        booleanKeys: Array<String>,
+        booleans: BooleanArray,
+        numberArrayKeys: Array<String>,
+        numberArrays: DoubleArray,
+        numberArraySize: Int
+    )
+
+    @Keep
+    private external fun nativeSetRetainFeatures(retain: Boolean)
+
+    @Keep
+    private external fun nativeUpdateFeatures(
+        addedFeatures: Array<Feature>,
+        updatedFeatures: Array<Feature>,
+        removedIds: Array<String>
+    )
+
+    @Keep
+    private external fun nativeLoadGeoJsonStream(load: GeoJsonLoad)
+
+    @Keep
+    private external fun nativeLoadGeoJsonFile(load: GeoJsonLoad, path: String)
+
+    @Keep
+    private external fun nativeLoadGeoJsonBuffer(
+        load: GeoJsonLoad,
+        buffer: ByteBuffer?,
+        bytes: ByteArray?,
+        offset: Int,
+        length: Int
+    )
+
     @Keep
     private external fun querySourceFeatures(filter: Array<Any>?): Array<Feature>
 
@@ -0,0 +1,142 @@
+package org.maplibre.android.style.sources
+
+import org.maplibre.android.geometry.LatLngBounds
+import org.maplibre.android.style.sources.CustomGeometrySource.TileID
+import org.maplibre.geojson.CoordinateContainer
+import org.maplibre.geojson.FeatureCollection
+import org.maplibre.geojson.Geometry
+import org.maplibre.geojson.GeometryCollection
+import org.maplibre.geojson.Point
+import java.nio.ByteBuffer
+
+/**
+ * Least recently used cache of the tiles of a [CustomGeometrySource], feature collections or encoded vector tiles,
+ * bounded by an estimate of their size in bytes.
+ *
+ * Every invalidation starts a new generation, data read from the provider before an invalidation isn't cached
+ * when it's put afterwards.
+ *
+ * @param maxSize the maximum estimated size of the cached tiles in bytes
+ */
+internal class GeometryTileCache(private val maxSize: Long) {
+    private val entries = LinkedHashMap<TileID, Entry>(16, 0.75f, true)
+    private var size = 0L
+    private var generation = 0
+
+    @Synchronized
+    fun get(tileId: TileID): Any? = entries[tileId]?.data
+
+    @Synchronized
+    fun generation(): Int = generation
+
+    /**
+     * Caches the data of a tile, unless the cache was invalidated since the given generation.
+     */
+    @Synchronized
+    fun put(tileId: TileID, data: Any, generation: Int = this.generation) {
+        if (generation != this.generation) {
+            return
+        }
+        val entrySize = estimateSize(data)
+        entries.remove(tileId)?.let { size -= it.size }
+        if (entrySize > maxSize) {
+            return
+        }
+        entries[tileId] = Entry(data, entrySize)
+        size += entrySize
+        trimToSize()
+    }
+
+    @Synchronized
+    fun remove(tileId: TileID) {
+        generation++
+        entries.remove(tileId)?.let { size -= it.size }
+    }
+
+    /**
+     * Removes the tiles intersecting the bounds at all zoom levels.
+     */
+    @Synchronized
+    fun removeAll(bounds: LatLngBounds) {
+        generation++
+        val iterator = entries.entries.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            val tileId = entry.key
+            if (intersects(LatLngBounds.from(tileId.z, tileId.x, tileId.y), bounds)) {
+                size -= entry.value.size
+                iterator.remove()
+            }
+        }
+    }
+
+    @Synchronized
+    fun size(): Long = size
+
+    private fun trimToSize() {
+        val iterator = entries.values.iterator()
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().size
+            iterator.remove()
+        }
+    }
+
+    private class Entry(val data: Any, val size: Long)
+
+    companion object {
+        // estimates of the objects held by a feature collection on the heap
+        private const val FEATURE_COLLECTION_SIZE = 64L
+        private const val FEATURE_SIZE = 96L
+        private const val PROPERTY_SIZE = 64L
+        private const val BUFFER_SIZE = 64L
+
+        // a Point, its coordinate list and its boxed coordinates
+        private const val POSITION_SIZE = 96L
+
+        fun estimateSize(data: Any): Long = when (data) {
+            is ByteBuffer -> BUFFER_SIZE + data.remaining()
+            is FeatureCollection -> estimateSize(data)
+            else -> 0L
+        }
+
+        private fun estimateSize(data: FeatureCollection): Long {
+            var size = FEATURE_COLLECTION_SIZE
+            val features = data.features() ?: return size
+            for (feature in features) {
+                size += FEATURE_SIZE + estimateSize(feature.geometry())
+                feature.properties()?.let { size += it.size() * PROPERTY_SIZE }
+            }
+            return size
+        }
+
+        private fun estimateSize(geometry: Geometry?): Long = when (geometry) {
+            is Point -> POSITION_SIZE
+            is GeometryCollection -> geometry.geometries().sumOf { estimateSize(it) }
+            is CoordinateContainer<*> -> countPositions(geometry.coordinates()) * POSITION_SIZE
+            else -> 0L
+        }
+
+        private fun countPositions(coordinates: Any?): Long = when (coordinates) {
+            is Point -> 1L
+            is List<*> -> coordinates.sumOf { countPositions(it) }
+            else -> 0L
+        }
+
+        // the bounds may extend past the antimeridian, tile bounds don't
+        private fun intersects(tile: LatLngBounds, bounds: LatLngBounds): Boolean {
+            if (tile.latitudeSouth > bounds.latitudeNorth || tile.latitudeNorth < bounds.latitudeSouth) {
+                return false
+            }
+            var offset = -360.0
+            while (offset <= 360.0) {
+                if (tile.longitudeWest <= bounds.longitudeEast + offset &&
+                    tile.longitudeEast >= bounds.longitudeWest + offset
+                ) {
+                    return true
+                }
+                offset += 360.0
+            }
+            return false
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.maplibre.android.style.sources
+
+/**
+ * A single point feature with a fixed set of typed properties, set on a [GeoJsonSource] with
+ * [GeoJsonSource.setPointFeature].
+ *
+ * Unlike a [org.maplibre.geojson.Feature], properties aren't held as JSON. The coordinate and the values are kept
+ * in primitive arrays that native reads as they are, so updating the feature and setting it on the source doesn't
+ * allocate. This suits a feature updated every frame, like the location component puck.
+ *
+ * A string property set to null is left out of the feature.
+ *
+ * @param numberKeys the keys of the number properties
+ * @param stringKeys the keys of the string properties
+ * @param booleanKeys the keys of the boolean properties
+ * @param numberArrayKeys the keys of the properties holding an array of numbers, like an icon offset
+ * @param numberArraySize the number of values of every number array property
+ */
+class PointFeature @JvmOverloads constructor(
+    internal val numberKeys: Array<String>,
+    internal val stringKeys: Array<String> = emptyArray(),
+    internal val booleanKeys: Array<String> = emptyArray(),
+    internal val numberArrayKeys: Array<String> = emptyArray(),
+    internal val numberArraySize: Int = 2
+) {
+    internal val numbers = DoubleArray(numberKeys.size)
+    internal val strings = arrayOfNulls<String>(stringKeys.size)
+    internal val booleans = BooleanArray(booleanKeys.size)
+    internal val numberArrays = DoubleArray(numberArrayKeys.size * numberArraySize)
+
+    /**
+     * The longitude of the point.
+     */
+    var longitude = 0.0
+
+    /**
+     * The latitude of the point.
+     */
+    var latitude = 0.0
+
+    init {
+        require(numberArraySize >= 0) { "numberArraySize < 0: $numberArraySize" }
+    }
+
+    /**
+     * Set the coordinate of the point.
+     *
+     * @param longitude the longitude
+     * @param latitude the latitude
+     */
+    fun setCoordinate(longitude: Double, latitude: Double) {
+        this.longitude = longitude
+        this.latitude = latitude
+    }
+
+    /**
+     * Set the value of a number property.
+     */
+    fun setNumber(key: String, value: Double) {
+        numbers[indexOf(numberKeys, key)] = value
+    }
+
+    fun getNumber(key: String): Double = numbers[indexOf(numberKeys, key)]
+
+    /**
+     * Set the value of a string property, null leaves the property out of the feature.
+     */
+    fun setString(key: String, value: String?) {
+        strings[indexOf(stringKeys, key)] = value
+    }
+
+    fun getString(key: String): String? = strings[indexOf(stringKeys, key)]
+
+    /**
+     * Set the value of a boolean property.
+     */
+    fun setBoolean(key: String, value: Boolean) {
+        booleans[indexOf(booleanKeys, key)] = value
+    }
+
+    fun getBoolean(key: String): Boolean = booleans[indexOf(booleanKeys, key)]
+
+    /**
+     * Set a value of a number array property.
+     *
+     * @param key the key of the property
+     * @param index the index of the value in the array, less than the number array size
+     * @param value the value
+     */
+    fun setNumberArrayValue(key: String, index: Int, value: Double) {
+        numberArrays[arrayIndex(key, index)] = value
+    }
+
+    fun getNumberArrayValue(key: String, index: Int): Double = numberArrays[arrayIndex(key, index)]
+
+    private fun arrayIndex(key: String, index: Int): Int {
+        if (index < 0 || index >= numberArraySize) {
+            throw IndexOutOfBoundsException("index $index, size $numberArraySize")
+        }
+        return indexOf(numberArrayKeys, key) * numberArraySize + index
+    }
+
+    private fun indexOf(keys: Array<String>, key: String): Int {
+        // keys are usually constants, compared by identity first
+        for (i in keys.indices) {
+            if (keys[i] === key) {
+                return i
+            }
+        }
+        for (i in keys.indices) {
+            if (keys[i] == key) {
+                return i
+            }
+        }
+        throw IllegalArgumentException("Unknown property $key")
+    }
+}
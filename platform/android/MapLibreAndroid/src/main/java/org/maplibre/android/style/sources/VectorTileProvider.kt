@@ -0,0 +1,25 @@
+package org.maplibre.android.style.sources
+
+import androidx.annotation.WorkerThread
+import java.nio.ByteBuffer
+
+/**
+ * Interface that defines methods for providing encoded vector tiles to a [CustomGeometrySource].
+ *
+ * Unlike a [GeometryTileProvider], the tile is returned as an encoded Mapbox Vector Tile and read by native as it is,
+ * without building a [org.maplibre.geojson.FeatureCollection] and converting it feature by feature. This suits
+ * providers already holding tile-shaped data, like a MBTiles reader or a server returning vector tiles.
+ */
+interface VectorTileProvider {
+    /**
+     * Interface method called by [CustomGeometrySource] to request the encoded vector tile of a tile.
+     *
+     * @param zoomLevel Tile zoom level.
+     * @param x         Tile X coordinate.
+     * @param y         Tile Y coordinate.
+     * @return The encoded tile from the position to the limit of the buffer, a direct buffer is read without
+     * a copy on the Java side. Return null for an empty tile.
+     */
+    @WorkerThread
+    fun getTileData(zoomLevel: Int, x: Int, y: Int): ByteBuffer?
+}
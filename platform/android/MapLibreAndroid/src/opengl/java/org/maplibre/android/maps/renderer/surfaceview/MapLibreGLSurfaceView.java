@@ -381,8 +381,8 @@ public class MapLibreGLSurfaceView extends MapLibreSurfaceView {
                 return;
               }
 
-              if (!eventQueue.isEmpty()) {
-                event = eventQueue.remove(0);
+              event = eventQueue.poll();
+              if (event != null) {
                 break;
               }
 
@@ -507,7 +507,7 @@ public class MapLibreGLSurfaceView extends MapLibreSurfaceView {
                 }
               }
               // By design, this is the only place in a GLThread thread where we wait().
-              renderThreadManager.wait();
+              eventQueue.await();
             }
           } // end of synchronized(sGLThreadManager)
 
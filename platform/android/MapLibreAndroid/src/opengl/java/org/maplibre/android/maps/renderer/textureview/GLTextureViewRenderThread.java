@@ -65,8 +65,8 @@ public class GLTextureViewRenderThread extends TextureViewRenderThread {
             }
 
             // If any events are scheduled, pop one for processing
-            if (!eventQueue.isEmpty()) {
-              event = eventQueue.remove(0);
+            event = eventQueue.poll();
+            if (event != null) {
               break;
             }
 
@@ -113,7 +113,7 @@ public class GLTextureViewRenderThread extends TextureViewRenderThread {
 
 
             // Wait until needed
-            lock.wait();
+            eventQueue.await();
 
           } // end guarded while loop
 
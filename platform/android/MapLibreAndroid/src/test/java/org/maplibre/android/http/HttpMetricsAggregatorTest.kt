@@ -0,0 +1,78 @@
+package org.maplibre.android.http
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.shadows.ShadowSystemClock
+import java.time.Duration
+
+@RunWith(RobolectricTestRunner::class)
+class HttpMetricsAggregatorTest {
+
+    private val aggregator = HttpMetricsAggregator(1_000, 3)
+
+    @Test
+    fun aggregatePerHostAndKind() {
+        aggregator.onRequestFinished(metrics("a.example.com", HttpRequestMetrics.KIND_TILE, totalMillis = 10, bytes = 1000))
+        aggregator.onRequestFinished(metrics("a.example.com", HttpRequestMetrics.KIND_TILE, totalMillis = 300, responseCode = 304))
+        aggregator.onRequestFinished(metrics("b.example.com", HttpRequestMetrics.KIND_STYLE, totalMillis = 50, failed = true))
+
+        val host = aggregator.getHostHistogram("a.example.com")!!
+        assertEquals(2, host.count)
+        assertEquals(1, host.notModifiedCount)
+        assertEquals(1000, host.bytes)
+        assertEquals(16, host.getTotalMillis(0.5))
+        assertEquals(512, host.getTotalMillis(0.99))
+
+        assertEquals(2, aggregator.getKindHistogram(HttpRequestMetrics.KIND_TILE).count)
+        assertEquals(1, aggregator.getKindHistogram(HttpRequestMetrics.KIND_STYLE).failureCount)
+        assertEquals(0, aggregator.getKindHistogram(HttpRequestMetrics.KIND_GLYPH).count)
+        assertEquals(setOf("a.example.com", "b.example.com"), aggregator.hosts.toSet())
+        assertNull(aggregator.getHostHistogram("c.example.com"))
+    }
+
+    @Test
+    fun dropSamplesOutsideRollingPeriod() {
+        aggregator.onRequestFinished(metrics("a.example.com", HttpRequestMetrics.KIND_TILE))
+        ShadowSystemClock.advanceBy(Duration.ofMillis(2_000))
+        aggregator.onRequestFinished(metrics("a.example.com", HttpRequestMetrics.KIND_TILE))
+        assertEquals(2, aggregator.getHostHistogram("a.example.com")!!.count)
+
+        ShadowSystemClock.advanceBy(Duration.ofMillis(1_000))
+        assertEquals(1, aggregator.getHostHistogram("a.example.com")!!.count)
+
+        ShadowSystemClock.advanceBy(Duration.ofMillis(5_000))
+        assertEquals(0, aggregator.getKindHistogram(HttpRequestMetrics.KIND_TILE).count)
+    }
+
+    @Test
+    fun queueTimeApartFromTotal() {
+        aggregator.onRequestFinished(metrics("a.example.com", HttpRequestMetrics.KIND_TILE, totalMillis = 10, queueMillis = 300))
+
+        val tiles = aggregator.getKindHistogram(HttpRequestMetrics.KIND_TILE)
+        assertEquals(512, tiles.getQueueMillis(0.5))
+        assertEquals(16, tiles.getTotalMillis(0.5))
+    }
+
+    @Test
+    fun throughput() {
+        aggregator.onRequestFinished(metrics("a.example.com", HttpRequestMetrics.KIND_TILE, bytes = 500_000, transferMillis = 500))
+        assertEquals(1_000_000.0, aggregator.getKindHistogram(HttpRequestMetrics.KIND_TILE).bytesPerSecond, 1.0)
+    }
+
+    private fun metrics(
+        host: String,
+        kind: Int,
+        totalMillis: Long = 20,
+        transferMillis: Long = 5,
+        bytes: Long = 0,
+        responseCode: Int = 200,
+        failed: Boolean = false,
+        queueMillis: Long = 0
+    ) = HttpRequestMetrics(
+        "https://$host/", host, kind, "h2", responseCode, failed, false, queueMillis * 1_000_000, -1, -1, -1,
+        totalMillis * 500_000, transferMillis * 1_000_000, totalMillis * 1_000_000, bytes
+    )
+}
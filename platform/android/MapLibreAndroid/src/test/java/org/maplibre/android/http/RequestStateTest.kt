@@ -0,0 +1,110 @@
+package org.maplibre.android.http
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CyclicBarrier
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+class RequestStateTest {
+
+    @Test
+    fun deliverThenCancel() {
+        val state = RequestState()
+        assertTrue(state.beginDelivery())
+        assertFalse(state.endDelivery())
+        assertEquals(RequestState.DONE, state.get())
+        assertTrue(state.cancel())
+    }
+
+    @Test
+    fun cancelThenDeliver() {
+        val state = RequestState()
+        assertTrue(state.cancel())
+        assertFalse(state.beginDelivery())
+    }
+
+    @Test
+    fun cancelWhileDelivering() {
+        val state = RequestState()
+        assertTrue(state.beginDelivery())
+        assertFalse("Peer is released by the delivering thread", state.cancel())
+        assertTrue(state.endDelivery())
+    }
+
+    @Test
+    fun onlyFirstDeliveryIsForwarded() {
+        val state = RequestState()
+        assertTrue(state.beginDelivery())
+        assertFalse(state.beginDelivery())
+        assertFalse(state.endDelivery())
+        assertFalse(state.beginDelivery())
+    }
+
+    @Test
+    fun raceDeliveriesAgainstCancels() {
+        val iterations = 5_000
+        val peers = Array(iterations) { FakePeer() }
+        val states = Array(iterations) { RequestState() }
+        val barrier = CyclicBarrier(3)
+        val failures = AtomicInteger()
+
+        fun deliverer() = Thread {
+            for (i in 0 until iterations) {
+                barrier.await()
+                val state = states[i]
+                if (state.beginDelivery()) {
+                    peers[i].enterNative(failures)
+                    if (state.endDelivery()) {
+                        peers[i].release(failures)
+                    }
+                }
+            }
+        }
+
+        val canceller = Thread {
+            for (i in 0 until iterations) {
+                barrier.await()
+                if (states[i].cancel()) {
+                    peers[i].release(failures)
+                }
+            }
+        }
+
+        val threads = listOf(deliverer(), deliverer(), canceller)
+        threads.forEach { it.start() }
+        threads.forEach { it.join(60_000) }
+
+        assertEquals("Peer used after release or released while in use", 0, failures.get())
+        peers.forEachIndexed { index, peer ->
+            assertEquals("Peer $index must be released exactly once", 1, peer.releases.get())
+            assertTrue("Peer $index delivered more than once", peer.deliveries.get() <= 1)
+        }
+        assertEquals(0, states.count { it.get() != RequestState.CANCELLED })
+    }
+
+    private class FakePeer {
+        val releases = AtomicInteger()
+        val deliveries = AtomicInteger()
+        private val inNative = AtomicBoolean()
+
+        fun enterNative(failures: AtomicInteger) {
+            inNative.set(true)
+            if (releases.get() != 0) {
+                failures.incrementAndGet()
+            }
+            deliveries.incrementAndGet()
+            Thread.yield()
+            inNative.set(false)
+        }
+
+        fun release(failures: AtomicInteger) {
+            if (inNative.get()) {
+                failures.incrementAndGet()
+            }
+            releases.incrementAndGet()
+        }
+    }
+}
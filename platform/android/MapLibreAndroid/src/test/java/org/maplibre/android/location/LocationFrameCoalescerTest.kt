@@ -0,0 +1,144 @@
+package org.maplibre.android.location
+
+import android.view.Choreographer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.maplibre.android.camera.CameraUpdate
+import org.maplibre.android.camera.CameraUpdateFactory.CameraPositionUpdate
+import org.maplibre.android.gestures.AndroidGesturesManager
+import org.maplibre.android.gestures.MoveGestureDetector
+import org.maplibre.android.geometry.LatLng
+import org.maplibre.android.location.modes.CameraMode
+import org.maplibre.android.maps.MapLibreMap
+import org.maplibre.android.maps.MapLibreMap.CancelableCallback
+import org.maplibre.android.maps.Transform
+import org.maplibre.android.maps.UiSettings
+import org.mockito.ArgumentCaptor
+import org.mockito.ArgumentMatchers
+import org.mockito.Mockito
+
+class LocationFrameCoalescerTest {
+
+    private val choreographer = Mockito.mock(Choreographer::class.java)
+    private val coalescer = LocationFrameCoalescer(choreographer)
+
+    @Test
+    fun requestFrame_postsOneCallbackPerFrame() {
+        val target = Mockito.mock(LocationFrameCoalescer.Target::class.java)
+
+        coalescer.requestFrame(target)
+        coalescer.requestFrame(target)
+        coalescer.requestFrame(Mockito.mock(LocationFrameCoalescer.Target::class.java))
+
+        Mockito.verify(choreographer).postFrameCallback(coalescer)
+        Mockito.verify(target, Mockito.never()).applyFrame()
+    }
+
+    @Test
+    fun doFrame_appliesTargetsOnce() {
+        val target = Mockito.mock(LocationFrameCoalescer.Target::class.java)
+        val otherTarget = Mockito.mock(LocationFrameCoalescer.Target::class.java)
+        coalescer.requestFrame(target)
+        coalescer.requestFrame(otherTarget)
+        coalescer.requestFrame(target)
+
+        coalescer.doFrame(0)
+        coalescer.doFrame(0)
+
+        Mockito.verify(target).applyFrame()
+        Mockito.verify(otherTarget).applyFrame()
+    }
+
+    @Test
+    fun doFrame_requestWhileAppliedKeptForNextFrame() {
+        var applied = 0
+        val target = object : LocationFrameCoalescer.Target {
+            override fun applyFrame() {
+                if (++applied == 1) {
+                    coalescer.requestFrame(this)
+                }
+            }
+        }
+        coalescer.requestFrame(target)
+
+        coalescer.doFrame(0)
+        assertEquals(1, applied)
+        Mockito.verify(choreographer, Mockito.times(2)).postFrameCallback(coalescer)
+
+        coalescer.doFrame(0)
+        assertEquals(2, applied)
+    }
+
+    @Test
+    fun cancel_dropsPendingTargets() {
+        val target = Mockito.mock(LocationFrameCoalescer.Target::class.java)
+        coalescer.requestFrame(target)
+
+        coalescer.cancel()
+        coalescer.doFrame(0)
+
+        Mockito.verify(choreographer).removeFrameCallback(coalescer)
+        Mockito.verify(target, Mockito.never()).applyFrame()
+    }
+
+    @Test
+    fun cameraValuesOfAFrame_movesCameraOnce() {
+        val transform = Mockito.mock(Transform::class.java)
+        val camera = buildCamera(transform)
+        camera.initializeOptions(Mockito.mock(LocationComponentOptions::class.java))
+        camera.cameraMode = CameraMode.TRACKING_COMPASS
+        camera.setFrameCoalescer(coalescer)
+        val latLng = LatLng(10.0, 20.0)
+
+        val listeners = camera.animationListeners
+        getAnimationListener(MapLibreAnimator.ANIMATOR_CAMERA_LATLNG, listeners).onNewAnimationValue(latLng)
+        getAnimationListener(MapLibreAnimator.ANIMATOR_ZOOM, listeners).onNewAnimationValue(15f)
+        // a compass firing several times a frame
+        for (bearing in 1..5) {
+            getAnimationListener(MapLibreAnimator.ANIMATOR_CAMERA_COMPASS_BEARING, listeners)
+                .onNewAnimationValue(bearing.toFloat())
+        }
+        Mockito.verify(transform, Mockito.never()).moveCamera(
+            ArgumentMatchers.any(MapLibreMap::class.java),
+            ArgumentMatchers.any(CameraUpdate::class.java),
+            ArgumentMatchers.nullable(CancelableCallback::class.java)
+        )
+
+        coalescer.doFrame(0)
+
+        val update = ArgumentCaptor.forClass(CameraUpdate::class.java)
+        Mockito.verify(transform).moveCamera(
+            ArgumentMatchers.any(MapLibreMap::class.java),
+            update.capture(),
+            ArgumentMatchers.nullable(CancelableCallback::class.java)
+        )
+        val position = update.value as CameraPositionUpdate
+        assertEquals(latLng, position.target)
+        assertEquals(15.0, position.zoom, 0.0)
+        assertEquals(5.0, position.bearing, 0.0)
+        assertEquals(-1.0, position.tilt, 0.0)
+        assertNull(position.padding)
+    }
+
+    private fun buildCamera(transform: Transform): LocationCameraController {
+        val maplibreMap = Mockito.mock(MapLibreMap::class.java)
+        Mockito.`when`(maplibreMap.uiSettings).thenReturn(Mockito.mock(UiSettings::class.java))
+        return LocationCameraController(
+            maplibreMap,
+            transform,
+            Mockito.mock(MoveGestureDetector::class.java),
+            Mockito.mock(OnCameraTrackingChangedListener::class.java),
+            Mockito.mock(OnCameraMoveInvalidateListener::class.java),
+            Mockito.mock(AndroidGesturesManager::class.java),
+            Mockito.mock(AndroidGesturesManager::class.java)
+        )
+    }
+
+    private fun getAnimationListener(
+        @MapLibreAnimator.Type animatorType: Int,
+        holders: Set<AnimatorListenerHolder>
+    ): MapLibreAnimator.AnimationsValueChangeListener<Any> {
+        return holders.first { it.animatorType == animatorType }.listener
+    }
+}
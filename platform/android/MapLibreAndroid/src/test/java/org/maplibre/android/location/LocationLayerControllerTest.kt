@@ -1,7 +1,6 @@
 package org.maplibre.android.location
 
 import android.graphics.Bitmap
-import com.google.gson.JsonElement
 import org.maplibre.geojson.Feature
 import org.maplibre.android.geometry.LatLng
 import org.maplibre.android.location.MapLibreAnimator.AnimationsValueChangeListener
@@ -10,9 +9,11 @@ import org.maplibre.android.maps.MapLibreMap
 import org.maplibre.android.maps.Style
 import org.maplibre.android.style.layers.Layer
 import org.maplibre.android.style.sources.GeoJsonSource
+import org.maplibre.android.style.sources.PointFeature
 import org.junit.Assert
 import org.junit.Before
 import org.junit.Test
+import org.mockito.ArgumentCaptor
 import org.mockito.ArgumentMatchers
 import org.mockito.Mockito
 
@@ -908,11 +909,13 @@ class LocationLayerControllerTest {
             false
         )
         layer.cameraTiltUpdated(2.0)
-        Mockito.verify(locationFeature).addProperty(
-            ArgumentMatchers.eq(LocationComponentConstants.PROPERTY_FOREGROUND_ICON_OFFSET),
-            ArgumentMatchers.any(
-                JsonElement::class.java
-            )
+        Assert.assertEquals(
+            -0.1,
+            getPuckFeature(locationSource).getNumberArrayValue(
+                LocationComponentConstants.PROPERTY_FOREGROUND_ICON_OFFSET,
+                1
+            ),
+            1e-6
         )
     }
 
@@ -950,11 +953,13 @@ class LocationLayerControllerTest {
             false
         )
         layer.cameraTiltUpdated(2.0)
-        Mockito.verify(locationFeature).addProperty(
-            ArgumentMatchers.eq(LocationComponentConstants.PROPERTY_SHADOW_ICON_OFFSET),
-            ArgumentMatchers.any(
-                JsonElement::class.java
-            )
+        Assert.assertEquals(
+            0.1,
+            getPuckFeature(locationSource).getNumberArrayValue(
+                LocationComponentConstants.PROPERTY_SHADOW_ICON_OFFSET,
+                1
+            ),
+            1e-6
         )
     }
 
@@ -997,10 +1002,13 @@ class LocationLayerControllerTest {
         getAnimationListener<Any>(
             MapLibreAnimator.ANIMATOR_LAYER_LATLNG,
             layer.animationListeners
-        )!!.onNewAnimationValue(LatLng())
+        )!!.onNewAnimationValue(LatLng(1.0, 2.0))
 
-        // wanted twice (once for initialization)
-        Mockito.verify(locationSource, Mockito.times(2)).setGeoJson(locationFeature)
+        // wanted at least twice (once for initialization)
+        val puckFeature = getPuckFeature(locationSource, Mockito.atLeast(2))
+        Assert.assertEquals(1.0, puckFeature.latitude, 0.0)
+        Assert.assertEquals(2.0, puckFeature.longitude, 0.0)
+        Mockito.verify(locationSource, Mockito.never()).setGeoJson(locationFeature)
     }
 
     @Test
@@ -1044,8 +1052,11 @@ class LocationLayerControllerTest {
             MapLibreAnimator.ANIMATOR_LAYER_GPS_BEARING,
             layer.animationListeners
         )!!.onNewAnimationValue(gpsBearing)
-        Mockito.verify(locationFeature)
-            .addNumberProperty(LocationComponentConstants.PROPERTY_GPS_BEARING, gpsBearing)
+        Assert.assertEquals(
+            2.0,
+            getPuckFeature(locationSource).getNumber(LocationComponentConstants.PROPERTY_GPS_BEARING),
+            0.0
+        )
     }
 
     @Test
@@ -1091,8 +1102,11 @@ class LocationLayerControllerTest {
                 layer.animationListeners
             )
         )
-        Mockito.verify(locationFeature, Mockito.times(0))
-            .addNumberProperty(LocationComponentConstants.PROPERTY_GPS_BEARING, gpsBearing)
+        Assert.assertNotEquals(
+            gpsBearing.toDouble(),
+            getPuckFeature(locationSource).getNumber(LocationComponentConstants.PROPERTY_GPS_BEARING),
+            0.0
+        )
     }
 
     @Test
@@ -1137,8 +1151,11 @@ class LocationLayerControllerTest {
             layer.animationListeners
         )
             ?.onNewAnimationValue(compassBearing)
-        Mockito.verify(locationFeature)
-            .addNumberProperty(LocationComponentConstants.PROPERTY_COMPASS_BEARING, compassBearing)
+        Assert.assertEquals(
+            2.0,
+            getPuckFeature(locationSource).getNumber(LocationComponentConstants.PROPERTY_COMPASS_BEARING),
+            0.0
+        )
     }
 
     @Test
@@ -1184,8 +1201,11 @@ class LocationLayerControllerTest {
                 layer.animationListeners
             )
         )
-        Mockito.verify(locationFeature, Mockito.times(0))
-            .addNumberProperty(LocationComponentConstants.PROPERTY_COMPASS_BEARING, compassBearing)
+        Assert.assertNotEquals(
+            compassBearing.toDouble(),
+            getPuckFeature(locationSource).getNumber(LocationComponentConstants.PROPERTY_COMPASS_BEARING),
+            0.0
+        )
     }
 
     @Test
@@ -1227,9 +1247,10 @@ class LocationLayerControllerTest {
         val accuracyRadiusValue = 2f
         getAnimationListener<Any>(MapLibreAnimator.ANIMATOR_LAYER_ACCURACY, layer.animationListeners)
             ?.onNewAnimationValue(accuracyRadiusValue)
-        Mockito.verify(locationFeature).addNumberProperty(
-            LocationComponentConstants.PROPERTY_ACCURACY_RADIUS,
-            accuracyRadiusValue
+        Assert.assertEquals(
+            2.0,
+            getPuckFeature(locationSource).getNumber(LocationComponentConstants.PROPERTY_ACCURACY_RADIUS),
+            0.0
         )
     }
 
@@ -1276,11 +1297,11 @@ class LocationLayerControllerTest {
                 layer.animationListeners
             )
         )
-        Mockito.verify(locationFeature, Mockito.times(0))
-            .addNumberProperty(
-                LocationComponentConstants.PROPERTY_ACCURACY_RADIUS,
-                accuracyRadiusValue
-            )
+        Assert.assertNotEquals(
+            accuracyRadiusValue.toDouble(),
+            getPuckFeature(locationSource).getNumber(LocationComponentConstants.PROPERTY_ACCURACY_RADIUS),
+            0.0
+        )
     }
 
     @Test
@@ -1408,6 +1429,16 @@ class LocationLayerControllerTest {
         Mockito.verify(style).addImage(LocationComponentConstants.FOREGROUND_ICON, bitmapGps)
     }
 
+    // the puck feature is updated in place, so its current values are read from any call
+    private fun getPuckFeature(
+        locationSource: GeoJsonSource,
+        mode: org.mockito.verification.VerificationMode = Mockito.atLeastOnce()
+    ): PointFeature {
+        val captor = ArgumentCaptor.forClass(PointFeature::class.java)
+        Mockito.verify(locationSource, mode).setPointFeature(captor.capture())
+        return captor.value
+    }
+
     private fun buildFeatureProvider(options: LocationComponentOptions): LayerFeatureProvider {
         val provider = Mockito.mock(
             LayerFeatureProvider::class.java
@@ -0,0 +1,125 @@
+package org.maplibre.android.maps
+
+import android.graphics.Bitmap
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.annotations.Icon
+import org.maplibre.android.annotations.IconFactory
+import org.maplibre.android.annotations.Marker
+import org.maplibre.android.annotations.MarkerOptions
+import org.maplibre.android.geometry.LatLng
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class IconManagerTest {
+
+    private lateinit var nativeMap: NativeMap
+    private lateinit var iconManager: IconManager
+    private var uploadedIcons = 0
+
+    @Before
+    fun setUp() {
+        nativeMap = mockk(relaxed = true)
+        every { nativeMap.pixelRatio } returns 2f
+        every { nativeMap.getTopOffsetPixelsForAnnotationSymbol(any()) } answers { -8.0 }
+        every { nativeMap.addAnnotationIcons(any(), any(), any(), any(), any(), any()) } answers {
+            val heights = thirdArg<IntArray>()
+            uploadedIcons += heights.size
+            DoubleArray(heights.size) { -heights[it] / 2.0 }
+        }
+        iconManager = IconManager(nativeMap)
+    }
+
+    @Test
+    fun uploadsDistinctIconsOnce() {
+        val icons = List(3) { icon("icon-$it", 16 * (it + 1)) }
+        val markers = List(300) { mockMarker(icons[it % icons.size]) }
+
+        iconManager.loadIconsForMarkers(markers)
+
+        verify(exactly = 1) { nativeMap.addAnnotationIcons(any(), any(), any(), any(), any(), any()) }
+        verify(exactly = 0) { nativeMap.getTopOffsetPixelsForAnnotationSymbol(any()) }
+        assertEquals(3, uploadedIcons)
+        markers.forEachIndexed { index, marker ->
+            verify { marker.setTopOffsetPixels(-16 * (index % icons.size + 1)) }
+        }
+        assertEquals(48, iconManager.highestIconHeight)
+    }
+
+    @Test
+    fun reusesLoadedIcons() {
+        val icon = icon("icon", 32)
+        iconManager.loadIconsForMarkers(listOf(marker(icon)))
+        iconManager.loadIconsForMarkers(List(10) { marker(icon) })
+
+        assertEquals(1, uploadedIcons)
+        assertEquals(-32, iconManager.getTopOffsetPixelsForIcon(icon))
+        verify(exactly = 0) { nativeMap.getTopOffsetPixelsForAnnotationSymbol(any()) }
+    }
+
+    @Test
+    fun removesIconWithLastMarker() {
+        val icon = icon("icon", 32)
+        iconManager.loadIconsForMarkers(List(2) { marker(icon) })
+
+        iconManager.iconCleanup(icon)
+        verify(exactly = 0) { nativeMap.removeAnnotationIcon(any()) }
+        iconManager.iconCleanup(icon)
+        verify(exactly = 1) { nativeMap.removeAnnotationIcon("icon") }
+
+        assertEquals(-16, iconManager.getTopOffsetPixelsForIcon(icon))
+        verify(exactly = 1) { nativeMap.getTopOffsetPixelsForAnnotationSymbol("icon") }
+    }
+
+    @Test
+    fun splitsLargeUploads() {
+        // 256 x 256 x 4 bytes, four icons fill the upload buffer
+        val icons = List(10) { icon("icon-$it", 256) }
+        iconManager.loadIconsForMarkers(icons.map { marker(it) })
+
+        verify(exactly = 3) { nativeMap.addAnnotationIcons(any(), any(), any(), any(), any(), any()) }
+        assertEquals(10, uploadedIcons)
+    }
+
+    @Test
+    fun convertsIconsToArgb8888() {
+        val byteCounts = mutableListOf<Int>()
+        every { nativeMap.addAnnotationIcons(any(), any(), any(), any(), any(), any()) } answers {
+            byteCounts.addAll(arg<IntArray>(4).toList())
+            DoubleArray(thirdArg<IntArray>().size)
+        }
+
+        val icons = listOf(
+            IconFactory.recreate("rgb", Bitmap.createBitmap(15, 10, Bitmap.Config.RGB_565)),
+            IconFactory.recreate("alpha", Bitmap.createBitmap(7, 3, Bitmap.Config.ALPHA_8)),
+            icon("argb", 16)
+        )
+        iconManager.loadIconsForMarkers(icons.map { marker(it) })
+
+        assertEquals(listOf(15 * 10 * 4, 7 * 3 * 4, 16 * 16 * 4), byteCounts)
+    }
+
+    @Test
+    fun reloadsAllIconsInOneCall() {
+        val icons = List(5) { icon("icon-$it", 16) }
+        iconManager.loadIconsForMarkers(icons.map { marker(it) })
+        iconManager.reloadIcons()
+
+        verify(exactly = 2) { nativeMap.addAnnotationIcons(any(), any(), any(), any(), any(), any()) }
+        assertEquals(10, uploadedIcons)
+    }
+
+    private fun icon(id: String, size: Int): Icon =
+        IconFactory.recreate(id, Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888))
+
+    private fun marker(icon: Icon): Marker = MarkerOptions().position(LatLng()).icon(icon).marker
+
+    private fun mockMarker(markerIcon: Icon): Marker = mockk(relaxed = true) {
+        every { icon } returns markerIcon
+    }
+}
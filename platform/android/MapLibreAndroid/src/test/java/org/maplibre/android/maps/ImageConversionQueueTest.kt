@@ -0,0 +1,124 @@
+package org.maplibre.android.maps
+
+import android.graphics.Bitmap
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class ImageConversionQueueTest {
+
+    private lateinit var nativeMap: NativeMap
+    private lateinit var queue: ImageConversionQueue
+    private val added = mutableListOf<List<String>>()
+    private val addImagesCalls = mutableListOf<List<String>>()
+
+    @Before
+    fun setUp() {
+        nativeMap = mockk(relaxed = true)
+        every { nativeMap.isDestroyed } returns false
+        every { nativeMap.addImages(any()) } answers {
+            addImagesCalls.add(firstArg<Array<Image>>().map { it.name })
+        }
+        queue = ImageConversionQueue(nativeMap)
+    }
+
+    @Test
+    fun addsImagesConvertedDuringAFrameTogether() {
+        queue.submit(images("a", "b"), { added.add(it) })
+        queue.submit(images("c"), { added.add(it) })
+        queue.submit(images("d"), null)
+        awaitConversions(3)
+
+        queue.doFrame(0)
+
+        assertEquals(1, addImagesCalls.size)
+        assertEquals(setOf("a", "b", "c", "d"), addImagesCalls[0].toSet())
+        assertEquals(setOf(listOf("a", "b"), listOf("c")), added.toSet())
+    }
+
+    @Test
+    fun removedImageIsNotAdded() {
+        queue.submit(images("a", "b"), { added.add(it) })
+        queue.cancel("a")
+        awaitConversions(1)
+
+        queue.doFrame(0)
+
+        assertEquals(listOf(listOf("b")), addImagesCalls)
+        assertEquals(listOf(listOf("b")), added)
+    }
+
+    @Test
+    fun latestConversionOfANameWins() {
+        queue.submit(images("a"), { added.add(listOf("first")) })
+        queue.submit(images("a"), { added.add(listOf("second")) })
+        awaitConversions(2)
+
+        queue.doFrame(0)
+
+        assertEquals(listOf(listOf("a")), addImagesCalls)
+        assertEquals(listOf(listOf("second")), added)
+    }
+
+    @Test
+    fun cancelAllDropsPendingImagesAndReturnsBuffers() {
+        queue.submit(images("a", "b"), { added.add(it) })
+        queue.cancelAll()
+        // a conversion already running still completes
+        Thread.sleep(100)
+        val idleBefore = ImageConversionQueue.BUFFER_POOL.idleBytes
+
+        queue.doFrame(0)
+
+        verify(exactly = 0) { nativeMap.addImages(any()) }
+        assertTrue(added.isEmpty())
+        assertTrue(ImageConversionQueue.BUFFER_POOL.idleBytes >= idleBefore)
+    }
+
+    @Test
+    fun skipsDestroyedMap() {
+        every { nativeMap.isDestroyed } returns true
+        queue.submit(images("a"), { added.add(it) })
+        awaitConversions(1)
+
+        queue.doFrame(0)
+
+        verify(exactly = 0) { nativeMap.addImages(any()) }
+    }
+
+    @Test
+    fun bufferPoolReusesReleasedBuffers() {
+        val pool = ImageConversionQueue.BufferPool()
+        val buffer = pool.acquire(5000)
+        assertEquals(8192, buffer.capacity())
+        assertTrue(buffer.isDirect)
+
+        pool.release(buffer)
+        assertEquals(8192L, pool.idleBytes)
+        assertTrue(buffer === pool.acquire(6000))
+        assertEquals(0L, pool.idleBytes)
+
+        // larger than the pooled sizes, left to the garbage collector
+        pool.release(pool.acquire(ImageConversionQueue.BufferPool.MAX_CAPACITY + 1))
+        assertEquals(0L, pool.idleBytes)
+    }
+
+    private fun awaitConversions(count: Int) {
+        val deadline = System.currentTimeMillis() + 5_000
+        while (queue.convertedCount < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+        }
+        assertEquals(count, queue.convertedCount)
+    }
+
+    private fun images(vararg names: String) = names.map {
+        Style.Builder.ImageWrapper(it, Bitmap.createBitmap(16, 16, Bitmap.Config.ARGB_8888), false)
+    }.toTypedArray()
+}
@@ -0,0 +1,98 @@
+package org.maplibre.android.maps
+
+import android.graphics.Bitmap
+import android.graphics.Color
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class ImageRegistryTest {
+
+    private val registry = ImageRegistry().apply { setMaxSizeBytes(1024 * 1024) }
+
+    @Test
+    fun disabledByDefault() {
+        val registry = ImageRegistry()
+        assertEquals(0L, registry.maxSizeBytes)
+        assertNull(registry.obtainPixels(bitmap(Color.RED), 1f, false))
+        assertEquals(0L, registry.sizeBytes)
+    }
+
+    @Test
+    fun sameBitmapIsConvertedOnce() {
+        val bitmap = bitmap(Color.RED)
+        registry.obtainPixels(bitmap, 1f, false)
+        registry.obtainPixels(bitmap, 1f, false)
+
+        assertEquals(1L, registry.hitCount)
+        assertEquals(1L, registry.missCount)
+        assertEquals(16L * 16 * 4, registry.sizeBytes)
+    }
+
+    @Test
+    fun identicalPixelsAreShared() {
+        val first = registry.obtainPixels(bitmap(Color.RED), 1f, false)
+        val second = registry.obtainPixels(bitmap(Color.RED), 1f, false)
+
+        assertEquals(first, second)
+        assertEquals(1L, registry.hitCount)
+        assertEquals(16L * 16 * 4, registry.sizeBytes)
+    }
+
+    @Test
+    fun keyedByPixelRatioAndSdf() {
+        val bitmap = bitmap(Color.RED)
+        registry.obtainPixels(bitmap, 1f, false)
+        registry.obtainPixels(bitmap, 2f, false)
+        registry.obtainPixels(bitmap, 1f, true)
+        registry.obtainPixels(bitmap(Color.BLUE), 1f, false)
+
+        assertEquals(0L, registry.hitCount)
+        assertEquals(4L, registry.missCount)
+    }
+
+    @Test
+    fun evictsLeastRecentlyUsedBeyondBudget() {
+        val red = bitmap(Color.RED)
+        val green = bitmap(Color.GREEN)
+        registry.setMaxSizeBytes(2L * 16 * 16 * 4)
+        registry.obtainPixels(red, 1f, false)
+        registry.obtainPixels(green, 1f, false)
+        registry.obtainPixels(red, 1f, false)
+        registry.obtainPixels(bitmap(Color.BLUE), 1f, false)
+
+        assertEquals(2L * 16 * 16 * 4, registry.sizeBytes)
+        // green was evicted, red is still retained
+        registry.obtainPixels(red, 1f, false)
+        assertEquals(2L, registry.hitCount)
+        registry.obtainPixels(green, 1f, false)
+        assertEquals(4L, registry.missCount)
+    }
+
+    @Test
+    fun disabledOrTooLarge() {
+        registry.setMaxSizeBytes(100)
+        assertNull(registry.obtainPixels(bitmap(Color.RED), 1f, false))
+
+        registry.setMaxSizeBytes(0)
+        assertNull(registry.obtainPixels(bitmap(Color.RED), 1f, false))
+        assertEquals(0L, registry.missCount)
+    }
+
+    @Test
+    fun clearDropsPixels() {
+        registry.obtainPixels(bitmap(Color.RED), 1f, false)
+        registry.clear()
+
+        assertEquals(0L, registry.sizeBytes)
+        assertNotNull(registry.obtainPixels(bitmap(Color.RED), 1f, false))
+        assertEquals(2L, registry.missCount)
+    }
+
+    private fun bitmap(color: Int): Bitmap =
+        Bitmap.createBitmap(16, 16, Bitmap.Config.ARGB_8888).apply { eraseColor(color) }
+}
@@ -0,0 +1,49 @@
+package org.maplibre.android.maps
+
+import android.graphics.RectF
+import androidx.collection.LongSparseArray
+import io.mockk.every
+import io.mockk.mockk
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.maplibre.android.annotations.Annotation
+import org.maplibre.android.annotations.MarkerOptions
+import org.maplibre.android.annotations.PolylineOptions
+import org.maplibre.android.geometry.LatLng
+
+class MarkerContainerTest {
+
+    private val nativeMap: NativeMap = mockk(relaxed = true)
+    private val annotations = LongSparseArray<Annotation>()
+    private val markers = MarkerContainer(nativeMap, annotations, mockk(relaxed = true))
+
+    @Test
+    fun obtainAllInKeepsQueryOrder() {
+        addMarkers(10)
+        every { nativeMap.queryPointAnnotations(any()) } returns longArrayOf(7, 2, 5)
+
+        val result = markers.obtainAllIn(RectF())
+
+        assertEquals(listOf(7L, 2L, 5L), result.map { it.id })
+    }
+
+    @Test
+    fun obtainAllInSkipsUnknownAndNonMarkerIds() {
+        addMarkers(3)
+        val polyline = PolylineOptions().polyline.apply { id = 100 }
+        annotations.put(100, polyline)
+        every { nativeMap.queryPointAnnotations(any()) } returns longArrayOf(1, 100, 42)
+
+        val result = markers.obtainAllIn(RectF())
+
+        assertEquals(listOf(1L), result.map { it.id })
+    }
+
+    private fun addMarkers(count: Int) {
+        for (i in 0 until count) {
+            val marker = MarkerOptions().position(LatLng()).marker
+            marker.id = i.toLong()
+            annotations.put(i.toLong(), marker)
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.maplibre.android.maps
+
+import android.graphics.PointF
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.constants.GeometryConstants
+import org.maplibre.android.geometry.LatLng
+import org.robolectric.RobolectricTestRunner
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import kotlin.random.Random
+
+@RunWith(RobolectricTestRunner::class)
+class ProjectionSnapshotTest {
+
+    // a 512x512 map at zoom 0 centered on 0,0 with a pixel ratio of 2
+    private val snapshot = ProjectionSnapshot(state(centerLongitude = 0.0), 2f)
+
+    @Test
+    fun projectsCenter() {
+        val point = snapshot.toScreenLocation(LatLng(0.0, 0.0))
+        assertEquals(512f, point.x, DELTA.toFloat())
+        assertEquals(512f, point.y, DELTA.toFloat())
+
+        val latLng = snapshot.fromScreenLocation(PointF(512f, 512f))
+        assertEquals(0.0, latLng.latitude, DELTA)
+        assertEquals(0.0, latLng.longitude, DELTA)
+        assertEquals(1024f, snapshot.width)
+        assertEquals(1024f, snapshot.height)
+    }
+
+    @Test
+    fun projectsNorthWestCorner() {
+        val point = snapshot.toScreenLocation(LatLng(GeometryConstants.MAX_MERCATOR_LATITUDE, -180.0))
+        assertEquals(0f, point.x, DELTA.toFloat())
+        assertEquals(0f, point.y, DELTA.toFloat())
+    }
+
+    @Test
+    fun northIsUp() {
+        val north = snapshot.toScreenLocation(LatLng(10.0, 0.0))
+        val south = snapshot.toScreenLocation(LatLng(-10.0, 0.0))
+        assertTrue(north.y < 512f)
+        assertEquals(1024f - south.y, north.y, 1e-3f)
+        assertTrue(snapshot.fromScreenLocation(PointF(512f, 0f)).latitude > 80)
+    }
+
+    @Test
+    fun takesShortestPathAcrossAntimeridian() {
+        val snapshot = ProjectionSnapshot(state(centerLongitude = 170.0), 1f)
+        val point = snapshot.toScreenLocation(LatLng(0.0, -170.0))
+        assertEquals((180 + 190) / 360.0 * 512, point.x.toDouble(), 1e-3)
+    }
+
+    @Test
+    fun roundTripsArrays() {
+        val count = 1000
+        val latLngs = randomLatLngs(count)
+        val points = FloatArray(count * 2 + 4)
+        val result = DoubleArray(count * 2 + 2)
+
+        snapshot.toScreenLocations(latLngs, 0, points, 4, count)
+        snapshot.fromScreenLocations(points, 4, result, 2, count)
+
+        for (i in 0 until count * 2) {
+            assertEquals(latLngs[i], result[i + 2], 1e-3)
+        }
+    }
+
+    @Test
+    fun matchesDoublePrecisionArrays() {
+        val count = 100
+        val latLngs = randomLatLngs(count)
+        val points = DoubleArray(count * 2)
+        val result = DoubleArray(count * 2)
+
+        snapshot.toScreenLocations(latLngs, 0, points, 0, count)
+        snapshot.fromScreenLocations(points, 0, result, 0, count)
+
+        for (i in 0 until count * 2) {
+            assertEquals(latLngs[i], result[i], DELTA)
+        }
+    }
+
+    @Test
+    fun roundTripsStridedBuffers() {
+        val count = 100
+        val latLngs = randomLatLngs(count)
+        // latitude, longitude and an unrelated value per point, starting at position 3
+        val input = ByteBuffer.allocateDirect((count * 3 + 3) * 8).order(ByteOrder.nativeOrder()).asDoubleBuffer()
+        for (i in 0 until count) {
+            input.put(3 + i * 3, latLngs[i * 2])
+            input.put(3 + i * 3 + 1, latLngs[i * 2 + 1])
+        }
+        input.position(3)
+        val points = ByteBuffer.allocateDirect(count * 4 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer()
+        val output = ByteBuffer.allocateDirect(count * 2 * 8).order(ByteOrder.nativeOrder()).asDoubleBuffer()
+
+        snapshot.toScreenLocations(input, 3, points, 4, count)
+        snapshot.fromScreenLocations(points, 4, output, 2, count)
+
+        assertEquals(3, input.position())
+        assertEquals(0, output.position())
+        for (i in 0 until count * 2) {
+            assertEquals(latLngs[i], output.get(i), 1e-3)
+        }
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun rejectsOverlappingStride() {
+        snapshot.toScreenLocations(
+            ByteBuffer.allocate(32).asDoubleBuffer(), 1, ByteBuffer.allocate(16).asFloatBuffer(), 2, 1
+        )
+    }
+
+    @Test
+    fun emptyMapProjectsToOrigin() {
+        val snapshot = ProjectionSnapshot(DoubleArray(ProjectionSnapshot.STATE_LENGTH), 1f)
+
+        val point = snapshot.toScreenLocation(LatLng(10.0, 10.0))
+        assertEquals(0f, point.x)
+        assertEquals(0f, point.y)
+        val latLng = snapshot.fromScreenLocation(PointF(10f, 10f))
+        assertEquals(GeometryConstants.MAX_MERCATOR_LATITUDE, latLng.latitude, DELTA)
+        assertEquals(-180.0, latLng.longitude, DELTA)
+    }
+
+    private fun randomLatLngs(count: Int): DoubleArray {
+        val random = Random(42)
+        return DoubleArray(count * 2) {
+            if (it % 2 == 0) random.nextDouble(-80.0, 80.0) else random.nextDouble(-179.0, 179.0)
+        }
+    }
+
+    companion object {
+        private const val DELTA = 1e-6
+
+        // TransformState::getCoordMatrix of a 512x512 map at zoom 0 without pitch and bearing, up to the
+        // perspective divide: the pixel matrix maps world coordinates from 0 to 1 to pixels from the top left,
+        // the flip of TransformState::latLngToScreenCoordinate is undone by Transform
+        fun state(centerLongitude: Double): DoubleArray {
+            val state = DoubleArray(ProjectionSnapshot.STATE_LENGTH)
+            state[0] = 512.0
+            state[5] = 512.0
+            state[10] = 1.0
+            state[15] = 1.0
+            state[16] = 1 / 512.0
+            state[21] = 1 / 512.0
+            state[26] = 1.0
+            state[31] = 1.0
+            state[32] = 1.0
+            state[33] = 512.0
+            state[34] = 512.0
+            state[35] = centerLongitude
+            return state
+        }
+    }
+}
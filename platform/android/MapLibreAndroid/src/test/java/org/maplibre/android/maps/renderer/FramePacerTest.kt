@@ -0,0 +1,74 @@
+package org.maplibre.android.maps.renderer
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+
+@RunWith(RobolectricTestRunner::class)
+class FramePacerTest {
+
+    private var renders = 0
+    private val renderedTicks = mutableListOf<Int>()
+
+    @Test
+    fun renderOnRefreshRateDivider() {
+        val pacer = FramePacer({ renders++ }, 40)
+        tick(pacer, 24, VSYNC_120HZ, draw = true)
+
+        // 120 Hz / 3 = 40 fps
+        assertEquals(listOf(0, 3, 6, 9, 12, 15, 18, 21), renderedTicks)
+        assertEquals(VSYNC_120HZ, pacer.vsyncPeriodNanos)
+    }
+
+    @Test
+    fun roundDownToNextDivider() {
+        val pacer = FramePacer({ renders++ }, 45)
+        tick(pacer, 12, VSYNC_60HZ, draw = true)
+
+        // 60 Hz / 2 = 30 fps, 45 fps isn't a divider of 60 Hz
+        assertEquals(listOf(0, 2, 4, 6, 8, 10), renderedTicks)
+    }
+
+    @Test
+    fun skipVsyncWhilePreviousFrameIsPending() {
+        val pacer = FramePacer({ renders++ }, 0)
+        tick(pacer, 12, VSYNC_120HZ, draw = false)
+
+        // the frame requested on the first vsync is never drawn, the next one is only requested after a timeout
+        assertEquals(listOf(0), renderedTicks)
+        tick(pacer, 2, VSYNC_120HZ, draw = false, start = 12)
+        assertEquals(listOf(0, 13), renderedTicks)
+    }
+
+    @Test
+    fun renderOnlyWhenDirty() {
+        val pacer = FramePacer({ renders++ }, 0)
+        pacer.requestFrame()
+        pacer.doFrame(START)
+        pacer.onFrameDrawn()
+        pacer.doFrame(START + VSYNC_60HZ)
+        pacer.doFrame(START + 2 * VSYNC_60HZ)
+        assertEquals(1, renders)
+    }
+
+    private fun tick(pacer: FramePacer, count: Int, period: Long, draw: Boolean, start: Int = 0) {
+        for (i in start until start + count) {
+            val before = renders
+            pacer.requestFrame()
+            pacer.doFrame(START + i * period)
+            if (renders > before) {
+                renderedTicks.add(i)
+                if (draw) {
+                    pacer.onFrameDrawn()
+                }
+            }
+        }
+    }
+
+    companion object {
+        private const val START = 1_000_000_000L
+        private const val VSYNC_120HZ = 8_333_333L
+        private const val VSYNC_60HZ = 16_666_666L
+    }
+}
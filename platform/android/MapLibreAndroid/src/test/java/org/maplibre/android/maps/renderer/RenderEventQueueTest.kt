@@ -0,0 +1,70 @@
+package org.maplibre.android.maps.renderer
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+
+class RenderEventQueueTest {
+
+    private val lock = Object()
+    private val queue = RenderEventQueue(lock)
+
+    @Test
+    fun pollInOrder() {
+        val events = List(3) { Runnable { } }
+        assertTrue(queue.isEmpty)
+        events.forEach { queue.offer(it) }
+        assertFalse(queue.isEmpty)
+
+        synchronized(lock) {
+            events.forEach { assertEquals(it, queue.poll()) }
+            assertNull(queue.poll())
+        }
+        assertTrue(queue.isEmpty)
+    }
+
+    @Test
+    fun wakeIdleConsumer() {
+        val ran = CountDownLatch(1)
+        val consumer = consumer(1)
+        Thread.sleep(50)
+        queue.offer { ran.countDown() }
+        assertTrue(ran.await(5, TimeUnit.SECONDS))
+        consumer.join(5_000)
+    }
+
+    @Test
+    fun waitForEmptyReturnsOnceDrained() {
+        repeat(100) { queue.offer { Thread.sleep(0, 1000) } }
+        val consumer = consumer(100)
+        queue.waitForEmpty()
+        assertTrue(queue.isEmpty)
+        consumer.join(5_000)
+    }
+
+    @Test
+    fun concurrentProducersKeepPerProducerOrder() {
+        val producers = 4
+        val perProducer = 50_000
+        val received = Array(producers) { mutableListOf<Int>() }
+        val consumer = consumer(producers * perProducer)
+        val threads = (0 until producers).map { p ->
+            thread {
+                for (i in 0 until perProducer) {
+                    queue.offer { received[p].add(i) }
+                }
+            }
+        }
+        threads.forEach { it.join() }
+        consumer.join(30_000)
+
+        for (p in 0 until producers) {
+            assertEquals((0 until perProducer).toList(), received[p])
+        }
+    }
+}
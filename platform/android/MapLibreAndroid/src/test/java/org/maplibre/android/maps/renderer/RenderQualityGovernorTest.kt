@@ -0,0 +1,72 @@
+package org.maplibre.android.maps.renderer
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import org.maplibre.android.maps.MapLibreMap
+import org.maplibre.android.maps.MapView
+
+class RenderQualityGovernorTest {
+
+    private val mapView = mockk<MapView>(relaxed = true)
+    private val maplibreMap = mockk<MapLibreMap>(relaxed = true)
+    private lateinit var governor: RenderQualityGovernor
+
+    @Before
+    fun setUp() {
+        every { mapView.display } returns null
+        every { maplibreMap.prefetchZoomDelta } returns 4
+        governor = RenderQualityGovernor(mapView, maplibreMap)
+        governor.enable()
+    }
+
+    @Test
+    fun keepFullQualityWithinBudget() {
+        frames(100, 0.010)
+        assertEquals(RenderQualityGovernor.LEVEL_FULL, governor.level)
+        verify { mapView.setMaximumFps(60) }
+    }
+
+    @Test
+    fun stepDownWhileMissingBudget() {
+        frames(30, 0.030)
+        assertEquals(RenderQualityGovernor.LEVEL_NO_PREFETCH, governor.level)
+        verify { maplibreMap.setPrefetchZoomDelta(0) }
+
+        frames(29, 0.030)
+        assertEquals(RenderQualityGovernor.LEVEL_NO_PREFETCH, governor.level)
+        frames(1, 0.030)
+        assertEquals(RenderQualityGovernor.LEVEL_REDUCED_FPS, governor.level)
+        verify { mapView.setMaximumFps(RenderQualityGovernor.DEFAULT_REDUCED_FPS) }
+
+        frames(100, 0.030)
+        assertEquals(RenderQualityGovernor.LEVEL_REDUCED_FPS, governor.level)
+    }
+
+    @Test
+    fun restoreWhenIdle() {
+        frames(60, 0.030)
+        assertEquals(RenderQualityGovernor.LEVEL_REDUCED_FPS, governor.level)
+
+        governor.onDidBecomeIdle()
+        assertEquals(RenderQualityGovernor.LEVEL_FULL, governor.level)
+        verify { maplibreMap.setPrefetchZoomDelta(4) }
+        verify(exactly = 2) { mapView.setMaximumFps(60) }
+    }
+
+    @Test
+    fun disableRestoresQuality() {
+        frames(30, 0.030)
+        governor.disable()
+        assertEquals(RenderQualityGovernor.LEVEL_FULL, governor.level)
+        verify { maplibreMap.setPrefetchZoomDelta(4) }
+        verify { mapView.removeOnDidFinishRenderingFrameListener(governor) }
+    }
+
+    private fun frames(count: Int, frameTime: Double) {
+        repeat(count) { governor.onDidFinishRenderingFrame(true, frameTime / 2, frameTime / 2) }
+    }
+}
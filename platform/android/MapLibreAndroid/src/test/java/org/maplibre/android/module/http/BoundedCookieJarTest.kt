@@ -0,0 +1,152 @@
+package org.maplibre.android.module.http
+
+import okhttp3.Cookie
+import okhttp3.HttpUrl.Companion.toHttpUrl
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class BoundedCookieJarTest {
+
+    private val tileUrl = "https://a.tiles.example.com/1/0/0.pbf".toHttpUrl()
+
+    @Test
+    fun replaceCookieWithSameName() {
+        val jar = BoundedCookieJar()
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "1")))
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "2")))
+
+        assertEquals(1, jar.size())
+        assertEquals("2", jar.loadForRequest(tileUrl).single().value)
+    }
+
+    @Test
+    fun loadCookiesOfParentDomains() {
+        val jar = BoundedCookieJar()
+        jar.saveFromResponse(tileUrl, listOf(cookie("host", "1")))
+        jar.saveFromResponse(tileUrl, listOf(cookie("domain", "1", domain = "example.com")))
+        jar.saveFromResponse("https://other.com/".toHttpUrl(), listOf(cookie("other", "1", host = "other.com")))
+
+        assertEquals(setOf("host", "domain"), jar.loadForRequest(tileUrl).map { it.name }.toSet())
+        assertEquals(listOf("domain"), jar.loadForRequest("https://b.tiles.example.com/".toHttpUrl()).map { it.name })
+    }
+
+    @Test
+    fun evictExpiredCookies() {
+        val jar = BoundedCookieJar()
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "1", expiresAt = System.currentTimeMillis() + 50)))
+        assertEquals(1, jar.loadForRequest(tileUrl).size)
+
+        Thread.sleep(100)
+        assertTrue(jar.loadForRequest(tileUrl).isEmpty())
+        assertEquals(0, jar.size())
+    }
+
+    @Test
+    fun expiredCookieDeletesStoredOne() {
+        val jar = BoundedCookieJar()
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "1")))
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "", expiresAt = 0)))
+
+        assertEquals(0, jar.size())
+        assertTrue(jar.loadForRequest(tileUrl).isEmpty())
+    }
+
+    @Test
+    fun capCookiesPerDomainAndInTotal() {
+        val jar = BoundedCookieJar(3, 10)
+        for (i in 0 until 5) {
+            jar.saveFromResponse(tileUrl, listOf(cookie("c$i", "1")))
+        }
+        assertEquals(listOf("c2", "c3", "c4"), jar.loadForRequest(tileUrl).map { it.name })
+
+        for (i in 0 until 20) {
+            val host = "h$i.example.com"
+            jar.saveFromResponse("https://$host/".toHttpUrl(), listOf(cookie("c", "1", host = host)))
+        }
+        assertEquals(10, jar.size())
+        assertEquals(10, jar.getAllCookies().size)
+        // the least recently updated domains go first
+        assertTrue(jar.loadForRequest(tileUrl).isEmpty())
+        assertEquals(1, jar.loadForRequest("https://h19.example.com/".toHttpUrl()).size)
+    }
+
+    @Test
+    fun clearCookies() {
+        val jar = BoundedCookieJar()
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "1")))
+        jar.clear()
+
+        assertEquals(0, jar.size())
+        assertTrue(jar.loadForRequest(tileUrl).isEmpty())
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "1")))
+        assertEquals(1, jar.loadForRequest(tileUrl).size)
+    }
+
+    @Test
+    fun domainCookieReplacesHostOnlyCookie() {
+        val jar = BoundedCookieJar()
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "1")))
+        jar.saveFromResponse(tileUrl, listOf(cookie("session", "2", domain = tileUrl.host)))
+
+        assertEquals(1, jar.size())
+        assertEquals("2", jar.loadForRequest(tileUrl).single().value)
+    }
+
+    /**
+     * A CDN setting a unique cookie on every tile response must not grow the jar past its bounds.
+     */
+    @Test
+    fun boundedAfterManyResponses() {
+        val jar = BoundedCookieJar()
+        for (n in 0 until 100_000) {
+            val host = "edge${n % 16}.tiles.example.com"
+            val url = "https://$host/14/$n/0.pbf".toHttpUrl()
+            jar.loadForRequest(url)
+            jar.saveFromResponse(url, listOf(cookie("cdn_$n", "1", host = host)))
+        }
+
+        assertTrue(jar.size() <= 16 * BoundedCookieJar.MAX_COOKIES_PER_DOMAIN)
+        // a request only walks the cookies of its domain and parents
+        assertTrue(jar.loadForRequest("https://edge0.tiles.example.com/".toHttpUrl()).size <= BoundedCookieJar.MAX_COOKIES_PER_DOMAIN)
+    }
+
+    /**
+     * The cost of a request doesn't grow with the cookies stored for other domains.
+     */
+    @Test
+    fun requestCostIndependentOfJarSize() {
+        val small = BoundedCookieJar()
+        val large = BoundedCookieJar()
+        for (jar in listOf(small, large)) {
+            jar.saveFromResponse(tileUrl, (0 until 10).map { cookie("c$it", "1") })
+            jar.saveFromResponse(tileUrl, listOf(cookie("domain", "1", domain = "example.com")))
+        }
+        // filled up to its cap, the cookies of the tile host aren't evicted
+        for (n in 0 until BoundedCookieJar.MAX_COOKIES - small.size()) {
+            val host = "edge${n % 500}.cdn.example.org"
+            large.saveFromResponse("https://$host/".toHttpUrl(), listOf(cookie("cdn_$n", "1", host = host)))
+        }
+
+        assertEquals(BoundedCookieJar.MAX_COOKIES, large.size())
+        assertEquals(11, small.countVisited(tileUrl))
+        assertEquals(small.countVisited(tileUrl), large.countVisited(tileUrl))
+        assertEquals(small.loadForRequest(tileUrl).map { it.name }, large.loadForRequest(tileUrl).map { it.name })
+    }
+
+    private fun cookie(
+        name: String,
+        value: String,
+        host: String = tileUrl.host,
+        domain: String? = null,
+        expiresAt: Long = System.currentTimeMillis() + 60_000
+    ): Cookie {
+        val builder = Cookie.Builder().name(name).value(value).expiresAt(expiresAt)
+        if (domain != null) {
+            builder.domain(domain)
+        } else {
+            builder.hostOnlyDomain(host)
+        }
+        return builder.build()
+    }
+}
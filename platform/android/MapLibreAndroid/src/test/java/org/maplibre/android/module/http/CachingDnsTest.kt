@@ -0,0 +1,84 @@
+package org.maplibre.android.module.http
+
+import io.mockk.every
+import io.mockk.mockk
+import okhttp3.Call
+import okhttp3.Dns
+import okhttp3.Request
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.http.HttpConnectionOptions
+import org.maplibre.android.http.HttpResponder
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.shadows.ShadowSystemClock
+import java.net.ConnectException
+import java.net.InetAddress
+import java.time.Duration
+
+@RunWith(RobolectricTestRunner::class)
+class CachingDnsTest {
+
+    private val lookups = mutableListOf<String>()
+    private val delegate = Dns { hostname ->
+        lookups.add(hostname)
+        listOf(InetAddress.getByAddress(hostname, byteArrayOf(10, 0, 0, lookups.size.toByte())))
+    }
+
+    @Test
+    fun disabledByDefault() {
+        assertEquals(0L, HttpConnectionOptions.Builder().build().dnsCacheTtlMillis)
+
+        val dns = CachingDns(delegate, 0)
+        dns.lookup("tiles.example.com")
+        dns.lookup("tiles.example.com")
+        assertEquals(2, lookups.size)
+    }
+
+    @Test
+    fun cachesUntilExpired() {
+        val dns = CachingDns(delegate, 60_000)
+        val first = dns.lookup("tiles.example.com")
+        assertEquals(first, dns.lookup("tiles.example.com"))
+        assertEquals(1, lookups.size)
+
+        ShadowSystemClock.advanceBy(Duration.ofSeconds(61))
+        dns.lookup("tiles.example.com")
+        assertEquals(2, lookups.size)
+    }
+
+    @Test
+    fun evictHost() {
+        val dns = CachingDns(delegate, 60_000)
+        dns.lookup("tiles.example.com")
+        dns.lookup("fonts.example.com")
+
+        dns.evict("tiles.example.com")
+        dns.lookup("tiles.example.com")
+        dns.lookup("fonts.example.com")
+        assertEquals(listOf("tiles.example.com", "fonts.example.com", "tiles.example.com"), lookups)
+
+        // after a change of network
+        dns.clear()
+        dns.lookup("fonts.example.com")
+        assertEquals(4, lookups.size)
+    }
+
+    @Test
+    fun evictHostOnConnectionFailure() {
+        HttpRequestImpl.dns.setTtlMillis(60_000)
+        // resolved locally by the system dns
+        HttpRequestImpl.dns.lookup("localhost")
+        assertTrue(HttpRequestImpl.dns.isCached("localhost"))
+
+        val call = mockk<Call>()
+        every { call.request() } returns Request.Builder().url("https://localhost/1/0/0.pbf").build()
+        HttpRequestImpl.OkHttpCallback(mockk<HttpResponder>(relaxed = true))
+            .onFailure(call, ConnectException("Connection refused"))
+
+        assertFalse(HttpRequestImpl.dns.isCached("localhost"))
+        HttpRequestImpl.dns.setTtlMillis(0)
+    }
+}
@@ -0,0 +1,76 @@
+package org.maplibre.android.module.http
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.maplibre.android.http.HttpConnectionOptions
+
+class ConnectionPrewarmerTest {
+
+    @Test
+    fun originOfUrls() {
+        assertEquals("https://tiles.example.com", ConnectionPrewarmer.originOf("https://Tiles.example.com/v1/{z}/{x}/{y}.pbf"))
+        assertEquals("http://example.com:8080", ConnectionPrewarmer.originOf("http://example.com:8080?key=abc"))
+        assertNull(ConnectionPrewarmer.originOf("https://{s}.tiles.example.com/{z}/{x}/{y}.png"))
+        assertNull(ConnectionPrewarmer.originOf("asset://styles/basic.json"))
+        assertNull(ConnectionPrewarmer.originOf("https://"))
+    }
+
+    @Test
+    fun collectOriginsFromStyle() {
+        val style = """
+            {
+              "version": 8,
+              "sprite": "https://sprites.example.com/basic",
+              "glyphs": "https://fonts.example.com/{fontstack}/{range}.pbf",
+              "sources": {
+                "vector": { "type": "vector", "url": "https://api.example.com/tiles.json" },
+                "raster": { "type": "raster", "tiles": ["https://a.example.com/{z}/{x}/{y}.png", "https://a.example.com/2x/{z}/{x}/{y}.png"] }
+              },
+              "layers": [{ "id": "background", "type": "background" }]
+            }
+        """.trimIndent()
+
+        // the TileJSON url is requested right away, its tiles are pre-warmed once it is received
+        assertEquals(
+            listOf("https://sprites.example.com", "https://fonts.example.com", "https://a.example.com"),
+            ConnectionPrewarmer.collectOrigins(style).toList()
+        )
+    }
+
+    @Test
+    fun collectOriginsFromTileJsonAndSprites() {
+        val tileJson = """
+            {
+              "tilejson": "3.0.0",
+              "attribution": "<a href=\"https://www.example.org/copyright\">Example</a>",
+              "tiles": ["https://b.example.com/{z}/{x}/{y}.pbf"],
+              "vector_layers": [{ "id": "water", "description": "https://docs.example.org/water" }]
+            }
+        """.trimIndent()
+        assertEquals(listOf("https://b.example.com"), ConnectionPrewarmer.collectOrigins(tileJson).toList())
+
+        val style = """
+            {
+              "version": 8,
+              "sprite": [{ "id": "default", "url": "https://sprites.example.com/basic" }],
+              "metadata": { "homepage": "https://www.example.org" },
+              "sources": {},
+              "layers": []
+            }
+        """.trimIndent()
+        assertEquals(listOf("https://sprites.example.com"), ConnectionPrewarmer.collectOrigins(style).toList())
+    }
+
+    @Test
+    fun disabledByDefault() {
+        assertFalse(HttpConnectionOptions.Builder().build().isPrewarmConnections)
+    }
+
+    @Test
+    fun collectOriginsFromInvalidDocument() {
+        assertTrue(ConnectionPrewarmer.collectOrigins("not json {").isEmpty())
+    }
+}
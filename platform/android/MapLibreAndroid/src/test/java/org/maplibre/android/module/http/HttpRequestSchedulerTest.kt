@@ -0,0 +1,169 @@
+package org.maplibre.android.module.http
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.HttpUrl.Companion.toHttpUrl
+import okhttp3.Request
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.geometry.LatLngBounds
+import org.maplibre.android.http.HttpResponder
+import org.robolectric.RobolectricTestRunner
+import java.io.IOException
+
+@RunWith(RobolectricTestRunner::class)
+class HttpRequestSchedulerTest {
+
+    private val scheduler = HttpRequestScheduler()
+    private val calls = mutableListOf<Pair<Call, Callback>>()
+
+    private val factory = Call.Factory { request ->
+        val call = mockk<Call>(relaxed = true)
+        every { call.request() } returns request
+        every { call.enqueue(any()) } answers { calls.add(call to firstArg()) }
+        call
+    }
+
+    @Test
+    fun classifyUrls() {
+        assertEquals(RequestPriority.STYLE, RequestPriority.classify("https://example.com/styles/basic.json".toHttpUrl(), false))
+        assertEquals(RequestPriority.SPRITE, RequestPriority.classify("https://example.com/sprites/basic@2x.png".toHttpUrl(), false))
+        assertEquals(RequestPriority.GLYPH, RequestPriority.classify("https://example.com/fonts/Noto%20Sans/0-255.pbf".toHttpUrl(), false))
+        assertEquals(RequestPriority.OFFLINE, RequestPriority.classify("https://example.com/styles/basic.json".toHttpUrl(), true))
+        assertEquals(RequestPriority.TILE, RequestPriority.classify("https://example.com/tiles.pbf".toHttpUrl(), false))
+    }
+
+    @Test
+    fun parseTileCoordinates() {
+        assertEquals(listOf(14, 8190, 5448), RequestPriority.parseTile("https://example.com/v1/14/8190/5448.pbf".toHttpUrl())!!.toList())
+        assertEquals(listOf(3, 4, 2), RequestPriority.parseTile("https://example.com/3/4/2@2x.png?key=abc".toHttpUrl())!!.toList())
+        assertNull(RequestPriority.parseTile("https://example.com/3/9/2.png".toHttpUrl()))
+        assertNull(RequestPriority.parseTile("https://example.com/fonts/Noto/0-255.pbf".toHttpUrl()))
+    }
+
+    @Test
+    fun dispatchByPriority() {
+        scheduler.setMaxConcurrentRequests(1)
+        submit("https://example.com/tiles/1/0/0.pbf")
+        submit("https://example.com/tiles/2/1/1.pbf", offline = true)
+        submit("https://example.com/tiles/2/0/0.pbf")
+        submit("https://example.com/fonts/Noto/0-255.pbf")
+        submit("https://example.com/styles/basic.json")
+
+        assertEquals(1, scheduler.getInFlightCount())
+        assertEquals(4, scheduler.getPendingCount())
+
+        val order = mutableListOf<String>()
+        while (calls.isNotEmpty()) {
+            val (call, callback) = calls.removeAt(0)
+            order.add(call.request().url.encodedPath)
+            callback.onFailure(call, IOException())
+        }
+
+        assertEquals(
+            listOf("/tiles/1/0/0.pbf", "/styles/basic.json", "/fonts/Noto/0-255.pbf", "/tiles/2/0/0.pbf", "/tiles/2/1/1.pbf"),
+            order
+        )
+        assertEquals(0, scheduler.getInFlightCount())
+    }
+
+    @Test
+    fun viewportPromotesVisibleTiles() {
+        scheduler.setMaxConcurrentRequests(1)
+        submit("https://example.com/styles/basic.json")
+        val west = submit("https://example.com/tiles/2/0/1.pbf")
+        val east = submit("https://example.com/tiles/2/3/1.pbf")
+        assertEquals(RequestPriority.TILE, west.priority)
+
+        scheduler.setViewport(this, TileViewport(LatLngBounds.from(40.0, 170.0, 10.0, 100.0), 2.0))
+        assertEquals(RequestPriority.PREFETCH_TILE, west.priority)
+        assertEquals(RequestPriority.VISIBLE_TILE, east.priority)
+
+        val (call, callback) = calls.removeAt(0)
+        callback.onFailure(call, IOException())
+        assertEquals("/tiles/2/3/1.pbf", calls.single().first.request().url.encodedPath)
+    }
+
+    @Test
+    fun viewportsOfSeveralMaps() {
+        scheduler.setMaxConcurrentRequests(1)
+        submit("https://example.com/styles/basic.json")
+        val west = submit("https://example.com/tiles/2/0/1.pbf")
+        val east = submit("https://example.com/tiles/2/3/1.pbf")
+        val firstMap = Any()
+        val secondMap = Any()
+
+        scheduler.setViewport(firstMap, TileViewport(LatLngBounds.from(40.0, 170.0, 10.0, 100.0), 2.0))
+        scheduler.setViewport(secondMap, TileViewport(LatLngBounds.from(40.0, -100.0, 10.0, -170.0), 2.0))
+        assertEquals(RequestPriority.VISIBLE_TILE, west.priority)
+        assertEquals(RequestPriority.VISIBLE_TILE, east.priority)
+
+        // the viewport of a destroyed map no longer counts
+        scheduler.setViewport(firstMap, null)
+        assertEquals(RequestPriority.VISIBLE_TILE, west.priority)
+        assertEquals(RequestPriority.PREFETCH_TILE, east.priority)
+
+        scheduler.setViewport(secondMap, null)
+        assertEquals(RequestPriority.TILE, west.priority)
+    }
+
+    @Test
+    fun coalesceIdenticalRequests() {
+        val first = mockk<HttpResponder>(relaxed = true)
+        val second = mockk<HttpResponder>(relaxed = true)
+        submit("https://example.com/tiles/1/0/0.pbf", responder = first)
+        submit("https://example.com/tiles/1/0/0.pbf", responder = second)
+
+        assertEquals(1, calls.size)
+        val (call, callback) = calls.single()
+        callback.onFailure(call, IOException("boom"))
+
+        verify { first.handleFailure(any(), "boom") }
+        verify { second.handleFailure(any(), "boom") }
+    }
+
+    @Test
+    fun cancelOnceAllRespondersAreGone() {
+        val first = mockk<HttpResponder>(relaxed = true)
+        val second = mockk<HttpResponder>(relaxed = true)
+        val job = submit("https://example.com/tiles/1/0/0.pbf", responder = first)
+        submit("https://example.com/tiles/1/0/0.pbf", responder = second)
+        val call = calls.single().first
+
+        scheduler.cancel(job, first)
+        verify(exactly = 0) { call.cancel() }
+
+        scheduler.cancel(job, second)
+        verify { call.cancel() }
+
+        // a new request for the same url must not join the cancelled call
+        submit("https://example.com/tiles/1/0/0.pbf")
+        assertEquals(2, calls.size)
+    }
+
+    @Test
+    fun cancelPendingRequest() {
+        scheduler.setMaxConcurrentRequests(1)
+        submit("https://example.com/styles/basic.json")
+        val responder = mockk<HttpResponder>(relaxed = true)
+        val job = submit("https://example.com/tiles/1/0/0.pbf", responder = responder)
+        assertEquals(1, scheduler.getPendingCount())
+
+        scheduler.cancel(job, responder)
+        assertEquals(0, scheduler.getPendingCount())
+    }
+
+    private fun submit(
+        url: String,
+        offline: Boolean = false,
+        responder: HttpResponder = mockk(relaxed = true)
+    ): HttpRequestScheduler.Job {
+        val request = Request.Builder().url(url).build()
+        return scheduler.submit(factory, request, offline, responder)
+    }
+}
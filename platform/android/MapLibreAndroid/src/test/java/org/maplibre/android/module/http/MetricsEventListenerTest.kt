@@ -0,0 +1,73 @@
+package org.maplibre.android.module.http
+
+import io.mockk.every
+import io.mockk.mockk
+import okhttp3.Call
+import okhttp3.Connection
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.http.HttpRequestMetrics
+import org.robolectric.RobolectricTestRunner
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+
+@RunWith(RobolectricTestRunner::class)
+class MetricsEventListenerTest {
+
+    private val call = mockk<Call> {
+        every { request() } returns Request.Builder().url("https://tiles.example.com/1/2/3.pbf").build()
+    }
+    private val connection = mockk<Connection> {
+        every { protocol() } returns Protocol.HTTP_2
+    }
+    private val response = mockk<Response> {
+        every { code() } returns 200
+    }
+
+    @Test
+    fun queueTimeApartFromTimeToFirstByte() {
+        var metrics: HttpRequestMetrics? = null
+        val listener = MetricsEventListener { metrics = it }
+
+        listener.callStart(call)
+        // waiting for the dispatcher
+        Thread.sleep(QUEUE_MILLIS)
+        listener.connectionAcquired(call, connection)
+        listener.requestHeadersStart(call)
+        listener.responseHeadersStart(call)
+        listener.responseHeadersEnd(call, response)
+        listener.responseBodyEnd(call, 100)
+        listener.callEnd(call)
+
+        val result = metrics!!
+        assertEquals("h2", result.protocol)
+        assertEquals(200, result.responseCode)
+        assertTrue(result.queueNanos >= TimeUnit.MILLISECONDS.toNanos(QUEUE_MILLIS))
+        assertTrue(result.timeToFirstByteNanos in 0 until result.queueNanos)
+        assertTrue(result.totalNanos in 0 until result.queueNanos)
+    }
+
+    @Test
+    fun noQueueTimeWhenCancelledBeforeStart() {
+        var metrics: HttpRequestMetrics? = null
+        val listener = MetricsEventListener { metrics = it }
+
+        listener.callStart(call)
+        listener.callFailed(call, IOException("Canceled"))
+
+        val result = metrics!!
+        assertTrue(result.isFailed)
+        assertEquals(-1, result.queueNanos)
+        assertEquals(-1, result.timeToFirstByteNanos)
+        assertTrue(result.totalNanos >= 0)
+    }
+
+    companion object {
+        private const val QUEUE_MILLIS = 200L
+    }
+}
@@ -0,0 +1,74 @@
+package org.maplibre.android.module.http
+
+import okio.Buffer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class ResponseBufferPoolTest {
+
+    private val pool = ResponseBufferPool()
+
+    @Test
+    fun readKnownLength() {
+        val payload = ByteArray(40_000) { it.toByte() }
+        val buffer = pool.read(Buffer().write(payload), payload.size.toLong())
+
+        assertTrue(buffer.isDirect)
+        assertEquals(0, buffer.position())
+        assertEquals(payload.size, buffer.remaining())
+        assertEquals(64 * 1024, buffer.capacity())
+        assertEquals(payload.toList(), ByteArray(buffer.remaining()).also { buffer.get(it) }.toList())
+    }
+
+    @Test
+    fun readUnknownLengthGrows() {
+        val payload = ByteArray(100_000) { (it % 127).toByte() }
+        val buffer = pool.read(Buffer().write(payload), -1)
+
+        assertEquals(payload.size, buffer.remaining())
+        assertEquals(128 * 1024, buffer.capacity())
+        assertEquals(payload.toList(), ByteArray(buffer.remaining()).also { buffer.get(it) }.toList())
+    }
+
+    @Test
+    fun readExactBucketSizeDoesNotGrow() {
+        val payload = ByteArray(ResponseBufferPool.MIN_CAPACITY)
+        val buffer = pool.read(Buffer().write(payload), payload.size.toLong())
+
+        assertEquals(ResponseBufferPool.MIN_CAPACITY, buffer.capacity())
+        assertEquals(payload.size, buffer.remaining())
+    }
+
+    @Test
+    fun releasedBufferIsReused() {
+        val first = pool.acquire(20_000)
+        pool.release(first)
+        assertEquals(1, pool.idleCount(first.capacity()))
+
+        val second = pool.acquire(30_000)
+        assertSame(first, second)
+        assertEquals(0, second.position())
+        assertEquals(0, pool.idleCount(first.capacity()))
+    }
+
+    @Test
+    fun idleBuffersAreBounded() {
+        val capacity = ResponseBufferPool.MAX_CAPACITY
+        val buffers = List(4) { pool.acquire(capacity.toLong()) }
+        buffers.forEach { pool.release(it) }
+        assertEquals(1, pool.idleCount(capacity))
+    }
+
+    @Test
+    fun oversizedBuffersAreNotPooled() {
+        val size = ResponseBufferPool.MAX_CAPACITY + 1
+        val buffer = pool.acquire(size.toLong())
+        assertTrue(buffer.isDirect)
+        assertEquals(size, buffer.capacity())
+
+        pool.release(buffer)
+        assertEquals(0, pool.idleCount(size))
+    }
+}
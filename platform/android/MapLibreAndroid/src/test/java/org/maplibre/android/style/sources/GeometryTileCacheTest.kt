@@ -0,0 +1,143 @@
+package org.maplibre.android.style.sources
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Test
+import org.maplibre.android.geometry.LatLngBounds
+import org.maplibre.android.style.sources.CustomGeometrySource.TileID
+import org.maplibre.geojson.Feature
+import org.maplibre.geojson.FeatureCollection
+import org.maplibre.geojson.LineString
+import org.maplibre.geojson.Point
+import java.nio.ByteBuffer
+
+class GeometryTileCacheTest {
+
+    private val data = lineCollection(10)
+    private val dataSize = GeometryTileCache.estimateSize(data)
+
+    @Test
+    fun estimatesSizeFromPositions() {
+        assertEquals(
+            GeometryTileCache.estimateSize(lineCollection(20)) - dataSize,
+            GeometryTileCache.estimateSize(lineCollection(30)) - GeometryTileCache.estimateSize(lineCollection(20))
+        )
+    }
+
+    @Test
+    fun estimatesVectorTileSizeFromRemainingBytes() {
+        val vectorTile = ByteBuffer.allocateDirect(1000)
+        val size = GeometryTileCache.estimateSize(vectorTile)
+
+        vectorTile.position(600)
+
+        assertEquals(size - 600, GeometryTileCache.estimateSize(vectorTile))
+    }
+
+    @Test
+    fun evictsLeastRecentlyUsed() {
+        val cache = GeometryTileCache(dataSize * 2)
+        cache.put(TileID(1, 0, 0), data)
+        cache.put(TileID(1, 1, 0), data)
+        cache.get(TileID(1, 0, 0))
+
+        cache.put(TileID(1, 0, 1), data)
+
+        assertNotNull(cache.get(TileID(1, 0, 0)))
+        assertNull(cache.get(TileID(1, 1, 0)))
+        assertNotNull(cache.get(TileID(1, 0, 1)))
+        assertEquals(dataSize * 2, cache.size())
+    }
+
+    @Test
+    fun replacesTileData() {
+        val cache = GeometryTileCache(dataSize * 2)
+        val newData = lineCollection(10)
+        cache.put(TileID(1, 0, 0), data)
+
+        cache.put(TileID(1, 0, 0), newData)
+
+        assertSame(newData, cache.get(TileID(1, 0, 0)))
+        assertEquals(dataSize, cache.size())
+    }
+
+    @Test
+    fun skipsDataLargerThanCache() {
+        val cache = GeometryTileCache(dataSize - 1)
+
+        cache.put(TileID(1, 0, 0), data)
+
+        assertNull(cache.get(TileID(1, 0, 0)))
+        assertEquals(0, cache.size())
+    }
+
+    @Test
+    fun removeDropsTile() {
+        val cache = GeometryTileCache(dataSize * 2)
+        cache.put(TileID(1, 0, 0), data)
+        cache.put(TileID(1, 1, 0), data)
+
+        cache.remove(TileID(1, 0, 0))
+
+        assertNull(cache.get(TileID(1, 0, 0)))
+        assertNotNull(cache.get(TileID(1, 1, 0)))
+    }
+
+    @Test
+    fun removeAllDropsIntersectingTilesAtAllZoomLevels() {
+        val cache = GeometryTileCache(dataSize * 10)
+        cache.put(TileID(0, 0, 0), data)
+        cache.put(TileID(1, 0, 0), data)
+        cache.put(TileID(1, 1, 0), data)
+        cache.put(TileID(2, 3, 3), data)
+
+        // north west of the world
+        cache.removeAll(LatLngBounds.from(60.0, -100.0, 10.0, -120.0))
+
+        assertNull(cache.get(TileID(0, 0, 0)))
+        assertNull(cache.get(TileID(1, 0, 0)))
+        assertNotNull(cache.get(TileID(1, 1, 0)))
+        assertNotNull(cache.get(TileID(2, 3, 3)))
+    }
+
+    @Test
+    fun removeAllDropsTilesPastAntimeridian() {
+        val cache = GeometryTileCache(dataSize * 10)
+        cache.put(TileID(1, 0, 0), data)
+
+        cache.removeAll(LatLngBounds.from(60.0, 200.0, 10.0, 170.0))
+
+        assertNull(cache.get(TileID(1, 0, 0)))
+    }
+
+    @Test
+    fun skipsDataFetchedBeforeInvalidation() {
+        val cache = GeometryTileCache(dataSize * 2)
+        val generation = cache.generation()
+
+        cache.remove(TileID(1, 1, 0))
+        cache.put(TileID(1, 0, 0), data, generation)
+
+        assertNull(cache.get(TileID(1, 0, 0)))
+    }
+
+    @Test
+    fun lifoDequeRunsNewestFirst() {
+        val deque = CustomGeometrySource.LifoBlockingDeque()
+        val first = Runnable { }
+        val second = Runnable { }
+
+        deque.offer(first)
+        deque.offer(second)
+
+        assertSame(second, deque.take())
+        assertSame(first, deque.take())
+    }
+
+    private fun lineCollection(positions: Int): FeatureCollection {
+        val points = List(positions) { Point.fromLngLat(it.toDouble(), it.toDouble()) }
+        return FeatureCollection.fromFeature(Feature.fromGeometry(LineString.fromLngLats(points)))
+    }
+}
@@ -0,0 +1,55 @@
+package org.maplibre.android.style.sources
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class PointFeatureTest {
+
+    private val feature = PointFeature(
+        arrayOf("bearing", "radius"),
+        arrayOf("icon"),
+        arrayOf("stale"),
+        arrayOf("offset", "shadow-offset"),
+        2
+    )
+
+    @Test
+    fun storesTypedValuesInPlace() {
+        feature.setCoordinate(2.0, 1.0)
+        feature.setNumber("radius", 5.0)
+        feature.setString("icon", "puck")
+        feature.setBoolean("stale", true)
+        feature.setNumberArrayValue("shadow-offset", 1, 0.5)
+
+        assertEquals(2.0, feature.longitude, 0.0)
+        assertEquals(1.0, feature.latitude, 0.0)
+        assertArrayEquals(doubleArrayOf(0.0, 5.0), feature.numbers, 0.0)
+        assertEquals("puck", feature.getString("icon"))
+        assertTrue(feature.getBoolean("stale"))
+        assertArrayEquals(doubleArrayOf(0.0, 0.0, 0.0, 0.5), feature.numberArrays, 0.0)
+    }
+
+    @Test
+    fun keysAreComparedByValue() {
+        feature.setNumber(String(charArrayOf('b', 'e', 'a', 'r', 'i', 'n', 'g')), 90.0)
+        assertEquals(90.0, feature.getNumber("bearing"), 0.0)
+    }
+
+    @Test
+    fun stringsAreUnsetByDefault() {
+        assertNull(feature.getString("icon"))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun rejectsUnknownKey() {
+        feature.setNumber("icon", 1.0)
+    }
+
+    @Test(expected = IndexOutOfBoundsException::class)
+    fun rejectsArrayIndexOutOfSize() {
+        feature.setNumberArrayValue("offset", 2, 1.0)
+    }
+}
@@ -50,8 +50,8 @@ public class MapLibreVulkanSurfaceView extends MapLibreSurfaceView {
               return;
             }
 
-            if (!eventQueue.isEmpty()) {
-              event = eventQueue.remove(0);
+            event = eventQueue.poll();
+            if (event != null) {
               break;
             }
 
@@ -128,7 +128,7 @@ public class MapLibreVulkanSurfaceView extends MapLibreSurfaceView {
               }
             }
             // By design, this is the only place in a RenderThread thread where we wait().
-            renderThreadManager.wait();
+            eventQueue.await();
           }
         } // end of synchronized(sRenderThreadManager)
 
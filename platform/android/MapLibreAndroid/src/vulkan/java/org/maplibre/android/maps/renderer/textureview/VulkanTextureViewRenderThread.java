@@ -50,8 +50,8 @@ public class VulkanTextureViewRenderThread extends TextureViewRenderThread {
             }
 
             // If any events are scheduled, pop one for processing
-            if (!eventQueue.isEmpty()) {
-              event = eventQueue.remove(0);
+            event = eventQueue.poll();
+            if (event != null) {
               break;
             }
 
@@ -92,7 +92,7 @@ public class VulkanTextureViewRenderThread extends TextureViewRenderThread {
             }
 
             // Wait until needed
-            lock.wait();
+            eventQueue.await();
 
           } // end guarded while loop
 
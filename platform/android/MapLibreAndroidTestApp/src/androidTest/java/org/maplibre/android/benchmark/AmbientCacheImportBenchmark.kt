@@ -0,0 +1,125 @@
+package org.maplibre.android.benchmark
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner
+import androidx.test.rule.ActivityTestRule
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.offline.AmbientCacheRecord
+import org.maplibre.android.offline.OfflineManager
+import org.maplibre.android.testapp.activity.FeatureOverviewActivity
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Tiles imported per second by [OfflineManager.importAmbientCache], with and without compression, compared with
+ * a call to [OfflineManager.putResourceWithUrl] per tile.
+ */
+@RunWith(AndroidJUnit4ClassRunner::class)
+class AmbientCacheImportBenchmark {
+
+    @Rule
+    @JvmField
+    var rule = ActivityTestRule(FeatureOverviewActivity::class.java)
+
+    private val offlineManager: OfflineManager by lazy { OfflineManager.getInstance(rule.activity) }
+
+    @Test
+    fun tilesPerSecond() {
+        // large enough for the imports not to evict each other
+        setMaximumAmbientCacheSize(CACHE_SIZE)
+
+        // one call and one transaction per resource
+        var prefix = "https://example.com/${System.nanoTime()}"
+        var start = System.nanoTime()
+        for (record in records(prefix)) {
+            offlineManager.putResourceWithUrl(record.url, record.data, 0, 0, null, false)
+        }
+        // queued after the resources on the database thread
+        setMaximumAmbientCacheSize(CACHE_SIZE)
+        val putResource = tilesPerSecond(start)
+        val results = mutableMapOf<String, Number>("putResourceWithUrlPerSecond" to putResource)
+
+        for (compress in booleanArrayOf(true, false)) {
+            prefix = "https://example.com/${System.nanoTime()}"
+            val latch = CountDownLatch(1)
+            var inserted: Long? = null
+            start = System.nanoTime()
+            rule.activity.runOnUiThread {
+                offlineManager.importAmbientCache(
+                    records(prefix),
+                    object : OfflineManager.ImportAmbientCacheCallback {
+                        override fun onProgress(importedCount: Long, totalCount: Long) {
+                        }
+
+                        override fun onImported(insertedCount: Long) {
+                            inserted = insertedCount
+                            latch.countDown()
+                        }
+
+                        override fun onError(message: String) {
+                            latch.countDown()
+                        }
+                    },
+                    compress
+                )
+            }
+            await(latch)
+            val imported = tilesPerSecond(start)
+            assertEquals(BENCHMARK_COUNT.toLong(), inserted)
+
+            val name = if (compress) "importCompressedPerSecond" else "importPerSecond"
+            results[name] = imported
+            assertTrue("$name $imported <= $putResource", imported > putResource)
+        }
+        reportBenchmark("AmbientCacheImport.tilesPerSecond", results)
+    }
+
+    private fun records(prefix: String): Iterator<AmbientCacheRecord> {
+        // vector tiles compress to about a third
+        val data = ByteArray(TILE_SIZE) { (it % 3).toByte() }
+        return (0 until BENCHMARK_COUNT).asSequence().map { AmbientCacheRecord("$prefix/$it.pbf", data) }.iterator()
+    }
+
+    private fun setMaximumAmbientCacheSize(size: Long) {
+        val latch = CountDownLatch(1)
+        rule.activity.runOnUiThread {
+            offlineManager.setMaximumAmbientCacheSize(
+                size,
+                object : OfflineManager.FileSourceCallback {
+                    override fun onSuccess() {
+                        latch.countDown()
+                    }
+
+                    override fun onError(message: String) {
+                        latch.countDown()
+                    }
+                }
+            )
+        }
+        await(latch)
+    }
+
+    /**
+     * @return the tiles written per second since [start]
+     */
+    private fun tilesPerSecond(start: Long): Double {
+        val seconds = (System.nanoTime() - start) / 1e9
+        return BENCHMARK_COUNT / seconds
+    }
+
+    private fun await(latch: CountDownLatch) {
+        if (!latch.await(120, TimeUnit.SECONDS)) {
+            throw TimeoutException()
+        }
+    }
+
+    companion object {
+        private const val CACHE_SIZE = 200L * 1024 * 1024
+        private const val TILE_SIZE = 8 * 1024
+        private const val BENCHMARK_COUNT = 5000
+    }
+}
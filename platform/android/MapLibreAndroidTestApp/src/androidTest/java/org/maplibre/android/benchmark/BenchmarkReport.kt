@@ -0,0 +1,39 @@
+package org.maplibre.android.benchmark
+
+import android.os.Build
+import androidx.test.platform.app.InstrumentationRegistry
+import kotlinx.serialization.json.JsonPrimitive
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.put
+import kotlinx.serialization.json.putJsonObject
+import org.maplibre.android.BuildConfig.GIT_REVISION
+import org.maplibre.android.testapp.BuildConfig
+import java.io.File
+
+/**
+ * Reports the results of a micro benchmark. They are printed as JSON, like the results of
+ * [worldTourBenchmark][Benchmark.worldTourBenchmark], and appended to `micro_benchmark_results.jsonl` in the
+ * files directory of the test app.
+ *
+ * @param name    the name of the benchmark
+ * @param results the measured values by name, with their unit in the name
+ */
+fun reportBenchmark(name: String, results: Map<String, Number>) {
+    val payload = buildJsonObject {
+        put("benchmark", name)
+        putJsonObject("results") {
+            for ((key, value) in results) {
+                put(key, JsonPrimitive(value))
+            }
+        }
+        put("deviceManufacturer", Build.MANUFACTURER)
+        put("model", Build.MODEL)
+        put("renderer", BuildConfig.FLAVOR)
+        put("debugBuild", BuildConfig.DEBUG)
+        put("gitRevision", GIT_REVISION)
+        put("timestamp", System.currentTimeMillis())
+    }
+    println(payload)
+    val filesDir = InstrumentationRegistry.getInstrumentation().targetContext.filesDir
+    File(filesDir, "micro_benchmark_results.jsonl").appendText("$payload\n")
+}
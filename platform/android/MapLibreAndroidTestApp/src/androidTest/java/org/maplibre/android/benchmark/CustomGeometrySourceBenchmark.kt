@@ -0,0 +1,110 @@
+package org.maplibre.android.benchmark
+
+import org.junit.Test
+import org.maplibre.android.geometry.LatLngBounds
+import org.maplibre.android.style.sources.CustomGeometrySource
+import org.maplibre.android.style.sources.GeometryTileProvider
+import org.maplibre.android.testapp.action.MapLibreMapAction.invoke
+import org.maplibre.android.testapp.activity.BaseTest
+import org.maplibre.android.testapp.activity.style.GridSourceActivity
+import org.maplibre.geojson.Feature
+import org.maplibre.geojson.FeatureCollection
+import org.maplibre.geojson.Point
+import java.io.ByteArrayOutputStream
+import java.nio.ByteBuffer
+
+class CustomGeometrySourceBenchmark : BaseTest() {
+
+    override fun getActivityClass(): Class<*> = GridSourceActivity::class.java
+
+    /**
+     * Sets a tile of 5k point features as a feature collection, converted feature by feature through JNI, and as
+     * an encoded vector tile.
+     */
+    @Test
+    fun setTileData() {
+        validateTestSetup()
+        invoke(maplibreMap) { _, maplibreMap ->
+            val source = CustomGeometrySource(
+                ID_BENCHMARK_SOURCE,
+                object : GeometryTileProvider {
+                    override fun getFeaturesForBounds(bounds: LatLngBounds, zoomLevel: Int) =
+                        FeatureCollection.fromFeatures(emptyList())
+                }
+            )
+            maplibreMap.style!!.addSource(source)
+
+            val count = 5_000
+            val features = FeatureCollection.fromFeatures(
+                List(count) { Feature.fromGeometry(Point.fromLngLat(it % 64 * 5.0 - 160, it / 64 * 2.0 - 78)) }
+            )
+            val vectorTile = encodePointTile(count)
+            val rounds = 20
+            repeat(5) {
+                source.setTileData(0, 0, 0, features)
+                source.setTileData(0, 0, 0, vectorTile)
+            }
+
+            var start = System.nanoTime()
+            repeat(rounds) { source.setTileData(0, 0, 0, features) }
+            val featureCollection = (System.nanoTime() - start) / rounds / 1000
+            start = System.nanoTime()
+            repeat(rounds) { source.setTileData(0, 0, 0, vectorTile) }
+            val encoded = (System.nanoTime() - start) / rounds / 1000
+
+            reportBenchmark(
+                "CustomGeometrySource.setTileData",
+                mapOf("featureCollectionMicros" to featureCollection, "vectorTileMicros" to encoded)
+            )
+            maplibreMap.style!!.removeSource(source)
+        }
+    }
+
+    // a vector tile with a single layer of points
+    private fun encodePointTile(count: Int): ByteBuffer {
+        val layer = ByteArrayOutputStream()
+        writeField(layer, 15, 2) // version
+        writeBytes(layer, 1, "points".toByteArray())
+        for (i in 0 until count) {
+            val geometry = ByteArrayOutputStream()
+            writeVarint(geometry, 9) // MoveTo a single point
+            writeVarint(geometry, zigzag(i % 64 * 64))
+            writeVarint(geometry, zigzag(i / 64 * 50))
+            val feature = ByteArrayOutputStream()
+            writeField(feature, 3, 1) // point
+            writeBytes(feature, 4, geometry.toByteArray())
+            writeBytes(layer, 2, feature.toByteArray())
+        }
+        writeField(layer, 5, 4096) // extent
+        val tile = ByteArrayOutputStream()
+        writeBytes(tile, 3, layer.toByteArray())
+        val bytes = tile.toByteArray()
+        return ByteBuffer.allocateDirect(bytes.size).put(bytes).apply { flip() }
+    }
+
+    private fun writeField(out: ByteArrayOutputStream, field: Int, value: Int) {
+        writeVarint(out, field shl 3)
+        writeVarint(out, value)
+    }
+
+    private fun writeBytes(out: ByteArrayOutputStream, field: Int, bytes: ByteArray) {
+        writeVarint(out, (field shl 3) or 2)
+        writeVarint(out, bytes.size)
+        out.write(bytes)
+    }
+
+    private fun writeVarint(out: ByteArrayOutputStream, value: Int) {
+        var remaining = value
+        while (remaining >= 0x80) {
+            out.write(remaining and 0x7f or 0x80)
+            remaining = remaining ushr 7
+        }
+        out.write(remaining)
+    }
+
+    private fun zigzag(value: Int) = (value shl 1) xor (value shr 31)
+
+    companion object {
+        private const val ID_BENCHMARK_SOURCE = "benchmark-source"
+    }
+}
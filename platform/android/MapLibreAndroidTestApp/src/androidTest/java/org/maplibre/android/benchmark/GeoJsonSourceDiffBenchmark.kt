@@ -0,0 +1,112 @@
+package org.maplibre.android.benchmark
+
+import androidx.test.espresso.UiController
+import org.junit.Test
+import org.maplibre.android.camera.CameraUpdateFactory
+import org.maplibre.android.geometry.LatLng
+import org.maplibre.android.maps.MapView
+import org.maplibre.android.style.layers.CircleLayer
+import org.maplibre.android.style.sources.GeoJsonDiff
+import org.maplibre.android.style.sources.GeoJsonSource
+import org.maplibre.android.testapp.action.MapLibreMapAction.invoke
+import org.maplibre.android.testapp.activity.EspressoTest
+import org.maplibre.android.testapp.utils.TestingAsyncUtils
+import org.maplibre.geojson.Feature
+import org.maplibre.geojson.FeatureCollection
+import org.maplibre.geojson.Point
+
+/**
+ * Benchmark of [GeoJsonSource.updateGeoJson] against [GeoJsonSource.setGeoJson]
+ */
+class GeoJsonSourceDiffBenchmark : EspressoTest() {
+
+    /**
+     * Moves 200 vehicles of a city at a time, setting all the features again and with a diff.
+     */
+    @Test
+    fun updateThroughput() {
+        validateTestSetup()
+        invoke(maplibreMap) { uiController, maplibreMap ->
+            // the vehicles fill the city, most tiles in view don't change
+            maplibreMap.moveCamera(CameraUpdateFactory.newLatLngZoom(LatLng(52.55, 13.35), 14.0))
+            for (count in intArrayOf(10_000, 50_000, 100_000)) {
+                val features = MutableList(count) { vehicle(it, 0) }
+                val source = GeoJsonSource(ID_SOURCE)
+                source.setRetainFeatures(true)
+                source.setGeoJson(FeatureCollection.fromFeatures(features))
+                maplibreMap.style!!.addSource(source)
+                maplibreMap.style!!.addLayer(CircleLayer(ID_LAYER, ID_SOURCE))
+                TestingAsyncUtils.waitForLayer(uiController, mapView)
+
+                val rounds = 10
+                var full = 0L
+                for (round in 1..rounds) {
+                    moveVehicles(features, round)
+                    full += timeToRender(uiController) {
+                        source.setGeoJson(FeatureCollection.fromFeatures(features))
+                    }
+                }
+
+                // the first diff indexes the features set before
+                source.updateGeoJson(GeoJsonDiff().update(moveVehicles(features, 0)))
+                TestingAsyncUtils.waitForLayer(uiController, mapView)
+                var incremental = 0L
+                for (round in 1..rounds) {
+                    val moved = moveVehicles(features, round)
+                    incremental += timeToRender(uiController) {
+                        source.updateGeoJson(GeoJsonDiff().update(moved))
+                    }
+                }
+
+                reportBenchmark(
+                    "GeoJsonSource.update$UPDATED_COUNT/$count",
+                    mapOf(
+                        "setGeoJsonMicros" to full / rounds / 1000,
+                        "updateGeoJsonMicros" to incremental / rounds / 1000
+                    )
+                )
+                maplibreMap.style!!.removeLayer(ID_LAYER)
+                maplibreMap.style!!.removeSource(source)
+            }
+        }
+    }
+
+    // the time from the update until the map rendered it
+    private fun timeToRender(uiController: UiController, update: () -> Unit): Long {
+        var idle = false
+        val listener = MapView.OnDidBecomeIdleListener { idle = true }
+        mapView.addOnDidBecomeIdleListener(listener)
+        val start = System.nanoTime()
+        update()
+        while (!idle && System.nanoTime() - start < TIMEOUT) {
+            uiController.loopMainThreadForAtLeast(1)
+        }
+        val time = System.nanoTime() - start
+        mapView.removeOnDidBecomeIdleListener(listener)
+        return time
+    }
+
+    private fun moveVehicles(features: MutableList<Feature>, round: Int): List<Feature> {
+        return List(UPDATED_COUNT) {
+            val index = (round * UPDATED_COUNT + it) % features.size
+            vehicle(index, round).also { vehicle -> features[index] = vehicle }
+        }
+    }
+
+    // vehicles spread over a city, moving a little every round
+    private fun vehicle(index: Int, round: Int): Feature {
+        val longitude = 13.2 + index % 300 * 0.001 + round * 0.0001
+        val latitude = 52.4 + index / 300 % 300 * 0.001
+        return point(index.toString(), longitude, latitude)
+    }
+
+    private fun point(id: String, longitude: Double, latitude: Double) =
+        Feature.fromGeometry(Point.fromLngLat(longitude, latitude), null, id)
+
+    companion object {
+        private const val ID_SOURCE = "diff-source"
+        private const val ID_LAYER = "diff-layer"
+        private const val UPDATED_COUNT = 200
+        private const val TIMEOUT = 15_000_000_000L
+    }
+}
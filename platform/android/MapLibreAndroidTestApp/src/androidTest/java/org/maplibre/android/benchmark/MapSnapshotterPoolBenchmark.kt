@@ -0,0 +1,130 @@
+package org.maplibre.android.benchmark
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner
+import androidx.test.platform.app.InstrumentationRegistry
+import androidx.test.rule.ActivityTestRule
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.camera.CameraPosition
+import org.maplibre.android.geometry.LatLng
+import org.maplibre.android.maps.Style
+import org.maplibre.android.snapshotter.MapSnapshotter
+import org.maplibre.android.snapshotter.MapSnapshotterPool
+import org.maplibre.android.testapp.activity.FeatureOverviewActivity
+import org.maplibre.android.testapp.styles.TestStyles
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Thumbnails rendered per second by a [MapSnapshotterPool] of 1, 2 and 4 snapshotters, compared with a
+ * [MapSnapshotter] started for every thumbnail.
+ */
+@RunWith(AndroidJUnit4ClassRunner::class)
+class MapSnapshotterPoolBenchmark {
+
+    @Rule
+    @JvmField
+    var rule = ActivityTestRule(FeatureOverviewActivity::class.java)
+
+    private val executor = Executors.newSingleThreadExecutor()
+    private val instrumentation = InstrumentationRegistry.getInstrumentation()
+
+    @Test
+    fun throughput() {
+        // a snapshotter per snapshot, as without a pool
+        val single = CountDownLatch(SNAPSHOT_COUNT)
+        var start = System.nanoTime()
+        instrumentation.runOnMainSync { startSnapshotter(0, single) }
+        await(single)
+        val singleThroughput = throughput(start)
+        val results = mutableMapOf<String, Number>("snapshotterPerSecond" to singleThroughput)
+
+        for (size in intArrayOf(1, 2, 4)) {
+            for (overlay in booleanArrayOf(true, false)) {
+                val latch = CountDownLatch(SNAPSHOT_COUNT)
+                var pool: MapSnapshotterPool? = null
+                instrumentation.runOnMainSync {
+                    pool = MapSnapshotterPool(rule.activity, options(), size, executor)
+                }
+                // the style and resources are loaded by the first round
+                warmUp(pool!!, size)
+
+                start = System.nanoTime()
+                for (index in 0 until SNAPSHOT_COUNT) {
+                    pool!!.submit(job(index).withOverlay(overlay), { latch.countDown() }, { fail(it) })
+                }
+                await(latch)
+                val poolThroughput = throughput(start)
+                instrumentation.runOnMainSync { pool!!.release() }
+
+                val name = if (overlay) "pool${size}OverlayPerSecond" else "pool${size}PerSecond"
+                results[name] = poolThroughput
+                assertTrue("$name $poolThroughput <= $singleThroughput", poolThroughput > singleThroughput)
+            }
+        }
+        reportBenchmark("MapSnapshotterPool.throughput", results)
+    }
+
+    private fun startSnapshotter(index: Int, latch: CountDownLatch) {
+        val options = options().withCameraPosition(camera(index))
+        MapSnapshotter(rule.activity, options).start({
+            latch.countDown()
+            if (index + 1 < SNAPSHOT_COUNT) {
+                startSnapshotter(index + 1, latch)
+            }
+        }, { fail(it) })
+    }
+
+    private fun warmUp(pool: MapSnapshotterPool, size: Int) {
+        val latch = CountDownLatch(size)
+        for (index in 0 until size) {
+            pool.submit(job(index), { latch.countDown() }, { fail(it) })
+        }
+        await(latch)
+        assertEquals(0, pool.queuedJobCount)
+    }
+
+    private fun options(): MapSnapshotter.Options {
+        return MapSnapshotter.Options(THUMBNAIL_SIZE, THUMBNAIL_SIZE)
+            .withPixelRatio(1.0f)
+            .withStyleBuilder(Style.Builder().fromUri(TestStyles.OPENFREEMAP_BRIGHT))
+            .withCameraPosition(camera(0))
+    }
+
+    private fun job(index: Int): MapSnapshotterPool.Job {
+        return MapSnapshotterPool.Job(THUMBNAIL_SIZE, THUMBNAIL_SIZE).withCameraPosition(camera(index))
+    }
+
+    // routes spread over a city
+    private fun camera(index: Int): CameraPosition {
+        return CameraPosition.Builder()
+            .zoom(13.0)
+            .target(LatLng(51.14 + index % 10 * 0.01, 5.74 + index / 10 % 10 * 0.01))
+            .build()
+    }
+
+    /**
+     * @return the snapshots rendered per second since [start]
+     */
+    private fun throughput(start: Long): Double {
+        val seconds = (System.nanoTime() - start) / 1e9
+        return SNAPSHOT_COUNT / seconds
+    }
+
+    private fun await(latch: CountDownLatch) {
+        if (!latch.await(120, TimeUnit.SECONDS)) {
+            throw TimeoutException()
+        }
+    }
+
+    companion object {
+        private const val SNAPSHOT_COUNT = 50
+        private const val THUMBNAIL_SIZE = 256
+    }
+}
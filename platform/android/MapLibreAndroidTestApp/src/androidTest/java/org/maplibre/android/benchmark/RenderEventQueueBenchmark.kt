@@ -0,0 +1,87 @@
+package org.maplibre.android.benchmark
+
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.maps.renderer.RenderEventQueue
+import java.util.LinkedList
+import kotlin.concurrent.thread
+
+/**
+ * Enqueue throughput of 4 producers against a render thread draining the [RenderEventQueue], compared with the
+ * LinkedList guarded by a monitor and notifyAll it replaces.
+ */
+@RunWith(AndroidJUnit4ClassRunner::class)
+class RenderEventQueueBenchmark {
+
+    private val lock = Object()
+
+    @Test
+    fun enqueueUnderContention() {
+        val queue = RenderEventQueue(lock)
+        val lockFree = measure({ queue.offer(it) }) {
+            var remaining = PRODUCERS * PER_PRODUCER
+            while (remaining > 0) {
+                val event = synchronized(lock) {
+                    var next = queue.poll()
+                    while (next == null) {
+                        queue.await()
+                        next = queue.poll()
+                    }
+                    next
+                }
+                event.run()
+                remaining--
+            }
+        }
+
+        val monitorQueue = LinkedList<Runnable>()
+        val monitor = measure({
+            synchronized(lock) {
+                monitorQueue.add(it)
+                lock.notifyAll()
+            }
+        }) {
+            var remaining = PRODUCERS * PER_PRODUCER
+            while (remaining > 0) {
+                val event = synchronized(lock) {
+                    while (monitorQueue.isEmpty()) {
+                        lock.wait()
+                    }
+                    monitorQueue.removeFirst()
+                }
+                event.run()
+                remaining--
+            }
+        }
+
+        reportBenchmark(
+            "RenderEventQueue.enqueueUnderContention",
+            mapOf("lockFreeOpsPerMs" to lockFree / 1000, "monitorOpsPerMs" to monitor / 1000)
+        )
+    }
+
+    /**
+     * @return the events offered per second by all producers
+     */
+    private fun measure(offer: (Runnable) -> Unit, drain: () -> Unit): Long {
+        val consumer = thread(block = drain)
+        val event = Runnable { }
+        val start = System.nanoTime()
+        (0 until PRODUCERS).map {
+            thread {
+                for (i in 0 until PER_PRODUCER) {
+                    offer(event)
+                }
+            }
+        }.forEach { it.join() }
+        val elapsed = System.nanoTime() - start
+        consumer.join(30_000)
+        return PRODUCERS * PER_PRODUCER * 1_000_000_000L / elapsed
+    }
+
+    companion object {
+        private const val PRODUCERS = 4
+        private const val PER_PRODUCER = 250_000
+    }
+}
@@ -0,0 +1,88 @@
+package org.maplibre.android.maps
+
+import android.graphics.PointF
+import androidx.test.espresso.UiController
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.maplibre.android.camera.CameraPosition
+import org.maplibre.android.camera.CameraUpdateFactory
+import org.maplibre.android.geometry.LatLng
+import org.maplibre.android.testapp.action.MapLibreMapAction.invoke
+import org.maplibre.android.testapp.activity.BaseTest
+import org.maplibre.android.testapp.activity.espresso.PixelTestActivity
+
+/**
+ * Compares [ProjectionSnapshot] with the native conversions of [Projection] for the same camera.
+ */
+class ProjectionSnapshotConversionTest : BaseTest() {
+
+    override fun getActivityClass(): Class<*> {
+        return PixelTestActivity::class.java
+    }
+
+    override
+    fun beforeTest() {
+        super.beforeTest()
+        mapView = (rule.activity as PixelTestActivity).mapView
+    }
+
+    @Test
+    fun matchesProjectionWithoutPitch() {
+        validateTestSetup()
+        invoke(maplibreMap) { _: UiController, maplibreMap: MapLibreMap ->
+            maplibreMap.moveCamera(CameraUpdateFactory.newLatLngZoom(LatLng(52.0, 4.0), 6.0))
+            assertMatchesProjection(maplibreMap)
+        }
+    }
+
+    @Test
+    fun matchesProjectionWithPitchAndBearing() {
+        validateTestSetup()
+        invoke(maplibreMap) { _: UiController, maplibreMap: MapLibreMap ->
+            maplibreMap.moveCamera(
+                CameraUpdateFactory.newCameraPosition(
+                    CameraPosition.Builder().target(LatLng(-33.0, 151.0)).zoom(8.0).tilt(45.0).bearing(30.0).build()
+                )
+            )
+            assertMatchesProjection(maplibreMap)
+        }
+    }
+
+    @Test
+    fun matchesProjectionAcrossAntimeridian() {
+        validateTestSetup()
+        invoke(maplibreMap) { _: UiController, maplibreMap: MapLibreMap ->
+            maplibreMap.moveCamera(CameraUpdateFactory.newLatLngZoom(LatLng(0.0, 179.5), 7.0))
+            assertMatchesProjection(maplibreMap)
+        }
+    }
+
+    private fun assertMatchesProjection(maplibreMap: MapLibreMap) {
+        val projection = maplibreMap.projection
+        val snapshot = projection.snapshot()
+        val width = mapView.width.toFloat()
+        val height = mapView.height.toFloat()
+        assertEquals(width, snapshot.width, 1f)
+        assertEquals(height, snapshot.height, 1f)
+
+        for (i in 0..4) {
+            for (j in 0..4) {
+                val point = PointF(width * i / 4, height * j / 4)
+                val expectedLatLng = projection.fromScreenLocation(point)
+                val latLng = snapshot.fromScreenLocation(point)
+                assertEquals(expectedLatLng.latitude, latLng.latitude, DELTA)
+                assertEquals(expectedLatLng.longitude, latLng.longitude, DELTA)
+
+                val expectedPoint = projection.toScreenLocation(expectedLatLng)
+                val screenLocation = snapshot.toScreenLocation(expectedLatLng)
+                assertEquals(expectedPoint.x, screenLocation.x, PIXEL_DELTA)
+                assertEquals(expectedPoint.y, screenLocation.y, PIXEL_DELTA)
+            }
+        }
+    }
+
+    companion object {
+        private const val DELTA = 1e-5
+        private const val PIXEL_DELTA = 0.01f
+    }
+}
@@ -29,6 +29,15 @@ class OfflineDownloadTest : OfflineRegion.OfflineRegionObserver {
 
     @Test(timeout = 60000)
     fun offlineDownload() {
+        download(null)
+    }
+
+    @Test(timeout = 60000)
+    fun offlineDownloadWithOptions() {
+        download(OfflineRegionDownloadOptions(2, true, true))
+    }
+
+    private fun download(options: OfflineRegionDownloadOptions?) {
         rule.runOnUiThreadActivity {
             OfflineManager.getInstance(rule.activity).createOfflineRegion(
                 createTestRegionDefinition(),
@@ -36,6 +45,7 @@ class OfflineDownloadTest : OfflineRegion.OfflineRegionObserver {
                 object : OfflineManager.CreateOfflineRegionCallback {
                     override fun onCreate(region: OfflineRegion) {
                         offlineRegion = region
+                        options?.let { offlineRegion.setDownloadOptions(it) }
                         offlineRegion.setDownloadState(OfflineRegion.STATE_ACTIVE)
                         offlineRegion.setObserver(this@OfflineDownloadTest)
                     }
@@ -53,7 +63,12 @@ class OfflineDownloadTest : OfflineRegion.OfflineRegionObserver {
     }
 
     override fun onStatusChanged(status: OfflineRegionStatus) {
-        Logger.i(TAG, "Download percentage ${100.0 * status.completedResourceCount / status.requiredResourceCount}")
+        Logger.i(
+            TAG,
+            "Download percentage ${100.0 * status.completedResourceCount / status.requiredResourceCount}, " +
+                "${status.bytesPerSecond} bytes/s, ${status.tilesPerSecond} tiles/s, " +
+                "${status.estimatedSecondsRemaining} s remaining"
+        )
         if (status.isComplete) {
             offlineRegion.setDownloadState(OfflineRegion.STATE_INACTIVE)
             countDownLatch.countDown()
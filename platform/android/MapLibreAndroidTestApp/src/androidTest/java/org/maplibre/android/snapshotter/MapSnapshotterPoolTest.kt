@@ -0,0 +1,118 @@
+package org.maplibre.android.snapshotter
+
+import android.graphics.Bitmap
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner
+import androidx.test.platform.app.InstrumentationRegistry
+import androidx.test.rule.ActivityTestRule
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.camera.CameraPosition
+import org.maplibre.android.geometry.LatLng
+import org.maplibre.android.maps.Style
+import org.maplibre.android.testapp.activity.FeatureOverviewActivity
+import org.maplibre.android.testapp.styles.TestStyles
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Integration test of [MapSnapshotterPool]
+ */
+@RunWith(AndroidJUnit4ClassRunner::class)
+class MapSnapshotterPoolTest {
+
+    @Rule
+    @JvmField
+    var rule = ActivityTestRule(FeatureOverviewActivity::class.java)
+
+    private val executor = Executors.newSingleThreadExecutor()
+    private val instrumentation = InstrumentationRegistry.getInstrumentation()
+
+    @Test
+    fun rendersJobsOfDifferentSizesOnTheExecutor() {
+        val latch = CountDownLatch(3)
+        val sizes = mutableListOf<Pair<Int, Int>>()
+        var pool: MapSnapshotterPool? = null
+        instrumentation.runOnMainSync {
+            pool = MapSnapshotterPool(rule.activity, options(), 2, executor)
+            for (size in listOf(128 to 128, 256 to 128, 64 to 256)) {
+                pool!!.submit(
+                    job(size.first, size.second, 0).withOverlay(size.first != 64),
+                    {
+                        assertNotEquals(rule.activity.mainLooper.thread, Thread.currentThread())
+                        synchronized(sizes) { sizes.add(it.bitmap.width to it.bitmap.height) }
+                        latch.countDown()
+                    },
+                    { fail(it) }
+                )
+            }
+        }
+        await(latch)
+        instrumentation.runOnMainSync { pool!!.release() }
+
+        assertEquals(setOf(128 to 128, 256 to 128, 64 to 256), sizes.toSet())
+    }
+
+    @Test
+    fun jobWithoutCameraUsesCameraOfOptions() {
+        val latch = CountDownLatch(3)
+        val bitmaps = arrayOfNulls<Bitmap>(3)
+        var pool: MapSnapshotterPool? = null
+        instrumentation.runOnMainSync {
+            // a single snapshotter renders the jobs in order
+            pool = MapSnapshotterPool(rule.activity, options(), 1, executor)
+            val jobs = listOf(
+                job(THUMBNAIL_SIZE, THUMBNAIL_SIZE, 5),
+                MapSnapshotterPool.Job(THUMBNAIL_SIZE, THUMBNAIL_SIZE),
+                job(THUMBNAIL_SIZE, THUMBNAIL_SIZE, 0)
+            )
+            jobs.forEachIndexed { index, job ->
+                pool!!.submit(job.withOverlay(false), {
+                    bitmaps[index] = it.bitmap
+                    latch.countDown()
+                }, { fail(it) })
+            }
+        }
+        await(latch)
+        instrumentation.runOnMainSync { pool!!.release() }
+
+        assertFalse(bitmaps[0]!!.sameAs(bitmaps[1]))
+        assertTrue(bitmaps[1]!!.sameAs(bitmaps[2]))
+    }
+
+    private fun options(): MapSnapshotter.Options {
+        return MapSnapshotter.Options(THUMBNAIL_SIZE, THUMBNAIL_SIZE)
+            .withPixelRatio(1.0f)
+            .withStyleBuilder(Style.Builder().fromUri(TestStyles.OPENFREEMAP_BRIGHT))
+            .withCameraPosition(camera(0))
+    }
+
+    private fun job(width: Int, height: Int, index: Int): MapSnapshotterPool.Job {
+        return MapSnapshotterPool.Job(width, height).withCameraPosition(camera(index))
+    }
+
+    // routes spread over a city
+    private fun camera(index: Int): CameraPosition {
+        return CameraPosition.Builder()
+            .zoom(13.0)
+            .target(LatLng(51.14 + index % 10 * 0.01, 5.74 + index / 10 % 10 * 0.01))
+            .build()
+    }
+
+    private fun await(latch: CountDownLatch) {
+        if (!latch.await(120, TimeUnit.SECONDS)) {
+            throw TimeoutException()
+        }
+    }
+
+    companion object {
+        private const val THUMBNAIL_SIZE = 256
+    }
+}
@@ -0,0 +1,140 @@
+package org.maplibre.android.snapshotter
+
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner
+import androidx.test.platform.app.InstrumentationRegistry
+import androidx.test.rule.ActivityTestRule
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.camera.CameraPosition
+import org.maplibre.android.geometry.LatLng
+import org.maplibre.android.maps.Style
+import org.maplibre.android.testapp.activity.FeatureOverviewActivity
+import org.maplibre.android.testapp.styles.TestStyles
+import java.io.File
+import java.io.FileOutputStream
+import java.nio.ByteBuffer
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Integration test of [SnapshotOutput] with [MapSnapshotter] and [MapSnapshotterPool]
+ */
+@RunWith(AndroidJUnit4ClassRunner::class)
+class SnapshotOutputTest {
+
+    @Rule
+    @JvmField
+    var rule = ActivityTestRule(FeatureOverviewActivity::class.java)
+
+    private val instrumentation = InstrumentationRegistry.getInstrumentation()
+
+    @Test
+    fun encodesIntoBuffer() {
+        val buffer = ByteBuffer.allocate(1024 * 1024)
+        val error = snapshot(SnapshotOutput.encoded(Bitmap.CompressFormat.PNG, 100, buffer))
+
+        assertEquals(null, error)
+        val image = BitmapFactory.decodeByteArray(buffer.array(), 0, buffer.position())
+        assertNotNull(image)
+        assertEquals(SIZE, image.width)
+        assertEquals(SIZE, image.height)
+    }
+
+    @Test
+    fun encodesIntoFileDescriptor() {
+        val file = File(rule.activity.cacheDir, "snapshot.jpg")
+        val error = FileOutputStream(file).use {
+            snapshot(SnapshotOutput.encoded(Bitmap.CompressFormat.JPEG, 80, it.fd))
+        }
+
+        assertEquals(null, error)
+        val image = BitmapFactory.decodeFile(file.path)
+        assertNotNull(image)
+        assertEquals(SIZE, image.width)
+        file.delete()
+    }
+
+    @Test
+    fun writesPixelsIntoBuffer() {
+        val buffer = ByteBuffer.allocateDirect(SIZE * SIZE * 4)
+        val error = snapshot(SnapshotOutput.pixels(buffer))
+
+        assertEquals(null, error)
+        assertEquals(SIZE * SIZE * 4, buffer.position())
+    }
+
+    @Test
+    fun reportsBufferTooSmall() {
+        val error = snapshot(SnapshotOutput.pixels(ByteBuffer.allocate(16)))
+
+        assertNotNull(error)
+        assertTrue(error!!.contains("too small"))
+    }
+
+    @Test
+    fun poolWritesOutputOnExecutor() {
+        val buffer = ByteBuffer.allocate(1024 * 1024)
+        val latch = CountDownLatch(1)
+        var recycled = false
+        var pool: MapSnapshotterPool? = null
+        instrumentation.runOnMainSync {
+            pool = MapSnapshotterPool(rule.activity, options(), 1, Executors.newSingleThreadExecutor())
+            pool!!.submit(
+                MapSnapshotterPool.Job(SIZE, SIZE).withOutput(SnapshotOutput.encoded(Bitmap.CompressFormat.WEBP, 90, buffer)),
+                {
+                    recycled = it.bitmap.isRecycled
+                    latch.countDown()
+                },
+                { latch.countDown() }
+            )
+        }
+        await(latch)
+        instrumentation.runOnMainSync { pool!!.release() }
+
+        assertTrue(recycled)
+        val image = BitmapFactory.decodeByteArray(buffer.array(), 0, buffer.position())
+        assertEquals(SIZE, image.width)
+    }
+
+    // takes a snapshot written to the output, returns the error if it failed
+    private fun snapshot(output: SnapshotOutput): String? {
+        val latch = CountDownLatch(1)
+        var error: String? = null
+        instrumentation.runOnMainSync {
+            MapSnapshotter(rule.activity, options().withOutput(output)).start({
+                assertTrue(it.bitmap.isRecycled)
+                latch.countDown()
+            }, {
+                error = it
+                latch.countDown()
+            })
+        }
+        await(latch)
+        return error
+    }
+
+    private fun options(): MapSnapshotter.Options {
+        return MapSnapshotter.Options(SIZE, SIZE)
+            .withPixelRatio(1.0f)
+            .withStyleBuilder(Style.Builder().fromUri(TestStyles.OPENFREEMAP_BRIGHT))
+            .withCameraPosition(CameraPosition.Builder().zoom(13.0).target(LatLng(51.14, 5.74)).build())
+    }
+
+    private fun await(latch: CountDownLatch) {
+        if (!latch.await(120, TimeUnit.SECONDS)) {
+            throw TimeoutException()
+        }
+    }
+
+    companion object {
+        private const val SIZE = 256
+    }
+}
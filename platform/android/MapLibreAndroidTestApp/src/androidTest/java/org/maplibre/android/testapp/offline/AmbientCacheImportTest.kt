@@ -0,0 +1,201 @@
+package org.maplibre.android.testapp.offline
+
+import android.content.Context
+import android.database.sqlite.SQLiteDatabase
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner
+import androidx.test.rule.ActivityTestRule
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.offline.AmbientCacheRecord
+import org.maplibre.android.offline.OfflineManager
+import org.maplibre.android.testapp.activity.FeatureOverviewActivity
+import java.io.File
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Integration test of [OfflineManager.importAmbientCache]
+ */
+@RunWith(AndroidJUnit4ClassRunner::class)
+class AmbientCacheImportTest {
+
+    @Rule
+    @JvmField
+    var rule = ActivityTestRule(FeatureOverviewActivity::class.java)
+
+    private val context: Context by lazy { rule.activity }
+
+    private val offlineManager: OfflineManager by lazy { OfflineManager.getInstance(context) }
+
+    @Before
+    fun setUp() {
+        // large enough for the imports not to evict each other
+        setMaximumAmbientCacheSize(CACHE_SIZE)
+    }
+
+    @Test
+    fun importsRecords() {
+        val prefix = "https://example.com/${System.nanoTime()}"
+        val callback = RecordingCallback()
+        rule.activity.runOnUiThread {
+            offlineManager.importAmbientCache(records(prefix, 2500), callback)
+        }
+        callback.await()
+
+        assertNull(callback.error)
+        assertEquals(2500L, callback.insertedCount)
+        assertEquals(listOf(1000L, 2000L, 2500L), callback.progress.map { it.first })
+
+        // imported again, the records are updated
+        val again = RecordingCallback()
+        rule.activity.runOnUiThread {
+            offlineManager.importAmbientCache(records(prefix, 10), again, false)
+        }
+        again.await()
+        assertEquals(0L, again.insertedCount)
+    }
+
+    @Test
+    fun cancelsBetweenBatches() {
+        val prefix = "https://example.com/${System.nanoTime()}"
+        val cancelled = CountDownLatch(1)
+        val data = ByteArray(TILE_SIZE)
+        // the second batch is read once the import was cancelled
+        val records = (0 until 2500).asSequence().map {
+            if (it == 1000) {
+                await(cancelled)
+            }
+            AmbientCacheRecord("$prefix/$it.pbf", data)
+        }.iterator()
+        val callback = RecordingCallback()
+        rule.activity.runOnUiThread {
+            val cacheImport = offlineManager.importAmbientCache(records, callback)
+            rule.activity.window.decorView.post {
+                cacheImport.cancel()
+                cancelled.countDown()
+            }
+        }
+
+        // the imports run one after the other
+        val next = RecordingCallback()
+        rule.activity.runOnUiThread {
+            offlineManager.importAmbientCache(records("$prefix/next", 1), next)
+        }
+        next.await()
+
+        assertNull(callback.insertedCount)
+        assertNull(callback.error)
+        assertTrue(callback.progress.size <= 1)
+        assertEquals(1L, next.insertedCount)
+    }
+
+    @Test
+    fun importsMBTiles() {
+        val file = File(context.cacheDir, "import.mbtiles")
+        file.delete()
+        SQLiteDatabase.openOrCreateDatabase(file, null).use { db ->
+            db.execSQL("CREATE TABLE tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB)")
+            for (x in 0 until 16) {
+                for (y in 0 until 16) {
+                    db.execSQL("INSERT INTO tiles VALUES (4, ?, ?, ?)", arrayOf<Any>(x, y, ByteArray(TILE_SIZE)))
+                }
+            }
+        }
+
+        val callback = RecordingCallback()
+        rule.activity.runOnUiThread {
+            offlineManager.importAmbientCache(
+                file,
+                "https://example.com/${System.nanoTime()}/{z}/{x}/{y}.pbf",
+                1.0f,
+                callback
+            )
+        }
+        callback.await()
+        file.delete()
+
+        assertNull(callback.error)
+        assertEquals(256L, callback.insertedCount)
+        assertEquals(256L to 256L, callback.progress.last())
+    }
+
+    @Test
+    fun importsNothingFromMissingMBTiles() {
+        val callback = RecordingCallback()
+        rule.activity.runOnUiThread {
+            offlineManager.importAmbientCache(File(context.cacheDir, "missing.mbtiles"), "{z}/{x}/{y}", 1.0f, callback)
+        }
+        callback.await()
+
+        assertNull(callback.insertedCount)
+        assertNotNull(callback.error)
+    }
+
+    private fun records(prefix: String, count: Int): Iterator<AmbientCacheRecord> {
+        // vector tiles compress to about a third
+        val data = ByteArray(TILE_SIZE) { (it % 3).toByte() }
+        return (0 until count).asSequence().map { AmbientCacheRecord("$prefix/$it.pbf", data) }.iterator()
+    }
+
+    private fun setMaximumAmbientCacheSize(size: Long) {
+        val latch = CountDownLatch(1)
+        rule.activity.runOnUiThread {
+            offlineManager.setMaximumAmbientCacheSize(
+                size,
+                object : OfflineManager.FileSourceCallback {
+                    override fun onSuccess() {
+                        latch.countDown()
+                    }
+
+                    override fun onError(message: String) {
+                        latch.countDown()
+                    }
+                }
+            )
+        }
+        await(latch)
+    }
+
+    private class RecordingCallback : OfflineManager.ImportAmbientCacheCallback {
+        val latch = CountDownLatch(1)
+        val progress = mutableListOf<Pair<Long, Long>>()
+        var insertedCount: Long? = null
+        var error: String? = null
+
+        override fun onProgress(importedCount: Long, totalCount: Long) {
+            progress.add(importedCount to totalCount)
+        }
+
+        override fun onImported(insertedCount: Long) {
+            this.insertedCount = insertedCount
+            latch.countDown()
+        }
+
+        override fun onError(message: String) {
+            error = message
+            latch.countDown()
+        }
+
+        fun await() {
+            await(latch)
+        }
+    }
+
+    companion object {
+        private const val CACHE_SIZE = 200L * 1024 * 1024
+        private const val TILE_SIZE = 8 * 1024
+
+        private fun await(latch: CountDownLatch) {
+            if (!latch.await(120, TimeUnit.SECONDS)) {
+                throw TimeoutException()
+            }
+        }
+    }
+}
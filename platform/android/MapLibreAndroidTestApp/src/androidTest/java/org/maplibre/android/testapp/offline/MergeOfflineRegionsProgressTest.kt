@@ -0,0 +1,94 @@
+package org.maplibre.android.testapp.offline
+
+import android.content.Context
+import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner
+import androidx.test.rule.ActivityTestRule
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.runTest
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.maplibre.android.offline.OfflineManager
+import org.maplibre.android.offline.OfflineRegion
+import org.maplibre.android.storage.FileSource
+import org.maplibre.android.testapp.activity.FeatureOverviewActivity
+import org.maplibre.android.testapp.utils.FileUtils
+import java.io.File
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Integration test of [OfflineManager.mergeOfflineRegions] with a [OfflineManager.MergeOfflineRegionsProgressCallback]
+ */
+@RunWith(AndroidJUnit4ClassRunner::class)
+class MergeOfflineRegionsProgressTest {
+
+    @Rule
+    @JvmField
+    var rule = ActivityTestRule(FeatureOverviewActivity::class.java)
+
+    private val context: Context by lazy { rule.activity }
+
+    @OptIn(ExperimentalCoroutinesApi::class)
+    @Test
+    fun mergesReadOnlyDatabaseWithProgress() {
+        var copied = false
+        runTest {
+            copied = FileUtils.copyFileFromAssetsTask(context, TEST_DB_FILE_NAME, FileSource.getResourcesCachePath(context))
+        }
+        assertTrue(copied)
+        val file = File(FileSource.getResourcesCachePath(context), TEST_DB_FILE_NAME)
+        // merged without writing to the database nor copying it
+        assertTrue(file.setReadOnly())
+
+        val latch = CountDownLatch(1)
+        val progress = mutableListOf<LongArray>()
+        var regions: Array<OfflineRegion>? = null
+        var failure: String? = null
+        rule.activity.runOnUiThread {
+            OfflineManager.getInstance(context).mergeOfflineRegions(
+                file.path,
+                object : OfflineManager.MergeOfflineRegionsProgressCallback {
+                    override fun onProgress(
+                        mergedTileCount: Long,
+                        tileCount: Long,
+                        mergedResourceCount: Long,
+                        resourceCount: Long
+                    ) {
+                        progress.add(longArrayOf(mergedTileCount, tileCount, mergedResourceCount, resourceCount))
+                    }
+
+                    override fun onMerge(offlineRegions: Array<OfflineRegion>?) {
+                        regions = offlineRegions
+                        latch.countDown()
+                    }
+
+                    override fun onError(error: String) {
+                        failure = error
+                        latch.countDown()
+                    }
+                }
+            )
+        }
+        if (!latch.await(60, TimeUnit.SECONDS)) {
+            throw TimeoutException()
+        }
+        file.setWritable(true)
+        file.delete()
+
+        assertNull(failure)
+        assertEquals(1, regions?.size)
+        assertTrue(progress.isNotEmpty())
+        val last = progress.last()
+        assertEquals(last[1], last[0])
+        assertEquals(last[3], last[2])
+    }
+
+    companion object {
+        private const val TEST_DB_FILE_NAME = "offline_test.db"
+    }
+}
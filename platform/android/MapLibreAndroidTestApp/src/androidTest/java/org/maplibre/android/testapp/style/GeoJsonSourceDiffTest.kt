@@ -0,0 +1,106 @@
+package org.maplibre.android.testapp.style
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.maplibre.android.camera.CameraUpdateFactory
+import org.maplibre.android.geometry.LatLng
+import org.maplibre.android.maps.MapLibreMap
+import org.maplibre.android.style.layers.CircleLayer
+import org.maplibre.android.style.sources.GeoJsonDiff
+import org.maplibre.android.style.sources.GeoJsonSource
+import org.maplibre.android.testapp.action.MapLibreMapAction.invoke
+import org.maplibre.android.testapp.activity.EspressoTest
+import org.maplibre.android.testapp.utils.TestingAsyncUtils
+import org.maplibre.geojson.Feature
+import org.maplibre.geojson.FeatureCollection
+import org.maplibre.geojson.Point
+
+/**
+ * Tests for [GeoJsonSource.updateGeoJson]
+ */
+class GeoJsonSourceDiffTest : EspressoTest() {
+
+    @Test
+    fun diffAddsUpdatesAndRemovesFeatures() {
+        validateTestSetup()
+        invoke(maplibreMap) { uiController, maplibreMap ->
+            maplibreMap.moveCamera(CameraUpdateFactory.newLatLngZoom(LatLng(5.0, 5.0), 2.0))
+            val source = GeoJsonSource(ID_SOURCE)
+            source.setRetainFeatures(true)
+            source.setGeoJson(FeatureCollection.fromFeatures(listOf(point("a", 0.0, 0.0), point("b", 10.0, 10.0))))
+            maplibreMap.style!!.addSource(source)
+            maplibreMap.style!!.addLayer(CircleLayer(ID_LAYER, ID_SOURCE))
+
+            source.updateGeoJson(
+                GeoJsonDiff()
+                    .remove("a")
+                    .update(point("b", 20.0, 20.0))
+                    .add(point("c", -10.0, -10.0))
+            )
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+
+            assertEquals(0, featuresAt(maplibreMap, 0.0, 0.0))
+            assertEquals(0, featuresAt(maplibreMap, 10.0, 10.0))
+            assertEquals(1, featuresAt(maplibreMap, 20.0, 20.0))
+            assertEquals(1, featuresAt(maplibreMap, -10.0, -10.0))
+        }
+    }
+
+    @Test
+    fun diffsAreNotCoalesced() {
+        validateTestSetup()
+        invoke(maplibreMap) { uiController, maplibreMap ->
+            maplibreMap.moveCamera(CameraUpdateFactory.newLatLngZoom(LatLng(5.0, 5.0), 2.0))
+            val source = GeoJsonSource(ID_SOURCE)
+            maplibreMap.style!!.addSource(source)
+            maplibreMap.style!!.addLayer(CircleLayer(ID_LAYER, ID_SOURCE))
+
+            source.setRetainFeatures(true)
+            source.setGeoJson(FeatureCollection.fromFeatures(listOf(point("a", 0.0, 0.0))))
+            source.updateGeoJson(GeoJsonDiff().add(point("b", 10.0, 10.0)))
+            source.updateGeoJson(GeoJsonDiff().add(point("c", 20.0, 20.0)))
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+
+            assertEquals(1, featuresAt(maplibreMap, 0.0, 0.0))
+            assertEquals(1, featuresAt(maplibreMap, 10.0, 10.0))
+            assertEquals(1, featuresAt(maplibreMap, 20.0, 20.0))
+        }
+    }
+
+    @Test
+    fun featuresAreNotRetainedByDefault() {
+        validateTestSetup()
+        invoke(maplibreMap) { uiController, maplibreMap ->
+            maplibreMap.moveCamera(CameraUpdateFactory.newLatLngZoom(LatLng(5.0, 5.0), 2.0))
+            val source = GeoJsonSource(ID_SOURCE, FeatureCollection.fromFeatures(listOf(point("a", 0.0, 0.0))))
+            maplibreMap.style!!.addSource(source)
+            maplibreMap.style!!.addLayer(CircleLayer(ID_LAYER, ID_SOURCE))
+
+            // logged and ignored, the features set before weren't kept
+            source.updateGeoJson(GeoJsonDiff().add(point("b", 10.0, 10.0)))
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+            assertEquals(1, featuresAt(maplibreMap, 0.0, 0.0))
+            assertEquals(0, featuresAt(maplibreMap, 10.0, 10.0))
+
+            // kept once the source was updated incrementally
+            source.setGeoJson(FeatureCollection.fromFeatures(listOf(point("c", 20.0, 20.0))))
+            source.updateGeoJson(GeoJsonDiff().add(point("b", 10.0, 10.0)))
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+            assertEquals(1, featuresAt(maplibreMap, 10.0, 10.0))
+            assertEquals(1, featuresAt(maplibreMap, 20.0, 20.0))
+        }
+    }
+
+    private fun point(id: String, longitude: Double, latitude: Double) =
+        Feature.fromGeometry(Point.fromLngLat(longitude, latitude), null, id)
+
+    private fun featuresAt(maplibreMap: MapLibreMap, latitude: Double, longitude: Double): Int {
+        val point = maplibreMap.projection.toScreenLocation(LatLng(latitude, longitude))
+        return maplibreMap.queryRenderedFeatures(point, ID_LAYER).size
+    }
+
+    companion object {
+        private const val ID_SOURCE = "diff-source"
+        private const val ID_LAYER = "diff-layer"
+    }
+}
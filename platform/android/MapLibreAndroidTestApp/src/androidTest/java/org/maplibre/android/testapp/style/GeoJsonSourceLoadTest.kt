@@ -0,0 +1,219 @@
+package org.maplibre.android.testapp.style
+
+import androidx.test.espresso.UiController
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.maplibre.android.camera.CameraUpdateFactory
+import org.maplibre.android.geometry.LatLng
+import org.maplibre.android.maps.MapLibreMap
+import org.maplibre.android.style.layers.CircleLayer
+import org.maplibre.android.style.sources.GeoJsonLoad
+import org.maplibre.android.style.sources.GeoJsonSource
+import org.maplibre.android.testapp.action.MapLibreMapAction.invoke
+import org.maplibre.android.testapp.activity.EspressoTest
+import org.maplibre.android.testapp.utils.TestingAsyncUtils
+import java.io.ByteArrayInputStream
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.nio.ByteBuffer
+
+/**
+ * Tests for [GeoJsonSource.loadGeoJson]
+ */
+class GeoJsonSourceLoadTest : EspressoTest() {
+
+    @Test
+    fun loadsFromStreamFileAndBuffer() {
+        validateTestSetup()
+        invoke(maplibreMap) { uiController, maplibreMap ->
+            val source = addSource(maplibreMap)
+            val json = points(listOf(0.0 to 0.0, 10.0 to 10.0))
+
+            val streamLoad = RecordingCallback()
+            source.loadGeoJson(ByteArrayInputStream(json.toByteArray()), streamLoad)
+            streamLoad.await(uiController)
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+            assertEquals("loaded", streamLoad.outcome)
+            assertEquals(1, featuresAt(maplibreMap, 10.0, 10.0))
+
+            val file = File(context.cacheDir, "load.geojson")
+            file.writeText(points(listOf(20.0 to 20.0)))
+            val fileLoad = RecordingCallback()
+            source.loadGeoJson(file, fileLoad)
+            fileLoad.await(uiController)
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+            assertEquals("loaded", fileLoad.outcome)
+            assertEquals(file.length(), fileLoad.totalBytes)
+            assertEquals(0, featuresAt(maplibreMap, 10.0, 10.0))
+            assertEquals(1, featuresAt(maplibreMap, 20.0, 20.0))
+            file.delete()
+
+            val bytes = points(listOf(-20.0 to -20.0)).toByteArray()
+            val buffer = ByteBuffer.allocateDirect(bytes.size).put(bytes)
+            buffer.flip()
+            val bufferLoad = RecordingCallback()
+            source.loadGeoJson(buffer, bufferLoad)
+            bufferLoad.await(uiController)
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+            assertEquals("loaded", bufferLoad.outcome)
+            assertEquals(1, featuresAt(maplibreMap, -20.0, -20.0))
+        }
+    }
+
+    @Test
+    fun failedLoadKeepsData() {
+        validateTestSetup()
+        invoke(maplibreMap) { uiController, maplibreMap ->
+            val source = addSource(maplibreMap)
+            source.setGeoJson(points(listOf(10.0 to 10.0)))
+
+            val invalid = RecordingCallback()
+            source.loadGeoJson(ByteArrayInputStream("{ \"type\": ".toByteArray()), invalid)
+            invalid.await(uiController)
+
+            val failing = RecordingCallback()
+            source.loadGeoJson(
+                object : InputStream() {
+                    override fun read(): Int = throw IOException("disk removed")
+                },
+                failing
+            )
+            failing.await(uiController)
+
+            val missing = RecordingCallback()
+            source.loadGeoJson(File(context.cacheDir, "missing.geojson"), missing)
+            missing.await(uiController)
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+
+            assertEquals("error", invalid.outcome)
+            assertEquals("error", failing.outcome)
+            assertEquals("disk removed", failing.error)
+            assertEquals("error", missing.outcome)
+            assertEquals(1, featuresAt(maplibreMap, 10.0, 10.0))
+        }
+    }
+
+    @Test
+    fun cancelledLoadKeepsData() {
+        validateTestSetup()
+        invoke(maplibreMap) { uiController, maplibreMap ->
+            val source = addSource(maplibreMap)
+            source.setGeoJson(points(listOf(10.0 to 10.0)))
+
+            val cancelled = RecordingCallback()
+            source.loadGeoJson(ByteArrayInputStream(points(grid(50_000)).toByteArray()), cancelled).cancel()
+            cancelled.await(uiController)
+
+            // replaced by the data set before the load started
+            val superseded = RecordingCallback()
+            source.loadGeoJson(ByteArrayInputStream(points(grid(50_000)).toByteArray()))
+            source.loadGeoJson(ByteArrayInputStream(points(listOf(0.0 to 0.0)).toByteArray()), superseded)
+            source.setGeoJson(points(listOf(10.0 to 10.0)))
+            superseded.await(uiController)
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+
+            assertEquals("cancelled", cancelled.outcome)
+            assertEquals("cancelled", superseded.outcome)
+            assertEquals(1, featuresAt(maplibreMap, 10.0, 10.0))
+            assertEquals(0, featuresAt(maplibreMap, 0.0, 0.0))
+        }
+    }
+
+    /**
+     * Loading a large file only blocks the main thread for less than a frame, where setting it as a String takes
+     * much longer.
+     */
+    @Test
+    fun loadDoesNotBlockMainThread() {
+        validateTestSetup()
+        invoke(maplibreMap) { uiController, maplibreMap ->
+            val source = addSource(maplibreMap)
+            val file = File(context.cacheDir, "large.geojson")
+            file.writeText(points(grid(300_000)))
+
+            // the String is built on the main thread, as setGeoJson needs it
+            var start = System.nanoTime()
+            source.setGeoJson(file.readText())
+            val blocked = System.nanoTime() - start
+            TestingAsyncUtils.waitForLayer(uiController, mapView)
+
+            val load = RecordingCallback()
+            start = System.nanoTime()
+            source.loadGeoJson(file, load)
+            val loadBlocked = System.nanoTime() - start
+            load.await(uiController)
+            file.delete()
+
+            assertEquals("loaded", load.outcome)
+            assertTrue(load.progressCount > 0)
+            assertTrue("loadGeoJson blocked ${loadBlocked / 1000} us", loadBlocked < FRAME_NANOS)
+            assertTrue(loadBlocked * 10 < blocked)
+        }
+    }
+
+    private fun addSource(maplibreMap: MapLibreMap): GeoJsonSource {
+        maplibreMap.moveCamera(CameraUpdateFactory.newLatLngZoom(LatLng(5.0, 5.0), 2.0))
+        val source = GeoJsonSource(ID_SOURCE)
+        maplibreMap.style!!.addSource(source)
+        maplibreMap.style!!.addLayer(CircleLayer(ID_LAYER, ID_SOURCE))
+        return source
+    }
+
+    private fun grid(count: Int): List<Pair<Double, Double>> {
+        return List(count) { Pair(-60.0 + it % 1000 * 0.1, -60.0 + it / 1000 % 1000 * 0.1) }
+    }
+
+    // a FeatureCollection of points at the longitudes and latitudes
+    private fun points(coordinates: List<Pair<Double, Double>>): String {
+        return coordinates.withIndex().joinToString(",", "{\"type\":\"FeatureCollection\",\"features\":[", "]}") {
+            "{\"type\":\"Feature\",\"id\":${it.index},\"properties\":{\"name\":\"parcel ${it.index}\"}," +
+                "\"geometry\":{\"type\":\"Point\",\"coordinates\":[${it.value.first},${it.value.second}]}}"
+        }
+    }
+
+    private fun featuresAt(maplibreMap: MapLibreMap, latitude: Double, longitude: Double): Int {
+        val point = maplibreMap.projection.toScreenLocation(LatLng(latitude, longitude))
+        return maplibreMap.queryRenderedFeatures(point, ID_LAYER).size
+    }
+
+    private class RecordingCallback : GeoJsonLoad.Callback {
+        var outcome: String? = null
+        var error: String? = null
+        var totalBytes = 0L
+        var progressCount = 0
+
+        override fun onProgress(bytesRead: Long, totalBytes: Long) {
+            this.totalBytes = totalBytes
+            progressCount++
+        }
+
+        override fun onLoaded() {
+            outcome = "loaded"
+        }
+
+        override fun onError(error: String) {
+            outcome = "error"
+            this.error = error
+        }
+
+        override fun onCancelled() {
+            outcome = "cancelled"
+        }
+
+        fun await(uiController: UiController) {
+            val start = System.nanoTime()
+            while (outcome == null && System.nanoTime() - start < TIMEOUT) {
+                uiController.loopMainThreadForAtLeast(10)
+            }
+        }
+    }
+
+    companion object {
+        private const val ID_SOURCE = "load-source"
+        private const val ID_LAYER = "load-layer"
+        private const val TIMEOUT = 30_000_000_000L
+        private const val FRAME_NANOS = 16_000_000L
+    }
+}
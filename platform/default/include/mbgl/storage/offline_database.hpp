@@ -13,6 +13,7 @@
 #include <memory>
 #include <string>
 #include <optional>
+#include <vector>
 
 namespace mapbox {
 namespace sqlite {
@@ -37,6 +38,36 @@ struct MapboxTileLimitExceededException : util::Exception {
         : util::Exception("Mapbox tile limit exceeded") {}
 };
 
+// How far the download of the tiles of a tileset got, in the order OfflineDownload queues them.
+struct OfflineTilesetCheckpoint {
+    uint64_t tileTotal = 0; // The tiles of the tileset in the region
+    uint64_t position = 0;  // The tiles, from the start, that are done
+    uint64_t tileCount = 0; // The tiles among them that are stored, the others weren't found
+    uint64_t tileSize = 0;  // The stored size of these tiles
+};
+
+// Reads the tiles of an MBTiles file chunk by chunk, as the tiles of a URL template.
+class MBTilesReader {
+public:
+    // Throws when the file can't be opened or has no tiles table
+    MBTilesReader(const std::string& path, std::string urlTemplate, float pixelRatio);
+    ~MBTilesReader();
+
+    uint64_t getTileCount() const { return tileCount; }
+
+    // Reads up to `limit` tiles, none once all were read. Gzipped tile data is decompressed.
+    std::list<std::tuple<Resource, Response>> read(std::size_t limit);
+
+private:
+    std::unique_ptr<mapbox::sqlite::Database> db;
+    std::unique_ptr<mapbox::sqlite::Statement> statement;
+    std::unique_ptr<mapbox::sqlite::Query> query;
+    const std::string urlTemplate;
+    const float pixelRatio;
+    uint64_t tileCount = 0;
+    bool done = false;
+};
+
 class OfflineDatabase {
 public:
     OfflineDatabase(std::string path, const TileServerOptions& options);
@@ -50,6 +81,11 @@ public:
     // Return value is (inserted, stored size)
     std::pair<bool, uint64_t> put(const Resource&, const Response&);
 
+    // Puts the resources into the ambient cache in a single transaction, compressing their data or storing it
+    // as is. Return value is the number of resources that weren't cached yet, the others are updated.
+    expected<uint64_t, std::exception_ptr> putResources(const std::list<std::tuple<Resource, Response>>&,
+                                                        bool compress);
+
     // Force Mapbox GL Native to revalidate tiles stored in the ambient
     // cache with the tile server before using them, making sure they
     // are the latest version. This is more efficient than cleaning the
@@ -71,6 +107,15 @@ public:
 
     expected<OfflineRegions, std::exception_ptr> mergeDatabase(const std::string& sideDatabasePath);
 
+    // Merges a side database incrementally, attaching it read-only. The first call creates the regions, then
+    // each call copies up to `chunkSize` of the tiles, or else of the resources, in a transaction along with
+    // how far the merge got, so that the next call continues from there, also in another process. Return value
+    // is the progress once the chunk is merged.
+    expected<OfflineMergeProgress, std::exception_ptr> mergeDatabaseChunk(const std::string& sideDatabasePath,
+                                                                          uint64_t chunkSize);
+    // Ends a complete incremental merge. Return value is the merged regions.
+    expected<OfflineRegions, std::exception_ptr> finishMergeDatabase(const std::string& sideDatabasePath);
+
     expected<OfflineRegionMetadata, std::exception_ptr> updateMetadata(int64_t regionID, const OfflineRegionMetadata&);
 
     std::exception_ptr deleteRegion(OfflineRegion&&);
@@ -80,7 +125,15 @@ public:
     std::optional<std::pair<Response, uint64_t>> getRegionResource(const Resource&);
     std::optional<int64_t> hasRegionResource(const Resource&);
     uint64_t putRegionResource(int64_t regionID, const Resource&, const Response&);
-    void putRegionResources(int64_t regionID, const std::list<std::tuple<Resource, Response>>&, OfflineRegionStatus&);
+    // Return value is the stored size of each resource, empty when the resources couldn't be stored
+    std::vector<uint64_t> putRegionResources(int64_t regionID,
+                                             const std::list<std::tuple<Resource, Response>>&,
+                                             OfflineRegionStatus&);
+
+    // Keyed by the URL template of the tileset
+    std::map<std::string, OfflineTilesetCheckpoint> getRegionCheckpoints(int64_t regionID);
+    void putRegionCheckpoints(int64_t regionID, const std::map<std::string, OfflineTilesetCheckpoint>&);
+    void deleteRegionCheckpoints(int64_t regionID);
 
     expected<OfflineRegionDefinition, std::exception_ptr> getRegionDefinition(int64_t regionID);
     expected<OfflineRegionStatus, std::exception_ptr> getRegionCompletedStatus(int64_t regionID);
@@ -112,6 +165,11 @@ private:
     void migrateToVersion5();
     void migrateToVersion3();
     void migrateToVersion6();
+    void createCheckpointTable();
+    void createMergeCheckpointTable();
+    void attachSideDatabase(const std::string& path);
+    uint64_t getSideMapboxTileCountToMerge();
+    OfflineMergeProgress mergeDatabaseChunkInternal(const std::string& sideDatabasePath, uint64_t chunkSize);
     void cleanup();
     bool disabled();
     void vacuum();
@@ -131,7 +189,7 @@ private:
 
     std::optional<std::pair<Response, uint64_t>> getInternal(const Resource&);
     std::optional<int64_t> hasInternal(const Resource&);
-    std::pair<bool, uint64_t> putInternal(const Resource&, const Response&, bool evict);
+    std::pair<bool, uint64_t> putInternal(const Resource&, const Response&, bool evict, bool compress);
 
     // Return value is true iff the resource was previously unused by any other regions.
     bool markUsed(int64_t regionID, const Resource&);
@@ -186,6 +244,9 @@ private:
 
     bool autopack = true;
     bool readOnly = false;
+    // Whether the checkpoint tables were created on the current connection
+    bool checkpointTableCreated = false;
+    bool mergeCheckpointTableCreated = false;
 };
 
 } // namespace mbgl
@@ -2,16 +2,20 @@
 
 #include <mbgl/storage/file_source.hpp>
 #include <mbgl/storage/offline.hpp>
+#include <mbgl/storage/offline_database.hpp>
 #include <mbgl/storage/resource.hpp>
+#include <mbgl/util/chrono.hpp>
 
 #include <list>
+#include <map>
 #include <unordered_set>
 #include <memory>
 #include <deque>
+#include <optional>
+#include <vector>
 
 namespace mbgl {
 
-class OfflineDatabase;
 class FileSource;
 class AsyncRequest;
 class Response;
@@ -33,10 +37,51 @@ public:
 
     void setObserver(std::unique_ptr<OfflineRegionObserver>);
     void setState(OfflineRegionDownloadState);
+    void setOptions(const OfflineRegionDownloadOptions&);
 
     OfflineRegionStatus getStatus() const;
 
 private:
+    /*
+     * The tiles of a tileset, in the order they're queued, and how many of them
+     * are done from the start: downloaded and stored, found in the database, or
+     * not found on the server. That prefix is the checkpoint of the tileset.
+     */
+    struct TilesetProgress {
+        std::string urlTemplate;
+        OfflineTilesetCheckpoint checkpoint;
+        // The tiles done past the prefix, with their stored size or none when not found
+        std::map<uint64_t, std::optional<uint64_t>> doneAhead;
+        bool changed = false;
+
+        void done(uint64_t index, std::optional<uint64_t> size);
+    };
+
+    struct QueuedResource {
+        Resource resource;
+        std::string host;
+        std::shared_ptr<TilesetProgress> tileset;
+        uint64_t index = 0;
+        // The order of the queue: the zoom level when ordered by zoom, then the order they were queued in
+        int zoom = 0;
+        int64_t sequence = 0;
+    };
+
+    // A tile that is done once its resource is stored for the region
+    struct PendingTile {
+        std::shared_ptr<TilesetProgress> tileset;
+        uint64_t index = 0;
+        uint64_t size = 0;
+    };
+
+    // The downloaded bytes, tiles and resources at a point in time, for the rates of the status
+    struct Sample {
+        TimePoint time;
+        uint64_t bytes = 0;
+        uint64_t tiles = 0;
+        uint64_t resources = 0;
+    };
+
     void activateDownload();
     void continueDownload();
     void deactivateDownload();
@@ -48,6 +93,14 @@ private:
      * is deactivated, all in progress requests are cancelled.
      */
     void ensureResource(Resource&&, std::function<void(Response)> = {});
+    void ensureResource(QueuedResource&&, std::function<void(Response)> = {});
+
+    // The next resource to request, from the first host below its limit of concurrent requests
+    std::optional<QueuedResource> nextResource();
+    void onResourceDone(const QueuedResource&);
+    void saveCheckpoints();
+    void notifyStatusChanged();
+    void updateRates();
 
     void onMapboxTileCountLimitExceeded();
 
@@ -57,13 +110,30 @@ private:
     FileSource& onlineFileSource;
     OfflineRegionStatus status;
     std::unique_ptr<OfflineRegionObserver> observer;
+    OfflineRegionDownloadOptions options;
+    OfflineRegionDownloadOptions activeOptions;
 
     std::list<std::unique_ptr<AsyncRequest>> requests;
     std::set<std::string> requiredSourceURLs;
-    std::deque<Resource> resourcesRemaining;
+    // Queued resources by host, or all of them under an empty host without a limit per host
+    std::map<std::string, std::deque<QueuedResource>> resourcesRemaining;
+    std::map<std::string, uint32_t> hostRequests;
+    int64_t frontSequence = 0;
+    int64_t backSequence = 0;
     std::list<Resource> resourcesToBeMarkedAsUsed;
     std::list<std::tuple<Resource, Response>> buffer;
 
+    // The checkpoints of the tilesets, with the tiles of the buffer and those to be marked as used
+    std::map<std::string, OfflineTilesetCheckpoint> storedCheckpoints;
+    std::vector<std::shared_ptr<TilesetProgress>> tilesets;
+    std::vector<PendingTile> bufferedTiles;
+    std::vector<PendingTile> tilesToBeMarkedAsUsed;
+
+    std::deque<Sample> samples;
+    uint64_t downloadedBytes = 0;
+    uint64_t downloadedTiles = 0;
+    uint64_t downloadedResources = 0;
+
     void queueResource(Resource&&);
     void queueTiles(style::SourceType, uint16_t tileSize, const Tileset&);
     void markPendingUsedResources();
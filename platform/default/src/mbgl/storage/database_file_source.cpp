@@ -18,8 +18,11 @@
 namespace mbgl {
 class DatabaseFileSourceThread {
 public:
-    DatabaseFileSourceThread(std::shared_ptr<FileSource> onlineFileSource_, const std::string& cachePath)
-        : db(std::make_unique<OfflineDatabase>(cachePath, onlineFileSource_->getResourceOptions().tileServerOptions())),
+    DatabaseFileSourceThread(ActorRef<DatabaseFileSourceThread> self_,
+                             std::shared_ptr<FileSource> onlineFileSource_,
+                             const std::string& cachePath)
+        : self(std::move(self_)),
+          db(std::make_unique<OfflineDatabase>(cachePath, onlineFileSource_->getResourceOptions().tileServerOptions())),
           onlineFileSource(std::move(onlineFileSource_)) {}
 
     void request(const Resource& resource, const ActorRef<FileSourceRequest>& req) {
@@ -60,6 +63,68 @@ public:
 
     void put(const Resource& resource, const Response& response) { db->put(resource, response); }
 
+    void putResources(const std::list<std::tuple<Resource, Response>>& resources,
+                      bool compress,
+                      const std::function<void(expected<uint64_t, std::exception_ptr>)>& callback) {
+        callback(db->putResources(resources, compress));
+    }
+
+    void importMBTiles(const std::string& path,
+                       const std::string& urlTemplate,
+                       float pixelRatio,
+                       bool compress,
+                       const std::function<void(uint64_t, uint64_t)>& progress,
+                       const std::function<void(expected<uint64_t, std::exception_ptr>)>& callback) {
+        std::shared_ptr<MBTilesReader> reader;
+        try {
+            reader = std::make_shared<MBTilesReader>(path, urlTemplate, pixelRatio);
+        } catch (...) {
+            callback(unexpected<std::exception_ptr>(std::current_exception()));
+            return;
+        }
+        importMBTilesChunk(std::move(reader), compress, 0, 0, progress, callback);
+    }
+
+    // Each chunk is a task of its own, the requests queued meanwhile are served in between
+    void importMBTilesChunk(const std::shared_ptr<MBTilesReader>& reader,
+                            bool compress,
+                            uint64_t readCount,
+                            uint64_t storedCount,
+                            const std::function<void(uint64_t, uint64_t)>& progress,
+                            const std::function<void(expected<uint64_t, std::exception_ptr>)>& callback) {
+        std::list<std::tuple<Resource, Response>> tiles;
+        try {
+            tiles = reader->read(kImportBatchSize);
+        } catch (...) {
+            callback(unexpected<std::exception_ptr>(std::current_exception()));
+            return;
+        }
+
+        if (tiles.empty()) {
+            callback(storedCount);
+            return;
+        }
+
+        auto stored = db->putResources(tiles, compress);
+        if (!stored) {
+            callback(unexpected<std::exception_ptr>(stored.error()));
+            return;
+        }
+
+        readCount += tiles.size();
+        storedCount += *stored;
+        if (progress) {
+            progress(readCount, reader->getTileCount());
+        }
+        self.invoke(&DatabaseFileSourceThread::importMBTilesChunk,
+                    reader,
+                    compress,
+                    readCount,
+                    storedCount,
+                    progress,
+                    callback);
+    }
+
     void invalidateAmbientCache(const std::function<void(std::exception_ptr)>& callback) {
         callback(db->invalidateAmbientCache());
     }
@@ -92,6 +157,47 @@ public:
         callback(db->mergeDatabase(sideDatabasePath));
     }
 
+    void mergeOfflineRegionsIncrementally(
+        const std::string& sideDatabasePath,
+        const std::function<void(OfflineMergeProgress)>& progress,
+        const std::function<void(expected<OfflineRegions, std::exception_ptr>)>& callback) {
+        const uint64_t mergeID = ++lastMergeID;
+        activeMerges[sideDatabasePath] = mergeID;
+        mergeChunk(sideDatabasePath, mergeID, progress, callback);
+    }
+
+    // Each chunk is a task of its own, the requests queued meanwhile are served in between
+    void mergeChunk(const std::string& sideDatabasePath,
+                    uint64_t mergeID,
+                    const std::function<void(OfflineMergeProgress)>& progress,
+                    const std::function<void(expected<OfflineRegions, std::exception_ptr>)>& callback) {
+        auto it = activeMerges.find(sideDatabasePath);
+        if (it == activeMerges.end() || it->second != mergeID) {
+            callback(unexpected<std::exception_ptr>(
+                std::make_exception_ptr(std::runtime_error("The merge of " + sideDatabasePath + " was cancelled"))));
+            return;
+        }
+
+        auto merged = db->mergeDatabaseChunk(sideDatabasePath, kMergeChunkSize);
+        if (!merged) {
+            activeMerges.erase(it);
+            callback(unexpected<std::exception_ptr>(merged.error()));
+            return;
+        }
+
+        if (progress) {
+            progress(*merged);
+        }
+        if (merged->complete()) {
+            activeMerges.erase(it);
+            callback(db->finishMergeDatabase(sideDatabasePath));
+            return;
+        }
+        self.invoke(&DatabaseFileSourceThread::mergeChunk, sideDatabasePath, mergeID, progress, callback);
+    }
+
+    void cancelMergeOfflineRegions(const std::string& sideDatabasePath) { activeMerges.erase(sideDatabasePath); }
+
     void updateMetadata(const int64_t regionID,
                         const OfflineRegionMetadata& metadata,
                         const std::function<void(expected<OfflineRegionMetadata, std::exception_ptr>)>& callback) {
@@ -128,6 +234,12 @@ public:
         }
     }
 
+    void setRegionDownloadOptions(int64_t regionID, const OfflineRegionDownloadOptions& options) {
+        if (auto download = getDownload(regionID)) {
+            download.value()->setOptions(options);
+        }
+    }
+
     void setOfflineMapboxTileCountLimit(uint64_t limit) { db->setOfflineMapboxTileCountLimit(limit); }
 
     void reopenDatabaseReadOnly(bool readOnly) { db->reopenDatabaseReadOnly(readOnly); }
@@ -152,8 +264,15 @@ private:
         return downloads.emplace(regionID, std::move(download)).first->second.get();
     }
 
+    static constexpr std::size_t kImportBatchSize = 1000;
+    static constexpr uint64_t kMergeChunkSize = 1000;
+
+    ActorRef<DatabaseFileSourceThread> self;
     std::unique_ptr<OfflineDatabase> db;
     std::map<int64_t, std::unique_ptr<OfflineDownload>> downloads;
+    // The incremental merges in progress by path, a merge started again replaces the previous one
+    std::map<std::string, uint64_t> activeMerges;
+    uint64_t lastMergeID = 0;
     std::shared_ptr<FileSource> onlineFileSource;
 };
 
@@ -253,6 +372,28 @@ void DatabaseFileSource::put(const Resource& resource, const Response& response)
     impl->actor().invoke(&DatabaseFileSourceThread::put, resource, response);
 }
 
+void DatabaseFileSource::putResources(std::list<std::tuple<Resource, Response>> resources,
+                                      bool compress,
+                                      std::function<void(expected<uint64_t, std::exception_ptr>)> callback) {
+    impl->actor().invoke(
+        &DatabaseFileSourceThread::putResources, std::move(resources), compress, std::move(callback));
+}
+
+void DatabaseFileSource::importMBTiles(const std::string& path,
+                                       const std::string& urlTemplate,
+                                       float pixelRatio,
+                                       bool compress,
+                                       std::function<void(uint64_t, uint64_t)> progress,
+                                       std::function<void(expected<uint64_t, std::exception_ptr>)> callback) {
+    impl->actor().invoke(&DatabaseFileSourceThread::importMBTiles,
+                         path,
+                         urlTemplate,
+                         pixelRatio,
+                         compress,
+                         std::move(progress),
+                         std::move(callback));
+}
+
 void DatabaseFileSource::invalidateAmbientCache(std::function<void(std::exception_ptr)> callback) {
     impl->actor().invoke(&DatabaseFileSourceThread::invalidateAmbientCache, std::move(callback));
 }
@@ -287,6 +428,20 @@ void DatabaseFileSource::mergeOfflineRegions(
     impl->actor().invoke(&DatabaseFileSourceThread::mergeOfflineRegions, sideDatabasePath, std::move(callback));
 }
 
+void DatabaseFileSource::mergeOfflineRegions(
+    const std::string& sideDatabasePath,
+    std::function<void(OfflineMergeProgress)> progress,
+    std::function<void(expected<OfflineRegions, std::exception_ptr>)> callback) {
+    impl->actor().invoke(&DatabaseFileSourceThread::mergeOfflineRegionsIncrementally,
+                         sideDatabasePath,
+                         std::move(progress),
+                         std::move(callback));
+}
+
+void DatabaseFileSource::cancelMergeOfflineRegions(const std::string& sideDatabasePath) {
+    impl->actor().invoke(&DatabaseFileSourceThread::cancelMergeOfflineRegions, sideDatabasePath);
+}
+
 void DatabaseFileSource::updateOfflineMetadata(
     const int64_t regionID,
     const OfflineRegionMetadata& metadata,
@@ -313,6 +468,11 @@ void DatabaseFileSource::setOfflineRegionDownloadState(const OfflineRegion& regi
     impl->actor().invoke(&DatabaseFileSourceThread::setRegionDownloadState, region.getID(), state);
 }
 
+void DatabaseFileSource::setOfflineRegionDownloadOptions(const OfflineRegion& region,
+                                                         const OfflineRegionDownloadOptions& options) {
+    impl->actor().invoke(&DatabaseFileSourceThread::setRegionDownloadOptions, region.getID(), options);
+}
+
 void DatabaseFileSource::getOfflineRegionStatus(
     const OfflineRegion& region,
     std::function<void(expected<OfflineRegionStatus, std::exception_ptr>)> callback) const {
@@ -32,6 +32,10 @@ void OfflineDatabase::initialize() {
     assert(!db);
     assert(statements.empty());
 
+    // a new connection, the checkpoint tables may be missing from its database
+    checkpointTableCreated = false;
+    mergeCheckpointTableCreated = false;
+
     if (readOnly) {
         db = std::make_unique<mapbox::sqlite::Database>(mapbox::sqlite::Database::open(path, mapbox::sqlite::ReadOnly));
 
@@ -215,6 +219,49 @@ void OfflineDatabase::migrateToVersion6() {
     transaction.commit();
 }
 
+// The checkpoints of the downloads are created on demand, they don't need a schema version of their own: databases
+// without them are still valid, and the table is deleted with its region.
+void OfflineDatabase::createCheckpointTable() {
+    if (!db) {
+        initialize();
+    }
+    if (checkpointTableCreated) {
+        return;
+    }
+    db->exec(
+        "CREATE TABLE IF NOT EXISTS region_checkpoints ("
+        "  region_id INTEGER NOT NULL REFERENCES regions(id) ON DELETE CASCADE,"
+        "  url_template TEXT NOT NULL,"
+        "  tile_total INTEGER NOT NULL,"
+        "  position INTEGER NOT NULL,"
+        "  tile_count INTEGER NOT NULL,"
+        "  tile_size INTEGER NOT NULL,"
+        "  UNIQUE (region_id, url_template)"
+        ")");
+    checkpointTableCreated = true;
+}
+
+// The checkpoints of incremental merges are created on demand as well, keyed by the path of the side database.
+void OfflineDatabase::createMergeCheckpointTable() {
+    if (!db) {
+        initialize();
+    }
+    if (mergeCheckpointTableCreated) {
+        return;
+    }
+    db->exec(
+        "CREATE TABLE IF NOT EXISTS merge_checkpoints ("
+        "  path TEXT NOT NULL PRIMARY KEY,"
+        "  tile_id INTEGER NOT NULL,"
+        "  tile_count INTEGER NOT NULL,"
+        "  tile_total INTEGER NOT NULL,"
+        "  resource_id INTEGER NOT NULL,"
+        "  resource_count INTEGER NOT NULL,"
+        "  resource_total INTEGER NOT NULL"
+        ")");
+    mergeCheckpointTableCreated = true;
+}
+
 void OfflineDatabase::vacuum() {
     assert(db);
     checkFlags();
@@ -286,7 +333,7 @@ std::pair<bool, uint64_t> OfflineDatabase::put(const Resource& resource, const R
     }
 
     mapbox::sqlite::Transaction transaction(*db, mapbox::sqlite::Transaction::Immediate);
-    auto result = putInternal(resource, response, true);
+    auto result = putInternal(resource, response, true, true);
     transaction.commit();
     return result;
 } catch (...) {
@@ -294,9 +341,53 @@ std::pair<bool, uint64_t> OfflineDatabase::put(const Resource& resource, const R
     return {false, 0};
 }
 
+expected<uint64_t, std::exception_ptr> OfflineDatabase::putResources(
+    const std::list<std::tuple<Resource, Response>>& resources, bool compress) try {
+    if (readOnly) return 0;
+
+    if (!db) {
+        initialize();
+    }
+
+    if (disabled()) {
+        return 0;
+    }
+
+    // Makes room for the whole batch at once, rather than reading the page counts for each resource
+    uint64_t neededFreeSize = 0;
+    for (const auto& elem : resources) {
+        const auto& response = std::get<1>(elem);
+        if (response.data) {
+            neededFreeSize += response.data->size();
+        }
+    }
+
+    mapbox::sqlite::Transaction transaction(*db, mapbox::sqlite::Transaction::Immediate);
+    DatabaseSizeChangeStats stats(this);
+    if (!evict(neededFreeSize, stats)) {
+        Log::Info(Event::Database, "Unable to make space for entries");
+        return 0;
+    }
+
+    uint64_t count = 0;
+    for (const auto& elem : resources) {
+        if (putInternal(std::get<0>(elem), std::get<1>(elem), false, compress).first) {
+            count++;
+        }
+    }
+    updateAmbientCacheSize(stats);
+
+    transaction.commit();
+    return count;
+} catch (...) {
+    handleError("write resources");
+    return unexpected<std::exception_ptr>(std::current_exception());
+}
+
 std::pair<bool, uint64_t> OfflineDatabase::putInternal(const Resource& resource,
                                                        const Response& response,
-                                                       bool evict_) {
+                                                       bool evict_,
+                                                       bool compress) {
     checkFlags();
 
     if (response.error) {
@@ -307,7 +398,9 @@ std::pair<bool, uint64_t> OfflineDatabase::putInternal(const Resource& resource,
     bool compressed = false;
     uint64_t size = 0;
 
-    if (response.data) {
+    if (response.data && !compress) {
+        size = response.data->size();
+    } else if (response.data) {
         compressedData = util::compress(*response.data);
         compressed = compressedData.size() < response.data->size();
         size = compressed ? compressedData.size() : response.data->size();
@@ -902,27 +995,10 @@ expected<OfflineRegions, std::exception_ptr> OfflineDatabase::mergeDatabase(cons
         }
 
         auto currentTileCount = getOfflineMapboxTileCount();
-        // clang-format off
-         mapbox::sqlite::Query queryTiles{ getStatement(
-            "SELECT COUNT(DISTINCT st.id) "
-            "FROM side.tiles st "
-            //only consider region tiles, and not ambient tiles.
-            "JOIN side.region_tiles srt ON srt.tile_id = st.id "
-            "LEFT JOIN tiles t ON st.url_template = t.url_template AND "
-                "st.pixel_ratio = t.pixel_ratio AND "
-                "st.z = t.z AND "
-                "st.x = t.x AND "
-                "st.y = t.y "
-            "WHERE t.id IS NULL "
-            "AND st.url_template LIKE ?1 || '%'") };
-        // clang-format on
-        queryTiles.bind(1, tileServerOptions.uriSchemeAlias() + "://");
-        queryTiles.run();
-        auto countOfTilesToMerge = queryTiles.get<int64_t>(0);
+        auto countOfTilesToMerge = getSideMapboxTileCountToMerge();
         if ((countOfTilesToMerge + currentTileCount) > offlineMapboxTileCountLimit) {
             throw MapboxTileLimitExceededException();
         }
-        queryTiles.reset();
 
         mapbox::sqlite::Transaction transaction(*db);
         db->exec(mergeSideloadedDatabaseSQL);
@@ -955,6 +1031,339 @@ expected<OfflineRegions, std::exception_ptr> OfflineDatabase::mergeDatabase(cons
     return {};
 }
 
+uint64_t OfflineDatabase::getSideMapboxTileCountToMerge() {
+    // clang-format off
+    mapbox::sqlite::Query queryTiles{ getStatement(
+        "SELECT COUNT(DISTINCT st.id) "
+        "FROM side.tiles st "
+        //only consider region tiles, and not ambient tiles.
+        "JOIN side.region_tiles srt ON srt.tile_id = st.id "
+        "LEFT JOIN tiles t ON st.url_template = t.url_template AND "
+            "st.pixel_ratio = t.pixel_ratio AND "
+            "st.z = t.z AND "
+            "st.x = t.x AND "
+            "st.y = t.y "
+        "WHERE t.id IS NULL "
+        "AND st.url_template LIKE ?1 || '%'") };
+    // clang-format on
+    queryTiles.bind(1, tileServerOptions.uriSchemeAlias() + "://");
+    queryTiles.run();
+    return queryTiles.get<int64_t>(0);
+}
+
+// Attaches the side database read-only, so that it can be on read-only storage and is never modified
+void OfflineDatabase::attachSideDatabase(const std::string& path) {
+    static const char* hexDigits = "0123456789ABCDEF";
+    std::string uri = "file:";
+    for (const char c : path) {
+        if (c == '%' || c == '?' || c == '#') {
+            uri += '%';
+            uri += hexDigits[(c >> 4) & 0xF];
+            uri += hexDigits[c & 0xF];
+        } else {
+            uri += c;
+        }
+    }
+    uri += "?mode=ro";
+
+    mapbox::sqlite::Query query{getStatement("ATTACH DATABASE ?1 AS side")};
+    try {
+        query.bind(1, uri);
+        query.run();
+    } catch (const mapbox::sqlite::Exception&) {
+        // Without support for URI file names, the database is attached as is
+        query.reset();
+        query.bind(1, path);
+        query.run();
+    }
+}
+
+expected<OfflineMergeProgress, std::exception_ptr> OfflineDatabase::mergeDatabaseChunk(
+    const std::string& sideDatabasePath, uint64_t chunkSize) {
+    checkFlags();
+
+    try {
+        if (!db) {
+            initialize();
+        }
+        attachSideDatabase(sideDatabasePath);
+    } catch (const mapbox::sqlite::Exception& ex) {
+        Log::Error(Event::Database,
+                   static_cast<int>(ex.code),
+                   std::string("Can't attach database (") + sideDatabasePath + ") for merge: " + ex.what());
+
+        return unexpected<std::exception_ptr>(std::current_exception());
+    }
+    try {
+        auto progress = mergeDatabaseChunkInternal(sideDatabasePath, chunkSize);
+        db->exec("DETACH DATABASE side");
+        return progress;
+    } catch (const std::runtime_error& ex) {
+        db->exec("DETACH DATABASE side");
+        Log::Error(Event::Database, std::string(ex.what()));
+
+        return unexpected<std::exception_ptr>(std::current_exception());
+    }
+}
+
+/*
+   The tiles, then the resources, are copied by ranges of their ids in the side
+   database. A merge checkpoint holds the end of the last range copied with the
+   counts of the side database, counted once when the merge starts; a checkpoint
+   whose ranges end at ids the side database doesn't have belongs to another
+   database at the same path, and the merge starts over. Copying is idempotent:
+   tiles and resources the main database has in the same version or a newer one
+   are skipped, and the regions are matched by their definition and description.
+*/
+OfflineMergeProgress OfflineDatabase::mergeDatabaseChunkInternal(const std::string& sideDatabasePath,
+                                                                 uint64_t chunkSize) {
+    // Same versions as mergeDatabase()
+    auto sideUserVersion = static_cast<int>(getPragma<int64_t>("PRAGMA side.user_version"));
+    const auto mainUserVersion = getPragma<int64_t>("PRAGMA user_version");
+    if (sideUserVersion < 6 || sideUserVersion != mainUserVersion) {
+        throw std::runtime_error("Merge database has incorrect user_version");
+    }
+
+    createMergeCheckpointTable();
+
+    OfflineMergeProgress progress;
+    int64_t tileID = 0;
+    int64_t resourceID = 0;
+    bool resumed = false;
+    {
+        // clang-format off
+        mapbox::sqlite::Query query{ getStatement(
+            "SELECT tile_id, tile_count, tile_total, resource_id, resource_count, resource_total "
+            "FROM merge_checkpoints "
+            "WHERE path = ?1 ") };
+        // clang-format on
+        query.bind(1, sideDatabasePath);
+        if (query.run()) {
+            resumed = true;
+            tileID = query.get<int64_t>(0);
+            progress.mergedTileCount = query.get<int64_t>(1);
+            progress.tileCount = query.get<int64_t>(2);
+            resourceID = query.get<int64_t>(3);
+            progress.mergedResourceCount = query.get<int64_t>(4);
+            progress.resourceCount = query.get<int64_t>(5);
+        }
+    }
+
+    if (resumed) {
+        // Index lookups of the ends of the ranges copied so far
+        // clang-format off
+        mapbox::sqlite::Query query{ getStatement(
+            "SELECT (?1 = 0 OR EXISTS (SELECT 1 FROM side.region_tiles WHERE tile_id = ?1)) "
+            "   AND (?2 = 0 OR EXISTS (SELECT 1 FROM side.region_resources WHERE resource_id = ?2)) ") };
+        // clang-format on
+        query.bind(1, tileID);
+        query.bind(2, resourceID);
+        query.run();
+        resumed = query.get<int64_t>(0) && progress.mergedTileCount <= progress.tileCount &&
+                  progress.mergedResourceCount <= progress.resourceCount;
+    }
+
+    if (!resumed) {
+        progress = {};
+        tileID = 0;
+        resourceID = 0;
+
+        // clang-format off
+        mapbox::sqlite::Query query{ getStatement(
+            "SELECT (SELECT COUNT(DISTINCT tile_id) FROM side.region_tiles), "
+            "       (SELECT COUNT(DISTINCT resource_id) FROM side.region_resources) ") };
+        // clang-format on
+        query.run();
+        progress.tileCount = query.get<int64_t>(0);
+        progress.resourceCount = query.get<int64_t>(1);
+    }
+
+    if (!resumed &&
+        getSideMapboxTileCountToMerge() + getOfflineMapboxTileCount() > offlineMapboxTileCountLimit) {
+        throw MapboxTileLimitExceededException();
+    }
+
+    mapbox::sqlite::Transaction transaction(*db);
+
+    if (!resumed) {
+        // clang-format off
+        mapbox::sqlite::Query query{ getStatement(
+            "INSERT INTO regions "
+            "    SELECT DISTINCT NULL, sr.definition, sr.description "
+            "    FROM side.regions sr "
+            "    LEFT JOIN regions r ON sr.definition = r.definition AND sr.description IS r.description "
+            "    WHERE r.definition IS NULL ") };
+        // clang-format on
+        query.run();
+    }
+
+    if (progress.mergedTileCount < progress.tileCount) {
+        // clang-format off
+        mapbox::sqlite::Query rangeQuery{ getStatement(
+            "SELECT MAX(tile_id), COUNT(*) "
+            "FROM (SELECT DISTINCT tile_id FROM side.region_tiles WHERE tile_id > ?1 ORDER BY tile_id LIMIT ?2) ") };
+        // clang-format on
+        rangeQuery.bind(1, tileID);
+        rangeQuery.bind(2, static_cast<int64_t>(chunkSize));
+        rangeQuery.run();
+        const auto count = rangeQuery.get<int64_t>(1);
+        const auto lastTileID = count ? rangeQuery.get<int64_t>(0) : tileID;
+
+        // clang-format off
+        mapbox::sqlite::Query tilesQuery{ getStatement(
+            "REPLACE INTO tiles "
+            "    SELECT t.id, "
+            "        st.url_template, st.pixel_ratio, st.z, st.x, st.y, "
+            "        st.expires, st.modified, st.etag, st.data, st.compressed, st.accessed, st.must_revalidate "
+            "    FROM side.tiles st "
+            "    LEFT JOIN tiles t ON st.url_template = t.url_template AND st.pixel_ratio = t.pixel_ratio AND "
+            "        st.z = t.z AND st.x = t.x AND st.y = t.y "
+            "    WHERE st.id IN (SELECT tile_id FROM side.region_tiles WHERE tile_id > ?1 AND tile_id <= ?2) "
+            "    AND (t.id IS NULL OR st.modified > t.modified) ") };
+        // clang-format on
+        tilesQuery.bind(1, tileID);
+        tilesQuery.bind(2, lastTileID);
+        tilesQuery.run();
+
+        // clang-format off
+        mapbox::sqlite::Query regionTilesQuery{ getStatement(
+            "INSERT OR IGNORE INTO region_tiles "
+            "    SELECT r.id, t.id "
+            "    FROM side.region_tiles srt "
+            "    JOIN side.regions sr ON srt.region_id = sr.id "
+            "    JOIN regions r ON sr.definition = r.definition AND sr.description IS r.description "
+            "    JOIN side.tiles st ON srt.tile_id = st.id "
+            "    JOIN tiles t ON st.url_template = t.url_template AND st.pixel_ratio = t.pixel_ratio AND "
+            "        st.z = t.z AND st.x = t.x AND st.y = t.y "
+            "    WHERE srt.tile_id > ?1 AND srt.tile_id <= ?2 ") };
+        // clang-format on
+        regionTilesQuery.bind(1, tileID);
+        regionTilesQuery.bind(2, lastTileID);
+        regionTilesQuery.run();
+
+        tileID = lastTileID;
+        // The remaining count is the end of the merge for tiles removed meanwhile
+        progress.mergedTileCount = count ? progress.mergedTileCount + count : progress.tileCount;
+        offlineMapboxTileCount = std::nullopt;
+    } else if (progress.mergedResourceCount < progress.resourceCount) {
+        // clang-format off
+        mapbox::sqlite::Query rangeQuery{ getStatement(
+            "SELECT MAX(resource_id), COUNT(*) "
+            "FROM (SELECT DISTINCT resource_id FROM side.region_resources WHERE resource_id > ?1 "
+            "      ORDER BY resource_id LIMIT ?2) ") };
+        // clang-format on
+        rangeQuery.bind(1, resourceID);
+        rangeQuery.bind(2, static_cast<int64_t>(chunkSize));
+        rangeQuery.run();
+        const auto count = rangeQuery.get<int64_t>(1);
+        const auto lastResourceID = count ? rangeQuery.get<int64_t>(0) : resourceID;
+
+        // clang-format off
+        mapbox::sqlite::Query resourcesQuery{ getStatement(
+            "REPLACE INTO resources "
+            "    SELECT r.id, "
+            "        sr.url, sr.kind, sr.expires, sr.modified, sr.etag, "
+            "        sr.data, sr.compressed, sr.accessed, sr.must_revalidate "
+            "    FROM side.resources sr "
+            "    LEFT JOIN resources r ON sr.url = r.url "
+            "    WHERE sr.id IN (SELECT resource_id FROM side.region_resources "
+            "                    WHERE resource_id > ?1 AND resource_id <= ?2) "
+            "    AND (r.id IS NULL OR sr.modified > r.modified) ") };
+        // clang-format on
+        resourcesQuery.bind(1, resourceID);
+        resourcesQuery.bind(2, lastResourceID);
+        resourcesQuery.run();
+
+        // clang-format off
+        mapbox::sqlite::Query regionResourcesQuery{ getStatement(
+            "INSERT OR IGNORE INTO region_resources "
+            "    SELECT r.id, res.id "
+            "    FROM side.region_resources srr "
+            "    JOIN side.regions sr ON srr.region_id = sr.id "
+            "    JOIN regions r ON sr.definition = r.definition AND sr.description IS r.description "
+            "    JOIN side.resources sres ON srr.resource_id = sres.id "
+            "    JOIN resources res ON sres.url = res.url "
+            "    WHERE srr.resource_id > ?1 AND srr.resource_id <= ?2 ") };
+        // clang-format on
+        regionResourcesQuery.bind(1, resourceID);
+        regionResourcesQuery.bind(2, lastResourceID);
+        regionResourcesQuery.run();
+
+        resourceID = lastResourceID;
+        progress.mergedResourceCount = count ? progress.mergedResourceCount + count : progress.resourceCount;
+    }
+
+    // clang-format off
+    mapbox::sqlite::Query checkpointQuery{ getStatement(
+        "REPLACE INTO merge_checkpoints (path, tile_id, tile_count, tile_total, "
+        "                                resource_id, resource_count, resource_total) "
+        "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7) ") };
+    // clang-format on
+    checkpointQuery.bind(1, sideDatabasePath);
+    checkpointQuery.bind(2, tileID);
+    checkpointQuery.bind(3, static_cast<int64_t>(progress.mergedTileCount));
+    checkpointQuery.bind(4, static_cast<int64_t>(progress.tileCount));
+    checkpointQuery.bind(5, resourceID);
+    checkpointQuery.bind(6, static_cast<int64_t>(progress.mergedResourceCount));
+    checkpointQuery.bind(7, static_cast<int64_t>(progress.resourceCount));
+    checkpointQuery.run();
+
+    transaction.commit();
+    return progress;
+}
+
+expected<OfflineRegions, std::exception_ptr> OfflineDatabase::finishMergeDatabase(
+    const std::string& sideDatabasePath) {
+    checkFlags();
+
+    try {
+        if (!db) {
+            initialize();
+        }
+        attachSideDatabase(sideDatabasePath);
+    } catch (const mapbox::sqlite::Exception& ex) {
+        Log::Error(Event::Database,
+                   static_cast<int>(ex.code),
+                   std::string("Can't attach database (") + sideDatabasePath + ") for merge: " + ex.what());
+
+        return unexpected<std::exception_ptr>(std::current_exception());
+    }
+    try {
+        OfflineRegions result;
+        {
+            // clang-format off
+            mapbox::sqlite::Query queryRegions{ getStatement(
+                "SELECT DISTINCT r.id, r.definition, r.description "
+                "FROM side.regions sr "
+                "JOIN regions r ON sr.definition = r.definition AND sr.description IS r.description ") };
+            // clang-format on
+
+            while (queryRegions.run()) {
+                // Construct, then move because this constructor is private.
+                OfflineRegion region(queryRegions.get<int64_t>(0),
+                                     decodeOfflineRegionDefinition(queryRegions.get<std::string>(1)),
+                                     queryRegions.get<std::vector<uint8_t>>(2));
+                result.emplace_back(std::move(region));
+            }
+        }
+
+        createMergeCheckpointTable();
+        mapbox::sqlite::Query query{getStatement("DELETE FROM merge_checkpoints WHERE path = ?1")};
+        query.bind(1, sideDatabasePath);
+        query.run();
+        query.reset();
+
+        db->exec("DETACH DATABASE side");
+        // Explicit move to avoid triggering the copy constructor.
+        return {std::move(result)};
+    } catch (const std::runtime_error& ex) {
+        db->exec("DETACH DATABASE side");
+        Log::Error(Event::Database, std::string(ex.what()));
+
+        return unexpected<std::exception_ptr>(std::current_exception());
+    }
+}
+
 expected<OfflineRegionMetadata, std::exception_ptr> OfflineDatabase::updateMetadata(
     const int64_t regionID, const OfflineRegionMetadata& metadata) try {
     checkFlags();
@@ -1026,9 +1435,9 @@ uint64_t OfflineDatabase::putRegionResource(int64_t regionID, const Resource& re
     return 0;
 }
 
-void OfflineDatabase::putRegionResources(int64_t regionID,
-                                         const std::list<std::tuple<Resource, Response>>& resources,
-                                         OfflineRegionStatus& status) try {
+std::vector<uint64_t> OfflineDatabase::putRegionResources(int64_t regionID,
+                                                          const std::list<std::tuple<Resource, Response>>& resources,
+                                                          OfflineRegionStatus& status) try {
     checkFlags();
 
     if (!db) {
@@ -1043,6 +1452,8 @@ void OfflineDatabase::putRegionResources(int64_t regionID,
     uint64_t completedResourceSize = 0;
     uint64_t completedTileCount = 0;
     uint64_t completedTileSize = 0;
+    std::vector<uint64_t> sizes;
+    sizes.reserve(resources.size());
 
     for (const auto& elem : resources) {
         const auto& resource = std::get<0>(elem);
@@ -1050,6 +1461,7 @@ void OfflineDatabase::putRegionResources(int64_t regionID,
 
         try {
             uint64_t resourceSize = putRegionResourceInternal(regionID, resource, response);
+            sizes.push_back(resourceSize);
             completedResourceCount++;
             completedResourceSize += resourceSize;
             if (resource.kind == Resource::Kind::Tile) {
@@ -1070,8 +1482,72 @@ void OfflineDatabase::putRegionResources(int64_t regionID,
     status.completedResourceSize += completedResourceSize;
     status.completedTileCount += completedTileCount;
     status.completedTileSize += completedTileSize;
+    return sizes;
 } catch (...) {
     handleError("write region resources");
+    return {};
+}
+
+std::map<std::string, OfflineTilesetCheckpoint> OfflineDatabase::getRegionCheckpoints(int64_t regionID) try {
+    createCheckpointTable();
+
+    // clang-format off
+    mapbox::sqlite::Query query{ getStatement(
+        "SELECT url_template, tile_total, position, tile_count, tile_size "
+        "FROM region_checkpoints "
+        "WHERE region_id = ?1 ") };
+    // clang-format on
+    query.bind(1, regionID);
+
+    std::map<std::string, OfflineTilesetCheckpoint> result;
+    while (query.run()) {
+        OfflineTilesetCheckpoint checkpoint;
+        checkpoint.tileTotal = query.get<int64_t>(1);
+        checkpoint.position = query.get<int64_t>(2);
+        checkpoint.tileCount = query.get<int64_t>(3);
+        checkpoint.tileSize = query.get<int64_t>(4);
+        result.emplace(query.get<std::string>(0), checkpoint);
+    }
+    return result;
+} catch (...) {
+    handleError("read region checkpoints");
+    return {};
+}
+
+void OfflineDatabase::putRegionCheckpoints(int64_t regionID,
+                                           const std::map<std::string, OfflineTilesetCheckpoint>& checkpoints) try {
+    checkFlags();
+    createCheckpointTable();
+
+    mapbox::sqlite::Transaction transaction(*db);
+    for (const auto& [urlTemplate, checkpoint] : checkpoints) {
+        // clang-format off
+        mapbox::sqlite::Query query{ getStatement(
+            "REPLACE INTO region_checkpoints (region_id, url_template, tile_total, position, tile_count, tile_size) "
+            "VALUES                          (?1,        ?2,           ?3,         ?4,       ?5,         ?6) ") };
+        // clang-format on
+        query.bind(1, regionID);
+        query.bind(2, urlTemplate);
+        query.bind(3, static_cast<int64_t>(checkpoint.tileTotal));
+        query.bind(4, static_cast<int64_t>(checkpoint.position));
+        query.bind(5, static_cast<int64_t>(checkpoint.tileCount));
+        query.bind(6, static_cast<int64_t>(checkpoint.tileSize));
+        query.run();
+    }
+    transaction.commit();
+} catch (...) {
+    handleError("write region checkpoints");
+}
+
+void OfflineDatabase::deleteRegionCheckpoints(int64_t regionID) try {
+    checkFlags();
+    createCheckpointTable();
+
+    mapbox::sqlite::Query query{getStatement("DELETE FROM region_checkpoints WHERE region_id = ?1")};
+    query.bind(1, regionID);
+    query.run();
+} catch (...) {
+    handleError("delete region checkpoints");
 }
 
 uint64_t OfflineDatabase::putRegionResourceInternal(int64_t regionID,
@@ -1079,7 +1555,7 @@ uint64_t OfflineDatabase::putRegionResourceInternal(int64_t regionID,
                                                     const Response& response) {
     checkFlags();
 
-    uint64_t size = putInternal(resource, response, false).second;
+    uint64_t size = putInternal(resource, response, false, true).second;
     bool previouslyUnused = markUsed(regionID, resource);
 
     if (previouslyUnused && exceedsOfflineMapboxTileCountLimit(resource)) {
@@ -1517,4 +1993,53 @@ void OfflineDatabase::updateAmbientCacheSize(DatabaseSizeChangeStats& stats) {
     }
 }
 
+MBTilesReader::MBTilesReader(const std::string& path, std::string urlTemplate_, float pixelRatio_)
+    : db(std::make_unique<mapbox::sqlite::Database>(mapbox::sqlite::Database::open(path, mapbox::sqlite::ReadOnly))),
+      urlTemplate(std::move(urlTemplate_)),
+      pixelRatio(pixelRatio_) {
+    {
+        mapbox::sqlite::Statement countStatement(*db, "SELECT COUNT(*) FROM tiles");
+        mapbox::sqlite::Query countQuery(countStatement);
+        countQuery.run();
+        tileCount = countQuery.get<int64_t>(0);
+    }
+
+    // The tiles table may be a view, the tiles are read by a single query rather than by ranges of row ids
+    statement = std::make_unique<mapbox::sqlite::Statement>(
+        *db, "SELECT zoom_level, tile_column, tile_row, tile_data FROM tiles");
+    query = std::make_unique<mapbox::sqlite::Query>(*statement);
+}
+
+MBTilesReader::~MBTilesReader() = default;
+
+std::list<std::tuple<Resource, Response>> MBTilesReader::read(std::size_t limit) {
+    std::list<std::tuple<Resource, Response>> tiles;
+    while (!done && tiles.size() < limit) {
+        if (!query->run()) {
+            done = true;
+            break;
+        }
+
+        auto data = query->get<std::optional<std::string>>(3);
+        if (!data) {
+            continue;
+        }
+        if (data->size() >= 2 && (*data)[0] == '\x1f' && (*data)[1] == '\x8b') {
+            data = util::decompress(*data);
+        }
+
+        // The rows of MBTiles are in the TMS scheme
+        Resource resource = Resource::tile(urlTemplate,
+                                           pixelRatio,
+                                           static_cast<int32_t>(query->get<int64_t>(1)),
+                                           static_cast<int32_t>(query->get<int64_t>(2)),
+                                           static_cast<int8_t>(query->get<int64_t>(0)),
+                                           Tileset::Scheme::TMS);
+        Response response;
+        response.data = std::make_shared<std::string>(std::move(*data));
+        tiles.emplace_back(std::move(resource), std::move(response));
+    }
+    return tiles;
+}
+
 } // namespace mbgl
@@ -19,13 +19,29 @@
 #include <mbgl/util/tile_cover.hpp>
 #include <mbgl/util/tileset.hpp>
 
+#include <algorithm>
+#include <cmath>
+#include <iterator>
 #include <set>
+#include <tuple>
 
 namespace {
 
 const size_t kResourcesBatchSize = 64;
 const size_t kMarkBatchSize = 200;
 
+// The rates of the status are measured over the last seconds, once the download ran for a second
+const mbgl::Duration kRateSampleInterval = mbgl::Milliseconds(250);
+const mbgl::Duration kRateWindow = mbgl::Seconds(10);
+const mbgl::Duration kRateMinimumDuration = mbgl::Seconds(1);
+
+std::string urlHost(const std::string& url) {
+    const auto scheme = url.find("://");
+    const auto start = scheme == std::string::npos ? 0 : scheme + 3;
+    const auto end = url.find_first_of("/?#", start);
+    return url.substr(start, end == std::string::npos ? std::string::npos : end - start);
+}
+
 } // namespace
 
 namespace mbgl {
@@ -114,6 +130,10 @@ void OfflineDownload::setObserver(std::unique_ptr<OfflineRegionObserver> observe
     observer = observer_ ? std::move(observer_) : std::make_unique<OfflineRegionObserver>();
 }
 
+void OfflineDownload::setOptions(const OfflineRegionDownloadOptions& options_) {
+    options = options_;
+}
+
 void OfflineDownload::setState(OfflineRegionDownloadState state) {
     if (status.downloadState == state) {
         return;
@@ -242,6 +262,18 @@ void OfflineDownload::activateDownload() {
     status.downloadState = OfflineRegionDownloadState::Active;
     status.requiredResourceCount++;
 
+    activeOptions = options;
+    storedCheckpoints.clear();
+    if (activeOptions.checkpoints) {
+        storedCheckpoints = offlineDatabase.getRegionCheckpoints(id);
+    }
+    frontSequence = 0;
+    backSequence = 0;
+    samples.clear();
+    downloadedBytes = 0;
+    downloadedTiles = 0;
+    downloadedResources = 0;
+
     auto styleResource = Resource::style(std::visit([](auto& reg) { return reg.styleURL; }, definition));
     styleResource.setPriority(Resource::Priority::Low);
     styleResource.setUsage(Resource::Usage::Offline);
@@ -389,6 +421,9 @@ void OfflineDownload::continueDownload() {
         if (!flushResourcesBuffer()) return;
         if (status.complete()) {
             markPendingUsedResources();
+            if (activeOptions.checkpoints) {
+                offlineDatabase.deleteRegionCheckpoints(id);
+            }
             setState(OfflineRegionDownloadState::Inactive);
             return;
         }
@@ -402,25 +437,81 @@ void OfflineDownload::continueDownload() {
         maxConcurrentRequests = static_cast<uint32_t>(*maxRequests);
     }
 
-    while (!resourcesRemaining.empty() && requests.size() < maxConcurrentRequests) {
-        ensureResource(std::move(resourcesRemaining.front()));
-        resourcesRemaining.pop_front();
+    while (requests.size() < maxConcurrentRequests) {
+        auto next = nextResource();
+        if (!next) {
+            break;
+        }
+        ensureResource(std::move(*next));
     }
 }
 
+/*
+   Without a limit per host, all resources are queued under the same empty host
+   and requested in the order they were queued. With a limit, the resources of
+   the hosts that reached it wait, while those of the other hosts go ahead.
+*/
+std::optional<OfflineDownload::QueuedResource> OfflineDownload::nextResource() {
+    const uint32_t hostLimit = activeOptions.maximumConcurrentRequestsPerHost;
+    auto next = resourcesRemaining.end();
+    for (auto it = resourcesRemaining.begin(); it != resourcesRemaining.end(); ++it) {
+        if (hostLimit > 0) {
+            auto requestCount = hostRequests.find(it->first);
+            if (requestCount != hostRequests.end() && requestCount->second >= hostLimit) {
+                continue;
+            }
+        }
+        const auto& front = it->second.front();
+        if (next == resourcesRemaining.end() || std::tie(front.zoom, front.sequence) <
+                                                    std::tie(next->second.front().zoom, next->second.front().sequence)) {
+            next = it;
+        }
+    }
+
+    if (next == resourcesRemaining.end()) {
+        return std::nullopt;
+    }
+
+    QueuedResource resource = std::move(next->second.front());
+    next->second.pop_front();
+    if (next->second.empty()) {
+        resourcesRemaining.erase(next);
+    }
+    return resource;
+}
+
 void OfflineDownload::deactivateDownload() {
+    saveCheckpoints();
     requiredSourceURLs.clear();
     resourcesRemaining.clear();
+    hostRequests.clear();
     requests.clear();
     buffer.clear();
+    bufferedTiles.clear();
+    tilesToBeMarkedAsUsed.clear();
+    tilesets.clear();
+
+    samples.clear();
+    status.bytesPerSecond = 0;
+    status.tilesPerSecond = 0;
+    status.estimatedTimeRemaining = std::nullopt;
 }
 
 bool OfflineDownload::flushResourcesBuffer() {
     if (buffer.empty()) return true;
     try {
-        offlineDatabase.putRegionResources(id, buffer, status);
+        const auto sizes = offlineDatabase.putRegionResources(id, buffer, status);
+        if (sizes.size() == bufferedTiles.size()) {
+            for (size_t i = 0; i < sizes.size(); i++) {
+                if (bufferedTiles[i].tileset) {
+                    bufferedTiles[i].tileset->done(bufferedTiles[i].index, sizes[i]);
+                }
+            }
+            saveCheckpoints();
+        }
         buffer.clear();
-        observer->statusChanged(status);
+        bufferedTiles.clear();
+        notifyStatusChanged();
         return true;
     } catch (const MapboxTileLimitExceededException&) {
         onMapboxTileCountLimitExceeded();
@@ -435,40 +526,184 @@ void OfflineDownload::queueResource(Resource&& resource) {
     if (resource.kind == mbgl::Resource::Kind::Tile) {
         status.requiredTileCount++;
     }
-    resourcesRemaining.push_front(std::move(resource));
+
+    // Ahead of the tiles, the last one queued first
+    QueuedResource queued{std::move(resource)};
+    if (activeOptions.maximumConcurrentRequestsPerHost > 0) {
+        queued.host = urlHost(queued.resource.url);
+    }
+    queued.zoom = -1;
+    queued.sequence = --frontSequence;
+    resourcesRemaining[queued.host].push_front(std::move(queued));
 }
 
 void OfflineDownload::queueTiles(SourceType type, uint16_t tileSize, const Tileset& tileset) {
-    tileCover(definition, type, tileSize, tileset.zoomRange, [&](const auto& tile) {
+    const std::string& urlTemplate = tileset.tiles[0];
+    std::vector<CanonicalTileID> tiles;
+    tileCover(definition, type, tileSize, tileset.zoomRange, [&](const auto& tile) { tiles.push_back(tile); });
+
+    // The tiles before the checkpoint are done, as long as the tileset covers the same tiles
+    auto progress = std::make_shared<TilesetProgress>();
+    progress->urlTemplate = urlTemplate;
+    progress->checkpoint.tileTotal = tiles.size();
+    if (activeOptions.checkpoints) {
+        auto stored = storedCheckpoints.find(urlTemplate);
+        if (stored != storedCheckpoints.end() && stored->second.tileTotal == tiles.size() &&
+            stored->second.position <= tiles.size()) {
+            progress->checkpoint = stored->second;
+            status.requiredResourceCount += progress->checkpoint.tileCount;
+            status.requiredTileCount += progress->checkpoint.tileCount;
+            status.completedResourceCount += progress->checkpoint.tileCount;
+            status.completedResourceSize += progress->checkpoint.tileSize;
+            status.completedTileCount += progress->checkpoint.tileCount;
+            status.completedTileSize += progress->checkpoint.tileSize;
+        }
+        tilesets.push_back(progress);
+    }
+
+    const std::string host = activeOptions.maximumConcurrentRequestsPerHost > 0 ? urlHost(urlTemplate) : "";
+    const float pixelRatio = std::visit([](auto& def) { return def.pixelRatio; }, definition);
+    std::deque<QueuedResource> queued;
+    for (uint64_t index = progress->checkpoint.position; index < tiles.size(); index++) {
         status.requiredResourceCount++;
         status.requiredTileCount++;
 
-        auto tileResource = Resource::tile(tileset.tiles[0],
-                                           std::visit([](auto& def) { return def.pixelRatio; }, definition),
-                                           tile.x,
-                                           tile.y,
-                                           tile.z,
-                                           tileset.scheme);
+        const auto& tile = tiles[index];
+        auto tileResource = Resource::tile(urlTemplate, pixelRatio, tile.x, tile.y, tile.z, tileset.scheme);
 
         tileResource.setPriority(Resource::Priority::Low);
         tileResource.setUsage(Resource::Usage::Offline);
 
-        resourcesRemaining.push_back(std::move(tileResource));
-    });
+        queued.push_back({std::move(tileResource),
+                          host,
+                          activeOptions.checkpoints ? progress : nullptr,
+                          index,
+                          activeOptions.zoomOrdered ? tile.z : 0,
+                          backSequence++});
+    }
+
+    if (queued.empty()) {
+        return;
+    }
+
+    // The tiles of a tileset are queued by zoom level, merging them keeps the queue in order
+    auto& queue = resourcesRemaining[host];
+    if (activeOptions.zoomOrdered && !queue.empty()) {
+        std::deque<QueuedResource> merged;
+        std::merge(std::make_move_iterator(queue.begin()),
+                   std::make_move_iterator(queue.end()),
+                   std::make_move_iterator(queued.begin()),
+                   std::make_move_iterator(queued.end()),
+                   std::back_inserter(merged),
+                   [](const QueuedResource& a, const QueuedResource& b) {
+                       return std::tie(a.zoom, a.sequence) < std::tie(b.zoom, b.sequence);
+                   });
+        queue = std::move(merged);
+    } else {
+        std::move(queued.begin(), queued.end(), std::back_inserter(queue));
+    }
 }
 
 void OfflineDownload::markPendingUsedResources() {
     offlineDatabase.markUsedResources(id, resourcesToBeMarkedAsUsed);
     resourcesToBeMarkedAsUsed.clear();
+
+    for (const auto& tile : tilesToBeMarkedAsUsed) {
+        tile.tileset->done(tile.index, tile.size);
+    }
+    tilesToBeMarkedAsUsed.clear();
+    saveCheckpoints();
+}
+
+void OfflineDownload::TilesetProgress::done(uint64_t index, std::optional<uint64_t> size) {
+    if (index != checkpoint.position) {
+        doneAhead.emplace(index, size);
+        return;
+    }
+
+    changed = true;
+    while (true) {
+        checkpoint.position++;
+        if (size) {
+            checkpoint.tileCount++;
+            checkpoint.tileSize += *size;
+        }
+        if (doneAhead.empty() || doneAhead.begin()->first != checkpoint.position) {
+            return;
+        }
+        size = doneAhead.begin()->second;
+        doneAhead.erase(doneAhead.begin());
+    }
+}
+
+void OfflineDownload::saveCheckpoints() {
+    std::map<std::string, OfflineTilesetCheckpoint> changed;
+    for (const auto& tileset : tilesets) {
+        if (tileset->changed) {
+            changed[tileset->urlTemplate] = tileset->checkpoint;
+            tileset->changed = false;
+        }
+    }
+    if (!changed.empty()) {
+        offlineDatabase.putRegionCheckpoints(id, changed);
+    }
+}
+
+void OfflineDownload::onResourceDone(const QueuedResource& queued) {
+    auto requestCount = hostRequests.find(queued.host);
+    if (requestCount != hostRequests.end() && --requestCount->second == 0) {
+        hostRequests.erase(requestCount);
+    }
+}
+
+void OfflineDownload::notifyStatusChanged() {
+    updateRates();
+    observer->statusChanged(status);
+}
+
+void OfflineDownload::updateRates() {
+    const auto now = Clock::now();
+    if (samples.empty() || now - samples.back().time >= kRateSampleInterval) {
+        samples.push_back({now, downloadedBytes, downloadedTiles, downloadedResources});
+    }
+    // Keeps the last sample before the window, to measure over the whole window
+    while (samples.size() > 1 && now - samples[1].time >= kRateWindow) {
+        samples.pop_front();
+    }
+
+    const auto& first = samples.front();
+    if (now - first.time < kRateMinimumDuration) {
+        return;
+    }
+
+    const double seconds = std::chrono::duration<double>(now - first.time).count();
+    const double resourcesPerSecond = (downloadedResources - first.resources) / seconds;
+    status.bytesPerSecond = (downloadedBytes - first.bytes) / seconds;
+    status.tilesPerSecond = (downloadedTiles - first.tiles) / seconds;
+
+    if (status.complete()) {
+        status.estimatedTimeRemaining = Seconds::zero();
+    } else if (status.requiredResourceCountIsPrecise && resourcesPerSecond > 0) {
+        const double remaining = static_cast<double>(status.requiredResourceCount - status.completedResourceCount);
+        status.estimatedTimeRemaining = Seconds(static_cast<int64_t>(std::ceil(remaining / resourcesPerSecond)));
+    } else {
+        status.estimatedTimeRemaining = std::nullopt;
+    }
 }
 
 void OfflineDownload::ensureResource(Resource&& resource, std::function<void(Response)> callback) {
-    assert(resource.priority == Resource::Priority::Low);
-    assert(resource.usage == Resource::Usage::Offline);
+    ensureResource(QueuedResource{std::move(resource)}, std::move(callback));
+}
 
+void OfflineDownload::ensureResource(QueuedResource&& queued, std::function<void(Response)> callback) {
+    assert(queued.resource.priority == Resource::Priority::Low);
+    assert(queued.resource.usage == Resource::Usage::Offline);
+
+    hostRequests[queued.host]++;
     auto workRequestsIt = requests.insert(requests.begin(), nullptr);
     *workRequestsIt = util::RunLoop::Get()->invokeCancellable([=, this]() {
         requests.erase(workRequestsIt);
+        const Resource& resource = queued.resource;
         const auto resourceKind = resource.kind;
         auto getResourceSizeInDatabase = [&]() -> std::optional<int64_t> {
             std::optional<int64_t> result;
@@ -495,8 +730,12 @@ void OfflineDownload::ensureResource(Resource&& resource, std::function<void(Res
                 status.completedTileCount += 1;
                 status.completedTileSize += *offlineResponse;
             }
+            if (queued.tileset) {
+                tilesToBeMarkedAsUsed.push_back({queued.tileset, queued.index, static_cast<uint64_t>(*offlineResponse)});
+            }
+            onResourceDone(queued);
 
-            observer->statusChanged(status);
+            notifyStatusChanged();
             continueDownload();
             return;
         }
@@ -515,12 +754,25 @@ void OfflineDownload::ensureResource(Resource&& resource, std::function<void(Res
                     requests.erase(fileRequestsIt);
                     assert(status.requiredResourceCount > 0);
                     status.requiredResourceCount--;
+                    if (queued.tileset) {
+                        queued.tileset->done(queued.index, std::nullopt);
+                    }
+                    onResourceDone(queued);
                     continueDownload();
                 }
                 return;
             }
 
             requests.erase(fileRequestsIt);
+            onResourceDone(queued);
+
+            downloadedResources++;
+            if (resource.kind == Resource::Kind::Tile) {
+                downloadedTiles++;
+            }
+            if (onlineResponse.data) {
+                downloadedBytes += onlineResponse.data->size();
+            }
 
             if (callback) {
                 callback(onlineResponse);
@@ -528,6 +780,7 @@ void OfflineDownload::ensureResource(Resource&& resource, std::function<void(Res
 
             // Queue up for batched insertion
             buffer.emplace_back(resource, onlineResponse);
+            bufferedTiles.push_back({queued.tileset, queued.index});
 
             // Flush buffer periodically.
             // Have to keep `resourcesRemaining.empty()` as the following
@@ -84,7 +84,9 @@ void RenderGeoJSONSource::update(Immutable<style::Source::Impl> baseImpl_,
     enabled = needsRendering;
 
     auto data_ = impl().getData().lock();
-    if (data.lock() != data_) {
+    // kept alive by the previous impl
+    const auto previousData = data.lock();
+    if (previousData != data_) {
         data = data_;
         if (parameters.mode != MapMode::Continuous) {
             // Clearing the tile pyramid in order to avoid render tests being flaky.
@@ -94,6 +96,10 @@ void RenderGeoJSONSource::update(Immutable<style::Source::Impl> baseImpl_,
             const uint8_t maxZ = impl().getZoomRange().max;
             for (const auto& pair : tilePyramid.getTiles()) {
                 if (pair.first.canonical.z <= maxZ) {
+                    // data updated in place only reloads the tiles of the changed features
+                    if (!needsRelayout && previousData && data_->isTileUnchanged(pair.first.canonical, *previousData)) {
+                        continue;
+                    }
                     static_cast<GeoJSONTile*>(pair.second.get())->updateData(data_, needsRelayout);
                 }
             }
@@ -2,10 +2,61 @@
 #include <mbgl/style/conversion/json.hpp>
 #include <mbgl/style/conversion_impl.hpp>
 
+#include <cassert>
+
 namespace mbgl {
 namespace style {
 namespace conversion {
 
+namespace {
+
+// A rapidjson input stream over the chunks of a reader
+class ChunkStream {
+public:
+    using Ch = char;
+
+    explicit ChunkStream(const GeoJSONChunkReader& read_)
+        : read(read_) {}
+
+    Ch Peek() { return (current != end || next()) ? *current : '\0'; }
+    Ch Take() { return (current != end || next()) ? *current++ : '\0'; }
+    std::size_t Tell() const { return offset + static_cast<std::size_t>(current - begin); }
+
+    // only streams parsed in situ are written to
+    Ch* PutBegin() {
+        assert(false);
+        return nullptr;
+    }
+    void Put(Ch) { assert(false); }
+    void Flush() { assert(false); }
+    std::size_t PutEnd(Ch*) {
+        assert(false);
+        return 0;
+    }
+
+private:
+    bool next() {
+        if (ended) {
+            return false;
+        }
+        offset += static_cast<std::size_t>(end - begin);
+        const std::string_view chunk = read();
+        begin = current = chunk.data();
+        end = begin + chunk.size();
+        ended = chunk.empty();
+        return !ended;
+    }
+
+    const GeoJSONChunkReader& read;
+    const char* begin = nullptr;
+    const char* current = nullptr;
+    const char* end = nullptr;
+    std::size_t offset = 0;
+    bool ended = false;
+};
+
+} // namespace
+
 std::optional<GeoJSON> Converter<GeoJSON>::operator()(const Convertible& value, Error& error) const {
     return toGeoJSON(value, error);
 }
@@ -14,6 +65,19 @@ std::optional<GeoJSON> parseGeoJSON(const std::string& value, Error& error) {
     return convertJSON<GeoJSON>(value, error);
 }
 
+std::optional<GeoJSON> parseGeoJSON(const GeoJSONChunkReader& read, Error& error) {
+    ChunkStream stream(read);
+    JSDocument document;
+    document.ParseStream<0>(stream);
+
+    if (document.HasParseError()) {
+        error = {formatJSONParseError(document)};
+        return {};
+    }
+
+    return convert<GeoJSON>(document, error);
+}
+
 } // namespace conversion
 } // namespace style
 } // namespace mbgl
@@ -13,8 +13,12 @@ CustomTileLoader::CustomTileLoader(const TileFunction& fetchTileFn, const TileFu
 void CustomTileLoader::fetchTile(const OverscaledTileID& tileID, const ActorRef<CustomGeometryTile>& tileRef) {
     std::lock_guard<std::mutex> guard(dataMutex);
     auto cachedTileData = dataCache.find(tileID.canonical);
+    auto cachedVectorTile = vectorTileCache.find(tileID.canonical);
+    const bool cached = cachedTileData != dataCache.end() || cachedVectorTile != vectorTileCache.end();
     if (cachedTileData != dataCache.end()) {
         tileRef.invoke(&CustomGeometryTile::setTileData, *(cachedTileData->second));
+    } else if (cachedVectorTile != vectorTileCache.end()) {
+        tileRef.invoke(&CustomGeometryTile::setVectorTileData, cachedVectorTile->second);
     }
     auto tileCallbacks = tileCallbackMap.find(tileID.canonical);
     if (tileCallbacks == tileCallbackMap.end()) {
@@ -29,7 +33,7 @@ void CustomTileLoader::fetchTile(const OverscaledTileID& tileID, const ActorRef<
         }
         tileCallbacks->second.emplace_back(std::make_tuple(tileID.overscaledZ, tileID.wrap, tileRef));
     }
-    if (cachedTileData == dataCache.end()) {
+    if (!cached) {
         invokeTileFetch(tileID.canonical);
     }
 }
@@ -55,6 +59,7 @@ void CustomTileLoader::removeTile(const OverscaledTileID& tileID) {
     if (tileCallbacks->second.empty()) {
         tileCallbackMap.erase(tileCallbacks);
         dataCache.erase(tileID.canonical);
+        vectorTileCache.erase(tileID.canonical);
     }
 }
 
@@ -68,6 +73,19 @@ void CustomTileLoader::setTileData(const CanonicalTileID& tileID, const GeoJSON&
         actor.invoke(&CustomGeometryTile::setTileData, *dataPtr);
     }
     dataCache[tileID] = std::move(dataPtr);
+    vectorTileCache.erase(tileID);
+}
+
+void CustomTileLoader::setVectorTileData(const CanonicalTileID& tileID, const std::shared_ptr<const std::string>& data) {
+    std::lock_guard<std::mutex> guard(dataMutex);
+    auto iter = tileCallbackMap.find(tileID);
+    if (iter == tileCallbackMap.end()) return;
+    for (auto tuple : iter->second) {
+        auto actor = std::get<2>(tuple);
+        actor.invoke(&CustomGeometryTile::setVectorTileData, data);
+    }
+    vectorTileCache[tileID] = data;
+    dataCache.erase(tileID);
 }
 
 void CustomTileLoader::invalidateTile(const CanonicalTileID& tileID) {
@@ -83,6 +101,7 @@ void CustomTileLoader::invalidateTile(const CanonicalTileID& tileID) {
     }
     tileCallbackMap.erase(tileCallbacks);
     dataCache.erase(tileID);
+    vectorTileCache.erase(tileID);
 }
 
 void CustomTileLoader::invalidateRegion(const LatLngBounds& bounds, Range<uint8_t>) {
@@ -100,6 +119,7 @@ void CustomTileLoader::invalidateRegion(const LatLngBounds& bounds, Range<uint8_
                 actor.invoke(&CustomGeometryTile::invalidateTileData);
                 invokeTileCancel(idtuple.first);
                 dataCache.erase(idtuple.first);
+                vectorTileCache.erase(idtuple.first);
             }
             idtuple.second.clear();
         }
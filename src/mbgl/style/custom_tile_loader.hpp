@@ -6,7 +6,9 @@
 #include <mbgl/util/geojson.hpp>
 
 #include <map>
+#include <memory>
 #include <mutex>
+#include <string>
 
 namespace mbgl {
 
@@ -28,6 +30,7 @@ public:
 
     void removeTile(const OverscaledTileID& tileID);
     void setTileData(const CanonicalTileID& tileID, const GeoJSON& data);
+    void setVectorTileData(const CanonicalTileID& tileID, const std::shared_ptr<const std::string>& data);
 
     void invalidateTile(const CanonicalTileID&);
     void invalidateRegion(const LatLngBounds&, Range<uint8_t>);
@@ -41,6 +44,7 @@ private:
     std::unordered_map<CanonicalTileID, std::vector<OverscaledIDFunctionTuple>> tileCallbackMap;
     // Keep around a cache of tile data to serve back for wrapped and over-zooomed tiles
     std::map<CanonicalTileID, std::unique_ptr<GeoJSON>> dataCache;
+    std::map<CanonicalTileID, std::shared_ptr<const std::string>> vectorTileCache;
     std::mutex dataMutex;
 };
 
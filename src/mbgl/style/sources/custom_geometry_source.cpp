@@ -39,6 +39,10 @@ void CustomGeometrySource::setTileData(const CanonicalTileID& tileID, const GeoJ
     loader->self().invoke(&CustomTileLoader::setTileData, tileID, data);
 }
 
+void CustomGeometrySource::setTileData(const CanonicalTileID& tileID, std::shared_ptr<const std::string> vectorTile) {
+    loader->self().invoke(&CustomTileLoader::setVectorTileData, tileID, std::move(vectorTile));
+}
+
 void CustomGeometrySource::invalidateTile(const CanonicalTileID& tileID) {
     loader->self().invoke(&CustomTileLoader::invalidateTile, tileID);
 }
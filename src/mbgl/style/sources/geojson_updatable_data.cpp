@@ -0,0 +1,495 @@
+#include <mbgl/style/sources/geojson_source.hpp>
+#include <mbgl/actor/scheduler.hpp>
+#include <mbgl/tile/tile_id.hpp>
+#include <mbgl/util/constants.hpp>
+#include <mbgl/util/geometry.hpp>
+#include <mbgl/util/identity.hpp>
+#include <mbgl/math/clamp.hpp>
+
+#ifdef _MSC_VER
+#pragma warning(push)
+#pragma warning(disable : 4244)
+#endif
+
+#include <mapbox/geojsonvt.hpp>
+
+#ifdef _MSC_VER
+#pragma warning(pop)
+#endif
+
+#include <algorithm>
+#include <array>
+#include <cmath>
+#include <limits>
+#include <list>
+#include <mutex>
+#include <shared_mutex>
+#include <unordered_map>
+
+namespace mbgl {
+namespace style {
+
+namespace {
+
+using Box = mapbox::geometry::box<double>;
+
+// Features are bucketed in a loose grid of the world, with a level per zoom level up to this one: a feature goes to
+// the cell of its center at the deepest level where it isn't larger than a cell, so that it lies within its cell
+// expanded by half a cell.
+constexpr uint8_t maxCellZoom = 14;
+
+// Number of tiles whose features are kept cut, the most recently requested ones.
+constexpr std::size_t maxCachedTiles = 16;
+
+// Number of successive updates the changed areas are kept for, the renderer reloads all of its tiles when it skipped
+// more updates than that.
+constexpr std::size_t maxChangeDepth = 32;
+
+// Projects to world coordinates between 0 and 1, like geojson-vt
+double projectX(double longitude) {
+    return longitude / 360.0 + 0.5;
+}
+
+double projectY(double latitude) {
+    const double sine = std::sin(latitude * M_PI / 180.0);
+    const double y = 0.5 - 0.25 * std::log((1.0 + sine) / (1.0 - sine)) / M_PI;
+    return util::clamp(y, 0.0, 1.0);
+}
+
+Box projectBox(const GeoJSONFeature& feature) {
+    constexpr double infinity = std::numeric_limits<double>::infinity();
+    Box box{{infinity, infinity}, {-infinity, -infinity}};
+    forEachPoint(feature.geometry, [&](const Point<double>& point) {
+        const double x = projectX(point.x);
+        const double y = projectY(point.y);
+        box.min.x = std::min(box.min.x, x);
+        box.min.y = std::min(box.min.y, y);
+        box.max.x = std::max(box.max.x, x);
+        box.max.y = std::max(box.max.y, y);
+    });
+    return box;
+}
+
+bool intersects(const Box& a, const Box& b) {
+    return a.min.x <= b.max.x && a.max.x >= b.min.x && a.min.y <= b.max.y && a.max.y >= b.min.y;
+}
+
+// Features past the antimeridian are wrapped into the tiles of the other side of the world
+bool intersectsWrapped(const Box& a, const Box& b) {
+    for (const double offset : {0.0, -1.0, 1.0}) {
+        if (intersects({{a.min.x + offset, a.min.y}, {a.max.x + offset, a.max.y}}, b)) {
+            return true;
+        }
+    }
+    return false;
+}
+
+// The area of a tile holding features, with its buffer
+Box tileBox(const CanonicalTileID& id, double buffer) {
+    const double size = 1.0 / static_cast<double>(1u << id.z);
+    return {{(id.x - buffer) * size, (id.y - buffer) * size}, {(id.x + 1 + buffer) * size, (id.y + 1 + buffer) * size}};
+}
+
+class FeatureStore {
+public:
+    struct Entry {
+        GeoJSONFeature feature;
+        Box box;
+        uint8_t cellZoom = 0;
+        uint32_t cell = 0;
+        // Changes with the feature held by the slot, cut features of an older revision are cut again
+        uint64_t revision = 0;
+        bool used = false;
+    };
+
+    // Adds the feature, replacing the feature with the same id. Both areas are added to the changed areas.
+    void add(GeoJSONFeature&& feature, std::vector<Box>& changed) {
+        const auto id = featureIDtoString(feature.id);
+        if (id) {
+            const auto it = ids.find(*id);
+            if (it != ids.end()) {
+                replace(it->second, std::move(feature), changed);
+                return;
+            }
+        }
+
+        uint32_t slot;
+        if (freeSlots.empty()) {
+            slot = static_cast<uint32_t>(entries.size());
+            entries.emplace_back();
+        } else {
+            slot = freeSlots.back();
+            freeSlots.pop_back();
+        }
+        entries[slot].feature = std::move(feature);
+        entries[slot].used = true;
+        insert(slot, changed);
+        if (id) {
+            ids.emplace(std::move(*id), slot);
+        }
+    }
+
+    void update(GeoJSONFeature&& feature, std::vector<Box>& changed) {
+        const auto id = featureIDtoString(feature.id);
+        const auto it = id ? ids.find(*id) : ids.end();
+        if (it != ids.end()) {
+            replace(it->second, std::move(feature), changed);
+        }
+    }
+
+    void remove(const FeatureIdentifier& featureID, std::vector<Box>& changed) {
+        const auto id = featureIDtoString(featureID);
+        const auto it = id ? ids.find(*id) : ids.end();
+        if (it == ids.end()) {
+            return;
+        }
+        const uint32_t slot = it->second;
+        ids.erase(it);
+        erase(slot, changed);
+        entries[slot].feature = {};
+        entries[slot].used = false;
+        freeSlots.push_back(slot);
+    }
+
+    // Features are cut one by one and kept per tile, a tile requested again only cuts the features that changed
+    // since. The cut features of the cached tiles take about as much memory as their source features.
+    GeoJSONData::TileFeatures getTile(const CanonicalTileID& id, const mapbox::geojsonvt::TileOptions& options) const {
+        std::lock_guard<std::mutex> cacheLock(cacheMutex);
+        CachedTile& tile = cachedTile(id, options);
+
+        std::vector<std::pair<uint32_t, uint64_t>> slots;
+        std::vector<std::pair<std::size_t, GeoJSONFeature>> uncut;
+        {
+            std::shared_lock<std::shared_mutex> readerLock(mutex);
+            const Box box = tileBox(id, static_cast<double>(options.buffer) / options.extent);
+            std::vector<uint32_t> found;
+            for (const double offset : {0.0, -1.0, 1.0}) {
+                query({{box.min.x + offset, box.min.y}, {box.max.x + offset, box.max.y}}, found);
+            }
+            std::sort(found.begin(), found.end());
+            found.erase(std::unique(found.begin(), found.end()), found.end());
+            slots.reserve(found.size());
+            for (const uint32_t slot : found) {
+                const Entry& entry = entries[slot];
+                const auto it = tile.features.find(slot);
+                if (it == tile.features.end() || it->second.revision != entry.revision) {
+                    uncut.emplace_back(slots.size(), entry.feature);
+                }
+                slots.emplace_back(slot, entry.revision);
+            }
+        }
+
+        std::unordered_map<uint32_t, CutFeatures> features;
+        features.reserve(slots.size());
+        for (auto& feature : uncut) {
+            const auto& slot = slots[feature.first];
+            features[slot.first] = {
+                slot.second,
+                mapbox::geojsonvt::geoJSONToTile(
+                    GeoJSON{std::move(feature.second)}, id.z, id.x, id.y, options, true, true)
+                    .features};
+        }
+
+        GeoJSONData::TileFeatures result;
+        for (const auto& slot : slots) {
+            auto it = features.find(slot.first);
+            if (it == features.end()) {
+                it = features.emplace(slot.first, std::move(tile.features[slot.first])).first;
+            }
+            result.insert(result.end(), it->second.features.begin(), it->second.features.end());
+        }
+        // the features that left the tile are dropped
+        tile.features = std::move(features);
+        return result;
+    }
+
+    FeatureCollection getFeatures() const {
+        std::shared_lock<std::shared_mutex> readerLock(mutex);
+        FeatureCollection features;
+        features.reserve(ids.size());
+        for (const Entry& entry : entries) {
+            if (entry.used) {
+                features.push_back(entry.feature);
+            }
+        }
+        return features;
+    }
+
+    // Guards the features, tiles are read on worker threads while the data is updated.
+    mutable std::shared_mutex mutex;
+    // Counts the updates, the latest data has the version of the store.
+    uint64_t version = 0;
+
+private:
+    struct CutFeatures {
+        uint64_t revision = 0;
+        GeoJSONData::TileFeatures features;
+    };
+
+    struct CachedTile {
+        CanonicalTileID id;
+        mapbox::geojsonvt::TileOptions options;
+        std::unordered_map<uint32_t, CutFeatures> features;
+    };
+
+    // Returns the cached tile, most recently used first, evicting the least recently used one past the limit
+    CachedTile& cachedTile(const CanonicalTileID& id, const mapbox::geojsonvt::TileOptions& options) const {
+        const auto it = std::find_if(cachedTiles.begin(), cachedTiles.end(), [&](const CachedTile& tile) {
+            return tile.id == id && tile.options.extent == options.extent && tile.options.buffer == options.buffer &&
+                   tile.options.tolerance == options.tolerance && tile.options.lineMetrics == options.lineMetrics;
+        });
+        if (it != cachedTiles.end()) {
+            cachedTiles.splice(cachedTiles.begin(), cachedTiles, it);
+        } else {
+            cachedTiles.push_front({id, options, {}});
+            if (cachedTiles.size() > maxCachedTiles) {
+                cachedTiles.pop_back();
+            }
+        }
+        return cachedTiles.front();
+    }
+
+    void replace(uint32_t slot, GeoJSONFeature&& feature, std::vector<Box>& changed) {
+        erase(slot, changed);
+        entries[slot].feature = std::move(feature);
+        insert(slot, changed);
+    }
+
+    void insert(uint32_t slot, std::vector<Box>& changed) {
+        Entry& entry = entries[slot];
+        entry.revision = ++revisions;
+        entry.box = projectBox(entry.feature);
+        changed.push_back(entry.box);
+
+        uint8_t z = 0;
+        entry.cell = 0;
+        // a feature without coordinates is kept in the single cell of the first level
+        if (entry.box.min.x <= entry.box.max.x) {
+            const double size = std::max(entry.box.max.x - entry.box.min.x, entry.box.max.y - entry.box.min.y);
+            while (z < maxCellZoom && size <= 1.0 / static_cast<double>(1u << (z + 1))) {
+                z++;
+            }
+            const double cells = static_cast<double>(1u << z);
+            entry.cell = cellKey(cellIndex((entry.box.min.x + entry.box.max.x) / 2 * cells, z),
+                                 cellIndex((entry.box.min.y + entry.box.max.y) / 2 * cells, z));
+        }
+        entry.cellZoom = z;
+        levels[z][entry.cell].push_back(slot);
+    }
+
+    void erase(uint32_t slot, std::vector<Box>& changed) {
+        const Entry& entry = entries[slot];
+        changed.push_back(entry.box);
+
+        auto& level = levels[entry.cellZoom];
+        const auto it = level.find(entry.cell);
+        auto& slots = it->second;
+        *std::find(slots.begin(), slots.end(), slot) = slots.back();
+        slots.pop_back();
+        if (slots.empty()) {
+            level.erase(it);
+        }
+    }
+
+    void query(const Box& box, std::vector<uint32_t>& result) const {
+        for (uint8_t z = 0; z <= maxCellZoom; z++) {
+            const auto& level = levels[z];
+            if (level.empty()) {
+                continue;
+            }
+            // features reach half a cell past their cells
+            const double cells = static_cast<double>(1u << z);
+            const uint32_t minX = cellIndex(box.min.x * cells - 1.0, z);
+            const uint32_t minY = cellIndex(box.min.y * cells - 1.0, z);
+            const uint32_t maxX = cellIndex(box.max.x * cells + 0.5, z);
+            const uint32_t maxY = cellIndex(box.max.y * cells + 0.5, z);
+
+            const auto addCell = [&](const std::vector<uint32_t>& slots) {
+                for (const uint32_t slot : slots) {
+                    if (intersects(entries[slot].box, box)) {
+                        result.push_back(slot);
+                    }
+                }
+            };
+
+            // low zoom tiles span more cells than there are features, the cells holding features are visited instead
+            const uint64_t count = uint64_t(maxX - minX + 1) * (maxY - minY + 1);
+            if (count > level.size()) {
+                for (const auto& cell : level) {
+                    const uint32_t x = cell.first >> 16;
+                    const uint32_t y = cell.first & 0xFFFF;
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        addCell(cell.second);
+                    }
+                }
+            } else {
+                for (uint32_t x = minX; x <= maxX; x++) {
+                    for (uint32_t y = minY; y <= maxY; y++) {
+                        const auto it = level.find(cellKey(x, y));
+                        if (it != level.end()) {
+                            addCell(it->second);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static uint32_t cellIndex(double coordinate, uint8_t z) {
+        const double maxIndex = static_cast<double>((1u << z) - 1);
+        return static_cast<uint32_t>(util::clamp(std::floor(coordinate), 0.0, maxIndex));
+    }
+
+    static uint32_t cellKey(uint32_t x, uint32_t y) { return (x << 16) | y; }
+
+    std::vector<Entry> entries;
+    std::vector<uint32_t> freeSlots;
+    std::unordered_map<std::string, uint32_t> ids;
+    std::array<std::unordered_map<uint32_t, std::vector<uint32_t>>, maxCellZoom + 1> levels;
+    uint64_t revisions = 0;
+
+    // Guards the cut features of the tiles, which are read without the features locked.
+    mutable std::mutex cacheMutex;
+    mutable std::list<CachedTile> cachedTiles;
+};
+
+// The areas changed by an update, linked to the changes of the previous updates
+struct Change {
+    uint64_t baseVersion;
+    std::vector<Box> boxes;
+    std::shared_ptr<const Change> previous;
+    std::size_t depth;
+};
+
+class UpdatableGeoJSONData final : public GeoJSONData {
+public:
+    UpdatableGeoJSONData(std::shared_ptr<FeatureStore> store_,
+                         uint64_t version_,
+                         std::shared_ptr<const Change> change_,
+                         std::shared_ptr<Scheduler> sequencedScheduler_,
+                         Immutable<GeoJSONOptions> options_)
+        : store(std::move(store_)),
+          version(version_),
+          change(std::move(change_)),
+          sequencedScheduler(std::move(sequencedScheduler_)),
+          options(std::move(options_)) {
+        assert(sequencedScheduler);
+        if (options->cluster) {
+            // clusters depend on the features around them, they're built again from all the features
+            clusterData = GeoJSONData::create(store->getFeatures(), sequencedScheduler, options);
+        }
+    }
+
+    void getTile(const CanonicalTileID& id, const std::function<void(TileFeatures)>& fn) final {
+        assert(fn);
+        if (clusterData) {
+            clusterData->getTile(id, fn);
+            return;
+        }
+
+        constexpr double scale = util::EXTENT / util::tileSize_D;
+        mapbox::geojsonvt::TileOptions tileOptions;
+        tileOptions.extent = util::EXTENT;
+        tileOptions.buffer = static_cast<uint16_t>(::round(scale * options->buffer));
+        // like geojson-vt, geometries of the deepest zoom level aren't simplified
+        tileOptions.tolerance = id.z < options->maxzoom ? scale * options->tolerance : 0;
+        tileOptions.lineMetrics = options->lineMetrics;
+        sequencedScheduler->scheduleAndReplyValue(
+            util::SimpleIdentity::Empty,
+            [id, tileOptions, store_ = store]() -> TileFeatures { return store_->getTile(id, tileOptions); },
+            fn);
+    }
+
+    Features getChildren(const std::uint32_t clusterID) final {
+        return clusterData ? clusterData->getChildren(clusterID) : Features{};
+    }
+
+    Features getLeaves(const std::uint32_t clusterID, const std::uint32_t limit, const std::uint32_t offset) final {
+        return clusterData ? clusterData->getLeaves(clusterID, limit, offset) : Features{};
+    }
+
+    std::uint8_t getClusterExpansionZoom(std::uint32_t clusterID) final {
+        return clusterData ? clusterData->getClusterExpansionZoom(clusterID) : 0;
+    }
+
+    std::shared_ptr<GeoJSONData> update(const GeoJSONDiff& diff) final {
+        auto nextChange = std::make_shared<Change>();
+        nextChange->baseVersion = version;
+        {
+            std::unique_lock<std::shared_mutex> writerLock(store->mutex);
+            if (store->version != version) {
+                // the features were updated from this data already
+                return nullptr;
+            }
+            for (const auto& id : diff.remove) {
+                store->remove(id, nextChange->boxes);
+            }
+            for (const auto& feature : diff.add) {
+                store->add(GeoJSONFeature(feature), nextChange->boxes);
+            }
+            for (const auto& feature : diff.update) {
+                store->update(GeoJSONFeature(feature), nextChange->boxes);
+            }
+            store->version++;
+        }
+        const uint64_t nextVersion = version + 1;
+        if (change && change->depth < maxChangeDepth) {
+            nextChange->previous = change;
+            nextChange->depth = change->depth + 1;
+        } else {
+            nextChange->depth = 1;
+        }
+        return std::make_shared<UpdatableGeoJSONData>(
+            store, nextVersion, std::move(nextChange), sequencedScheduler, options);
+    }
+
+    bool isTileUnchanged(const CanonicalTileID& id, const GeoJSONData& previous) const final {
+        const auto* previousData = dynamic_cast<const UpdatableGeoJSONData*>(&previous);
+        if (clusterData || !previousData || previousData->store != store) {
+            return false;
+        }
+        const Box box = tileBox(id, options->buffer / util::tileSize_D);
+        for (const Change* it = change.get(); it; it = it->previous.get()) {
+            for (const Box& changed : it->boxes) {
+                if (intersectsWrapped(changed, box)) {
+                    return false;
+                }
+            }
+            if (it->baseVersion == previousData->version) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+private:
+    std::shared_ptr<FeatureStore> store;
+    const uint64_t version;
+    std::shared_ptr<const Change> change;
+    std::shared_ptr<Scheduler> sequencedScheduler;
+    Immutable<GeoJSONOptions> options;
+    std::shared_ptr<GeoJSONData> clusterData;
+};
+
+} // namespace
+
+// static
+std::shared_ptr<GeoJSONData> GeoJSONData::createUpdatable(const GeoJSON& geoJSON,
+                                                          std::shared_ptr<Scheduler> sequencedScheduler,
+                                                          const Immutable<GeoJSONOptions>& options) {
+    auto store = std::make_shared<FeatureStore>();
+    std::vector<Box> changed;
+    geoJSON.match(
+        [&](const FeatureCollection& features) {
+            for (const auto& feature : features) {
+                store->add(GeoJSONFeature(feature), changed);
+            }
+        },
+        [&](const GeoJSONFeature& feature) { store->add(GeoJSONFeature(feature), changed); },
+        [&](const mapbox::geometry::geometry<double>& geometry) { store->add(GeoJSONFeature{geometry}, changed); });
+    return std::make_shared<UpdatableGeoJSONData>(
+        std::move(store), 0, nullptr, std::move(sequencedScheduler), options);
+}
+
+} // namespace style
+} // namespace mbgl
@@ -1,5 +1,6 @@
 #include <mbgl/tile/custom_geometry_tile.hpp>
 #include <mbgl/tile/geojson_tile_data.hpp>
+#include <mbgl/tile/vector_tile_data.hpp>
 #include <mbgl/renderer/query.hpp>
 #include <mbgl/renderer/tile_parameters.hpp>
 #include <mbgl/actor/scheduler.hpp>
@@ -14,6 +15,34 @@
 
 namespace mbgl {
 
+namespace {
+
+// An encoded vector tile set on a custom source, whose style layers usually don't name a source layer
+class CustomVectorTileData : public VectorTileData {
+public:
+    explicit CustomVectorTileData(std::shared_ptr<const std::string> data_)
+        : VectorTileData(data_),
+          data(std::move(data_)) {}
+
+    std::unique_ptr<GeometryTileData> clone() const override { return std::make_unique<CustomVectorTileData>(data); }
+
+    std::unique_ptr<GeometryTileLayer> getLayer(const std::string& name) const override {
+        auto layer = VectorTileData::getLayer(name);
+        if (!layer && name.empty()) {
+            auto names = layerNames();
+            if (!names.empty()) {
+                return VectorTileData::getLayer(names.front());
+            }
+        }
+        return layer;
+    }
+
+private:
+    std::shared_ptr<const std::string> data;
+};
+
+} // namespace
+
 CustomGeometryTile::CustomGeometryTile(const OverscaledTileID& overscaledTileID,
                                        std::string sourceID_,
                                        const TileParameters& parameters,
@@ -49,6 +78,10 @@ void CustomGeometryTile::setTileData(const GeoJSON& geoJSON) {
     setData(std::make_unique<GeoJSONTileData>(std::move(featureData)));
 }
 
+void CustomGeometryTile::setVectorTileData(const std::shared_ptr<const std::string>& data) {
+    setData(std::make_unique<CustomVectorTileData>(data));
+}
+
 void CustomGeometryTile::invalidateTileData() {
     stale = true;
     observer->onTileChanged(*this);
@@ -25,6 +25,7 @@ public:
     ~CustomGeometryTile() override;
 
     void setTileData(const GeoJSON& geoJSON);
+    void setVectorTileData(const std::shared_ptr<const std::string>& data);
     void invalidateTileData();
 
     void setNecessity(TileNecessity) final;
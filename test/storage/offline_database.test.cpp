@@ -5,6 +5,7 @@
 #include <mbgl/storage/offline_database.hpp>
 #include <mbgl/storage/resource.hpp>
 #include <mbgl/storage/response.hpp>
+#include <mbgl/util/compression.hpp>
 #include <mbgl/util/io.hpp>
 #include <mbgl/util/string.hpp>
 
@@ -395,6 +396,82 @@ TEST(OfflineDatabase, PutTile) {
     EXPECT_EQ(0u, log.uncheckedCount());
 }
 
+TEST(OfflineDatabase, PutResources) {
+    FixtureLog log;
+    OfflineDatabase db(":memory:", fixture::tileServerOptions);
+
+    Resource style{Resource::Style, "http://example.com/style.json"};
+    Resource tile = Resource::tile("http://example.com/{z}/{x}/{y}.pbf", 1, 0, 0, 0, Tileset::Scheme::XYZ);
+    Response response;
+    response.data = std::make_shared<std::string>(1000, 'a');
+    Response errorResponse;
+    errorResponse.error = std::make_unique<Response::Error>(Response::Error::Reason::Server);
+    Resource failed{Resource::Unknown, "http://example.com/failed"};
+
+    auto stored = db.putResources({{style, response}, {tile, response}, {failed, errorResponse}}, false);
+    ASSERT_TRUE(stored);
+    EXPECT_EQ(2u, *stored);
+    EXPECT_EQ(1000u, db.getRegionResource(style)->second);
+    EXPECT_EQ(*response.data, *db.get(tile)->data);
+    EXPECT_FALSE(bool(db.get(failed)));
+
+    // Updated, and compressed this time
+    stored = db.putResources({{style, response}}, true);
+    ASSERT_TRUE(stored);
+    EXPECT_EQ(0u, *stored);
+    EXPECT_GT(1000u, db.getRegionResource(style)->second);
+    EXPECT_EQ(*response.data, *db.get(style)->data);
+
+    EXPECT_EQ(0u, log.uncheckedCount());
+}
+
+TEST(OfflineDatabase, TEST_REQUIRES_WRITE(ReadMBTiles)) {
+    FixtureLog log;
+    const std::string path = "test/fixtures/offline_database/import.mbtiles";
+    util::deleteFile(path);
+    {
+        auto mbtiles = mapbox::sqlite::Database::open(path, mapbox::sqlite::ReadWriteCreate);
+        mbtiles.exec("CREATE TABLE tiles (zoom_level INTEGER, tile_column INTEGER, tile_row INTEGER, tile_data BLOB)");
+        mapbox::sqlite::Statement insert{mbtiles, "INSERT INTO tiles VALUES (?1, ?2, ?3, ?4)"};
+        const std::vector<std::tuple<int, int, int, std::string>> rows{
+            {1, 0, 0, util::compress("tile a", util::CompressionFormat::GZIP)}, {1, 1, 0, "tile b"}};
+        for (const auto& row : rows) {
+            mapbox::sqlite::Query query{insert};
+            query.bind(1, std::get<0>(row));
+            query.bind(2, std::get<1>(row));
+            query.bind(3, std::get<2>(row));
+            query.bindBlob(4, std::get<3>(row).data(), std::get<3>(row).size());
+            query.run();
+        }
+        mbtiles.exec("INSERT INTO tiles VALUES (1, 0, 1, NULL)");
+    }
+
+    const std::string urlTemplate = "http://example.com/{z}/{x}/{y}.pbf";
+    MBTilesReader reader(path, urlTemplate, 1);
+    EXPECT_EQ(3u, reader.getTileCount());
+
+    auto tiles = reader.read(1);
+    ASSERT_EQ(1u, tiles.size());
+    tiles.splice(tiles.end(), reader.read(10));
+    ASSERT_EQ(2u, tiles.size());
+    EXPECT_TRUE(reader.read(10).empty());
+
+    OfflineDatabase db(":memory:", fixture::tileServerOptions);
+    EXPECT_EQ(2u, *db.putResources(tiles, true));
+
+    // The rows are flipped from the TMS scheme, the gzipped data is decompressed
+    auto tileA = db.get(Resource::tile(urlTemplate, 1, 0, 1, 1, Tileset::Scheme::XYZ));
+    ASSERT_TRUE(tileA);
+    EXPECT_EQ("tile a", *tileA->data);
+    auto tileB = db.get(Resource::tile(urlTemplate, 1, 1, 1, 1, Tileset::Scheme::XYZ));
+    ASSERT_TRUE(tileB);
+    EXPECT_EQ("tile b", *tileB->data);
+    EXPECT_FALSE(bool(db.get(Resource::tile(urlTemplate, 1, 0, 0, 1, Tileset::Scheme::XYZ))));
+
+    util::deleteFile(path);
+    EXPECT_EQ(0u, log.uncheckedCount());
+}
+
 TEST(OfflineDatabase, PutResourceNoContent) {
     FixtureLog log;
     OfflineDatabase db(":memory:", fixture::tileServerOptions);
@@ -1410,6 +1487,41 @@ TEST(OfflineDatabase, BatchInsertion) {
     EXPECT_EQ(0u, log.uncheckedCount());
 }
 
+TEST(OfflineDatabase, RegionCheckpoints) {
+    FixtureLog log;
+    OfflineDatabase db(":memory:", fixture::tileServerOptions);
+
+    OfflineTilePyramidRegionDefinition definition{"", LatLngBounds::world(), 0, INFINITY, 1.0, false};
+    auto region = db.createRegion(definition, OfflineRegionMetadata());
+    ASSERT_TRUE(region);
+    EXPECT_TRUE(db.getRegionCheckpoints(region->getID()).empty());
+
+    db.putRegionCheckpoints(region->getID(),
+                            {{"http://example.com/{z}/{x}/{y}.pbf", {100, 10, 8, 8000}},
+                             {"http://example.com/{z}/{x}/{y}.png", {20, 0, 0, 0}}});
+    db.putRegionCheckpoints(region->getID(), {{"http://example.com/{z}/{x}/{y}.png", {20, 5, 5, 500}}});
+
+    auto checkpoints = db.getRegionCheckpoints(region->getID());
+    ASSERT_EQ(2u, checkpoints.size());
+    const auto& vector = checkpoints["http://example.com/{z}/{x}/{y}.pbf"];
+    EXPECT_EQ(100u, vector.tileTotal);
+    EXPECT_EQ(10u, vector.position);
+    EXPECT_EQ(8u, vector.tileCount);
+    EXPECT_EQ(8000u, vector.tileSize);
+    EXPECT_EQ(5u, checkpoints["http://example.com/{z}/{x}/{y}.png"].position);
+
+    db.deleteRegionCheckpoints(region->getID());
+    EXPECT_TRUE(db.getRegionCheckpoints(region->getID()).empty());
+
+    // Deleted with their region
+    db.putRegionCheckpoints(region->getID(), {{"http://example.com/{z}/{x}/{y}.pbf", {100, 10, 8, 8000}}});
+    const auto regionID = region->getID();
+    EXPECT_EQ(nullptr, db.deleteRegion(std::move(*region)));
+    EXPECT_TRUE(db.getRegionCheckpoints(regionID).empty());
+
+    EXPECT_EQ(0u, log.uncheckedCount());
+}
+
 TEST(OfflineDatabase, BatchInsertionMapboxTileCountExceeded) {
     FixtureLog log;
     OfflineDatabase db(":memory:", fixture::tileServerOptions);
@@ -1997,6 +2109,122 @@ TEST(OfflineDatabase, TEST_REQUIRES_WRITE(MergeDatabaseWithDiskFull)) {
 }
 #endif // __QT__
 
+TEST(OfflineDatabase, MergeDatabaseIncrementally) {
+    util::deleteFile(filename_sideload);
+    util::copyFile(filename_sideload, "test/fixtures/offline_database/sideload_sat_multiple.db");
+
+    OfflineDatabase db(":memory:", fixture::tileServerOptions);
+
+    std::vector<OfflineMergeProgress> progress;
+    do {
+        auto chunk = db.mergeDatabaseChunk(filename_sideload, 50);
+        ASSERT_TRUE(chunk);
+        if (!progress.empty()) {
+            EXPECT_GT(chunk->mergedTileCount + chunk->mergedResourceCount,
+                      progress.back().mergedTileCount + progress.back().mergedResourceCount);
+        }
+        progress.push_back(*chunk);
+    } while (!progress.back().complete());
+    EXPECT_LT(1u, progress.size());
+
+    auto result = db.finishMergeDatabase(filename_sideload);
+    EXPECT_EQ(2u, result->size());
+    EXPECT_EQ(2u, db.listRegions()->size());
+
+    auto status = db.getRegionCompletedStatus(result->front().getID());
+    EXPECT_EQ(398u, status->completedResourceCount);
+    EXPECT_EQ(5u, status->completedTileCount);
+
+    status = db.getRegionCompletedStatus(result->back().getID());
+    EXPECT_EQ(0u, status->completedTileCount);
+    EXPECT_EQ(200u, status->completedResourceCount);
+
+    // Merged again, the regions aren't duplicated
+    while (!db.mergeDatabaseChunk(filename_sideload, 1000)->complete()) {
+    }
+    EXPECT_EQ(2u, db.finishMergeDatabase(filename_sideload)->size());
+    EXPECT_EQ(2u, db.listRegions()->size());
+}
+
+TEST(OfflineDatabase, TEST_REQUIRES_WRITE(MergeDatabaseIncrementally_Resume)) {
+    deleteDatabaseFiles();
+    util::deleteFile(filename_sideload);
+    util::copyFile(filename_sideload, "test/fixtures/offline_database/sideload_sat.db");
+
+    {
+        OfflineDatabase db(filename, fixture::tileServerOptions);
+        auto chunk = db.mergeDatabaseChunk(filename_sideload, 100);
+        EXPECT_EQ(5u, chunk->mergedTileCount);
+        EXPECT_EQ(0u, chunk->mergedResourceCount);
+        EXPECT_FALSE(chunk->complete());
+    }
+
+    OfflineDatabase db(filename, fixture::tileServerOptions);
+    auto chunk = db.mergeDatabaseChunk(filename_sideload, 100);
+    EXPECT_EQ(5u, chunk->mergedTileCount);
+    EXPECT_EQ(100u, chunk->mergedResourceCount);
+    while (!chunk->complete()) {
+        chunk = db.mergeDatabaseChunk(filename_sideload, 100);
+        ASSERT_TRUE(chunk);
+    }
+
+    auto result = db.finishMergeDatabase(filename_sideload);
+    EXPECT_EQ(1u, result->size());
+    auto status = db.getRegionCompletedStatus(result->front().getID());
+    EXPECT_EQ(398u, status->completedResourceCount);
+    EXPECT_EQ(5u, status->completedTileCount);
+}
+
+TEST(OfflineDatabase, TEST_REQUIRES_WRITE(MergeDatabaseIncrementally_Checkpoint)) {
+    deleteDatabaseFiles();
+    util::deleteFile(filename_sideload);
+    util::copyFile(filename_sideload, "test/fixtures/offline_database/sideload_sat.db");
+
+    {
+        OfflineDatabase db(filename, fixture::tileServerOptions);
+        auto chunk = db.mergeDatabaseChunk(filename_sideload, 100);
+        EXPECT_EQ(5u, chunk->tileCount);
+        EXPECT_EQ(398u, chunk->resourceCount);
+    }
+    {
+        // The totals are counted when the merge starts, not for every chunk
+        mapbox::sqlite::Database db = mapbox::sqlite::Database::open(filename, mapbox::sqlite::ReadWriteCreate);
+        db.exec("UPDATE merge_checkpoints SET resource_total = 400");
+    }
+    {
+        OfflineDatabase db(filename, fixture::tileServerOptions);
+        auto chunk = db.mergeDatabaseChunk(filename_sideload, 100);
+        EXPECT_EQ(400u, chunk->resourceCount);
+        EXPECT_EQ(100u, chunk->mergedResourceCount);
+    }
+    {
+        // The checkpoint of another database at the same path
+        mapbox::sqlite::Database db = mapbox::sqlite::Database::open(filename, mapbox::sqlite::ReadWriteCreate);
+        db.exec("UPDATE merge_checkpoints SET resource_id = 1000000");
+    }
+
+    OfflineDatabase db(filename, fixture::tileServerOptions);
+    auto chunk = db.mergeDatabaseChunk(filename_sideload, 100);
+    EXPECT_EQ(398u, chunk->resourceCount);
+    EXPECT_EQ(5u, chunk->mergedTileCount);
+    EXPECT_EQ(0u, chunk->mergedResourceCount);
+}
+
+TEST(OfflineDatabase, MergeDatabaseIncrementallyTooManyNewTiles) {
+    FixtureLog log;
+    util::deleteFile(filename_sideload);
+    util::copyFile(filename_sideload, "test/fixtures/offline_database/sideload_sat_multiple.db");
+
+    OfflineDatabase db(":memory:", fixture::tileServerOptions);
+    db.setOfflineMapboxTileCountLimit(1);
+
+    auto result = db.mergeDatabaseChunk(filename_sideload, 50);
+    EXPECT_THROW(std::rethrow_exception(result.error()), MapboxTileLimitExceededException);
+    EXPECT_EQ(0u, db.listRegions()->size());
+    EXPECT_EQ(1u, log.count({EventSeverity::Error, Event::Database, -1, "Mapbox tile limit exceeded"}));
+    EXPECT_EQ(0u, log.uncheckedCount());
+}
+
 TEST(OfflineDatabase, ChangePath) {
     std::string newPath("test/fixtures/offline_database/test.db");
     OfflineDatabase db(":memory:", fixture::tileServerOptions);
@@ -18,6 +18,10 @@
 #include <mbgl/storage/sqlite3.hpp>
 #include <gtest/gtest.h>
 
+#include <algorithm>
+#include <map>
+#include <thread>
+
 using namespace mbgl;
 using namespace std::literals::string_literals;
 using mapbox::sqlite::ResultCode;
@@ -1160,3 +1164,228 @@ TEST(OfflineDownload, NoFreezingOnNotFoundError) {
     test.loop.run();
     // Passes if does not freeze.
 }
+
+namespace {
+
+// A style with a vector source on one host and a raster source on another
+Response twoHostStyle() {
+    Response response;
+    response.data = std::make_shared<std::string>(R"({
+        "version": 8,
+        "sources": {
+            "vector": { "type": "vector", "tiles": [ "http://a.example.com/{z}/{x}/{y}.pbf" ] },
+            "raster": { "type": "raster", "tiles": [ "http://b.example.com/{z}/{x}/{y}.png" ] }
+        },
+        "layers": []
+    })");
+    return response;
+}
+
+} // namespace
+
+TEST(OfflineDownload, LimitsConcurrentRequestsPerHost) {
+    OfflineTest test;
+    FakeOnlineFileSource fileSource;
+    auto region = test.createRegion();
+    ASSERT_TRUE(region);
+    OfflineDownload download(region->getID(),
+                             OfflineTilePyramidRegionDefinition(
+                                 "http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 2.0, 1.0, false),
+                             test.db,
+                             fileSource);
+
+    OfflineRegionDownloadOptions options;
+    options.maximumConcurrentRequestsPerHost = 2;
+    download.setOptions(options);
+    download.setObserver(std::make_unique<MockObserver>());
+    download.setState(OfflineRegionDownloadState::Active);
+    test.loop.runOnce();
+
+    fileSource.respond(Resource::Kind::Style, twoHostStyle());
+    test.loop.runOnce();
+
+    std::map<std::string, int> hosts;
+    for (const auto* request : fileSource.requests) {
+        hosts[request->resource.url.substr(0, request->resource.url.find(".example.com"))]++;
+    }
+    EXPECT_EQ(2u, hosts.size());
+    EXPECT_EQ(2, hosts["http://a"]);
+    EXPECT_EQ(2, hosts["http://b"]);
+
+    // A host goes on as soon as one of its requests is done
+    fileSource.respond(Resource::Kind::Tile, test.response("0-0-0.vector.pbf"));
+    test.loop.runOnce();
+    EXPECT_EQ(4u, fileSource.requests.size());
+}
+
+TEST(OfflineDownload, OrdersTilesByZoom) {
+    OfflineTest test;
+    auto region = test.createRegion();
+    ASSERT_TRUE(region);
+    OfflineDownload download(region->getID(),
+                             OfflineTilePyramidRegionDefinition(
+                                 "http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 2.0, 1.0, false),
+                             test.db,
+                             test.fileSource);
+
+    test.fileSource.setProperty(MAX_CONCURRENT_REQUESTS_KEY, 1u);
+    test.fileSource.styleResponse = [&](const Resource&) {
+        return twoHostStyle();
+    };
+
+    std::vector<uint8_t> zooms;
+    test.fileSource.tileResponse = [&](const Resource& resource) {
+        zooms.push_back(resource.tileData->z);
+        return test.response("0-0-0.vector.pbf");
+    };
+
+    OfflineRegionDownloadOptions options;
+    options.zoomOrdered = true;
+    download.setOptions(options);
+
+    auto observer = std::make_unique<MockObserver>();
+    observer->statusChangedFn = [&](OfflineRegionStatus status) {
+        if (status.complete()) {
+            test.loop.stop();
+        }
+    };
+    download.setObserver(std::move(observer));
+    download.setState(OfflineRegionDownloadState::Active);
+    test.loop.run();
+
+    // 1 + 4 + 16 tiles of each source
+    ASSERT_EQ(42u, zooms.size());
+    EXPECT_TRUE(std::is_sorted(zooms.begin(), zooms.end()));
+}
+
+TEST(OfflineDownload, ResumesFromCheckpoint) {
+    OfflineTest test;
+    auto region = test.createRegion();
+    ASSERT_TRUE(region);
+    OfflineDownload download(region->getID(),
+                             OfflineTilePyramidRegionDefinition(
+                                 "http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 1.0, 1.0, false),
+                             test.db,
+                             test.fileSource);
+
+    // The z0 tile and two z1 tiles were done before
+    test.db.putRegionCheckpoints(region->getID(),
+                                 {{"http://127.0.0.1:3000/{z}-{x}-{y}.vector.pbf", {5, 3, 3, 300}}});
+
+    test.fileSource.styleResponse = [&](const Resource&) {
+        return test.response("inline_source.style.json");
+    };
+
+    std::vector<uint8_t> zooms;
+    test.fileSource.tileResponse = [&](const Resource& resource) {
+        zooms.push_back(resource.tileData->z);
+        return test.response("0-0-0.vector.pbf");
+    };
+
+    OfflineRegionDownloadOptions options;
+    options.checkpoints = true;
+    download.setOptions(options);
+
+    auto observer = std::make_unique<MockObserver>();
+    observer->statusChangedFn = [&](OfflineRegionStatus status) {
+        if (status.complete()) {
+            EXPECT_EQ(5u, status.requiredTileCount);
+            EXPECT_EQ(5u, status.completedTileCount);
+            EXPECT_EQ(6u, status.completedResourceCount);
+            EXPECT_EQ(test.size + 300, status.completedResourceSize);
+            test.loop.stop();
+        }
+    };
+    download.setObserver(std::move(observer));
+    download.setState(OfflineRegionDownloadState::Active);
+    test.loop.run();
+
+    EXPECT_EQ(std::vector<uint8_t>({1, 1}), zooms);
+    // Removed once the download is complete
+    EXPECT_TRUE(test.db.getRegionCheckpoints(region->getID()).empty());
+}
+
+TEST(OfflineDownload, WritesCheckpointWhenDeactivated) {
+    OfflineTest test;
+    FakeOnlineFileSource fileSource;
+    auto region = test.createRegion();
+    ASSERT_TRUE(region);
+    OfflineDownload download(region->getID(),
+                             OfflineTilePyramidRegionDefinition(
+                                 "http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 1.0, 1.0, false),
+                             test.db,
+                             fileSource);
+
+    OfflineRegionDownloadOptions options;
+    options.checkpoints = true;
+    download.setOptions(options);
+    download.setObserver(std::make_unique<MockObserver>());
+    download.setState(OfflineRegionDownloadState::Active);
+    test.loop.runOnce();
+
+    fileSource.respond(Resource::Kind::Style, test.response("inline_source.style.json"));
+    test.loop.runOnce();
+
+    // The z0 tile is queued first and answered first
+    fileSource.respond(Resource::Kind::Tile, test.response("0-0-0.vector.pbf"));
+    download.setState(OfflineRegionDownloadState::Inactive);
+
+    auto checkpoints = test.db.getRegionCheckpoints(region->getID());
+    ASSERT_EQ(1u, checkpoints.size());
+    const auto& checkpoint = checkpoints["http://127.0.0.1:3000/{z}-{x}-{y}.vector.pbf"];
+    EXPECT_EQ(5u, checkpoint.tileTotal);
+    EXPECT_EQ(1u, checkpoint.position);
+    EXPECT_EQ(1u, checkpoint.tileCount);
+    EXPECT_LT(0u, checkpoint.tileSize);
+}
+
+TEST(OfflineDownload, MeasuresThroughput) {
+    OfflineTest test;
+    FakeOnlineFileSource fileSource;
+    auto region = test.createRegion();
+    ASSERT_TRUE(region);
+    OfflineDownload download(region->getID(),
+                             OfflineTilePyramidRegionDefinition(
+                                 "http://127.0.0.1:3000/style.json", LatLngBounds::world(), 0.0, 1.0, 1.0, false),
+                             test.db,
+                             fileSource);
+
+    std::optional<OfflineRegionStatus> last;
+    auto observer = std::make_unique<MockObserver>();
+    observer->statusChangedFn = [&](OfflineRegionStatus status) {
+        last = status;
+    };
+    download.setObserver(std::move(observer));
+    download.setState(OfflineRegionDownloadState::Active);
+    test.loop.runOnce();
+
+    fileSource.respond(Resource::Kind::Style, test.response("inline_source.style.json"));
+    test.loop.runOnce();
+    fileSource.respond(Resource::Kind::Tile, test.response("0-0-0.vector.pbf"));
+    test.loop.runOnce();
+
+    // Nothing is measured over less than a second
+    ASSERT_TRUE(last);
+    EXPECT_EQ(0, last->bytesPerSecond);
+    EXPECT_EQ(0, last->tilesPerSecond);
+    EXPECT_FALSE(last->estimatedTimeRemaining);
+
+    std::this_thread::sleep_for(Milliseconds(1100));
+    fileSource.respond(Resource::Kind::Tile, test.response("0-0-0.vector.pbf"));
+    test.loop.runOnce();
+
+    // Two tiles over more than a second
+    EXPECT_LT(0, last->bytesPerSecond);
+    EXPECT_LT(0, last->tilesPerSecond);
+    EXPECT_GT(2, last->tilesPerSecond);
+    ASSERT_TRUE(last->estimatedTimeRemaining);
+    EXPECT_LT(Seconds::zero(), *last->estimatedTimeRemaining);
+
+    for (int i = 0; i < 3; i++) {
+        fileSource.respond(Resource::Kind::Tile, test.response("0-0-0.vector.pbf"));
+        test.loop.runOnce();
+    }
+    ASSERT_TRUE(last->complete());
+    ASSERT_TRUE(last->estimatedTimeRemaining);
+    EXPECT_EQ(Seconds::zero(), *last->estimatedTimeRemaining);
+}
@@ -0,0 +1,80 @@
+#include <mbgl/test/util.hpp>
+
+#include <mbgl/style/conversion/geojson.hpp>
+
+#include <algorithm>
+#include <string>
+#include <string_view>
+
+using namespace mbgl;
+using namespace mbgl::style::conversion;
+
+namespace {
+
+const std::string collection = R"JSON({
+    "type": "FeatureCollection",
+    "features": [
+        { "type": "Feature", "id": "a", "properties": { "name": "first" },
+          "geometry": { "type": "Point", "coordinates": [10, 20] } },
+        { "type": "Feature", "id": 2, "properties": {},
+          "geometry": { "type": "LineString", "coordinates": [[0, 0], [1, 1]] } }
+    ]
+})JSON";
+
+// Reads the input in chunks of the size, each copied so no chunk outlives its read
+GeoJSONChunkReader chunkReader(const std::string& input, std::size_t size) {
+    auto offset = std::make_shared<std::size_t>(0);
+    auto chunk = std::make_shared<std::string>();
+    return [=]() {
+        *chunk = input.substr(*offset, size);
+        *offset += chunk->size();
+        return std::string_view(*chunk);
+    };
+}
+
+} // namespace
+
+TEST(GeoJSONConversion, ParsesChunks) {
+    Error stringError;
+    std::optional<GeoJSON> expected = parseGeoJSON(collection, stringError);
+    ASSERT_TRUE(expected);
+
+    for (std::size_t size : {1, 7, 64, 4096}) {
+        Error error;
+        std::optional<GeoJSON> converted = parseGeoJSON(chunkReader(collection, size), error);
+        ASSERT_TRUE(converted) << error.message;
+        EXPECT_EQ(*expected, *converted);
+    }
+}
+
+TEST(GeoJSONConversion, ChunkParseErrors) {
+    Error error;
+    EXPECT_FALSE(parseGeoJSON(chunkReader(collection.substr(0, collection.size() / 2), 16), error));
+    EXPECT_FALSE(error.message.empty());
+
+    Error emptyError;
+    EXPECT_FALSE(parseGeoJSON(chunkReader("", 16), emptyError));
+    EXPECT_FALSE(emptyError.message.empty());
+
+    // valid JSON, but not GeoJSON
+    Error typeError;
+    EXPECT_FALSE(parseGeoJSON(chunkReader(R"JSON({ "type": "Unknown" })JSON", 4), typeError));
+    EXPECT_FALSE(typeError.message.empty());
+}
+
+TEST(GeoJSONConversion, ChunkReadStopsAtEnd) {
+    std::size_t reads = 0;
+    std::string_view input = collection;
+    Error error;
+    parseGeoJSON(
+        [&]() {
+            reads++;
+            std::string_view chunk = input.substr(0, std::min<std::size_t>(input.size(), 100));
+            input.remove_prefix(chunk.size());
+            return chunk;
+        },
+        error);
+
+    // no read after the empty chunk
+    EXPECT_EQ((collection.size() + 99) / 100 + 1, reads);
+}
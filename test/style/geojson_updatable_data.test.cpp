@@ -0,0 +1,146 @@
+#include <mbgl/test/util.hpp>
+
+#include <mbgl/actor/scheduler.hpp>
+#include <mbgl/style/sources/geojson_source.hpp>
+#include <mbgl/util/constants.hpp>
+#include <mbgl/util/run_loop.hpp>
+
+#include <algorithm>
+#include <string>
+#include <utility>
+#include <vector>
+
+using namespace mbgl;
+using namespace mbgl::style;
+
+namespace {
+
+GeoJSONFeature point(const std::string& id, double longitude, double latitude) {
+    GeoJSONFeature feature{Point<double>(longitude, latitude)};
+    feature.id = id;
+    return feature;
+}
+
+std::vector<std::string> tileFeatureIDs(GeoJSONData& data, const CanonicalTileID& id) {
+    util::RunLoop loop;
+    std::vector<std::string> ids;
+    data.getTile(id, [&](const GeoJSONData::TileFeatures& features) {
+        for (const auto& feature : features) {
+            ids.push_back(*featureIDtoString(feature.id));
+        }
+        loop.stop();
+    });
+    loop.run();
+    std::sort(ids.begin(), ids.end());
+    return ids;
+}
+
+} // namespace
+
+TEST(GeoJSONUpdatableData, Update) {
+    auto data = GeoJSONData::createUpdatable(FeatureCollection{point("a", 0, 0), point("b", 10, 10)},
+                                             Scheduler::GetSequenced());
+
+    GeoJSONDiff diff;
+    diff.remove.emplace_back(std::string("a"));
+    diff.add.push_back(point("c", -60, -60));
+    diff.update.push_back(point("b", 60, 60));
+    // not in the data
+    diff.update.push_back(point("d", 30, 30));
+    auto updated = data->update(diff);
+
+    ASSERT_TRUE(updated);
+    EXPECT_EQ((std::vector<std::string>{"b", "c"}), tileFeatureIDs(*updated, {0, 0, 0}));
+    // the features moved to the north east and south west tiles
+    EXPECT_EQ((std::vector<std::string>{"b"}), tileFeatureIDs(*updated, {2, 2, 1}));
+    EXPECT_EQ((std::vector<std::string>{"c"}), tileFeatureIDs(*updated, {2, 1, 2}));
+}
+
+TEST(GeoJSONUpdatableData, TileRequestedAgainAfterUpdate) {
+    auto data = GeoJSONData::createUpdatable(FeatureCollection{point("a", -90, 0), point("b", 90, 0)},
+                                             Scheduler::GetSequenced());
+    const auto tilePoints = [](GeoJSONData& tileData) {
+        util::RunLoop loop;
+        std::vector<std::pair<std::string, Point<int16_t>>> points;
+        tileData.getTile({0, 0, 0}, [&](const GeoJSONData::TileFeatures& features) {
+            for (const auto& feature : features) {
+                points.emplace_back(*featureIDtoString(feature.id), feature.geometry.get<Point<int16_t>>());
+            }
+            loop.stop();
+        });
+        loop.run();
+        std::sort(points.begin(), points.end(), [](const auto& a, const auto& b) { return a.first < b.first; });
+        return points;
+    };
+    const auto before = tilePoints(*data);
+    ASSERT_EQ(2u, before.size());
+
+    GeoJSONDiff diff;
+    diff.update.push_back(point("a", 0, 0));
+    diff.add.push_back(point("c", 0, 60));
+    auto updated = data->update(diff);
+    ASSERT_TRUE(updated);
+
+    // the moved feature is cut again, the other one is kept
+    const auto after = tilePoints(*updated);
+    ASSERT_EQ(3u, after.size());
+    EXPECT_EQ("a", after[0].first);
+    EXPECT_EQ(Point<int16_t>(util::EXTENT / 2, util::EXTENT / 2), after[0].second);
+    EXPECT_EQ(before[1], after[1]);
+    EXPECT_EQ("c", after[2].first);
+
+    GeoJSONDiff removal;
+    removal.remove.emplace_back(std::string("b"));
+    auto removed = updated->update(removal);
+    ASSERT_TRUE(removed);
+    EXPECT_EQ((std::vector<std::string>{"a", "c"}), tileFeatureIDs(*removed, {0, 0, 0}));
+}
+
+TEST(GeoJSONUpdatableData, AddReplacesFeatureWithSameID) {
+    auto data = GeoJSONData::createUpdatable(FeatureCollection{point("a", 0, 0)}, Scheduler::GetSequenced());
+
+    GeoJSONDiff diff;
+    diff.add.push_back(point("a", 100, 50));
+    auto updated = data->update(diff);
+
+    ASSERT_TRUE(updated);
+    EXPECT_EQ((std::vector<std::string>{"a"}), tileFeatureIDs(*updated, {0, 0, 0}));
+    EXPECT_TRUE(tileFeatureIDs(*updated, {4, 8, 8}).empty());
+}
+
+TEST(GeoJSONUpdatableData, OnlyLatestDataUpdates) {
+    auto data = GeoJSONData::createUpdatable(FeatureCollection{point("a", 0, 0)}, Scheduler::GetSequenced());
+
+    GeoJSONDiff diff;
+    diff.add.push_back(point("b", 10, 10));
+    ASSERT_TRUE(data->update(diff));
+
+    EXPECT_FALSE(data->update(diff));
+    EXPECT_FALSE(GeoJSONData::create(FeatureCollection{}, Scheduler::GetSequenced())->update(diff));
+}
+
+TEST(GeoJSONUpdatableData, IsTileUnchanged) {
+    auto data = GeoJSONData::createUpdatable(FeatureCollection{point("a", 10, 10), point("b", -100, -50)},
+                                             Scheduler::GetSequenced());
+
+    GeoJSONDiff diff;
+    diff.update.push_back(point("a", 11, 11));
+    auto updated = data->update(diff);
+    ASSERT_TRUE(updated);
+
+    // the tiles of the moved feature
+    EXPECT_FALSE(updated->isTileUnchanged({0, 0, 0}, *data));
+    EXPECT_FALSE(updated->isTileUnchanged({4, 8, 7}, *data));
+    // far away
+    EXPECT_TRUE(updated->isTileUnchanged({4, 3, 10}, *data));
+
+    // the changes of skipped updates are kept
+    auto next = updated->update({});
+    ASSERT_TRUE(next);
+    EXPECT_FALSE(next->isTileUnchanged({4, 8, 7}, *data));
+    EXPECT_TRUE(next->isTileUnchanged({4, 8, 7}, *updated));
+
+    // unrelated data
+    auto other = GeoJSONData::create(FeatureCollection{}, Scheduler::GetSequenced());
+    EXPECT_FALSE(updated->isTileUnchanged({4, 3, 10}, *other));
+}